@@ -10,7 +10,8 @@ set -e
 
 # -- PASO 1: Probar y Empaquetar --
 echo "🧪 Ejecutando pruebas y empaquetando aplicación Java..."
-mvn clean package
+# Perfil "lambda": jar ligero sin Spring MVC/Tomcat (target/*-lambda.jar, el que usa terraform/lambda.tf)
+mvn clean package -Plambda
 # Si llegamos aquí, las pruebas pasaron y el empaquetado fue exitoso.
 echo "✅ Pruebas y empaquetado completados."
 
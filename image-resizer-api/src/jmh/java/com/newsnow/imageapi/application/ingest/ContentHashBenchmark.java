@@ -0,0 +1,61 @@
+package com.newsnow.imageapi.application.ingest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing de la ingesta: el MD5 solo (referencia) frente a la ingesta completa de un byte[]
+ * (MD5 + hash de deduplicación configurado + detección de formato).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentHashBenchmark {
+
+    @Param({"16384", "1048576", "8388608"})
+    public int size;
+
+    @Param({"md5", "sha-256", "xxh64"})
+    public String contentHash;
+
+    private byte[] content;
+    private ImageIngestor ingestor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        content = new byte[size];
+        new Random(42).nextBytes(content);
+        // Umbral de volcado por encima del mayor tamaño: se mide el hash, no el disco
+        ingestor = new ImageIngestor(Long.MAX_VALUE, Long.MAX_VALUE, contentHash);
+    }
+
+    @Benchmark
+    public String md5() {
+        ContentHash.Hasher hasher = ContentHash.MD5.newHasher();
+        hasher.update(content, 0, content.length);
+        return hasher.hexDigest();
+    }
+
+    @Benchmark
+    public String ingest() {
+        try (IngestedImage image = ingestor.ingest(content)) {
+            return image.getContentHash();
+        }
+    }
+}
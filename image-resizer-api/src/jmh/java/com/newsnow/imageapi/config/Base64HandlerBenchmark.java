@@ -0,0 +1,147 @@
+package com.newsnow.imageapi.config;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
+import com.newsnow.imageapi.application.dto.CreateTaskRequest;
+import com.newsnow.imageapi.application.dto.TaskImage;
+import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * POST /v1/task en el handler de Lambda sin el caso de uso: parseo del JSON, decodificación Base64 en streaming
+ * hacia la ingesta (hashes + formato) y serialización de la respuesta.
+ * decodeOnly es la referencia: Base64 a byte[] de una vez, sin hashes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base64HandlerBenchmark {
+
+    @Param({"65536", "1048576", "6291456"})
+    public int imageBytes;
+
+    private String imageBase64;
+    private Message<APIGatewayProxyRequestEvent> request;
+    private ImageIngestor ingestor;
+    private Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>> handler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+        imageBase64 = Base64.getEncoder().encodeToString(image);
+        request = MessageBuilder.withPayload(new APIGatewayProxyRequestEvent()
+                .withHttpMethod("POST")
+                .withPath("/v1/task")
+                .withBody("{\"imageData\":\"" + imageBase64 + "\",\"filename\":\"photo.jpg\",\"width\":150,\"height\":100}"))
+                .build();
+
+        // Por encima del mayor tamaño: sin volcado a disco ni 413
+        ingestor = new ImageIngestor(Long.MAX_VALUE, Long.MAX_VALUE, "md5");
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        handler = new FunctionConfiguration(new StubTaskUseCase(), objectMapper, ingestor, ProcessingMetrics.noop()).handleApiGatewayRequest();
+    }
+
+    @Benchmark
+    public Message<APIGatewayProxyResponseEvent> handler() {
+        return handler.apply(request);
+    }
+
+    @Benchmark
+    public String streamingIngest() throws IOException {
+        try (IngestedImage image = ingestor.ingest(Base64.getDecoder().wrap(
+                new ByteArrayInputStream(imageBase64.getBytes(StandardCharsets.ISO_8859_1))))) {
+            return image.getOriginalMD5();
+        }
+    }
+
+    @Benchmark
+    public byte[] decodeOnly() {
+        return Base64.getDecoder().decode(imageBase64);
+    }
+
+    // El caso de uso (resize, S3, DynamoDB) queda fuera: responde al momento con la imagen ya ingerida
+    private static final class StubTaskUseCase implements TaskUseCase {
+        private final UUID taskId = UUID.randomUUID();
+        private final OffsetDateTime timestamp = OffsetDateTime.now();
+
+        @Override
+        public TaskResponse createTask(CreateTaskRequest request) {
+            return new TaskResponse(taskId, timestamp, request.getIngestedImage().getOriginalMD5(),
+                    request.getTargetWidth() + "x" + request.getTargetHeight(), "https://cdn.example.com/processed/" + taskId + ".jpg");
+        }
+
+        @Override
+        public TaskResponse submitTask(CreateTaskRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TaskResponse enqueueTask(CreateTaskRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void processQueuedTask(WorkQueuePort.WorkItem item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BatchTaskResponse createTasks(CreateBatchTaskRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<TaskResponse> getTaskById(UUID taskId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<TaskImage> getTaskImage(UUID taskId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Optional<TaskResponse>> awaitTask(UUID taskId, Duration timeout) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.newsnow.imageapi.infrastructure.persistence;
+
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.model.Task;
+import com.newsnow.imageapi.domain.model.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Mapeo Task <-> item de DynamoDB: en cada escritura y en cada lectura de una tarea. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskItemMapperBenchmark {
+
+    private final DynamoDbTaskRepository.TaskDynamoDbItemMapper mapper = new DynamoDbTaskRepository.TaskDynamoDbItemMapper();
+    private Task task;
+    private Map<String, AttributeValue> item;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID taskId = UUID.randomUUID();
+        task = new Task(taskId, OffsetDateTime.now(), "9e107d9d372bb6826bd81d3542a419d6", "xxh64:44bc2cf5ad770999",
+                new ImageResolution(800, 600), TaskStatus.COMPLETED, "https://cdn.example.com/processed/" + taskId + ".jpg");
+        item = mapper.toItem(task);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> toItem() {
+        return mapper.toItem(task);
+    }
+
+    @Benchmark
+    public Task fromItem() {
+        return mapper.fromItem(item);
+    }
+
+    @Benchmark
+    public Task roundTrip() {
+        return mapper.fromItem(mapper.toItem(task));
+    }
+}
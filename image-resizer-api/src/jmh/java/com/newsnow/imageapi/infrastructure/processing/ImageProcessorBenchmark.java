@@ -0,0 +1,117 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redimensionado completo (decode + resample + encode) de cada ImageProcessorPort
+ * sobre una matriz de formato de origen x tamaño de origen x tamaño de destino.
+ * "cpu-bound" añade el salto al pool de CPU que se usa con hilos virtuales; "strip-parallel" reduce las imágenes
+ * de 4 MP o más en bandas paralelas (StripParallelResizerFactory).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageProcessorBenchmark {
+
+    @Param({"thumbnailator", "cpu-bound", "strip-parallel"})
+    public String processor;
+
+    @Param({"jpg", "png", "bmp"})
+    public String sourceFormat;
+
+    @Param({"640x480", "1920x1080", "4000x3000"})
+    public String sourceSize;
+
+    @Param({"150x100", "800x600"})
+    public String targetSize;
+
+    private ImageProcessorPort imageProcessor;
+    private StripParallelResizerFactory resizerFactory;
+    private ImageResolution targetResolution;
+    private byte[] sourceImage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ThumbnailatorImageProcessorAdapter thumbnailator = new ThumbnailatorImageProcessorAdapter();
+        imageProcessor = switch (processor) {
+            case "thumbnailator" -> thumbnailator;
+            case "cpu-bound" -> new CpuBoundImageProcessor(thumbnailator, Runtime.getRuntime().availableProcessors());
+            case "strip-parallel" -> {
+                resizerFactory = new StripParallelResizerFactory(4, 0, 64);
+                yield new ThumbnailatorImageProcessorAdapter(ProcessingMetrics.noop(), resizerFactory);
+            }
+            default -> throw new IllegalArgumentException("Unknown processor: " + processor);
+        };
+        targetResolution = parse(targetSize);
+        sourceImage = sampleImage(parse(sourceSize), sourceFormat);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (imageProcessor instanceof CpuBoundImageProcessor cpuBound) {
+            cpuBound.close();
+        }
+        if (resizerFactory != null) {
+            resizerFactory.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] resize() {
+        return imageProcessor.resizeImage(new ByteArrayInputStream(sourceImage), targetResolution);
+    }
+
+    private static ImageResolution parse(String size) {
+        String[] parts = size.split("x");
+        return new ImageResolution(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    // Degradado con ruido: se comprime como una foto (ni trivial como un color plano ni incompresible)
+    static byte[] sampleImage(ImageResolution size, String format) throws IOException {
+        BufferedImage image = new BufferedImage(size.getWidth(), size.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(30, 90, 160), size.getWidth(), size.getHeight(), new Color(230, 180, 60)));
+        graphics.fillRect(0, 0, size.getWidth(), size.getHeight());
+        graphics.dispose();
+        Random random = new Random(42);
+        for (int i = 0; i < size.getWidth() * size.getHeight() / 8; i++) {
+            int x = random.nextInt(size.getWidth());
+            int y = random.nextInt(size.getHeight());
+            image.setRGB(x, y, image.getRGB(x, y) ^ random.nextInt(0x1F1F1F));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, out)) {
+            throw new IllegalArgumentException("No ImageIO writer for " + format);
+        }
+        return out.toByteArray();
+    }
+}
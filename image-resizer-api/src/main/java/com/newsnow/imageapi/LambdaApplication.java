@@ -0,0 +1,162 @@
+package com.newsnow.imageapi;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.usecase.IdempotencyKeyRegistry;
+import com.newsnow.imageapi.application.usecase.ResizeCoalescer;
+import com.newsnow.imageapi.application.usecase.TaskBatchExecutor;
+import com.newsnow.imageapi.application.usecase.TaskCompletionRegistry;
+import com.newsnow.imageapi.application.usecase.TaskLaneScheduler;
+import com.newsnow.imageapi.application.usecase.TaskPipelineExecutor;
+import com.newsnow.imageapi.application.usecase.TaskPipelineStats;
+import com.newsnow.imageapi.application.usecase.TaskService;
+import com.newsnow.imageapi.config.FunctionConfiguration;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort;
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import com.newsnow.imageapi.infrastructure.config.AwsConfig;
+import com.newsnow.imageapi.infrastructure.config.ColdStartPrimer;
+import com.newsnow.imageapi.infrastructure.config.CracCheckpointHooks;
+import com.newsnow.imageapi.infrastructure.config.ProcessingConfig;
+import com.newsnow.imageapi.infrastructure.config.ReconnectableSdkHttpClient;
+import com.newsnow.imageapi.infrastructure.config.RenditionCacheConfig;
+import com.newsnow.imageapi.infrastructure.metrics.EmfMetricsPublisher;
+import com.newsnow.imageapi.infrastructure.persistence.DynamoDbTaskRepository;
+import com.newsnow.imageapi.infrastructure.processing.QualityTargetEncoder;
+import com.newsnow.imageapi.infrastructure.processing.StripParallelResizerFactory;
+import com.newsnow.imageapi.infrastructure.processing.ThumbnailatorImageProcessorAdapter;
+import com.newsnow.imageapi.infrastructure.queue.InMemoryWorkQueue;
+import com.newsnow.imageapi.infrastructure.storage.S3ImageStorageAdapter;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.cloud.function.context.FunctionRegistration;
+import org.springframework.cloud.function.context.FunctionalSpringApplication;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.Message;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.function.Function;
+
+/**
+ * Arranque ligero para AWS Lambda (perfil Maven "lambda", MAIN_CLASS de la función).
+ * FunctionInvoker detecta que es un ApplicationContextInitializer y arranca en modo funcional:
+ * sin escaneo de componentes, sin procesar @Configuration y sin autoconfiguración de Spring Boot.
+ * Los beans se registran aquí explícitamente; las clases anotadas reutilizan su inyección por constructor.
+ */
+public class LambdaApplication implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    public static final String HANDLER_NAME = "handleApiGatewayRequest";
+
+    static final ResolvableType HANDLER_TYPE = ResolvableType.forClassWithGenerics(Function.class,
+            ResolvableType.forClassWithGenerics(Message.class, APIGatewayProxyRequestEvent.class),
+            ResolvableType.forClassWithGenerics(Message.class, APIGatewayProxyResponseEvent.class));
+
+    public static void main(String[] args) {
+        FunctionalSpringApplication.run(LambdaApplication.class, args);
+    }
+
+    @Override
+    public void initialize(GenericApplicationContext context) {
+        Environment env = context.getEnvironment();
+
+        // Métricas por etapa: sin scrape posible, cada invocación las escribe en formato EMF en los logs
+        // (el registro de Micrometer queda vacío: no hay nada que agregar entre invocaciones)
+        context.registerBean(EmfMetricsPublisher.class);
+        context.registerBean(ProcessingMetrics.class, () -> {
+            ProcessingMetrics metrics = new ProcessingMetrics(new CompositeMeterRegistry());
+            if (env.getProperty("image-resizer.metrics.emf.enabled", Boolean.class, true)) {
+                metrics.addRecorder(context.getBean(EmfMetricsPublisher.class));
+            }
+            return metrics;
+        });
+
+        // Clientes AWS (los pools HTTP se cierran/reabren en el checkpoint de SnapStart)
+        context.registerBean(AwsConfig.class);
+        context.registerBean("s3HttpClient", ReconnectableSdkHttpClient.class,
+                () -> context.getBean(AwsConfig.class).s3HttpClient());
+        context.registerBean("dynamoDbHttpClient", ReconnectableSdkHttpClient.class,
+                () -> context.getBean(AwsConfig.class).dynamoDbHttpClient());
+        context.registerBean(S3Client.class, () -> context.getBean(AwsConfig.class)
+                .s3Client(context.getBean("s3HttpClient", SdkHttpClient.class)));
+        context.registerBean(DynamoDbClient.class, () -> context.getBean(AwsConfig.class)
+                .dynamoDbClient(context.getBean("dynamoDbHttpClient", SdkHttpClient.class)));
+
+        // Adaptadores de salida
+        context.registerBean(DynamoDbTaskRepository.class);
+        context.registerBean(S3ImageStorageAdapter.class);
+        context.registerBean(StripParallelResizerFactory.class);
+        context.registerBean(QualityTargetEncoder.class);
+        context.registerBean(ThumbnailatorImageProcessorAdapter.class);
+        context.registerBean("imageProcessorPort", ImageProcessorPort.class,
+                () -> new ProcessingConfig().imageProcessorPort(
+                        context.getBean(ThumbnailatorImageProcessorAdapter.class),
+                        env.getProperty("spring.threads.virtual.enabled", Boolean.class, false),
+                        env.getProperty("image-resizer.processing.cpu-threads", Integer.class, 0),
+                        env.getProperty("image-resizer.memory-budget.enabled", Boolean.class, true),
+                        env.getProperty("image-resizer.memory-budget.heap-fraction", Double.class, 0.5),
+                        env.getProperty("image-resizer.memory-budget.bytes-per-pixel", Integer.class, 4),
+                        env.getProperty("image-resizer.memory-budget.max-wait-ms", Long.class, 2000L),
+                        env.getProperty("image-resizer.memory-budget.retry-after-seconds", Long.class, 2L)),
+                definition -> definition.setPrimary(true));
+
+        context.registerBean(RenditionCachePort.class, () -> new RenditionCacheConfig().renditionCache(
+                env.getProperty("image-resizer.rendition-cache.enabled", Boolean.class, false),
+                env.getProperty("image-resizer.rendition-cache.offheap-max-bytes", Long.class, 64L * 1024 * 1024),
+                env.getProperty("image-resizer.rendition-cache.disk-max-bytes", Long.class, 512L * 1024 * 1024),
+                env.getProperty("image-resizer.rendition-cache.disk-dir", System.getProperty("java.io.tmpdir") + "/image-resizer-renditions")));
+
+        // Ingesta (hashes, formato y límite de tamaño en una sola pasada)
+        context.registerBean(ImageIngestor.class, () -> new ImageIngestor(
+                env.getProperty("image-resizer.ingest.spill-threshold-bytes", Long.class, 1048576L),
+                env.getProperty("image-resizer.ingest.max-bytes", Long.class, 26214400L),
+                env.getProperty("image-resizer.ingest.content-hash", "md5"),
+                context.getBean(ProcessingMetrics.class)));
+
+        // Casos de uso
+        // Una invocación = una petición: no hay colas que separar, los carriles se ejecutan en el hilo del handler
+        context.registerBean(TaskLaneScheduler.class, () -> new TaskLaneScheduler(Runnable::run,
+                env.getProperty("image-resizer.lanes.retry-after-seconds", Long.class, 5L),
+                context.getBean(ProcessingMetrics.class)));
+        context.registerBean(TaskBatchExecutor.class);
+        context.registerBean(TaskCompletionRegistry.class);
+        context.registerBean(IdempotencyKeyRegistry.class);
+        context.registerBean(ResizeCoalescer.class);
+        context.registerBean(TaskPipelineExecutor.class,
+                () -> new TaskPipelineExecutor(env.getProperty("image-resizer.pipeline.io-threads", Integer.class, 16)));
+        context.registerBean(TaskPipelineStats.class);
+        // El handler solo usa createTask (síncrono): la cola de trabajo no recibe nada, basta la mínima
+        context.registerBean(WorkQueuePort.class, () -> new InMemoryWorkQueue(1,
+                env.getProperty("image-resizer.queue.retry-after-seconds", Long.class, 5L)));
+        context.registerBean(TaskService.class);
+
+        // Mismo comportamiento de Jackson que la autoconfiguración de Spring Boot (fechas ISO-8601)
+        context.registerBean(ObjectMapper.class, () -> JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build());
+
+        // Handler de API Gateway: el bean Function (para inyectarlo) y su registro en el catálogo de funciones
+        context.registerBean(FunctionConfiguration.class);
+        context.registerBean(HANDLER_NAME, Function.class,
+                () -> context.getBean(FunctionConfiguration.class).handleApiGatewayRequest(),
+                definition -> ((RootBeanDefinition) definition).setTargetType(HANDLER_TYPE));
+        context.registerBean(HANDLER_NAME + "Registration", FunctionRegistration.class,
+                () -> new FunctionRegistration<>(context.getBean(HANDLER_NAME), HANDLER_NAME).type(HANDLER_TYPE.getType()));
+
+        // Arranque en frío
+        context.registerBean(ColdStartPrimer.class);
+        context.registerBean(CracCheckpointHooks.class);
+    }
+}
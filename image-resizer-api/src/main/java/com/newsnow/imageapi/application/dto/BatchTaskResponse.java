@@ -0,0 +1,29 @@
+package com.newsnow.imageapi.application.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTaskResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    // Resultado de una combinación (imagen, resolución) del lote
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int itemIndex;     // Posición de la imagen en el request
+        private String filename;
+        private String resolution; // Ancho x Alto solicitado
+        private TaskResponse task; // null si falló antes de crear la tarea
+        private String error;      // null si fue exitoso
+    }
+}
@@ -0,0 +1,45 @@
+package com.newsnow.imageapi.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.newsnow.imageapi.domain.model.Deadline;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateBatchTaskRequest {
+    private List<Item> items;
+    // Límite de tiempo de la petición (no forma parte del JSON); null = sin límite
+    @JsonIgnore
+    private Deadline deadline;
+
+    public CreateBatchTaskRequest(List<Item> items) {
+        this(items, null);
+    }
+
+    public Deadline getDeadline() {
+        return deadline != null ? deadline : Deadline.none();
+    }
+
+    // Una imagen del lote con una o varias resoluciones destino
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private byte[] imageData; // Jackson decodifica Base64 directamente a byte[]
+        private String filename;
+        private List<Resolution> resolutions;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resolution {
+        private int width;
+        private int height;
+    }
+}
@@ -1,5 +1,7 @@
 package com.newsnow.imageapi.application.dto;
 
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.domain.model.Deadline;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -13,4 +15,22 @@ public class CreateTaskRequest {
     private long imageContentLength;
     private int targetWidth;
     private int targetHeight;
-}
\ No newline at end of file
+    // Imagen ya ingerida (hash + formato calculados al leer); si está presente, sustituye a imageBytes
+    private IngestedImage ingestedImage;
+    // Cabecera Idempotency-Key (opcional): los reintentos con la misma clave devuelven la misma tarea
+    private String idempotencyKey;
+    // Límite de tiempo de la petición (Lambda Context o cabecera X-Request-Timeout-Ms); null = sin límite
+    private Deadline deadline;
+
+    public CreateTaskRequest(byte[] imageBytes, String originalFilename, long imageContentLength, int targetWidth, int targetHeight) {
+        this(imageBytes, originalFilename, imageContentLength, targetWidth, targetHeight, null, null, null);
+    }
+
+    public CreateTaskRequest(IngestedImage ingestedImage, String originalFilename, int targetWidth, int targetHeight) {
+        this(null, originalFilename, ingestedImage.getContentLength(), targetWidth, targetHeight, ingestedImage, null, null);
+    }
+
+    public Deadline getDeadline() {
+        return deadline != null ? deadline : Deadline.none();
+    }
+}
@@ -0,0 +1,14 @@
+package com.newsnow.imageapi.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Imagen procesada de una tarea, lista para servirse
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskImage {
+    private byte[] imageBytes;
+    private String contentType;
+}
@@ -16,4 +16,25 @@ public class TaskResponse {
     private String originalMD5;
     private String resolution;
     private String imageUrl;
+    private String status; // PENDING, PROCESSING, COMPLETED o FAILED
+    // Placeholder de la imagen procesada (solo en COMPLETED, si se generó)
+    private String blurHash;
+    private String placeholder; // Vista previa diminuta como data URI
+    // Codificación con calidad buscada (solo en COMPLETED y con image-resizer.encoding.target configurado)
+    private Float quality; // 0-1
+    private Double ssim; // Frente al ráster redimensionado, antes de codificar
+    private Integer encodeAttempts;
+
+    public TaskResponse(UUID taskId, OffsetDateTime timestamp, String originalMD5, String resolution, String imageUrl) {
+        this(taskId, timestamp, originalMD5, resolution, imageUrl, null);
+    }
+
+    public TaskResponse(UUID taskId, OffsetDateTime timestamp, String originalMD5, String resolution, String imageUrl, String status) {
+        this(taskId, timestamp, originalMD5, resolution, imageUrl, status, null, null);
+    }
+
+    public TaskResponse(UUID taskId, OffsetDateTime timestamp, String originalMD5, String resolution, String imageUrl, String status,
+                        String blurHash, String placeholder) {
+        this(taskId, timestamp, originalMD5, resolution, imageUrl, status, blurHash, placeholder, null, null, null);
+    }
 }
\ No newline at end of file
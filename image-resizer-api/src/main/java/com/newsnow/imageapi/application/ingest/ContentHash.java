@@ -0,0 +1,84 @@
+package com.newsnow.imageapi.application.ingest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Algoritmo del hash de deduplicación (image-resizer.ingest.content-hash): identifica el contenido original
+ * en la caché de renditions y en el single-flight de redimensionados.
+ * El MD5 se sigue calculando siempre para el campo originalMD5 de la API; con "md5" ambos son el mismo valor.
+ * Los demás llevan prefijo ("xxh64:...") para que un cambio de algoritmo nunca confunda claves antiguas.
+ */
+public enum ContentHash {
+    MD5("md5", ""),
+    // Resistente a colisiones: nadie puede fabricar otra imagen que comparta rendition
+    SHA_256("sha-256", "sha256:"),
+    // No criptográfico y mucho más rápido; apto cuando los originales no son adversarios
+    XXH64("xxh64", "xxh64:");
+
+    private final String propertyValue;
+    private final String prefix;
+
+    ContentHash(String propertyValue, String prefix) {
+        this.propertyValue = propertyValue;
+        this.prefix = prefix;
+    }
+
+    public String getPropertyValue() {
+        return propertyValue;
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
+    Hasher newHasher() {
+        return switch (this) {
+            case MD5 -> new DigestHasher("MD5");
+            case SHA_256 -> new DigestHasher("SHA-256");
+            case XXH64 -> new XxHash64();
+        };
+    }
+
+    /** Algoritmo a partir del valor de la propiedad ("md5", "sha-256", "xxh64"). */
+    public static ContentHash fromName(String name) {
+        String normalized = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        for (ContentHash hash : values()) {
+            if (hash.propertyValue.equals(normalized)) {
+                return hash;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content hash '" + name + "'. Expected one of: md5, sha-256, xxh64.");
+    }
+
+    // Hash incremental: se alimenta por bloques mientras se lee la imagen
+    interface Hasher {
+        void update(byte[] bytes, int offset, int length);
+
+        String hexDigest();
+    }
+
+    private static final class DigestHasher implements Hasher {
+        private final MessageDigest digest;
+
+        private DigestHasher(String algorithm) {
+            try {
+                this.digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(algorithm + " algorithm not found", e);
+            }
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            digest.update(bytes, offset, length);
+        }
+
+        @Override
+        public String hexDigest() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
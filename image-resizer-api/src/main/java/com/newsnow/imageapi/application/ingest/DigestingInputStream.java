@@ -0,0 +1,103 @@
+package com.newsnow.imageapi.application.ingest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream que, a medida que se lee, calcula el MD5 y el hash de deduplicación, captura la cabecera
+ * para detectar el formato y corta la lectura en cuanto se supera el tamaño máximo.
+ * Todo ocurre sobre los mismos bloques que consume el lector: ninguna pasada extra sobre la imagen.
+ */
+final class DigestingInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final ContentHash contentHash;
+    private final ContentHash.Hasher md5;
+    // null cuando el hash de deduplicación es el propio MD5
+    private final ContentHash.Hasher dedupHasher;
+
+    private final byte[] header = new byte[ImageFormat.HEADER_LENGTH];
+    // Buffer de read() byte a byte: reutilizado para no asignar un array por cada byte leído
+    private final byte[] single = new byte[1];
+    private int headerLength;
+    private long count;
+
+    DigestingInputStream(InputStream in, long maxBytes, ContentHash contentHash) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.contentHash = contentHash;
+        this.md5 = ContentHash.MD5.newHasher();
+        this.dedupHasher = contentHash == ContentHash.MD5 ? null : contentHash.newHasher();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            single[0] = (byte) b;
+            update(single, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            update(b, off, n);
+        }
+        return n;
+    }
+
+    // Saltar bytes los dejaría fuera del hash: se leen y se descartan
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] discard = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(discard, 0, (int) Math.min(discard.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /** Alimenta los hashes con bytes ya en memoria (misma contabilidad que una lectura). */
+    void update(byte[] b, int off, int len) {
+        count += len;
+        if (count > maxBytes) {
+            throw new ImageTooLargeException(maxBytes);
+        }
+        md5.update(b, off, len);
+        if (dedupHasher != null) {
+            dedupHasher.update(b, off, len);
+        }
+        if (headerLength < header.length) {
+            int n = Math.min(len, header.length - headerLength);
+            System.arraycopy(b, off, header, headerLength, n);
+            headerLength += n;
+        }
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    /** Cierra los hashes; solo se llama una vez, al terminar la lectura. */
+    Digests digests() {
+        String originalMD5 = md5.hexDigest();
+        String dedupKey = dedupHasher == null ? originalMD5 : contentHash.getPrefix() + dedupHasher.hexDigest();
+        return new Digests(originalMD5, dedupKey, ImageFormat.sniff(header, headerLength));
+    }
+
+    record Digests(String originalMD5, String contentHash, ImageFormat format) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.newsnow.imageapi.application.ingest;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Ancho y alto leídos de la cabecera de la imagen, sin decodificar píxeles.
+ * Basta con unos pocos bytes (PNG, GIF, BMP, WebP) o con recorrer los marcadores hasta el SOF (JPEG).
+ */
+public record ImageDimensions(int width, int height) {
+
+    // Un JPEG con EXIF/ICC grandes puede llevar el SOF bastante más adelante; más allá se desiste
+    private static final int MAX_JPEG_SCAN_BYTES = 1024 * 1024;
+
+    /** Bytes que puede llegar a leer {@link #read(ImageFormat, InputStream)} (el último segmento JPEG ocupa hasta 64 KiB). */
+    public static final int MAX_HEADER_BYTES = MAX_JPEG_SCAN_BYTES + 0x10000 + 16;
+
+    public long pixelCount() {
+        return (long) width * height;
+    }
+
+    /** Dimensiones de la imagen ingerida; vacío si el formato no se reconoce o la cabecera no es válida. */
+    public static Optional<ImageDimensions> read(IngestedImage image) {
+        try (InputStream in = image.openStream()) {
+            return read(image.getFormat(), in);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Dimensiones leídas desde el principio de {@code stream}, que no se cierra (se consume como mucho
+     * hasta {@link #MAX_HEADER_BYTES}); vacío si el formato no se reconoce o la cabecera no es válida.
+     */
+    public static Optional<ImageDimensions> read(ImageFormat format, InputStream stream) {
+        try {
+            DataInputStream in = new DataInputStream(stream);
+            ImageDimensions dimensions = switch (format) {
+                case PNG -> png(in);
+                case GIF -> gif(in);
+                case BMP -> bmp(in);
+                case WEBP -> webp(in);
+                case JPEG -> jpeg(in);
+                // TIFF guarda las dimensiones en un IFD en cualquier posición del fichero
+                case TIFF, UNKNOWN -> null;
+            };
+            return Optional.ofNullable(dimensions).filter(d -> d.width > 0 && d.height > 0);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Firma (8) + longitud (4) + "IHDR" (4) + ancho y alto big-endian
+    private static ImageDimensions png(DataInputStream in) throws IOException {
+        in.skipNBytes(16);
+        return new ImageDimensions(in.readInt(), in.readInt());
+    }
+
+    // "GIF89a" + ancho y alto de la pantalla lógica (16 bits little-endian)
+    private static ImageDimensions gif(DataInputStream in) throws IOException {
+        in.skipNBytes(6);
+        return new ImageDimensions(le16(in), le16(in));
+    }
+
+    // Cabecera de fichero (14) + tamaño del DIB (4) + ancho y alto (32 bits little-endian; alto negativo = top-down)
+    private static ImageDimensions bmp(DataInputStream in) throws IOException {
+        in.skipNBytes(18);
+        return new ImageDimensions(le32(in), Math.abs(le32(in)));
+    }
+
+    // RIFF....WEBP + primer chunk: VP8 (con pérdida), VP8L (sin pérdida) o VP8X (extendido)
+    private static ImageDimensions webp(DataInputStream in) throws IOException {
+        in.skipNBytes(12);
+        byte[] chunk = new byte[4];
+        in.readFully(chunk);
+        String type = new String(chunk, StandardCharsets.US_ASCII);
+        in.skipNBytes(4); // tamaño del chunk
+        return switch (type) {
+            case "VP8 " -> {
+                in.skipNBytes(6); // frame tag (3) + código de inicio 9d 01 2a (3)
+                yield new ImageDimensions(le16(in) & 0x3FFF, le16(in) & 0x3FFF);
+            }
+            case "VP8L" -> {
+                in.skipNBytes(1); // firma 0x2f
+                int bits = le32(in);
+                yield new ImageDimensions((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+            }
+            case "VP8X" -> {
+                in.skipNBytes(4); // flags + reservado
+                yield new ImageDimensions(le24(in) + 1, le24(in) + 1);
+            }
+            default -> null;
+        };
+    }
+
+    // Recorre los segmentos hasta el primer SOFn (salvo DHT, JPG y DAC, que comparten rango)
+    private static ImageDimensions jpeg(DataInputStream in) throws IOException {
+        in.skipNBytes(2); // SOI
+        long scanned = 2;
+        while (scanned < MAX_JPEG_SCAN_BYTES) {
+            if (in.readUnsignedByte() != 0xFF) {
+                return null;
+            }
+            int marker = in.readUnsignedByte();
+            scanned += 2;
+            while (marker == 0xFF) { // bytes de relleno
+                marker = in.readUnsignedByte();
+                scanned++;
+            }
+            if (marker == 0xD8 || marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue; // marcadores sin longitud
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                return null; // fin de imagen o datos comprimidos sin haber visto un SOF
+            }
+            int length = in.readUnsignedShort();
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                in.skipNBytes(1); // precisión
+                int height = in.readUnsignedShort();
+                int width = in.readUnsignedShort();
+                return new ImageDimensions(width, height);
+            }
+            if (length < 2) {
+                return null;
+            }
+            in.skipNBytes(length - 2);
+            scanned += length;
+        }
+        return null;
+    }
+
+    private static int le16(InputStream in) throws IOException {
+        return read(in) | read(in) << 8;
+    }
+
+    private static int le24(InputStream in) throws IOException {
+        return read(in) | read(in) << 8 | read(in) << 16;
+    }
+
+    private static int le32(InputStream in) throws IOException {
+        return read(in) | read(in) << 8 | read(in) << 16 | read(in) << 24;
+    }
+
+    private static int read(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
@@ -0,0 +1,80 @@
+package com.newsnow.imageapi.application.ingest;
+
+import java.util.Locale;
+
+/**
+ * Formatos de imagen reconocibles a partir de sus "magic bytes".
+ * Se detectan sobre la cabecera capturada durante la ingesta, sin una pasada extra.
+ */
+public enum ImageFormat {
+    JPEG(".jpg", "image/jpeg"),
+    PNG(".png", "image/png"),
+    GIF(".gif", "image/gif"),
+    BMP(".bmp", "image/bmp"),
+    WEBP(".webp", "image/webp"),
+    TIFF(".tiff", "image/tiff"),
+    UNKNOWN(".tmp", "application/octet-stream");
+
+    // Bytes de cabecera necesarios para reconocer cualquiera de los formatos (RIFF....WEBP)
+    public static final int HEADER_LENGTH = 12;
+
+    private final String extension;
+    private final String contentType;
+
+    ImageFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /** Formato correspondiente a una extensión de fichero (".jpg", ".JPEG", ".tif"...). */
+    public static ImageFormat fromExtension(String extension) {
+        String normalized = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case ".jpg", ".jpeg" -> JPEG;
+            case ".png" -> PNG;
+            case ".gif" -> GIF;
+            case ".bmp" -> BMP;
+            case ".webp" -> WEBP;
+            case ".tif", ".tiff" -> TIFF;
+            default -> UNKNOWN;
+        };
+    }
+
+    /** Detecta el formato a partir de los primeros bytes del fichero. */
+    public static ImageFormat sniff(byte[] header, int length) {
+        if (length >= 3 && u(header[0]) == 0xFF && u(header[1]) == 0xD8 && u(header[2]) == 0xFF) {
+            return JPEG;
+        }
+        if (length >= 8 && u(header[0]) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return PNG;
+        }
+        if (length >= 4 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return GIF;
+        }
+        if (length >= 2 && header[0] == 'B' && header[1] == 'M') {
+            return BMP;
+        }
+        if (length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return WEBP;
+        }
+        if (length >= 4 && ((header[0] == 'I' && header[1] == 'I' && header[2] == 42 && header[3] == 0)
+                || (header[0] == 'M' && header[1] == 'M' && header[2] == 0 && header[3] == 42))) {
+            return TIFF;
+        }
+        return UNKNOWN;
+    }
+
+    private static int u(byte b) {
+        return b & 0xFF;
+    }
+}
@@ -0,0 +1,166 @@
+package com.newsnow.imageapi.application.ingest;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee el stream de la imagen original en una única pasada:
+ * calcula el MD5 y el hash de deduplicación, captura la cabecera para detectar el formato, aplica el tamaño máximo
+ * y guarda el contenido en el heap o, por encima del umbral, en un fichero temporal que después se mapea en memoria.
+ * Esa pasada es la etapa "hash" de ProcessingMetrics (incluye la lectura del origen, que es la misma).
+ */
+@Component
+public class ImageIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageIngestor.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final long spillThresholdBytes;
+    private final long maxBytes;
+    private final ContentHash contentHash;
+    private final ProcessingMetrics processingMetrics;
+
+    @Autowired
+    public ImageIngestor(@Value("${image-resizer.ingest.spill-threshold-bytes:1048576}") long spillThresholdBytes,
+                         @Value("${image-resizer.ingest.max-bytes:26214400}") long maxBytes,
+                         @Value("${image-resizer.ingest.content-hash:md5}") String contentHash,
+                         ProcessingMetrics processingMetrics) {
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.maxBytes = maxBytes;
+        this.contentHash = ContentHash.fromName(contentHash);
+        this.processingMetrics = processingMetrics;
+    }
+
+    public ImageIngestor(long spillThresholdBytes, long maxBytes, String contentHash) {
+        this(spillThresholdBytes, maxBytes, contentHash, ProcessingMetrics.noop());
+    }
+
+    // Sin límite de tamaño y con MD5 como hash de deduplicación
+    public ImageIngestor(long spillThresholdBytes) {
+        this(spillThresholdBytes, Long.MAX_VALUE, ContentHash.MD5.getPropertyValue());
+    }
+
+    /**
+     * Imagen que ya está entera en memoria (p.ej. decodificada por Jackson): una sola pasada para hashes,
+     * formato y límite, y el array se envuelve tal cual, sin copiarlo.
+     */
+    public IngestedImage ingest(byte[] bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Image bytes cannot be null.");
+        }
+        if (bytes.length > maxBytes) {
+            throw new ImageTooLargeException(maxBytes);
+        }
+        long start = System.nanoTime();
+        DigestingInputStream digesting = new DigestingInputStream(InputStream.nullInputStream(), maxBytes, contentHash);
+        digesting.update(bytes, 0, bytes.length);
+        DigestingInputStream.Digests digests = digesting.digests();
+        recordHash(digests, bytes.length, start);
+        return IngestedImage.onHeap(digests, bytes, bytes.length);
+    }
+
+    public IngestedImage ingest(InputStream source) throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("Image stream cannot be null.");
+        }
+        long start = System.nanoTime();
+        HeapBuffer heap = new HeapBuffer();
+        Path spillFile = null;
+        OutputStream spillOut = null;
+        long total = 0;
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        // Los hashes, la cabecera y el límite se actualizan dentro del propio read()
+        DigestingInputStream in = new DigestingInputStream(source, maxBytes, contentHash);
+        try (in) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+
+                if (spillOut == null && total > spillThresholdBytes) {
+                    // Superado el umbral: volcamos lo acumulado a disco y seguimos escribiendo allí
+                    spillFile = Files.createTempFile("image-ingest-", ".bin");
+                    spillOut = Files.newOutputStream(spillFile, StandardOpenOption.WRITE);
+                    heap.writeTo(spillOut);
+                    heap = null;
+                }
+                if (spillOut != null) {
+                    spillOut.write(buffer, 0, read);
+                } else {
+                    heap.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(spillOut);
+            deleteQuietly(spillFile);
+            throw e;
+        }
+
+        DigestingInputStream.Digests digests = in.digests();
+        if (spillOut == null) {
+            recordHash(digests, total, start);
+            return IngestedImage.onHeap(digests, heap.array(), heap.size());
+        }
+
+        try {
+            spillOut.close();
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                recordHash(digests, total, start);
+                long spilled = mapped.capacity();
+                processingMetrics.spilled(spilled);
+                return IngestedImage.mapped(digests, mapped, spillFile, () -> processingMetrics.spillReleased(spilled));
+            }
+        } catch (IOException e) {
+            deleteQuietly(spillFile);
+            throw e;
+        }
+    }
+
+    private void recordHash(DigestingInputStream.Digests digests, long bytes, long startNanos) {
+        processingMetrics.record(ProcessingMetrics.Stage.HASH, ProcessingMetrics.format(digests.format()), bytes,
+                System.nanoTime() - startNanos);
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // El error original es el relevante
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete ingest spill file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    // ByteArrayOutputStream que expone su array interno para no copiarlo al final
+    private static final class HeapBuffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.newsnow.imageapi.application.ingest;
+
+import lombok.Getter;
+
+/**
+ * La imagen original supera image-resizer.ingest.max-bytes.
+ * Se detecta durante la lectura (sin llegar a almacenar el resto) y se traduce a 413 Payload Too Large.
+ */
+@Getter
+public class ImageTooLargeException extends RuntimeException {
+
+    private final long maxBytes;
+
+    public ImageTooLargeException(long maxBytes) {
+        super("Image exceeds the maximum allowed size of " + maxBytes + " bytes.");
+        this.maxBytes = maxBytes;
+    }
+}
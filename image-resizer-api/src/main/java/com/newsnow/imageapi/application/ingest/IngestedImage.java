@@ -0,0 +1,131 @@
+package com.newsnow.imageapi.application.ingest;
+
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imagen original ya leída UNA VEZ desde la petición.
+ * Vive en el heap (imágenes pequeñas) o en un fichero temporal mapeado en memoria (imágenes grandes),
+ * de modo que el procesador puede abrir tantos streams como necesite sin copiar los bytes.
+ */
+public class IngestedImage implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestedImage.class);
+
+    @Getter
+    private final String originalMD5;
+    // Clave de deduplicación (caché de renditions, single-flight); igual a originalMD5 con el hash "md5"
+    @Getter
+    private final String contentHash;
+    @Getter
+    private final long contentLength;
+    @Getter
+    private final ImageFormat format;
+
+    // Solo uno de los dos respaldos está presente
+    private final byte[] heapBuffer;
+    private final MappedByteBuffer mappedBuffer;
+    private final Path spillFile;
+    // Se ejecuta una sola vez al cerrar (p.ej. descontar los bytes volcados de las métricas)
+    private final AtomicReference<Runnable> onClose;
+
+    private IngestedImage(DigestingInputStream.Digests digests, long contentLength,
+                          byte[] heapBuffer, MappedByteBuffer mappedBuffer, Path spillFile, Runnable onClose) {
+        this.originalMD5 = digests.originalMD5();
+        this.contentHash = digests.contentHash();
+        this.contentLength = contentLength;
+        this.format = digests.format();
+        this.heapBuffer = heapBuffer;
+        this.mappedBuffer = mappedBuffer;
+        this.spillFile = spillFile;
+        this.onClose = new AtomicReference<>(onClose);
+    }
+
+    static IngestedImage onHeap(DigestingInputStream.Digests digests, byte[] buffer, int length) {
+        return new IngestedImage(digests, length, buffer, null, null, null);
+    }
+
+    static IngestedImage mapped(DigestingInputStream.Digests digests, MappedByteBuffer buffer, Path spillFile, Runnable onClose) {
+        return new IngestedImage(digests, buffer.capacity(), null, buffer, spillFile, onClose);
+    }
+
+    public boolean isSpilledToDisk() {
+        return spillFile != null;
+    }
+
+    Path getSpillFile() {
+        return spillFile;
+    }
+
+    /** Abre un stream nuevo e independiente sobre el contenido (sin copias). */
+    public InputStream openStream() {
+        if (mappedBuffer != null) {
+            return new ByteBufferInputStream(mappedBuffer.duplicate());
+        }
+        return new ByteArrayInputStream(heapBuffer, 0, (int) contentLength);
+    }
+
+    @Override
+    public void close() {
+        Runnable hook = onClose.getAndSet(null);
+        if (hook != null) {
+            hook.run();
+        }
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                log.warn("Could not delete ingest spill file {}: {}", spillFile, e.getMessage());
+            }
+        }
+    }
+
+    // InputStream de solo lectura sobre un ByteBuffer (posición propia por stream)
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.newsnow.imageapi.application.metrics;
+
+import com.newsnow.imageapi.application.ingest.ImageFormat;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Histogramas de latencia por etapa (hash, sondeo de cabecera, decode, resize, encode, S3, DynamoDB y el overhead
+ * del handler de Lambda), etiquetados con el formato de la imagen y su tramo de tamaño, más los bytes de cada etapa.
+ * En el despliegue Spring Boot se publican en /actuator/prometheus; en Lambda no hay scrape y cada medición
+ * se reenvía además a los {@link Recorder} registrados (formato EMF en los logs), que se vacían al final de cada invocación.
+ */
+@Component
+public class ProcessingMetrics {
+
+    public enum Stage {
+        // Lectura de la imagen original con MD5, hash de deduplicación y formato en la misma pasada
+        HASH,
+        // Dimensiones leídas de la cabecera para elegir el carril
+        HEADER_PROBE,
+        // Espera en la cola del carril hasta tener hilo para decodificar
+        LANE_QUEUE,
+        DECODE,
+        RESIZE,
+        // BlurHash y vista previa a partir del ráster redimensionado (solo si se piden)
+        PLACEHOLDER,
+        ENCODE,
+        S3_PUT,
+        DYNAMODB_PUT,
+        DYNAMODB_GET,
+        // Tiempo del handler de Lambda fuera del caso de uso (routing, JSON, Base64, respuesta)
+        HANDLER_OVERHEAD;
+
+        public String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** Valor de las etiquetas que no aplican a la etapa (p.ej. el formato de una escritura en DynamoDB). */
+    public static final String NONE = "none";
+
+    static final String STAGE_TIMER = "image_resizer.stage";
+    static final String STAGE_BYTES = "image_resizer.stage.bytes";
+    static final String LANE_QUEUE_TIMER = "image_resizer.lane.queue";
+
+    /** Recibe cada medición tal cual (sin agregar); flush() se llama al final de cada invocación del handler. */
+    public interface Recorder {
+        void record(Stage stage, String format, String sizeBucket, long nanos, long bytes);
+
+        default void flush() {
+        }
+
+        /** Descarta lo acumulado sin publicarlo. */
+        default void discard() {
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    // Timer + DistributionSummary por combinación de etiquetas: el builder de Micrometer no se repite en cada medición
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final Map<String, Timer> laneQueueTimers = new ConcurrentHashMap<>();
+
+    // Bytes comprimidos de las imágenes que se están decodificando/redimensionando/codificando ahora mismo
+    private final AtomicLong processingBytes = new AtomicLong();
+    // Bytes de las imágenes originales volcadas a ficheros temporales mapeados (aún no cerradas)
+    private final AtomicLong spilledBytes = new AtomicLong();
+
+    @Autowired
+    public ProcessingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("image_resizer.processing.bytes", processingBytes, AtomicLong::get)
+                .description("Compressed bytes of the images currently being decoded, resized or encoded")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("image_resizer.ingest.spilled.bytes", spilledBytes, AtomicLong::get)
+                .description("Bytes of original images held in memory-mapped spill files")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /** Sin registro real (tests, constructores secundarios de los adaptadores). */
+    public static ProcessingMetrics noop() {
+        return new ProcessingMetrics(new CompositeMeterRegistry());
+    }
+
+    public void addRecorder(Recorder recorder) {
+        recorders.add(recorder);
+    }
+
+    /**
+     * Registra una medición. bytes < 0 si no se conoce el tamaño (la etiqueta de tramo queda en "none").
+     */
+    public void record(Stage stage, String format, long bytes, long nanos) {
+        String sizeBucket = sizeBucket(bytes);
+        Series meters = series.computeIfAbsent(new SeriesKey(stage, format, sizeBucket), this::newSeries);
+        meters.timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (bytes >= 0) {
+            meters.bytes.record(bytes);
+        }
+        for (Recorder recorder : recorders) {
+            recorder.record(stage, format, sizeBucket, nanos, bytes);
+        }
+    }
+
+    public <T> T time(Stage stage, String format, long bytes, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, format, bytes, System.nanoTime() - start);
+        }
+    }
+
+    /** Vacía los Recorder (Lambda: antes de devolver la respuesta, el entorno se congela después). */
+    public void flush() {
+        for (Recorder recorder : recorders) {
+            recorder.flush();
+        }
+    }
+
+    /** Descarta lo acumulado en los Recorder (mediciones del priming de arranque, que no son tráfico real). */
+    public void discardPending() {
+        for (Recorder recorder : recorders) {
+            recorder.discard();
+        }
+    }
+
+    /** Tareas en cola y en curso de un carril de tamaño (TaskLaneScheduler). */
+    public void registerLane(String lane, Supplier<Number> queued, Supplier<Number> active) {
+        Gauge.builder("image_resizer.lane.queued", queued)
+                .description("Tasks waiting in the queue of a size lane")
+                .tag("lane", lane)
+                .register(registry);
+        Gauge.builder("image_resizer.lane.active", active)
+                .description("Tasks running on the threads of a size lane")
+                .tag("lane", lane)
+                .register(registry);
+    }
+
+    /**
+     * Tiempo en la cola de un carril: un timer por carril y, como etapa lane_queue con formato y tramo,
+     * junto al resto de etapas (también en los Recorder).
+     */
+    public void recordLaneQueue(String lane, String format, long bytes, long nanos) {
+        laneQueueTimers.computeIfAbsent(lane, this::newLaneQueueTimer).record(nanos, TimeUnit.NANOSECONDS);
+        record(Stage.LANE_QUEUE, format, bytes, nanos);
+    }
+
+    public void processingStarted(long bytes) {
+        processingBytes.addAndGet(bytes);
+    }
+
+    public void processingFinished(long bytes) {
+        processingBytes.addAndGet(-bytes);
+    }
+
+    public void spilled(long bytes) {
+        spilledBytes.addAndGet(bytes);
+    }
+
+    public void spillReleased(long bytes) {
+        spilledBytes.addAndGet(-bytes);
+    }
+
+    /** Etiqueta de formato: el detectado en la ingesta, o "none" si no aplica. */
+    public static String format(ImageFormat format) {
+        return format == null ? NONE : format.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Etiqueta de formato a partir del nombre de ImageIO ("JPEG", "png"...) o de una extensión (".jpg"). */
+    public static String format(String formatNameOrExtension) {
+        if (formatNameOrExtension == null || formatNameOrExtension.isBlank()) {
+            return NONE;
+        }
+        String extension = formatNameOrExtension.startsWith(".") ? formatNameOrExtension : "." + formatNameOrExtension;
+        return format(ImageFormat.fromExtension(extension));
+    }
+
+    /** Tramos de tamaño: pocas series por etapa y formato, y aun así separan miniaturas de fotos y pósteres. */
+    public static String sizeBucket(long bytes) {
+        if (bytes < 0) {
+            return NONE;
+        }
+        if (bytes < 64 * 1024) {
+            return "lt_64k";
+        }
+        if (bytes < 1024 * 1024) {
+            return "64k_1m";
+        }
+        return bytes < 8 * 1024 * 1024 ? "1m_8m" : "gt_8m";
+    }
+
+    private Series newSeries(SeriesKey key) {
+        Timer timer = Timer.builder(STAGE_TIMER)
+                .description("Latency of each image processing stage")
+                .tag("stage", key.stage().tagValue())
+                .tag("format", key.format())
+                .tag("size", key.sizeBucket())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        DistributionSummary bytes = DistributionSummary.builder(STAGE_BYTES)
+                .description("Bytes handled by each image processing stage")
+                .baseUnit("bytes")
+                .tag("stage", key.stage().tagValue())
+                .tag("format", key.format())
+                .tag("size", key.sizeBucket())
+                .register(registry);
+        return new Series(timer, bytes);
+    }
+
+    private Timer newLaneQueueTimer(String lane) {
+        return Timer.builder(LANE_QUEUE_TIMER)
+                .description("Time tasks wait in the queue of a size lane")
+                .tag("lane", lane)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private record SeriesKey(Stage stage, String format, String sizeBucket) {
+    }
+
+    private record Series(Timer timer, DistributionSummary bytes) {
+    }
+}
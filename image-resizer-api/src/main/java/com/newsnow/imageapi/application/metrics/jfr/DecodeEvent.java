@@ -0,0 +1,27 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(DecodeEvent.NAME)
+@Label("Image Decode")
+@Description("Read and decode of the original image")
+public class DecodeEvent extends ImagePipelineEvent {
+
+    public static final String NAME = "ImageResizer.Decode";
+
+    @Label("Format")
+    public String format;
+
+    @Label("Input Size")
+    @DataAmount
+    public long inputBytes;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,27 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(EncodeEvent.NAME)
+@Label("Image Encode")
+@Description("Encode and write of the resized image")
+public class EncodeEvent extends ImagePipelineEvent {
+
+    public static final String NAME = "ImageResizer.Encode";
+
+    @Label("Format")
+    public String format;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Output Size")
+    @DataAmount
+    public long outputBytes;
+}
@@ -0,0 +1,90 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Base de los eventos JFR del pipeline: ID de la tarea y bytes asignados en el heap por el hilo durante el evento.
+ * Con el evento deshabilitado (lo normal sin grabación) {@link #beginStage()} y {@link #endStage()} no hacen nada.
+ * Los umbrales recomendados están en el perfil jfr/image-resizer.jfc.
+ *
+ * Uso:
+ * <pre>
+ * DecodeEvent event = new DecodeEvent();
+ * event.beginStage();
+ * ... trabajo ...
+ * if (event.endStage()) {
+ *     event.width = ...;
+ *     event.commit();
+ * }
+ * </pre>
+ */
+@Category({"Image Resizer", "Pipeline"})
+@StackTrace(false)
+public abstract class ImagePipelineEvent extends Event {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    @Label("Task ID")
+    public String taskId;
+
+    @Label("Allocated")
+    @Description("Heap bytes allocated by this thread during the event (-1 if unsupported, e.g. on virtual threads)")
+    @DataAmount
+    public long allocatedBytes;
+
+    private transient long allocatedAtBegin;
+
+    /** Empieza el evento con el ID de tarea del hilo y su contador de asignación. */
+    public final void beginStage() {
+        if (isEnabled()) {
+            taskId = TaskEventContext.currentTaskId();
+            allocatedAtBegin = allocatedByCurrentThread();
+            begin();
+        }
+    }
+
+    /** Cierra el evento; true si supera el umbral de la grabación y hay que rellenarlo y llamar a commit(). */
+    public final boolean endStage() {
+        if (!isEnabled()) {
+            return false;
+        }
+        end();
+        if (!shouldCommit()) {
+            return false;
+        }
+        long allocated = allocatedByCurrentThread();
+        allocatedBytes = allocated < 0 || allocatedAtBegin < 0 ? -1 : allocated - allocatedAtBegin;
+        return true;
+    }
+
+    static long allocatedByCurrentThread() {
+        if (THREADS == null) {
+            return -1;
+        }
+        try {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    // La extensión de HotSpot; en native image (o si no está soportado) no hay contador por hilo
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            if (!hotspot.isThreadAllocatedMemoryEnabled()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+            }
+            return hotspot;
+        }
+        return null;
+    }
+}
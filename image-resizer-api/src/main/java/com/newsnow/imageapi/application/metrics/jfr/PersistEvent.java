@@ -0,0 +1,32 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Lectura o escritura de tareas en el repositorio. En las escrituras por lotes taskId queda vacío. */
+@Name(PersistEvent.NAME)
+@Label("Task Persist")
+@Description("Read or write of task state in the task repository")
+public class PersistEvent extends ImagePipelineEvent {
+
+    public static final String NAME = "ImageResizer.Persist";
+
+    // put, batch_write o get
+    @Label("Operation")
+    public String operation;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Tasks")
+    public int taskCount;
+
+    @Label("Item Size")
+    @DataAmount
+    public long itemBytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,25 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ResizeEvent.NAME)
+@Label("Image Resize")
+@Description("Resampling of the decoded image to the target size")
+public class ResizeEvent extends ImagePipelineEvent {
+
+    public static final String NAME = "ImageResizer.Resize";
+
+    @Label("Source Width")
+    public int sourceWidth;
+
+    @Label("Source Height")
+    public int sourceHeight;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
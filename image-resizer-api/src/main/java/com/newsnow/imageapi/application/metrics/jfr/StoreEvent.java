@@ -0,0 +1,24 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(StoreEvent.NAME)
+@Label("Image Store")
+@Description("Upload of the resized image to the object store")
+public class StoreEvent extends ImagePipelineEvent {
+
+    public static final String NAME = "ImageResizer.Store";
+
+    @Label("Object Key")
+    public String objectKey;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,34 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Procesamiento completo de una tarea (PROCESSING -> COMPLETED/FAILED), en modo síncrono, asíncrono o por lotes.
+ * La asignación es la del hilo que procesa; las escrituras en DynamoDB solapadas van en sus propios eventos.
+ */
+@Name(TaskCreateEvent.NAME)
+@Label("Task Create")
+@Description("Resize, store and persist of one task")
+public class TaskCreateEvent extends ImagePipelineEvent {
+
+    public static final String NAME = "ImageResizer.TaskCreate";
+
+    @Label("Format")
+    public String format;
+
+    @Label("Input Size")
+    @DataAmount
+    public long inputBytes;
+
+    @Label("Target Width")
+    public int targetWidth;
+
+    @Label("Target Height")
+    public int targetHeight;
+
+    @Label("Status")
+    public String status;
+}
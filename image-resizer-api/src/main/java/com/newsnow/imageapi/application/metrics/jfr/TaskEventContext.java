@@ -0,0 +1,57 @@
+package com.newsnow.imageapi.application.metrics.jfr;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * ID de la tarea que se está procesando en el hilo actual, para que los eventos JFR de los adaptadores
+ * (decode, resize, encode, S3) lo lleven sin cambiar los puertos. Quien pase el trabajo a otro hilo
+ * (p.ej. CpuBoundImageProcessor) lo propaga con {@link #wrap(Callable)}.
+ */
+public final class TaskEventContext {
+
+    private static final ThreadLocal<String> TASK_ID = new ThreadLocal<>();
+
+    private TaskEventContext() {
+    }
+
+    /** ID de la tarea del hilo actual, o null fuera de una tarea (priming, benchmarks). */
+    public static String currentTaskId() {
+        return TASK_ID.get();
+    }
+
+    public static <T> T call(String taskId, Supplier<T> work) {
+        String previous = TASK_ID.get();
+        TASK_ID.set(taskId);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /** Ejecuta la tarea con el ID del hilo que la crea (no el del hilo que la ejecute). */
+    public static <T> Callable<T> wrap(Callable<T> work) {
+        String taskId = TASK_ID.get();
+        if (taskId == null) {
+            return work;
+        }
+        return () -> {
+            String previous = TASK_ID.get();
+            TASK_ID.set(taskId);
+            try {
+                return work.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            TASK_ID.remove();
+        } else {
+            TASK_ID.set(previous);
+        }
+    }
+}
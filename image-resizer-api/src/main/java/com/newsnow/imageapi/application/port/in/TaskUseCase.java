@@ -1,25 +1,79 @@
 package com.newsnow.imageapi.application.port.in;
 
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
 import com.newsnow.imageapi.application.dto.CreateTaskRequest;
+import com.newsnow.imageapi.application.dto.TaskImage;
 import com.newsnow.imageapi.application.dto.TaskResponse; // Usamos el DTO de respuesta
 import com.newsnow.imageapi.domain.model.Task; // Puede devolver la entidad o un DTO
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TaskUseCase {
 
     /**
      * Caso de uso para crear una nueva tarea de redimensionamiento.
      * Procesa la imagen, la almacena y guarda los metadatos.
+     * Con Idempotency-Key, un reintento devuelve la tarea del primer intento (esperándola si sigue en curso).
      *
      * @param request DTO con los datos de la imagen y dimensiones.
      * @return TaskResponse DTO con los detalles de la tarea creada.
      * @throws com.newsnow.imageapi.domain.port.out.ImageProcessingException Si falla el redimensionamiento.
      * @throws com.newsnow.imageapi.domain.port.out.ImageStorageException Si falla el almacenamiento.
+     * @throws com.newsnow.imageapi.application.usecase.IdempotencyKeyConflictException Si la clave ya se usó con otra imagen o resolución.
      * @throws IllegalArgumentException Si los datos de entrada son inválidos.
      */
     TaskResponse createTask(CreateTaskRequest request);
 
+    /**
+     * Caso de uso asíncrono: persiste la tarea como PENDING, encola el procesamiento
+     * en el pool de workers y devuelve inmediatamente.
+     * El servicio pasa a ser dueño de la imagen ingerida del request y la cierra al terminar.
+     * Con Idempotency-Key, un reintento devuelve la tarea ya aceptada sin volver a encolarla.
+     *
+     * @param request DTO con los datos de la imagen y dimensiones.
+     * @return TaskResponse DTO con la tarea en estado PENDING (sin URL todavía).
+     * @throws com.newsnow.imageapi.application.usecase.TaskRejectedException Si la cola de trabajo está llena.
+     * @throws IllegalArgumentException Si los datos de entrada son inválidos.
+     */
+    TaskResponse submitTask(CreateTaskRequest request);
+
+    /**
+     * Caso de uso asíncrono con cola de trabajo: guarda la imagen original en el almacenamiento, persiste la tarea
+     * como PENDING y la publica en la cola, de donde la recoge un worker (en este nodo o en otro).
+     * Cierra la imagen ingerida del request antes de devolver.
+     * Con Idempotency-Key, un reintento devuelve la tarea ya aceptada sin volver a encolarla.
+     *
+     * @param request DTO con los datos de la imagen y dimensiones.
+     * @return TaskResponse DTO con la tarea en estado PENDING (sin URL todavía).
+     * @throws com.newsnow.imageapi.application.usecase.TaskRejectedException Si la cola de trabajo está llena.
+     * @throws com.newsnow.imageapi.domain.port.out.ImageStorageException Si falla el almacenamiento del original.
+     * @throws IllegalArgumentException Si los datos de entrada son inválidos.
+     */
+    TaskResponse enqueueTask(CreateTaskRequest request);
+
+    /**
+     * Procesa una tarea recibida de la cola de trabajo (lado worker): lee el original, redimensiona, almacena
+     * y deja la tarea en COMPLETED o FAILED. Las entregas repetidas de una tarea ya terminada se ignoran.
+     *
+     * @param item Elemento de la cola con el ID de la tarea y la URL de su imagen original.
+     */
+    void processQueuedTask(WorkQueuePort.WorkItem item);
+
+    /**
+     * Caso de uso por lotes: crea una tarea por cada combinación (imagen, resolución),
+     * las procesa en paralelo y persiste los registros con escrituras por lotes.
+     * Los fallos de un elemento no abortan el resto; se informan en su resultado.
+     *
+     * @param request DTO con las imágenes (Base64) y sus resoluciones destino.
+     * @return BatchTaskResponse DTO con el resultado de cada combinación.
+     * @throws IllegalArgumentException Si el lote está vacío o supera el máximo de tareas.
+     */
+    BatchTaskResponse createTasks(CreateBatchTaskRequest request);
+
     /**
      * Caso de uso para obtener los detalles de una tarea existente.
      *
@@ -27,4 +81,25 @@ public interface TaskUseCase {
      * @return Optional<TaskResponse> Contiene el DTO de la tarea si se encuentra.
      */
     Optional<TaskResponse> getTaskById(UUID taskId);
+
+    /**
+     * Caso de uso para obtener la imagen procesada de una tarea completada.
+     * Se sirve desde la caché de renditions si está; si no, se lee del almacenamiento y se guarda en ella.
+     *
+     * @param taskId El ID único de la tarea.
+     * @return Optional<TaskImage> con los bytes y su content type; vacío si la tarea no existe o no está COMPLETED.
+     * @throws com.newsnow.imageapi.domain.port.out.ImageStorageException Si falla la lectura del almacenamiento.
+     */
+    Optional<TaskImage> getTaskImage(UUID taskId);
+
+    /**
+     * Espera a que la tarea llegue a un estado final (COMPLETED o FAILED) o a que venza el tiempo.
+     * No bloquea ningún hilo: el future se completa cuando el servicio señala la finalización.
+     *
+     * @param taskId  El ID único de la tarea.
+     * @param timeout Tiempo máximo de espera.
+     * @return Future con la tarea (estado final, o el último conocido si vence el tiempo);
+     *         Optional vacío si la tarea no existe.
+     */
+    CompletableFuture<Optional<TaskResponse>> awaitTask(UUID taskId, Duration timeout);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.newsnow.imageapi.application.usecase;
+
+/**
+ * La Idempotency-Key ya se usó con otra imagen u otra resolución.
+ * Se traduce a 422 Unprocessable Entity.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,145 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Registro en proceso de las claves Idempotency-Key vistas recientemente (LRU acotado; las claves
+ * cuyo primer intento sigue en curso no se descartan).
+ * La primera petición con una clave la reserva y registra el ID de su tarea; las peticiones
+ * concurrentes con la misma clave esperan a ese ID en lugar de repetir el trabajo.
+ * El ID de la tarea se deriva de la clave, así que si la clave ya salió de la caché (o la procesó
+ * otra instancia) la tarea se sigue encontrando en el TaskRepository.
+ */
+@Component
+public class IdempotencyKeyRegistry {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, CompletableFuture<UUID>> keys;
+
+    public IdempotencyKeyRegistry(@Value("${image-resizer.idempotency.cache-size:10000}") int maxEntries) {
+        // Orden de acceso: se descarta la clave terminada usada hace más tiempo. Una en curso no: un duplicado
+        // concurrente se convertiría en un segundo dueño y la tarea se procesaría dos veces
+        this.keys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<UUID>> eldest) {
+                Iterator<CompletableFuture<UUID>> oldestFirst = values().iterator();
+                while (size() > maxEntries && oldestFirst.hasNext()) {
+                    if (oldestFirst.next().isDone()) {
+                        oldestFirst.remove();
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /** ID de tarea asociado a la clave (el mismo en todas las instancias). */
+    public static UUID taskIdFor(String key) {
+        return UUID.nameUUIDFromBytes(("Idempotency-Key:" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Valida la clave tal como llega en la cabecera; null significa "sin clave". */
+    public static void validateKey(String key) {
+        if (key != null && (key.isBlank() || key.length() > MAX_KEY_LENGTH)) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+    }
+
+    /**
+     * Reserva la clave. Si ya estaba reservada, el Claim devuelto no es el dueño y su future
+     * se completa con el ID de la tarea cuando el dueño termina (o con su error).
+     */
+    public synchronized Claim claim(String key) {
+        CompletableFuture<UUID> existing = keys.get(key);
+        if (existing != null) {
+            return new Claim(key, existing, false);
+        }
+        CompletableFuture<UUID> taskId = new CompletableFuture<>();
+        keys.put(key, taskId);
+        return new Claim(key, taskId, true);
+    }
+
+    private synchronized void forget(String key, CompletableFuture<UUID> taskId) {
+        keys.remove(key, taskId);
+    }
+
+    synchronized int size() {
+        return keys.size();
+    }
+
+    /** Reserva de una clave: el dueño hace el trabajo y lo cierra con complete() o fail(). */
+    public final class Claim {
+
+        private final String key;
+        private final CompletableFuture<UUID> taskId;
+        private final boolean owner;
+
+        private Claim(String key, CompletableFuture<UUID> taskId, boolean owner) {
+            this.key = key;
+            this.taskId = taskId;
+            this.owner = owner;
+        }
+
+        public boolean isOwner() {
+            return owner;
+        }
+
+        public CompletableFuture<UUID> taskId() {
+            return taskId;
+        }
+
+        /**
+         * Espera el ID de la tarea del dueño sin pasar del deadline de la petición (DeadlineExceededException,
+         * reintentable). Si el dueño falló, lanza CompletionException con su error.
+         */
+        public UUID awaitTaskId(Deadline deadline) {
+            Optional<Duration> remaining = deadline.remaining();
+            if (remaining.isEmpty()) {
+                return taskId.join();
+            }
+            try {
+                return taskId.get(remaining.get().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new DeadlineExceededException("Deadline exceeded while waiting for the request with the same Idempotency-Key.", e);
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DeadlineExceededException("Interrupted while waiting for the request with the same Idempotency-Key.", e);
+            }
+        }
+
+        /** La tarea existe: los duplicados (actuales y futuros) reciben su ID. */
+        public void complete(UUID id) {
+            taskId.complete(id);
+        }
+
+        /** La tarea de la clave terminó en FAILED: se olvida para que la siguiente petición la vuelva a intentar. */
+        public void release() {
+            forget(key, taskId);
+        }
+
+        /** El trabajo falló: se libera la clave para que un reintento posterior vuelva a intentarlo. */
+        public void fail(Throwable error) {
+            forget(key, taskId);
+            taskId.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.RenditionKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * "Single-flight" de redimensionados: las peticiones idénticas (mismo MD5 de la imagen original,
+ * misma resolución y mismas opciones de salida) que llegan mientras otra está en curso se enganchan
+ * a ese trabajo y comparten su resultado, en lugar de decodificar, redimensionar y subir cada una.
+ * Solo coalesce trabajo en vuelo: al terminar, la entrada desaparece (no es una caché de resultados).
+ */
+@Component
+public class ResizeCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(ResizeCoalescer.class);
+
+    private final Map<RenditionKey, CompletableFuture<StoredRendition>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Ejecuta el trabajo, o espera al que ya está en curso con la misma clave.
+     *
+     * @return la imagen almacenada (URL y placeholder, compartidos por todas las peticiones coalescidas)
+     */
+    public StoredRendition resize(RenditionKey key, Supplier<StoredRendition> resizeAndStore) {
+        return resize(key, Deadline.none(), resizeAndStore);
+    }
+
+    /**
+     * Igual, pero quien espera lo hace como mucho hasta su propio deadline. Si el trabajo en curso falló por
+     * su deadline o por admisión (problemas de esa petición, no de la imagen), quien espera lo intenta de nuevo
+     * como dueño en lugar de heredar el error.
+     */
+    public StoredRendition resize(RenditionKey key, Deadline deadline, Supplier<StoredRendition> resizeAndStore) {
+        while (true) {
+            CompletableFuture<StoredRendition> flight = new CompletableFuture<>();
+            CompletableFuture<StoredRendition> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, resizeAndStore);
+            }
+            coalesced.incrementAndGet();
+            log.debug("Coalesced resize {} onto in-flight work", key);
+            try {
+                return await(existing, deadline);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof DeadlineExceededException || e.getCause() instanceof TaskRejectedException) {
+                    log.debug("In-flight resize {} failed for its own request ({}); retrying", key, e.getCause().getMessage());
+                    deadline.check("resize");
+                    continue;
+                }
+                // El mismo error que vio la petición que hizo el trabajo
+                throw unwrap(e);
+            }
+        }
+    }
+
+    private StoredRendition lead(RenditionKey key, CompletableFuture<StoredRendition> flight,
+                                 Supplier<StoredRendition> resizeAndStore) {
+        try {
+            StoredRendition stored = resizeAndStore.get();
+            flight.complete(stored);
+            return stored;
+        } catch (Throwable e) {
+            // También los Error (p.ej. OutOfMemoryError al decodificar): si no, quien espera no se despierta nunca
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static StoredRendition await(CompletableFuture<StoredRendition> flight, Deadline deadline) {
+        Optional<Duration> remaining = deadline.remaining();
+        if (remaining.isEmpty()) {
+            return flight.join();
+        }
+        try {
+            return flight.get(remaining.get().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded while waiting for an in-flight resize.", e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted while waiting for an in-flight resize.", e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+
+    /** Peticiones que se engancharon a un trabajo en curso desde el arranque. */
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,18 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
+
+/**
+ * Resultado de redimensionar y almacenar (o de reutilizar) una rendition: lo que se guarda en la tarea.
+ *
+ * @param imageUrl    URL de la imagen almacenada
+ * @param placeholder BlurHash y vista previa, o null si no se generaron
+ * @param encoding    calidad buscada para bytes/SSIM y su resultado, o null con calidad fija
+ */
+public record StoredRendition(String imageUrl, ImagePlaceholder placeholder, ImageEncoding encoding) {
+
+    public StoredRendition(String imageUrl, ImagePlaceholder placeholder) {
+        this(imageUrl, placeholder, null);
+    }
+}
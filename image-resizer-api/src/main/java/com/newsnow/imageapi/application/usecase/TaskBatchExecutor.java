@@ -0,0 +1,61 @@
+package com.newsnow.imageapi.application.usecase;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor acotado para procesar en paralelo los elementos de un lote.
+ * Hilos = núcleos (o el valor configurado); cuando la cola se llena, el hilo que envía
+ * ejecuta él mismo el trabajo (CallerRuns), lo que frena a los lotes concurrentes sin rechazarlos.
+ */
+@Component
+public class TaskBatchExecutor implements Executor {
+
+    private final Executor executor;
+
+    @Autowired
+    public TaskBatchExecutor(@Value("${image-resizer.batch.parallelism:0}") int parallelism,
+                             @Value("${image-resizer.batch.queue-capacity:256}") int queueCapacity) {
+        this(newBoundedExecutor(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), queueCapacity));
+    }
+
+    // Permite inyectar un Executor propio (p.ej. síncrono en tests)
+    public TaskBatchExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private static ThreadPoolExecutor newBoundedExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
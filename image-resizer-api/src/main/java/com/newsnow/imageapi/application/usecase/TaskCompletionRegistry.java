@@ -0,0 +1,83 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.application.dto.TaskResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registro en proceso de las tareas que alguien está esperando.
+ * TaskService lo avisa cuando una tarea llega a un estado final y todos los
+ * suscriptores (long-poll, SSE) se despiertan sin volver a consultar DynamoDB.
+ * Solo conoce las tareas procesadas en esta instancia.
+ */
+@Component
+public class TaskCompletionRegistry {
+
+    private final Map<UUID, Waiters> waiting = new ConcurrentHashMap<>();
+
+    /**
+     * Se suscribe a la finalización de la tarea. El future de la suscripción es propio del llamante
+     * (completarlo o cancelarlo no afecta a otros suscriptores); hay que llamar a
+     * {@link Subscription#unsubscribe()} al terminar de esperar.
+     */
+    public Subscription subscribe(UUID taskId) {
+        Waiters waiters = waiting.compute(taskId, (id, current) -> {
+            Waiters entry = current != null ? current : new Waiters();
+            entry.count++;
+            return entry;
+        });
+        return new Subscription(taskId, waiters);
+    }
+
+    /** Notifica que la tarea llegó a un estado final. */
+    public void complete(TaskResponse task) {
+        Waiters waiters = waiting.remove(task.getTaskId());
+        if (waiters != null) {
+            waiters.completion.complete(task);
+        }
+    }
+
+    int waitingTasks() {
+        return waiting.size();
+    }
+
+    /**
+     * Suscripción a una tarea, ligada a la entrada en la que se registró: si esa entrada ya se completó
+     * y otra suscripción creó una nueva para la misma tarea, darse de baja no la toca.
+     */
+    public final class Subscription {
+        private final UUID taskId;
+        private final Waiters waiters;
+        private final CompletableFuture<TaskResponse> completion;
+        private final AtomicBoolean unsubscribed = new AtomicBoolean();
+
+        private Subscription(UUID taskId, Waiters waiters) {
+            this.taskId = taskId;
+            this.waiters = waiters;
+            this.completion = waiters.completion.copy();
+        }
+
+        public CompletableFuture<TaskResponse> completion() {
+            return completion;
+        }
+
+        /** Idempotente: solo la primera llamada descuenta al suscriptor. */
+        public void unsubscribe() {
+            if (unsubscribed.compareAndSet(false, true)) {
+                waiting.computeIfPresent(taskId, (id, current) ->
+                        current != waiters || --current.count > 0 ? current : null);
+            }
+        }
+    }
+
+    // Future compartido + número de suscriptores activos (solo se modifica dentro de compute)
+    private static final class Waiters {
+        private final CompletableFuture<TaskResponse> completion = new CompletableFuture<>();
+        private int count;
+    }
+}
@@ -0,0 +1,304 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.application.ingest.ImageDimensions;
+import com.newsnow.imageapi.application.ingest.ImageFormat;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.TaskEventContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Carriles de procesamiento por tamaño: cada tarea se clasifica por su coste estimado de decodificación
+ * (píxeles de la cabecera x peso del formato) y su etapa de CPU (decodificar, redimensionar, codificar) se ejecuta
+ * en el carril de su clase, con sus propios hilos y su propia cola acotada. Así unas pocas imágenes enormes
+ * no pueden ocupar todos los hilos mientras las miniaturas esperan detrás.
+ * Solo esa etapa pasa por el carril (call: quien llama espera el resultado); la E/S de la tarea (DynamoDB, S3)
+ * se queda en el hilo de quien llama, o en un hilo virtual en el modo asíncrono (dispatch).
+ * Si la cola de un carril se llena, la tarea se rechaza (TaskRejectedException, 503 + Retry-After).
+ * Los tiempos en cola y las tareas en cola/en curso se publican en ProcessingMetrics (Prometheus / EMF).
+ */
+@Component
+public class TaskLaneScheduler {
+
+    public enum Lane {
+        SMALL,
+        MEDIUM,
+        LARGE
+    }
+
+    // Sin dimensiones legibles (TIFF, formato desconocido) se estiman a partir del tamaño comprimido
+    static final long PIXELS_PER_UNKNOWN_BYTE = 8;
+
+    private final long smallMaxCost;
+    private final long mediumMaxCost;
+    private final long retryAfterSeconds;
+    private final ProcessingMetrics processingMetrics;
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    // Hilos de las tareas asíncronas (E/S incluida); su etapa de CPU vuelve al carril con call()
+    private final Executor background;
+
+    @Autowired
+    public TaskLaneScheduler(@Value("${image-resizer.lanes.small.max-megapixels:2}") double smallMaxMegapixels,
+                             @Value("${image-resizer.lanes.medium.max-megapixels:16}") double mediumMaxMegapixels,
+                             @Value("${image-resizer.lanes.small.concurrency:0}") int smallConcurrency,
+                             @Value("${image-resizer.lanes.medium.concurrency:2}") int mediumConcurrency,
+                             @Value("${image-resizer.lanes.large.concurrency:1}") int largeConcurrency,
+                             @Value("${image-resizer.lanes.queue-capacity:100}") int queueCapacity,
+                             @Value("${image-resizer.lanes.retry-after-seconds:5}") long retryAfterSeconds,
+                             ProcessingMetrics processingMetrics) {
+        this(megapixels(smallMaxMegapixels), megapixels(mediumMaxMegapixels), retryAfterSeconds, processingMetrics,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lane-async-", 1).factory()), Map.of(
+                        Lane.SMALL, newLaneState(Lane.SMALL, smallConcurrency > 0 ? smallConcurrency : Runtime.getRuntime().availableProcessors(), queueCapacity),
+                        Lane.MEDIUM, newLaneState(Lane.MEDIUM, mediumConcurrency, queueCapacity),
+                        Lane.LARGE, newLaneState(Lane.LARGE, largeConcurrency, queueCapacity)));
+    }
+
+    // Permite inyectar un Executor propio para todos los carriles y el modo asíncrono (p.ej. síncrono en tests o en Lambda)
+    public TaskLaneScheduler(Executor executor, long retryAfterSeconds) {
+        this(executor, retryAfterSeconds, ProcessingMetrics.noop());
+    }
+
+    public TaskLaneScheduler(Executor executor, long retryAfterSeconds, ProcessingMetrics processingMetrics) {
+        this(megapixels(2), megapixels(16), retryAfterSeconds, processingMetrics, executor, Map.of(
+                Lane.SMALL, new LaneState(executor, Integer.MAX_VALUE),
+                Lane.MEDIUM, new LaneState(executor, Integer.MAX_VALUE),
+                Lane.LARGE, new LaneState(executor, Integer.MAX_VALUE)));
+    }
+
+    private TaskLaneScheduler(long smallMaxCost, long mediumMaxCost, long retryAfterSeconds, ProcessingMetrics processingMetrics,
+                              Executor background, Map<Lane, LaneState> states) {
+        if (smallMaxCost <= 0 || mediumMaxCost < smallMaxCost) {
+            throw new IllegalArgumentException("Lane thresholds must be positive and increasing.");
+        }
+        this.smallMaxCost = smallMaxCost;
+        this.mediumMaxCost = mediumMaxCost;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.processingMetrics = processingMetrics;
+        this.background = background;
+        for (Lane lane : Lane.values()) {
+            LaneState state = states.get(lane);
+            lanes.put(lane, state);
+            processingMetrics.registerLane(tagValue(lane), state.queued::get, state.active::get);
+        }
+    }
+
+    /** Carril de la imagen según su coste estimado de decodificación. */
+    public Lane classify(IngestedImage image) {
+        long cost = estimatedDecodeCost(image);
+        if (cost <= smallMaxCost) {
+            return Lane.SMALL;
+        }
+        return cost <= mediumMaxCost ? Lane.MEDIUM : Lane.LARGE;
+    }
+
+    /** Coste en "píxeles equivalentes": lo que se decodifica, ponderado por lo caro que es cada formato. */
+    static long estimatedDecodeCost(IngestedImage image) {
+        long pixels = ImageDimensions.read(image)
+                .map(ImageDimensions::pixelCount)
+                .orElseGet(() -> image.getContentLength() * PIXELS_PER_UNKNOWN_BYTE);
+        return Math.round(pixels * decodeWeight(image.getFormat()));
+    }
+
+    // JPEG es la referencia; PNG/WebP/TIFF pagan además inflate y filtros por fila, BMP apenas se decodifica
+    private static double decodeWeight(ImageFormat format) {
+        return switch (format) {
+            case PNG, WEBP, TIFF -> 1.5;
+            case BMP -> 0.5;
+            default -> 1.0;
+        };
+    }
+
+    /** Encola el trabajo en su carril; lanza TaskRejectedException si la cola del carril está llena. */
+    public void submit(Lane lane, Runnable work) {
+        submit(lane, ProcessingMetrics.NONE, -1, work);
+    }
+
+    private void submit(Lane lane, String format, long bytes, Runnable work) {
+        LaneState state = lanes.get(lane);
+        long enqueuedAt = System.nanoTime();
+        state.queued.incrementAndGet();
+        try {
+            state.executor.execute(() -> {
+                state.queued.decrementAndGet();
+                long queuedNanos = System.nanoTime() - enqueuedAt;
+                state.recordQueueTime(queuedNanos);
+                processingMetrics.recordLaneQueue(tagValue(lane), format, bytes, queuedNanos);
+                state.active.incrementAndGet();
+                try {
+                    work.run();
+                } finally {
+                    state.active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            state.queued.decrementAndGet();
+            throw rejected(lane, e);
+        }
+    }
+
+    /** Ejecuta el trabajo en su carril y espera el resultado; las excepciones llegan tal cual. */
+    public <T> T call(Lane lane, Supplier<T> work) {
+        return call(lane, ProcessingMetrics.NONE, -1, work);
+    }
+
+    /**
+     * Como {@link #call(Lane, Supplier)}, con el formato y los bytes de la imagen para etiquetar su tiempo en cola.
+     * El ID de tarea de los eventos JFR pasa al hilo del carril.
+     */
+    public <T> T call(Lane lane, String format, long bytes, Supplier<T> work) {
+        Callable<T> task = TaskEventContext.wrap(work::get);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submit(lane, format, bytes, () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Ejecuta una tarea asíncrona de este carril en un hilo virtual: su E/S no ocupa los hilos del carril
+     * y su etapa de CPU vuelve a él con call(). Cada carril admite a la vez tantas como hilos + cola;
+     * por encima lanza TaskRejectedException, igual que con la cola llena.
+     */
+    public void dispatch(Lane lane, Runnable work) {
+        LaneState state = lanes.get(lane);
+        if (!state.admitted.tryAcquire()) {
+            throw rejected(lane, null);
+        }
+        try {
+            background.execute(() -> {
+                try {
+                    work.run();
+                } finally {
+                    state.admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            state.admitted.release();
+            throw rejected(lane, e);
+        }
+    }
+
+    private TaskRejectedException rejected(Lane lane, RejectedExecutionException cause) {
+        return new TaskRejectedException("Task queue for " + tagValue(lane)
+                + " images is full. Please retry later.", retryAfterSeconds, cause);
+    }
+
+    /** Tareas en cola y en curso, y tiempo en cola (número, media y máximo en ms) de cada carril. */
+    public Map<Lane, LaneStats> snapshot() {
+        Map<Lane, LaneStats> snapshot = new EnumMap<>(Lane.class);
+        lanes.forEach((lane, state) -> snapshot.put(lane, state.snapshot()));
+        return snapshot;
+    }
+
+    public record LaneStats(int queued, int active, long count, double meanQueueMillis, double maxQueueMillis) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (background instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+        for (LaneState state : lanes.values()) {
+            if (state.executor instanceof ExecutorService executorService) {
+                executorService.shutdown();
+            }
+        }
+        for (LaneState state : lanes.values()) {
+            if (state.executor instanceof ExecutorService executorService) {
+                try {
+                    if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                        executorService.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    executorService.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static long megapixels(double megapixels) {
+        return Math.round(megapixels * 1_000_000);
+    }
+
+    private static String tagValue(Lane lane) {
+        return lane.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static LaneState newLaneState(Lane lane, int threads, int queueCapacity) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Concurrency of the " + lane + " lane must be positive.");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        String prefix = "lane-" + tagValue(lane) + "-";
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        return new LaneState(executor, threads + queueCapacity);
+    }
+
+    private static final class LaneState {
+        private final Executor executor;
+        // Tareas asíncronas admitidas en el carril (dispatch) y aún sin terminar
+        private final Semaphore admitted;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalQueueNanos = new LongAdder();
+        private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+        private LaneState(Executor executor, int maxAdmitted) {
+            this.executor = executor;
+            this.admitted = new Semaphore(maxAdmitted);
+        }
+
+        void recordQueueTime(long nanos) {
+            count.increment();
+            totalQueueNanos.add(nanos);
+            maxQueueNanos.accumulate(nanos);
+        }
+
+        LaneStats snapshot() {
+            long n = count.sum();
+            double mean = n == 0 ? 0 : totalQueueNanos.sum() / (double) n / 1_000_000;
+            return new LaneStats(queued.get(), active.get(), n, mean, maxQueueNanos.get() / 1_000_000.0);
+        }
+    }
+}
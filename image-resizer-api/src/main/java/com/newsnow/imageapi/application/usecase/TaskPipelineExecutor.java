@@ -0,0 +1,63 @@
+package com.newsnow.imageapi.application.usecase;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hilos para las etapas de E/S de createTask (escrituras en el repositorio) que se solapan con el redimensionado.
+ * Sin cola: si todos los hilos están ocupados, la etapa se ejecuta en el hilo de la petición (CallerRuns),
+ * es decir, se degrada al orden secuencial en vez de esperar o rechazar.
+ * Con 0 hilos todo se ejecuta en el hilo de la petición (útil para comparar tiempos con y sin solapamiento).
+ */
+@Component
+public class TaskPipelineExecutor implements Executor {
+
+    private final Executor executor;
+
+    @Autowired
+    public TaskPipelineExecutor(@Value("${image-resizer.pipeline.io-threads:16}") int ioThreads) {
+        this(ioThreads > 0 ? newIoExecutor(ioThreads) : Runnable::run);
+    }
+
+    // Permite inyectar un Executor propio (p.ej. síncrono en tests)
+    public TaskPipelineExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private static ThreadPoolExecutor newIoExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pipeline-io-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,93 @@
+package com.newsnow.imageapi.application.usecase;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Tiempos por etapa del pipeline de una tarea, acumulados desde el arranque.
+ * TOTAL es el tiempo de pared de cada tarea: comparado con la suma de las etapas muestra
+ * cuánto se gana al solapar la E/S con el redimensionado.
+ * Los lotes solo aportan INGEST, RESIZE y STORE (sus escrituras van agrupadas, fuera del pipeline por tarea).
+ */
+@Component
+public class TaskPipelineStats {
+
+    public enum Stage {
+        // Hash + formato de las imágenes que llegan como byte[] (en multipart se hace al leer la petición)
+        INGEST,
+        PERSIST_PROCESSING,
+        RESIZE,
+        STORE,
+        PERSIST_FINAL,
+        TOTAL
+    }
+
+    private final Map<Stage, Counter> counters = new EnumMap<>(Stage.class);
+
+    public TaskPipelineStats() {
+        for (Stage stage : Stage.values()) {
+            counters.put(stage, new Counter());
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        Counter counter = counters.get(stage);
+        counter.count.increment();
+        counter.totalNanos.add(nanos);
+        counter.maxNanos.accumulate(nanos);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void time(Stage stage, Runnable work) {
+        time(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public Snapshot snapshot() {
+        Map<Stage, StageStats> stages = new EnumMap<>(Stage.class);
+        double sequentialMillis = 0;
+        for (Map.Entry<Stage, Counter> entry : counters.entrySet()) {
+            StageStats stats = entry.getValue().snapshot();
+            stages.put(entry.getKey(), stats);
+            if (entry.getKey() != Stage.TOTAL && entry.getKey() != Stage.INGEST) {
+                sequentialMillis += stats.meanMillis();
+            }
+        }
+        // Lo que costarían de media las etapas una tras otra frente a lo que cuesta de verdad la tarea
+        double overlapSavedMillis = stages.get(Stage.TOTAL).count() == 0 ? 0 : sequentialMillis - stages.get(Stage.TOTAL).meanMillis();
+        return new Snapshot(stages, overlapSavedMillis);
+    }
+
+    public record Snapshot(Map<Stage, StageStats> stages, double overlapSavedMillis) {
+    }
+
+    public record StageStats(long count, double meanMillis, double maxMillis) {
+    }
+
+    private static final class Counter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        StageStats snapshot() {
+            long n = count.sum();
+            double mean = n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000;
+            return new StageStats(n, mean, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.newsnow.imageapi.application.usecase;
+
+import lombok.Getter;
+
+/**
+ * La tarea no se pudo aceptar por falta de capacidad (cola llena, presupuesto agotado...).
+ * Se traduce a 503 Service Unavailable con cabecera Retry-After.
+ */
+@Getter
+public class TaskRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TaskRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public TaskRejectedException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,71 +1,296 @@
 package com.newsnow.imageapi.application.usecase;
 
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
 import com.newsnow.imageapi.application.dto.CreateTaskRequest;
+import com.newsnow.imageapi.application.dto.TaskImage;
 import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.ingest.ImageFormat;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.ingest.ImageTooLargeException;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.TaskCreateEvent;
+import com.newsnow.imageapi.application.metrics.jfr.TaskEventContext;
 import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
 import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.model.RenditionKey;
 import com.newsnow.imageapi.domain.model.Task;
+import com.newsnow.imageapi.domain.model.TaskStatus;
 import com.newsnow.imageapi.domain.port.out.*;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 
 @Service
 @RequiredArgsConstructor
 public class TaskService implements TaskUseCase {
 
+    private static final Logger log = LoggerFactory.getLogger(TaskService.class);
+
     // --- Puertos de Salida (inyectados) ---
     private final TaskRepository taskRepository;
     private final ImageProcessorPort imageProcessorPort;
     private final ImageStoragePort imageStoragePort;
 
+    // Carriles por tamaño (pequeñas / medianas / grandes) para la etapa de CPU de cada tarea
+    private final TaskLaneScheduler taskLaneScheduler;
+    // Executor acotado para procesar lotes en paralelo
+    private final TaskBatchExecutor taskBatchExecutor;
+    // Avisos de finalización para long-poll y SSE
+    private final TaskCompletionRegistry taskCompletionRegistry;
+    // Claves Idempotency-Key recientes -> ID de su tarea
+    private final IdempotencyKeyRegistry idempotencyKeys;
+    // Cola hacia los workers (modo enqueueTask / processQueuedTask)
+    private final WorkQueuePort workQueue;
+
+    // Redimensionados idénticos en vuelo (single-flight)
+    private final ResizeCoalescer resizeCoalescer;
+    // Renditions ya almacenadas (off-heap + disco local)
+    private final RenditionCachePort renditionCache;
+    // Hashes, formato y límite de tamaño de las imágenes que llegan como byte[] (Lambda, lotes)
+    private final ImageIngestor imageIngestor;
+    // Hilos para las escrituras que se solapan con el redimensionado, y tiempos por etapa
+    private final TaskPipelineExecutor taskPipelineExecutor;
+    private final TaskPipelineStats pipelineStats;
+    // Histogramas por etapa (Prometheus / EMF)
+    private final ProcessingMetrics processingMetrics;
+
+    // Límite de tareas (imagen x resolución) por lote
+    static final int MAX_BATCH_TASKS = 500;
+
     @Override
     public TaskResponse createTask(CreateTaskRequest request) {
-        if (request.getImageBytes() == null || request.getImageBytes().length == 0 || request.getTargetWidth() <= 0 || request.getTargetHeight() <= 0) {
-            throw new IllegalArgumentException("Invalid input data (bytes or dimensions) for task creation.");
-        }
+        validate(request);
 
-        // 2. Calcular MD5 (¡Ahora es fácil con los bytes!)
-        String originalMD5 = calculateMD5(request.getImageBytes());
+        // 2. Hashes y formato: calculados durante la lectura (o en una única pasada sobre los bytes recibidos)
+        ingested(request);
+        // Sin tiempo para terminar no se crea la tarea: el cliente puede reintentar con un presupuesto nuevo
+        request.getDeadline().check("task creation");
 
         ImageResolution targetResolution = new ImageResolution(request.getTargetWidth(), request.getTargetHeight());
 
-        // 3. Crear Entidad de Dominio
-        Task task = new Task(originalMD5, targetResolution);
-        task.markAsProcessing();
-        taskRepository.save(task);
+        // 3-6. Crear la tarea, procesar, almacenar y guardar estado final (una sola vez por Idempotency-Key).
+        // Solo el redimensionado pasa al carril de su tamaño; la E/S se queda en el hilo de la petición
+        Function<Task, TaskResponse> create = task -> process(task, request);
+        return request.getIdempotencyKey() == null
+                ? create.apply(newTask(UUID.randomUUID(), request, targetResolution))
+                : createOnce(request, targetResolution, create);
+    }
 
-        String imageUrl = null;
-        byte[] resizedImageBytes = null; // Necesitamos los bytes redimensionados para S3
+    @Override
+    public TaskResponse submitTask(CreateTaskRequest request) {
+        AtomicBoolean handedOff = new AtomicBoolean();
+        try {
+            validate(request);
+
+            IngestedImage image = ingested(request);
+            ImageResolution targetResolution = new ImageResolution(request.getTargetWidth(), request.getTargetHeight());
 
+            // La tarea se persiste como PENDING y el resto del trabajo se admite en el carril de su tamaño
+            TaskLaneScheduler.Lane lane = classify(image);
+            Function<Task, TaskResponse> enqueue = task -> {
+                taskRepository.save(task);
+                // Se mapea antes de encolar: a partir de ahí el worker modifica la entidad
+                TaskResponse accepted = mapTaskToResponse(task);
+                try {
+                    taskLaneScheduler.dispatch(lane, () -> runInBackground(task, request));
+                    handedOff.set(true);
+                } catch (TaskRejectedException e) {
+                    task.markAsFailed();
+                    taskRepository.save(task);
+                    notifyCompletion(task);
+                    throw e;
+                }
+                return accepted;
+            };
+            return request.getIdempotencyKey() == null
+                    ? enqueue.apply(newTask(UUID.randomUUID(), request, targetResolution))
+                    : createOnce(request, targetResolution, enqueue);
+        } finally {
+            // Si el trabajo no llegó a encolarse, nadie más cerrará la imagen
+            if (!handedOff.get()) {
+                closeIngested(request);
+            }
+        }
+    }
+
+    @Override
+    public TaskResponse enqueueTask(CreateTaskRequest request) {
         try {
-            // 4. Procesar Imagen: Crea stream DESDE los bytes recibidos
-            InputStream streamToProcess = new ByteArrayInputStream(request.getImageBytes());
-            resizedImageBytes = imageProcessorPort.resizeImage(streamToProcess, targetResolution);
+            validate(request);
 
-            // 5. Almacenar Imagen Procesada: Crea stream DESDE los bytes redimensionados
-            String filename = task.getTaskId().toString() + getFileExtension(request.getOriginalFilename());
-            InputStream streamToStore = new ByteArrayInputStream(resizedImageBytes);
-            imageUrl = imageStoragePort.saveImage(streamToStore, filename, resizedImageBytes.length);
+            IngestedImage image = ingested(request);
+            ImageResolution targetResolution = new ImageResolution(request.getTargetWidth(), request.getTargetHeight());
 
-            // 6. Actualizar y Guardar Estado Final
-            task.markAsCompleted(imageUrl);
-            taskRepository.save(task);
+            // El worker puede estar en otro nodo: la imagen original viaja por el almacenamiento, no por la cola
+            Function<Task, TaskResponse> enqueue = task -> {
+                String filename = task.getTaskId() + getFileExtension(request.getOriginalFilename(), image.getFormat());
+                String sourceImageUrl = imageStoragePort.saveOriginal(image.openStream(), filename,
+                        image.getContentLength(), request.getDeadline());
+                taskRepository.save(task);
+                TaskResponse accepted = mapTaskToResponse(task);
+                try {
+                    workQueue.enqueue(new WorkQueuePort.WorkItem(task.getTaskId(), sourceImageUrl, request.getOriginalFilename()));
+                } catch (RuntimeException e) {
+                    task.markAsFailed();
+                    taskRepository.save(task);
+                    notifyCompletion(task);
+                    throw e;
+                }
+                return accepted;
+            };
+            return request.getIdempotencyKey() == null
+                    ? enqueue.apply(newTask(UUID.randomUUID(), request, targetResolution))
+                    : createOnce(request, targetResolution, enqueue);
+        } finally {
+            // Lo que necesita el worker ya está en el almacenamiento
+            closeIngested(request);
+        }
+    }
 
-        } catch (Exception e) {
+    @Override
+    public void processQueuedTask(WorkQueuePort.WorkItem item) {
+        Optional<Task> found = taskRepository.findById(item.taskId());
+        if (found.isEmpty()) {
+            log.warn("Queued task {} not found; skipping.", item.taskId());
+            return;
+        }
+        Task task = found.get();
+        // Entrega repetida (la cola entrega al menos una vez): la tarea ya terminó
+        if (task.getStatus().isTerminal()) {
+            return;
+        }
+
+        CreateTaskRequest request;
+        IngestedImage image;
+        try {
+            byte[] original = imageStoragePort.loadImage(item.sourceImageUrl());
+            ImageResolution resolution = task.getRequestedResolution();
+            request = new CreateTaskRequest(original, item.originalFilename(), original.length,
+                    resolution.getWidth(), resolution.getHeight());
+            image = ingested(request);
+        } catch (RuntimeException e) {
             task.markAsFailed();
             taskRepository.save(task);
-            throw e; // GlobalExceptionHandler lo maneja
+            notifyCompletion(task);
+            throw e;
+        }
+        try {
+            // Si el carril de su tamaño está lleno la tarea no se marca FAILED: la excepción llega al worker,
+            // que reintenta la entrega más tarde
+            process(task, request, true);
+        } finally {
+            closeIngested(request);
+        }
+    }
+
+    @Override
+    public BatchTaskResponse createTasks(CreateBatchTaskRequest request) {
+        List<CreateBatchTaskRequest.Item> items = request != null ? request.getItems() : null;
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one item.");
+        }
+        int requested = items.stream()
+                .mapToInt(item -> item != null && item.getResolutions() != null ? item.getResolutions().size() : 0)
+                .sum();
+        if (requested > MAX_BATCH_TASKS) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + MAX_BATCH_TASKS + " tasks.");
+        }
+
+        // 1. Validar cada elemento y crear sus tareas (hashes y formato en una sola pasada por imagen)
+        List<BatchTaskResponse.ItemResult> results = new ArrayList<>();
+        List<BatchEntry> entries = new ArrayList<>();
+        for (int index = 0; index < items.size(); index++) {
+            CreateBatchTaskRequest.Item item = items.get(index);
+            if (item == null || item.getImageData() == null || item.getImageData().length == 0) {
+                results.add(failedItem(index, item != null ? item.getFilename() : null, null, "Missing image data."));
+                continue;
+            }
+            if (item.getResolutions() == null || item.getResolutions().isEmpty()) {
+                results.add(failedItem(index, item.getFilename(), null, "At least one resolution is required."));
+                continue;
+            }
+            IngestedImage image;
+            try {
+                image = pipelineStats.time(TaskPipelineStats.Stage.INGEST, () -> imageIngestor.ingest(item.getImageData()));
+            } catch (ImageTooLargeException e) {
+                results.add(failedItem(index, item.getFilename(), null, e.getMessage()));
+                continue;
+            }
+            for (CreateBatchTaskRequest.Resolution resolution : item.getResolutions()) {
+                String label = resolution != null ? resolution.getWidth() + "x" + resolution.getHeight() : null;
+                if (resolution == null || resolution.getWidth() <= 0 || resolution.getHeight() <= 0) {
+                    results.add(failedItem(index, item.getFilename(), label, "Width and Height must be positive values."));
+                    continue;
+                }
+                CreateTaskRequest taskRequest = new CreateTaskRequest(image, item.getFilename(), resolution.getWidth(), resolution.getHeight());
+                taskRequest.setDeadline(request.getDeadline());
+                Task task = newTask(UUID.randomUUID(), taskRequest, new ImageResolution(resolution.getWidth(), resolution.getHeight()));
+                task.markAsProcessing();
+                entries.add(new BatchEntry(index, item.getFilename(), task, taskRequest));
+            }
         }
-        return mapTaskToResponse(task);
+
+        List<Task> tasks = entries.stream().map(BatchEntry::task).toList();
+        if (!tasks.isEmpty()) {
+            // 2. Una sola escritura por lotes para todas las tareas en PROCESSING
+            taskRepository.saveAll(tasks);
+
+            // 3. Redimensionar y almacenar en paralelo sobre el executor acotado
+            List<CompletableFuture<StoredRendition>> futures = entries.stream()
+                    .map(entry -> CompletableFuture.supplyAsync(() -> resizeAndStore(entry.task(), entry.request()), taskBatchExecutor))
+                    .toList();
+
+            String[] errors = new String[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                BatchEntry entry = entries.get(i);
+                try {
+                    StoredRendition stored = futures.get(i).join();
+                    entry.task().markAsCompleted(stored.imageUrl(), stored.placeholder(), stored.encoding());
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.error("Batch task {} failed: {}", entry.task().getTaskId(), cause.getMessage());
+                    entry.task().markAsFailed();
+                    errors[i] = cause.getMessage();
+                }
+            }
+
+            // 4. Estados finales en otra escritura por lotes; quien espera alguna tarea se despierta siempre
+            try {
+                saveFinalStates(entries, errors);
+            } finally {
+                tasks.forEach(this::notifyCompletion);
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                BatchEntry entry = entries.get(i);
+                results.add(new BatchTaskResponse.ItemResult(entry.itemIndex(), entry.filename(),
+                        entry.task().getRequestedResolution().toString(), mapTaskToResponse(entry.task()), errors[i]));
+            }
+        }
+
+        results.sort(Comparator.comparingInt(BatchTaskResponse.ItemResult::getItemIndex));
+        int failed = (int) results.stream().filter(result -> result.getError() != null).count();
+        return new BatchTaskResponse(results.size(), results.size() - failed, failed, results);
     }
 
     @Override
@@ -77,27 +302,328 @@ public class TaskService implements TaskUseCase {
         return taskOptional.map(this::mapTaskToResponse); // Usa referencia a método para mapear
     }
 
-    // Método helper para calcular MD5 desde byte[]
-    private String calculateMD5(byte[] inputBytes) {
+    @Override
+    public Optional<TaskImage> getTaskImage(UUID taskId) {
+        Optional<Task> completed = taskRepository.findById(taskId)
+                .filter(task -> task.getStatus() == TaskStatus.COMPLETED && task.getResultImageUrl() != null);
+        if (completed.isEmpty()) {
+            return Optional.empty();
+        }
+        Task task = completed.get();
+        String imageUrl = task.getResultImageUrl();
+        String extension = getFileExtension(imageUrl.substring(imageUrl.lastIndexOf('/') + 1), ImageFormat.UNKNOWN);
+
+        // Las renditions populares se sirven desde la caché local; si no, se leen del almacenamiento y se guardan.
+        // La clave lleva el formato pedido, no el almacenado (el procesador puede elegir otro por contenido): es la
+        // misma entrada que guarda y reutiliza createTask, con el placeholder y la codificación de la tarea.
+        // Las tareas guardadas sin formato pedido usan el de la URL
+        RenditionKey key = new RenditionKey(task.getContentHash(), task.getRequestedResolution(),
+                task.getRequestedExtension() != null ? task.getRequestedExtension() : extension);
+        byte[] imageBytes = renditionCache.get(key)
+                .map(RenditionCachePort.CachedRendition::imageBytes)
+                .orElseGet(() -> {
+                    byte[] loaded = imageStoragePort.loadImage(imageUrl);
+                    renditionCache.put(key, new RenditionCachePort.CachedRendition(imageUrl, loaded,
+                            task.getPlaceholder(), task.getEncoding()));
+                    return loaded;
+                });
+        return Optional.of(new TaskImage(imageBytes, ImageFormat.fromExtension(extension).getContentType()));
+    }
+
+    @Override
+    public CompletableFuture<Optional<TaskResponse>> awaitTask(UUID taskId, Duration timeout) {
+        // Suscribirse ANTES de leer el estado: así no se pierde una finalización entre ambos pasos
+        TaskCompletionRegistry.Subscription subscription = taskCompletionRegistry.subscribe(taskId);
+        Optional<Task> current;
+        try {
+            current = taskRepository.findById(taskId);
+        } catch (RuntimeException e) {
+            subscription.unsubscribe();
+            throw e;
+        }
+
+        if (current.isEmpty() || current.get().getStatus().isTerminal()) {
+            subscription.unsubscribe();
+            return CompletableFuture.completedFuture(current.map(this::mapTaskToResponse));
+        }
+
+        // Si vence el tiempo se devuelve el último estado conocido (sin otra lectura)
+        TaskResponse lastKnown = mapTaskToResponse(current.get());
+        return subscription.completion()
+                .completeOnTimeout(lastKnown, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> subscription.unsubscribe())
+                .thenApply(Optional::of);
+    }
+
+    // Crea la tarea una sola vez por Idempotency-Key: los duplicados esperan al primero (hasta su deadline) o reciben su tarea
+    private TaskResponse createOnce(CreateTaskRequest request, ImageResolution targetResolution,
+                                    Function<Task, TaskResponse> create) {
+        String originalMD5 = request.getIngestedImage().getOriginalMD5();
+        while (true) {
+            IdempotencyKeyRegistry.Claim claim = idempotencyKeys.claim(request.getIdempotencyKey());
+            if (claim.isOwner()) {
+                return createOwned(claim, request, targetResolution, create);
+            }
+            UUID taskId;
+            try {
+                taskId = claim.awaitTaskId(request.getDeadline());
+            } catch (CompletionException e) {
+                // El primer intento falló: el duplicado recibe el mismo error
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            Task existing = taskRepository.findById(taskId)
+                    .orElseThrow(() -> new IllegalStateException("Task " + taskId + " not found for Idempotency-Key."));
+            if (requireSameRequest(existing, originalMD5, targetResolution).getStatus() != TaskStatus.FAILED) {
+                return mapTaskToResponse(existing);
+            }
+            // La tarea falló: igual que cuando la clave se resuelve en el repositorio, se vuelve a hacer el trabajo
+            claim.release();
+        }
+    }
+
+    private TaskResponse createOwned(IdempotencyKeyRegistry.Claim claim, CreateTaskRequest request,
+                                     ImageResolution targetResolution, Function<Task, TaskResponse> create) {
+        try {
+            // Fuera de la caché (desalojada, arranque en frío u otra instancia) la clave se resuelve en el repositorio
+            UUID taskId = IdempotencyKeyRegistry.taskIdFor(request.getIdempotencyKey());
+            Optional<Task> existing = taskRepository.findById(taskId);
+            if (existing.isPresent() && requireSameRequest(existing.get(), request.getIngestedImage().getOriginalMD5(), targetResolution).getStatus() != TaskStatus.FAILED) {
+                claim.complete(taskId);
+                return mapTaskToResponse(existing.get());
+            }
+            // Clave nueva (o su tarea falló): se hace el trabajo con el ID derivado de la clave
+            TaskResponse response = create.apply(newTask(taskId, request, targetResolution));
+            claim.complete(taskId);
+            return response;
+        } catch (Throwable e) {
+            // También los Error: si no, los duplicados que esperan la clave no se despiertan nunca
+            claim.fail(e);
+            throw e;
+        }
+    }
+
+    private Task requireSameRequest(Task task, String originalMD5, ImageResolution targetResolution) {
+        if (!task.getOriginalMD5().equals(originalMD5) || !task.getRequestedResolution().equals(targetResolution)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key was already used with a different image or resolution.");
+        }
+        return task;
+    }
+
+    // Cuerpo del hilo asíncrono: PENDING -> PROCESSING -> COMPLETED/FAILED
+    private void runInBackground(Task task, CreateTaskRequest request) {
         try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(inputBytes);
-            return HexFormat.of().formatHex(digest);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 algorithm not found", e);
+            process(task, request);
         } catch (Exception e) {
-            System.err.println("Warning: Could not calculate MD5 hash. " + e.getMessage());
-            return "md5-calculation-failed";
+            log.error("Background processing failed for task {}: {}", task.getTaskId(), e.getMessage());
+        } finally {
+            // En modo asíncrono el servicio es dueño de la imagen ingerida
+            closeIngested(request);
+        }
+    }
+
+    // Pasa la tarea a PROCESSING, redimensiona, almacena y la marca como COMPLETED o FAILED.
+    // La escritura PROCESSING (E/S) corre a la vez que el redimensionado y la subida; la final espera a ambas
+    // (nunca adelanta a la inicial) y se solapa con el mapeo de la respuesta.
+    // Las etapas respetan el deadline de la petición; las escrituras de estado final no, para no dejar la tarea en PROCESSING
+    private TaskResponse process(Task task, CreateTaskRequest request) {
+        return process(task, request, false);
+    }
+
+    // redeliverOnRejection: con el carril lleno la tarea se queda en PROCESSING para que la cola la entregue otra vez
+    private TaskResponse process(Task task, CreateTaskRequest request, boolean redeliverOnRejection) {
+        long start = System.nanoTime();
+        TaskCreateEvent event = new TaskCreateEvent();
+        event.beginStage();
+        Deadline deadline = request.getDeadline();
+        if (task.getStatus() == TaskStatus.PENDING) { // Una entrega repetida ya la encuentra en PROCESSING
+            task.markAsProcessing();
+        }
+        CompletableFuture<Void> persisted = CompletableFuture.runAsync(
+                () -> pipelineStats.time(TaskPipelineStats.Stage.PERSIST_PROCESSING, () -> taskRepository.save(task, deadline)),
+                taskPipelineExecutor);
+        try {
+            StoredRendition stored = resizeAndStore(task, request);
+            await(persisted); // Si la escritura inicial falló, se propaga su error
+
+            // 6. Actualizar y Guardar Estado Final
+            task.markAsCompleted(stored.imageUrl(), stored.placeholder(), stored.encoding());
+            CompletableFuture<Void> completed = CompletableFuture.runAsync(
+                    () -> pipelineStats.time(TaskPipelineStats.Stage.PERSIST_FINAL, () -> taskRepository.save(task)),
+                    taskPipelineExecutor);
+            TaskResponse response = mapTaskToResponse(task);
+            await(completed);
+            notifyCompletion(task);
+            return response;
+
+        } catch (Exception e) {
+            // La escritura FAILED no puede quedar por detrás de la de PROCESSING si aún está en vuelo
+            persisted.exceptionally(error -> null).join();
+            if (redeliverOnRejection && e instanceof TaskRejectedException) {
+                throw e;
+            }
+            task.markAsFailed();
+            try {
+                taskRepository.save(task);
+            } catch (RuntimeException saveError) {
+                // El error original es el que explica el fallo: el de la escritura FAILED viaja como suprimido
+                log.error("Could not save FAILED state of task {}: {}", task.getTaskId(), saveError.getMessage());
+                e.addSuppressed(saveError);
+            }
+            notifyCompletion(task); // Los que esperan la tarea despiertan aunque la escritura haya fallado
+            throw e; // GlobalExceptionHandler lo maneja
+        } finally {
+            pipelineStats.record(TaskPipelineStats.Stage.TOTAL, System.nanoTime() - start);
+            commit(event, task, request);
+        }
+    }
+
+    // Evento JFR de la tarea completa (solo se rellena si hay una grabación que lo pida)
+    private static void commit(TaskCreateEvent event, Task task, CreateTaskRequest request) {
+        if (event.endStage()) {
+            IngestedImage image = request.getIngestedImage();
+            event.taskId = task.getTaskId().toString();
+            event.format = ProcessingMetrics.format(image.getFormat());
+            event.inputBytes = image.getContentLength();
+            event.targetWidth = task.getRequestedResolution().getWidth();
+            event.targetHeight = task.getRequestedResolution().getHeight();
+            event.status = task.getStatus().name();
+            event.commit();
+        }
+    }
+
+    private static void await(CompletableFuture<Void> stage) {
+        try {
+            stage.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Pasos 4 y 5: redimensionar y almacenar; devuelve la URL de la imagen procesada, su placeholder y su codificación.
+    // Una rendition idéntica ya almacenada se reutiliza (caché) y las idénticas en vuelo comparten un único trabajo.
+    // Los eventos JFR de los adaptadores (decode, resize, encode, S3) toman el ID de la tarea del hilo
+    private StoredRendition resizeAndStore(Task task, CreateTaskRequest request) {
+        return TaskEventContext.call(task.getTaskId().toString(), () -> resizeAndStoreCached(task, request));
+    }
+
+    private StoredRendition resizeAndStoreCached(Task task, CreateTaskRequest request) {
+        String extension = task.getRequestedExtension() != null
+                ? task.getRequestedExtension()
+                : getFileExtension(request.getOriginalFilename(), request.getIngestedImage().getFormat());
+        RenditionKey key = new RenditionKey(task.getContentHash(), task.getRequestedResolution(), extension);
+        Optional<RenditionCachePort.CachedRendition> cached = renditionCache.get(key);
+        if (cached.isPresent()) {
+            return new StoredRendition(cached.get().imageUrl(), cached.get().placeholder(), cached.get().encoding());
         }
+        return resizeCoalescer.resize(key, request.getDeadline(), () -> resizeAndStore(task, request, extension, key));
+    }
+
+    private StoredRendition resizeAndStore(Task task, CreateTaskRequest request, String extension, RenditionKey key) {
+        Deadline deadline = request.getDeadline();
+
+        // 4. Procesar Imagen: stream sobre el contenido ya leído (heap o fichero mapeado), sin copias.
+        // El placeholder (BlurHash + vista previa) sale de la misma decodificación.
+        // Se ejecuta en el carril de su tamaño: una miniatura no espera detrás de imágenes enormes
+        IngestedImage image = request.getIngestedImage();
+        InputStream streamToProcess = image.openStream();
+        ImageProcessorPort.ProcessedImage processed = taskLaneScheduler.call(classify(image),
+                ProcessingMetrics.format(image.getFormat()), image.getContentLength(),
+                () -> pipelineStats.time(TaskPipelineStats.Stage.RESIZE,
+                        () -> imageProcessorPort.processImage(streamToProcess, task.getRequestedResolution(), deadline)));
+        byte[] resizedImageBytes = processed.imageBytes();
+
+        // 5. Almacenar Imagen Procesada: Crea stream DESDE los bytes redimensionados.
+        // Si el procesador eligió el formato por contenido, la extensión (y con ella el tipo de contenido) es la suya;
+        // la clave de la caché sigue con la pedida: para el mismo contenido la elección es siempre la misma
+        String outputExtension = processed.format() != null
+                ? ImageFormat.fromExtension("." + processed.format()).getExtension()
+                : extension;
+        String filename = task.getTaskId().toString() + outputExtension;
+        InputStream streamToStore = new ByteArrayInputStream(resizedImageBytes);
+        String imageUrl = pipelineStats.time(TaskPipelineStats.Stage.STORE,
+                () -> imageStoragePort.saveImage(streamToStore, filename, resizedImageBytes.length, deadline));
+        renditionCache.put(key, new RenditionCachePort.CachedRendition(imageUrl, resizedImageBytes, processed.placeholder(),
+                processed.encoding()));
+        return new StoredRendition(imageUrl, processed.placeholder(), processed.encoding());
+    }
+
+    // Despierta a quien espere esta tarea (long-poll / SSE)
+    private void notifyCompletion(Task task) {
+        taskCompletionRegistry.complete(mapTaskToResponse(task));
     }
 
+    private BatchTaskResponse.ItemResult failedItem(int index, String filename, String resolution, String error) {
+        return new BatchTaskResponse.ItemResult(index, filename, resolution, null, error);
+    }
+
+    // Si la escritura por lotes falla se guarda tarea a tarea: solo las que tampoco así se guardan se informan como error
+    private void saveFinalStates(List<BatchEntry> entries, String[] errors) {
+        try {
+            taskRepository.saveAll(entries.stream().map(BatchEntry::task).toList());
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Batch write of final task states failed; saving one by one: {}", e.getMessage());
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            Task task = entries.get(i).task();
+            try {
+                taskRepository.save(task);
+            } catch (RuntimeException e) {
+                log.error("Could not save final state of batch task {}: {}", task.getTaskId(), e.getMessage());
+                if (errors[i] == null) {
+                    errors[i] = "Could not save the final task state: " + e.getMessage();
+                }
+            }
+        }
+    }
+
+    // Una combinación (imagen, resolución) del lote ya convertida en tarea
+    private record BatchEntry(int itemIndex, String filename, Task task, CreateTaskRequest request) {
+    }
+
+    private void validate(CreateTaskRequest request) {
+        IngestedImage ingested = request.getIngestedImage();
+        boolean hasBytes = request.getImageBytes() != null && request.getImageBytes().length > 0;
+        boolean hasIngested = ingested != null && ingested.getContentLength() > 0;
+        if ((!hasBytes && !hasIngested) || request.getTargetWidth() <= 0 || request.getTargetHeight() <= 0) {
+            throw new IllegalArgumentException("Invalid input data (bytes or dimensions) for task creation.");
+        }
+        IdempotencyKeyRegistry.validateKey(request.getIdempotencyKey());
+    }
+
+    // Las peticiones que llegan como byte[] se ingieren aquí: a partir de este punto todo trabaja sobre IngestedImage
+    private IngestedImage ingested(CreateTaskRequest request) {
+        if (request.getIngestedImage() == null) {
+            request.setIngestedImage(pipelineStats.time(TaskPipelineStats.Stage.INGEST,
+                    () -> imageIngestor.ingest(request.getImageBytes())));
+        }
+        return request.getIngestedImage();
+    }
+
+    // El carril sale de las dimensiones de la cabecera: es la etapa "header_probe" de las métricas
+    private TaskLaneScheduler.Lane classify(IngestedImage image) {
+        return processingMetrics.time(ProcessingMetrics.Stage.HEADER_PROBE, ProcessingMetrics.format(image.getFormat()),
+                image.getContentLength(), () -> taskLaneScheduler.classify(image));
+    }
+
+    private Task newTask(UUID taskId, CreateTaskRequest request, ImageResolution targetResolution) {
+        IngestedImage image = request.getIngestedImage();
+        return new Task(taskId, image.getOriginalMD5(), image.getContentHash(), targetResolution,
+                getFileExtension(request.getOriginalFilename(), image.getFormat()));
+    }
+
+    private void closeIngested(CreateTaskRequest request) {
+        if (request.getIngestedImage() != null) {
+            request.getIngestedImage().close();
+        }
+    }
 
-    // Método helper para obtener extensión (simple)
-    private String getFileExtension(String filename) {
+    // Método helper para obtener extensión (simple); si el nombre no la trae, usa el formato detectado
+    private String getFileExtension(String filename, ImageFormat detectedFormat) {
         if (filename != null && filename.contains(".")) {
             return filename.substring(filename.lastIndexOf("."));
         }
-        return ".tmp"; // Extensión por defecto o manejar error
+        return detectedFormat.getExtension(); // ".tmp" si el formato es desconocido
     }
 
 
@@ -106,12 +632,20 @@ public class TaskService implements TaskUseCase {
         if (task == null) {
             return null;
         }
+        ImagePlaceholder placeholder = task.getPlaceholder();
+        ImageEncoding encoding = task.getEncoding();
         return new TaskResponse(
                 task.getTaskId(),
                 task.getCreatedAt(),
                 task.getOriginalMD5(),
                 task.getRequestedResolution().toString(),
-                task.getResultImageUrl()
+                task.getResultImageUrl(),
+                task.getStatus().name(),
+                placeholder != null ? placeholder.blurHash() : null,
+                placeholder != null ? placeholder.previewDataUri() : null,
+                encoding != null ? encoding.quality() : null,
+                encoding != null ? encoding.ssim() : null,
+                encoding != null ? encoding.attempts() : null
         );
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,46 @@
 package com.newsnow.imageapi.config;
 
+import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
 import com.newsnow.imageapi.application.dto.CreateTaskRequest;
 import com.newsnow.imageapi.application.dto.ErrorResponse;
 import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.ingest.ImageTooLargeException;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
 import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.application.usecase.IdempotencyKeyConflictException;
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.OffsetDateTime; // Asegúrate de importar OffsetDateTime
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Configuration
 @RequiredArgsConstructor
@@ -33,12 +50,30 @@ public class FunctionConfiguration {
 
     private final TaskUseCase taskUseCase;
     private final ObjectMapper objectMapper;
+    private final ImageIngestor imageIngestor;
+    // Overhead del handler; en Lambda también vacía las métricas (EMF) al final de cada invocación
+    private final ProcessingMetrics processingMetrics;
+
+    // Margen que se reserva del tiempo restante de la invocación para marcar FAILED y responder
+    @Value("${image-resizer.deadline.reserve-ms:1000}")
+    private long deadlineReserveMillis = 1000;
+
+    private static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
 
     @Bean
     public Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>> handleApiGatewayRequest() {
+        // Las rutas se compilan una sola vez; cada petición es una búsqueda en la tabla
+        RouteTable<RouteHandler> routes = new RouteTable<RouteHandler>()
+                .add("POST", "/v1/task", (request, pathVariables, invocation, response) -> handlePostTaskV1(request, invocation, response))
+                .add("POST", "/v1/tasks", (request, pathVariables, invocation, response) -> handlePostTasksV1(request, invocation, response))
+                .add("GET", "/v1/task/{taskId}", (request, pathVariables, invocation, response) ->
+                        handleGetTaskV1(request, pathVariables.get("taskId"), invocation, response));
+
         return message -> {
+            long start = System.nanoTime();
             APIGatewayProxyRequestEvent request = message.getPayload();
             log.info("Received V1 Proxy request. Path: {}, Method: {}", request.getPath(), request.getHttpMethod());
+            Invocation invocation = new Invocation(deadline(message));
 
             APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent()
                     .withHeaders(Map.of("Content-Type", "application/json"))
@@ -48,13 +83,10 @@ public class FunctionConfiguration {
                 String httpMethod = request.getHttpMethod();
                 String path = request.getPath();
 
-                log.info("Handling V1 Proxy: Method={}, Path={}", httpMethod, path);
-
                 // Enrutamiento
-                if (HttpMethod.POST.name().equalsIgnoreCase(httpMethod) && "/v1/task".equals(path)) {
-                    handlePostTaskV1(request, response);
-                } else if (HttpMethod.GET.name().equalsIgnoreCase(httpMethod) && path != null && path.startsWith("/v1/task/")) {
-                    handleGetTaskV1(request, response);
+                Optional<RouteTable.Match<RouteHandler>> route = routes.match(httpMethod, path);
+                if (route.isPresent()) {
+                    route.get().handler().handle(request, route.get().pathVariables(), invocation, response);
                 } else {
                     setErrorResponseV1(response, 404, "Not Found", "No route found for " + httpMethod + " " + path, path);
                 }
@@ -64,14 +96,20 @@ public class FunctionConfiguration {
                         request.getPath() != null ? request.getPath() : "Unknown");
             }
 
-            return MessageBuilder.withPayload(response)
+            Message<APIGatewayProxyResponseEvent> reply = MessageBuilder.withPayload(response)
                     .copyHeadersIfAbsent(message.getHeaders())
                     .build();
+
+            // Lo que cuesta el handler en sí: tiempo total menos el pasado dentro del caso de uso
+            processingMetrics.record(ProcessingMetrics.Stage.HANDLER_OVERHEAD, invocation.format, invocation.bytes,
+                    System.nanoTime() - start - invocation.useCaseNanos);
+            processingMetrics.flush();
+            return reply;
         };
     }
 
     // Método para POST
-    private void handlePostTaskV1(APIGatewayProxyRequestEvent request, APIGatewayProxyResponseEvent response) throws IOException {
+    private void handlePostTaskV1(APIGatewayProxyRequestEvent request, Invocation invocation, APIGatewayProxyResponseEvent response) throws IOException {
         log.debug("Handling POST V1 request. Body received (Base64 encoded? {}): {}", request.getIsBase64Encoded(), request.getBody() != null ? "Present" : "Null");
 
         if (request.getBody() == null || request.getBody().isEmpty()) {
@@ -95,23 +133,33 @@ public class FunctionConfiguration {
                 return;
             }
 
-            byte[] imageBytes = Base64.getDecoder().decode(imageDataBase64);
-            log.info("Decoded {} bytes for image '{}'", imageBytes.length, filename);
+            // El Base64 se decodifica en streaming hacia la ingesta: hashes, formato y límite de tamaño en la misma lectura
+            IngestedImage image;
+            try {
+                image = imageIngestor.ingest(Base64.getDecoder().wrap(
+                        new ByteArrayInputStream(imageDataBase64.getBytes(StandardCharsets.ISO_8859_1))));
+            } catch (IOException e) {
+                log.warn("Invalid Base64 'imageData': {}", e.getMessage());
+                setErrorResponseV1(response, 400, "Bad Request", "Invalid Base64 'imageData': " + e.getMessage(), "/v1/task");
+                return;
+            }
+            log.info("Decoded {} bytes for image '{}'", image.getContentLength(), filename);
+            invocation.image(image);
 
-            CreateTaskRequest serviceRequest = new CreateTaskRequest(
-                    imageBytes,
-                    filename,
-                    imageBytes.length,
-                    width,
-                    height
-            );
+            try (image) {
+                CreateTaskRequest serviceRequest = new CreateTaskRequest(image, filename, width, height);
+                // Los reintentos con la misma clave devuelven la tarea del primer intento
+                serviceRequest.setIdempotencyKey(header(request, "Idempotency-Key"));
+                // Cada etapa comprueba el tiempo restante de la invocación y los SDK lo usan como timeout
+                serviceRequest.setDeadline(invocation.deadline);
 
-            // Llamar al caso de uso
-            TaskResponse taskResponse = taskUseCase.createTask(serviceRequest);
+                // Llamar al caso de uso
+                TaskResponse taskResponse = invocation.useCase(() -> taskUseCase.createTask(serviceRequest));
 
-            // Establecer respuesta exitosa
-            response.setStatusCode(201); // Created
-            response.setBody(objectMapper.writeValueAsString(taskResponse));
+                // Establecer respuesta exitosa
+                response.setStatusCode(201); // Created
+                response.setBody(objectMapper.writeValueAsString(taskResponse));
+            }
 
         } catch (JsonProcessingException | ClassCastException e) {
             log.error("Failed to parse request body JSON or cast values: {}", e.getMessage());
@@ -119,26 +167,61 @@ public class FunctionConfiguration {
         } catch (IllegalArgumentException e) {
             log.warn("Invalid argument during task creation: {}", e.getMessage());
             setErrorResponseV1(response, 400, "Bad Request", e.getMessage(), "/v1/task");
+        } catch (IdempotencyKeyConflictException e) {
+            log.warn("Idempotency key conflict: {}", e.getMessage());
+            setErrorResponseV1(response, 422, "Unprocessable Entity", e.getMessage(), "/v1/task");
+        } catch (ImageTooLargeException e) {
+            log.warn("Image too large: {}", e.getMessage());
+            setErrorResponseV1(response, 413, "Payload Too Large", e.getMessage(), "/v1/task");
+        } catch (DeadlineExceededException e) {
+            log.warn("Deadline exceeded: {}", e.getMessage());
+            setRetryableErrorResponseV1(response, e.getMessage(), "/v1/task");
+        } catch (TaskRejectedException e) {
+            log.warn("Task rejected: {}", e.getMessage());
+            setRetryableErrorResponseV1(response, e.getMessage(), "/v1/task", e.getRetryAfterSeconds());
         } catch (Exception e) { // Capturar otros errores del use case
             log.error("Error in taskUseCase.createTask: {}", e.getMessage(), e);
             setErrorResponseV1(response, 500, "Internal Server Error", "Error creating task: " + e.getMessage(), "/v1/task");
         }
     }
 
-    // Método adaptado para GET
-    private void handleGetTaskV1(APIGatewayProxyRequestEvent request, APIGatewayProxyResponseEvent response) throws JsonProcessingException {
-        String taskIdStr = null;
-        if (request.getPathParameters() != null) {
-            taskIdStr = request.getPathParameters().get("taskId");
+    // Método para POST por lotes
+    private void handlePostTasksV1(APIGatewayProxyRequestEvent request, Invocation invocation, APIGatewayProxyResponseEvent response) throws JsonProcessingException {
+        if (request.getBody() == null || request.getBody().isEmpty()) {
+            log.warn("Received batch POST request with empty body.");
+            setErrorResponseV1(response, 400, "Bad Request", "Missing request body.", "/v1/tasks");
+            return;
         }
-        log.info("Handling GET V1 request for taskId: {}", taskIdStr);
 
-        if (taskIdStr == null) {
-            log.warn("Task ID not found in path parameters.");
-            setErrorResponseV1(response, 400, "Bad Request", "Missing Task ID in path.", request.getPath());
+        CreateBatchTaskRequest batchRequest;
+        try {
+            // Jackson decodifica el Base64 de cada 'imageData' directamente a byte[]
+            batchRequest = objectMapper.readValue(request.getBody(), CreateBatchTaskRequest.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse batch request body JSON: {}", e.getMessage());
+            setErrorResponseV1(response, 400, "Bad Request", "Invalid JSON format or data types in request body.", "/v1/tasks");
             return;
         }
 
+        try {
+            batchRequest.setDeadline(invocation.deadline);
+            BatchTaskResponse batchResponse = invocation.useCase(() -> taskUseCase.createTasks(batchRequest));
+            log.info("Batch processed: {} succeeded, {} failed", batchResponse.getSucceeded(), batchResponse.getFailed());
+            response.setStatusCode(200);
+            response.setBody(objectMapper.writeValueAsString(batchResponse));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid batch request: {}", e.getMessage());
+            setErrorResponseV1(response, 400, "Bad Request", e.getMessage(), "/v1/tasks");
+        } catch (TaskRejectedException e) {
+            log.warn("Batch rejected: {}", e.getMessage());
+            setRetryableErrorResponseV1(response, e.getMessage(), "/v1/tasks", e.getRetryAfterSeconds());
+        }
+    }
+
+    // Método adaptado para GET
+    private void handleGetTaskV1(APIGatewayProxyRequestEvent request, String taskIdStr, Invocation invocation, APIGatewayProxyResponseEvent response) throws JsonProcessingException {
+        log.info("Handling GET V1 request for taskId: {}", taskIdStr);
+
         UUID taskId;
         try {
             taskId = UUID.fromString(taskIdStr);
@@ -148,7 +231,7 @@ public class FunctionConfiguration {
             return;
         }
 
-        Optional<TaskResponse> taskOptional = taskUseCase.getTaskById(taskId); // Ahora taskId es visible
+        Optional<TaskResponse> taskOptional = invocation.useCase(() -> taskUseCase.getTaskById(taskId)); // Ahora taskId es visible
 
         if (taskOptional.isPresent()) {
             log.info("Task found for ID: {}", taskId);
@@ -160,6 +243,48 @@ public class FunctionConfiguration {
         }
     }
 
+    // Cabecera de la petición sin distinguir mayúsculas (API Gateway conserva las que envía el cliente)
+    private String header(APIGatewayProxyRequestEvent request, String name) {
+        if (request.getHeaders() == null) {
+            return null;
+        }
+        return request.getHeaders().entrySet().stream()
+                .filter(entry -> name.equalsIgnoreCase(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Deadline de la invocación: tiempo restante del Context de Lambda o, fuera de Lambda, la cabecera X-Request-Timeout-Ms
+    private Deadline deadline(Message<APIGatewayProxyRequestEvent> message) {
+        if (message.getHeaders().get(AWSLambdaUtils.AWS_CONTEXT) instanceof Context context) {
+            return Deadline.after(Duration.ofMillis(context.getRemainingTimeInMillis() - deadlineReserveMillis));
+        }
+        String timeout = header(message.getPayload(), REQUEST_TIMEOUT_HEADER);
+        if (timeout == null) {
+            return Deadline.none();
+        }
+        try {
+            return Deadline.after(Duration.ofMillis(Long.parseLong(timeout.trim())));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid {} header: {}", REQUEST_TIMEOUT_HEADER, timeout);
+            return Deadline.none();
+        }
+    }
+
+    // 503 + Retry-After: la tarea quedó FAILED por falta de tiempo y el cliente puede reintentarla
+    private void setRetryableErrorResponseV1(APIGatewayProxyResponseEvent response, String message, String path) {
+        setRetryableErrorResponseV1(response, message, path, 1);
+    }
+
+    // Igual, con la espera que indica quien rechazó la tarea (carril o presupuesto de memoria llenos)
+    private void setRetryableErrorResponseV1(APIGatewayProxyResponseEvent response, String message, String path, long retryAfterSeconds) {
+        setErrorResponseV1(response, 503, "Service Unavailable", message, path);
+        Map<String, String> headers = new HashMap<>(response.getHeaders());
+        headers.put("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setHeaders(headers);
+    }
+
     // Método helper para errores adaptado para V1 Response
     private void setErrorResponseV1(APIGatewayProxyResponseEvent response, int statusCode, String error, String message, String path) {
         response.setStatusCode(statusCode);
@@ -172,4 +297,36 @@ public class FunctionConfiguration {
             response.setBody("{\"error\":\"Failed to serialize error message\"}");
         }
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface RouteHandler {
+        void handle(APIGatewayProxyRequestEvent request, Map<String, String> pathVariables, Invocation invocation,
+                    APIGatewayProxyResponseEvent response) throws IOException;
+    }
+
+    // Una invocación del handler: su deadline, el tiempo pasado dentro del caso de uso y las etiquetas de la imagen
+    private static final class Invocation {
+        private final Deadline deadline;
+        private long useCaseNanos;
+        private String format = ProcessingMetrics.NONE;
+        private long bytes = -1;
+
+        private Invocation(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        void image(IngestedImage image) {
+            format = ProcessingMetrics.format(image.getFormat());
+            bytes = image.getContentLength();
+        }
+
+        <T> T useCase(Supplier<T> call) {
+            long start = System.nanoTime();
+            try {
+                return call.get();
+            } finally {
+                useCaseNanos += System.nanoTime() - start;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.newsnow.imageapi.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tabla de rutas del handler de Lambda, compilada una vez al crear el bean.
+ * Las rutas fijas se resuelven con una búsqueda en un HashMap por "MÉTODO ruta"; las rutas con
+ * variables ("/v1/task/{taskId}") se comparan segmento a segmento con las plantillas del mismo método.
+ */
+final class RouteTable<H> {
+
+    private final Map<String, H> exactRoutes = new HashMap<>();
+    private final Map<String, List<Template<H>>> templateRoutes = new HashMap<>();
+
+    RouteTable<H> add(String method, String pattern, H handler) {
+        String normalizedMethod = method.toUpperCase(Locale.ROOT);
+        if (!pattern.contains("{")) {
+            exactRoutes.put(normalizedMethod + " " + pattern, handler);
+        } else {
+            templateRoutes.computeIfAbsent(normalizedMethod, m -> new ArrayList<>())
+                    .add(new Template<>(pattern.split("/"), handler));
+        }
+        return this;
+    }
+
+    Optional<Match<H>> match(String method, String path) {
+        if (method == null || path == null) {
+            return Optional.empty();
+        }
+        String normalizedMethod = method.toUpperCase(Locale.ROOT);
+        H handler = exactRoutes.get(normalizedMethod + " " + path);
+        if (handler != null) {
+            return Optional.of(new Match<>(handler, Map.of()));
+        }
+
+        List<Template<H>> templates = templateRoutes.get(normalizedMethod);
+        if (templates == null) {
+            return Optional.empty();
+        }
+        String[] segments = path.split("/");
+        for (Template<H> template : templates) {
+            Map<String, String> variables = template.match(segments);
+            if (variables != null) {
+                return Optional.of(new Match<>(template.handler(), variables));
+            }
+        }
+        return Optional.empty();
+    }
+
+    record Match<H>(H handler, Map<String, String> pathVariables) {
+    }
+
+    private record Template<H>(String[] segments, H handler) {
+
+        // Devuelve las variables de la ruta, o null si no coincide
+        Map<String, String> match(String[] pathSegments) {
+            if (pathSegments.length != segments.length) {
+                return null;
+            }
+            Map<String, String> variables = new HashMap<>();
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (pathSegments[i].isEmpty()) {
+                        return null;
+                    }
+                    variables.put(segment.substring(1, segment.length() - 1), pathSegments[i]);
+                } else if (!segment.equals(pathSegments[i])) {
+                    return null;
+                }
+            }
+            return variables;
+        }
+    }
+}
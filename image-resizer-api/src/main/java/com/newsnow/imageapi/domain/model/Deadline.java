@@ -0,0 +1,61 @@
+package com.newsnow.imageapi.domain.model;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Instante límite para terminar el trabajo de una petición: el tiempo que le queda a la invocación de Lambda
+ * o el timeout que pide el cliente. Se comprueba entre etapas (y, en el procesador, entre bloques leídos o escritos)
+ * y lo que queda se pasa como timeout a las llamadas del SDK, para no pagar trabajo que no puede terminar.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(false, 0);
+
+    private final boolean bounded;
+    // Referencia System.nanoTime(): inmune a cambios del reloj de pared
+    private final long expiresAtNanos;
+
+    private Deadline(boolean bounded, long expiresAtNanos) {
+        this.bounded = bounded;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /** Sin límite: todas las comprobaciones pasan. */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /** Límite dentro de {@code budget} a partir de ahora (un presupuesto ≤ 0 ya está vencido). */
+    public static Deadline after(Duration budget) {
+        return new Deadline(true, System.nanoTime() + Math.max(0, budget.toNanos()));
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /** Tiempo restante (cero si ya venció); vacío si no hay límite. */
+    public Optional<Duration> remaining() {
+        if (!bounded) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime())));
+    }
+
+    /** Lanza DeadlineExceededException si ya no queda tiempo antes de {@code stage}. */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded before " + stage + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return remaining().map(left -> "Deadline[" + left.toMillis() + " ms left]").orElse("Deadline[none]");
+    }
+}
@@ -0,0 +1,16 @@
+package com.newsnow.imageapi.domain.model;
+
+/**
+ * Se agotó el tiempo de la petición antes de terminar. La tarea queda FAILED y el error es reintentable
+ * (503 con Retry-After): el mismo trabajo con un presupuesto nuevo puede completarse.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
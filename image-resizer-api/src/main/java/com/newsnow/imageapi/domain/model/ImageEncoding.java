@@ -0,0 +1,11 @@
+package com.newsnow.imageapi.domain.model;
+
+import lombok.NonNull;
+
+/**
+ * Codificación elegida para la imagen procesada cuando la calidad se buscó contra un objetivo
+ * (tamaño máximo en bytes o SSIM mínimo): formato, calidad (0-1), SSIM frente al ráster redimensionado
+ * (null si no se pudo medir) e intentos de codificación que hicieron falta.
+ */
+public record ImageEncoding(@NonNull String format, float quality, Double ssim, int attempts) {
+}
@@ -0,0 +1,10 @@
+package com.newsnow.imageapi.domain.model;
+
+import lombok.NonNull;
+
+/**
+ * Marcador de posición de una imagen procesada, para pintarlo mientras la imagen real se descarga:
+ * su BlurHash y una vista previa diminuta como data URI (p.ej. "data:image/png;base64,...").
+ */
+public record ImagePlaceholder(@NonNull String blurHash, @NonNull String previewDataUri) {
+}
@@ -0,0 +1,21 @@
+package com.newsnow.imageapi.domain.model;
+
+import lombok.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Identidad de una imagen procesada: mismo original (hash de deduplicación), misma resolución y mismas opciones de salida
+ * (la extensión con la que se almacena, que decide el formato) producen los mismos bytes.
+ */
+public record RenditionKey(@NonNull String contentHash, @NonNull ImageResolution resolution, @NonNull String outputExtension) {
+
+    public RenditionKey {
+        outputExtension = outputExtension.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return contentHash + "/" + resolution + outputExtension;
+    }
+}
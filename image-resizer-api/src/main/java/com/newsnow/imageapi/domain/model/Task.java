@@ -12,30 +12,77 @@ public class Task {
     private final UUID taskId;
     private final OffsetDateTime createdAt;
     private final String originalMD5;
+    // Clave de deduplicación del original (hash configurable); con el hash "md5" coincide con originalMD5
+    private final String contentHash;
     private final ImageResolution requestedResolution;
+    // Extensión de salida pedida (la del nombre original o la del formato detectado; null en tareas antiguas).
+    // Identifica la rendition en la caché aunque el procesador la almacene en otro formato
+    private final String requestedExtension;
 
     // Estado y resultado - pueden cambiar
     private TaskStatus status;
     private String resultImageUrl;
+    // BlurHash y vista previa calculados en la misma decodificación (null si no se generaron)
+    private ImagePlaceholder placeholder;
+    // Calidad buscada para bytes/SSIM y su resultado (null con calidad fija)
+    private ImageEncoding encoding;
 
     // Constructor para crear una nueva tarea (estado inicial)
     public Task(@NonNull String originalMD5, @NonNull ImageResolution requestedResolution) {
-        this.taskId = UUID.randomUUID();
+        this(UUID.randomUUID(), originalMD5, requestedResolution);
+    }
+
+    // Nueva tarea con un ID ya decidido (p.ej. derivado de una Idempotency-Key)
+    public Task(@NonNull UUID taskId, @NonNull String originalMD5, @NonNull ImageResolution requestedResolution) {
+        this(taskId, originalMD5, originalMD5, requestedResolution);
+    }
+
+    // Nueva tarea cuyo hash de deduplicación no es el MD5
+    public Task(@NonNull UUID taskId, @NonNull String originalMD5, @NonNull String contentHash, @NonNull ImageResolution requestedResolution) {
+        this(taskId, originalMD5, contentHash, requestedResolution, null);
+    }
+
+    // Nueva tarea con la extensión de salida pedida
+    public Task(@NonNull UUID taskId, @NonNull String originalMD5, @NonNull String contentHash, @NonNull ImageResolution requestedResolution,
+                String requestedExtension) {
+        this.taskId = taskId;
         this.createdAt = OffsetDateTime.now();
         this.originalMD5 = originalMD5;
+        this.contentHash = contentHash;
         this.requestedResolution = requestedResolution;
+        this.requestedExtension = requestedExtension;
         this.status = TaskStatus.PENDING;
         this.resultImageUrl = null;
     }
 
     // Podríamos necesitar un constructor para reconstruir desde la persistencia
     public Task(UUID taskId, OffsetDateTime createdAt, String originalMD5, ImageResolution requestedResolution, TaskStatus status, String resultImageUrl) {
+        this(taskId, createdAt, originalMD5, originalMD5, requestedResolution, status, resultImageUrl);
+    }
+
+    public Task(UUID taskId, OffsetDateTime createdAt, String originalMD5, String contentHash, ImageResolution requestedResolution, TaskStatus status, String resultImageUrl) {
+        this(taskId, createdAt, originalMD5, contentHash, requestedResolution, status, resultImageUrl, null);
+    }
+
+    public Task(UUID taskId, OffsetDateTime createdAt, String originalMD5, String contentHash, ImageResolution requestedResolution, TaskStatus status, String resultImageUrl, ImagePlaceholder placeholder) {
+        this(taskId, createdAt, originalMD5, contentHash, requestedResolution, status, resultImageUrl, placeholder, null);
+    }
+
+    public Task(UUID taskId, OffsetDateTime createdAt, String originalMD5, String contentHash, ImageResolution requestedResolution, TaskStatus status, String resultImageUrl, ImagePlaceholder placeholder, ImageEncoding encoding) {
+        this(taskId, createdAt, originalMD5, contentHash, requestedResolution, null, status, resultImageUrl, placeholder, encoding);
+    }
+
+    public Task(UUID taskId, OffsetDateTime createdAt, String originalMD5, String contentHash, ImageResolution requestedResolution, String requestedExtension, TaskStatus status, String resultImageUrl, ImagePlaceholder placeholder, ImageEncoding encoding) {
         this.taskId = taskId;
         this.createdAt = createdAt;
         this.originalMD5 = originalMD5;
+        this.contentHash = contentHash;
         this.requestedResolution = requestedResolution;
+        this.requestedExtension = requestedExtension;
         this.status = status;
         this.resultImageUrl = resultImageUrl;
+        this.placeholder = placeholder;
+        this.encoding = encoding;
     }
 
 
@@ -49,9 +96,19 @@ public class Task {
     }
 
     public void markAsCompleted(@NonNull String resultImageUrl) {
+        markAsCompleted(resultImageUrl, null);
+    }
+
+    public void markAsCompleted(@NonNull String resultImageUrl, ImagePlaceholder placeholder) {
+        markAsCompleted(resultImageUrl, placeholder, null);
+    }
+
+    public void markAsCompleted(@NonNull String resultImageUrl, ImagePlaceholder placeholder, ImageEncoding encoding) {
         if (this.status == TaskStatus.PROCESSING) {
             this.status = TaskStatus.COMPLETED;
             this.resultImageUrl = resultImageUrl;
+            this.placeholder = placeholder;
+            this.encoding = encoding;
         } else {
             System.err.println("Cannot mark task " + taskId + " as completed. Current status: " + status);
         }
@@ -61,6 +118,8 @@ public class Task {
         if (this.status == TaskStatus.PROCESSING || this.status == TaskStatus.PENDING) {
             this.status = TaskStatus.FAILED;
             this.resultImageUrl = null;
+            this.placeholder = null;
+            this.encoding = null;
         } else {
             System.err.println("Cannot mark task " + taskId + " as failed. Current status: " + status);
         }
@@ -4,5 +4,10 @@ public enum TaskStatus {
     PENDING,      // Recibida, esperando procesamiento
     PROCESSING,   // Procesamiento en curso
     COMPLETED,    // Procesamiento exitoso
-    FAILED        // Procesamiento fallido
+    FAILED;       // Procesamiento fallido
+
+    // COMPLETED y FAILED son estados finales: la tarea ya no cambiará
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
 }
\ No newline at end of file
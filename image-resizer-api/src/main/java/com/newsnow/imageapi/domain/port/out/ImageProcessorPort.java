@@ -1,9 +1,39 @@
 package com.newsnow.imageapi.domain.port.out;
 
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
 import com.newsnow.imageapi.domain.model.ImageResolution;
 import java.io.InputStream;
 
 public interface ImageProcessorPort {
     // Devuelve los bytes de la imagen redimensionada
     byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution) throws ImageProcessingException;
-}
\ No newline at end of file
+
+    // Igual, abortando con DeadlineExceededException si se agota el tiempo; las implementaciones pueden comprobarlo durante el trabajo
+    default byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        deadline.check("resize");
+        return resizeImage(imageInputStream, targetResolution);
+    }
+
+    // Imagen redimensionada más lo que el adaptador pueda obtener de la misma decodificación (p.ej. el placeholder)
+    default ProcessedImage processImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return new ProcessedImage(resizeImage(imageInputStream, targetResolution, deadline), null);
+    }
+
+    /**
+     * Bytes de la imagen redimensionada, su placeholder (null si el adaptador no lo genera), la codificación
+     * elegida cuando la calidad se buscó contra un objetivo (null con calidad fija) y el formato de salida
+     * ("png", "jpeg", "webp") cuando el adaptador lo eligió por contenido (null si se conserva el de entrada).
+     */
+    record ProcessedImage(byte[] imageBytes, ImagePlaceholder placeholder, ImageEncoding encoding, String format) {
+
+        public ProcessedImage(byte[] imageBytes, ImagePlaceholder placeholder, ImageEncoding encoding) {
+            this(imageBytes, placeholder, encoding, null);
+        }
+
+        public ProcessedImage(byte[] imageBytes, ImagePlaceholder placeholder) {
+            this(imageBytes, placeholder, null);
+        }
+    }
+}
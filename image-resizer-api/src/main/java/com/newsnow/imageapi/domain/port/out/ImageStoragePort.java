@@ -1,8 +1,22 @@
 package com.newsnow.imageapi.domain.port.out;
 
+import com.newsnow.imageapi.domain.model.Deadline;
+
 import java.io.InputStream;
 
 public interface ImageStoragePort {
     // Guarda la imagen y devuelve la URL pública o identificador de almacenamiento
     String saveImage(InputStream imageInputStream, String filename, long contentLength) throws ImageStorageException;
+
+    // Igual, con el tiempo restante como límite de la llamada
+    default String saveImage(InputStream imageInputStream, String filename, long contentLength, Deadline deadline) throws ImageStorageException {
+        deadline.check("store");
+        return saveImage(imageInputStream, filename, contentLength);
+    }
+
+    // Guarda la imagen original de una tarea encolada; el worker la lee con loadImage a partir de la URL devuelta
+    String saveOriginal(InputStream imageInputStream, String filename, long contentLength, Deadline deadline) throws ImageStorageException;
+
+    // Lee una imagen almacenada a partir de la URL que devolvió saveImage o saveOriginal
+    byte[] loadImage(String imageUrl) throws ImageStorageException;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.newsnow.imageapi.domain.port.out;
+
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
+import com.newsnow.imageapi.domain.model.RenditionKey;
+
+import java.util.Optional;
+
+/**
+ * Caché local de imágenes ya procesadas y almacenadas.
+ * Un acierto evita repetir el redimensionado (CPU) y la subida o descarga del almacenamiento.
+ */
+public interface RenditionCachePort {
+
+    Optional<CachedRendition> get(RenditionKey key);
+
+    // Guarda (o reemplaza) la imagen; la implementación puede decidir no admitirla
+    void put(RenditionKey key, CachedRendition rendition);
+
+    /**
+     * Imagen procesada, la URL donde ya está almacenada, su placeholder y la codificación buscada
+     * (null si no se generó o si la calidad fue fija).
+     */
+    record CachedRendition(String imageUrl, byte[] imageBytes, ImagePlaceholder placeholder, ImageEncoding encoding) {
+
+        public CachedRendition(String imageUrl, byte[] imageBytes, ImagePlaceholder placeholder) {
+            this(imageUrl, imageBytes, placeholder, null);
+        }
+
+        public CachedRendition(String imageUrl, byte[] imageBytes) {
+            this(imageUrl, imageBytes, null);
+        }
+    }
+}
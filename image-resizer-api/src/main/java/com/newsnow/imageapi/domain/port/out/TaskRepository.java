@@ -1,10 +1,23 @@
 package com.newsnow.imageapi.domain.port.out;
 
+import com.newsnow.imageapi.domain.model.Deadline;
 import com.newsnow.imageapi.domain.model.Task;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TaskRepository {
     void save(Task task);
+
+    // Igual, con el tiempo restante como límite de la llamada
+    default void save(Task task, Deadline deadline) {
+        deadline.check("persist");
+        save(task);
+    }
+
+    // Guarda varias tareas; las implementaciones pueden agrupar las escrituras
+    default void saveAll(List<Task> tasks) {
+        tasks.forEach(this::save);
+    }
     Optional<Task> findById(UUID taskId);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.newsnow.imageapi.domain.port.out;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cola de trabajo entre los nodos que aceptan tareas (API) y los que las procesan (workers).
+ * Entrega al menos una vez: un elemento entregado y no confirmado puede volver a entregarse
+ * (p.ej. tras reiniciar el worker), así que el consumidor debe tolerar duplicados.
+ */
+public interface WorkQueuePort {
+
+    // Encola el elemento; las implementaciones acotadas lo rechazan con TaskRejectedException si están llenas
+    void enqueue(WorkItem item);
+
+    // Siguiente elemento, esperando como mucho timeout; vacío si no llegó ninguno
+    Optional<Delivery> poll(Duration timeout) throws InterruptedException;
+
+    // Confirma que la entrega ya se procesó (con éxito o no): no se volverá a entregar
+    void acknowledge(Delivery delivery);
+
+    /**
+     * Tarea ya persistida (PENDING) cuya imagen original está en el almacenamiento.
+     * El nombre original solo se usa para la extensión de la imagen procesada (puede ser null).
+     */
+    record WorkItem(UUID taskId, String sourceImageUrl, String originalFilename) {
+    }
+
+    /** Elemento entregado a un consumidor; {@code receipt} identifica la entrega dentro de la cola. */
+    record Delivery(WorkItem item, long receipt) {
+    }
+}
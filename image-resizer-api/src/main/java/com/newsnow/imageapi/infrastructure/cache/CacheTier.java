@@ -0,0 +1,137 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un nivel de la caché de renditions con límite en bytes.
+ * Orden LRU (LinkedHashMap en orden de acceso) y admisión TinyLFU: cuando no hay sitio, las víctimas
+ * más antiguas solo se desalojan si la entrada nueva se ha pedido al menos tantas veces como cada una;
+ * si no, la entrada nueva no se admite (un pico de peticiones únicas no desplaza a las populares).
+ * Las subclases solo deciden dónde viven los bytes.
+ *
+ * @param <H> referencia a los bytes almacenados (páginas off-heap, fichero en disco...)
+ */
+abstract class CacheTier<H> {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final FrequencySketch sketch;
+    // El nivel caliente devuelve los bytes desalojados para bajarlos al siguiente nivel
+    private final boolean returnEvicted;
+    private final LinkedHashMap<String, Entry<H>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    CacheTier(long maxBytes, long maxEntryBytes, FrequencySketch sketch, boolean returnEvicted) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.sketch = sketch;
+        this.returnEvicted = returnEvicted;
+    }
+
+    /** Bytes de la entrada, o null si no está en este nivel. */
+    synchronized byte[] get(String key) {
+        Entry<H> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return read(entry.handle(), entry.length());
+    }
+
+    /**
+     * Intenta admitir la entrada.
+     *
+     * @return las entradas desalojadas para hacerle sitio (vacía si el nivel no las devuelve), o null si no se admitió
+     */
+    synchronized List<Evicted> put(String key, byte[] value) {
+        // La versión anterior sale siempre: si la nueva no se admite, no debe seguir sirviéndose la antigua
+        remove(key);
+        long size = footprint(value.length);
+        if (size > maxEntryBytes) {
+            rejections++;
+            return null;
+        }
+
+        // Víctimas en orden LRU, mientras la entrada nueva sea al menos igual de popular
+        List<String> victims = new ArrayList<>();
+        long reclaimed = 0;
+        Iterator<Map.Entry<String, Entry<H>>> eldest = entries.entrySet().iterator();
+        while (usedBytes - reclaimed + size > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry<H>> victim = eldest.next();
+            if (sketch.frequency(key) < sketch.frequency(victim.getKey())) {
+                rejections++;
+                return null;
+            }
+            victims.add(victim.getKey());
+            reclaimed += victim.getValue().footprint();
+        }
+
+        List<Evicted> evicted = new ArrayList<>(victims.size());
+        for (String victimKey : victims) {
+            Entry<H> victim = entries.remove(victimKey);
+            if (returnEvicted) {
+                evicted.add(new Evicted(victimKey, read(victim.handle(), victim.length())));
+            }
+            release(victim);
+            evictions++;
+        }
+
+        H handle;
+        try {
+            handle = write(value);
+        } catch (RuntimeException e) {
+            rejections++;
+            throw e;
+        }
+        entries.put(key, new Entry<>(handle, value.length, size));
+        usedBytes += size;
+        return evicted;
+    }
+
+    synchronized void remove(String key) {
+        Entry<H> entry = entries.remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    synchronized void clear() {
+        entries.values().forEach(entry -> free(entry.handle()));
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    synchronized RenditionCacheStats.Tier stats() {
+        return new RenditionCacheStats.Tier(hits, misses, evictions, rejections, entries.size(), usedBytes, maxBytes);
+    }
+
+    private void release(Entry<H> entry) {
+        free(entry.handle());
+        usedBytes -= entry.footprint();
+    }
+
+    // Bytes que ocupa en el nivel una entrada de esa longitud (cuenta para el límite)
+    abstract long footprint(int length);
+
+    abstract H write(byte[] value);
+
+    abstract byte[] read(H handle, int length);
+
+    abstract void free(H handle);
+
+    record Evicted(String key, byte[] value) {
+    }
+
+    private record Entry<H>(H handle, int length, long footprint) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nivel templado: cada entrada es un fichero en disco local.
+ * Las lecturas son lecturas posicionales con FileChannel servidas desde la page cache del sistema operativo.
+ * No se mapean los ficheros: un mapeo retiene los bloques del fichero borrado hasta que el GC lo libera,
+ * y el uso real de disco dejaría de estar acotado por el límite del nivel.
+ * El índice vive en memoria, así que el directorio se vacía al arrancar y al cerrar.
+ */
+final class DiskFileTier extends CacheTier<Path> {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskFileTier.class);
+
+    private final Path directory;
+    private final AtomicLong sequence = new AtomicLong();
+
+    DiskFileTier(Path directory, long maxBytes, FrequencySketch sketch) {
+        super(maxBytes, maxBytes / 4, sketch, false);
+        this.directory = directory;
+    }
+
+    @Override
+    long footprint(int length) {
+        return length;
+    }
+
+    @Override
+    Path write(byte[] value) {
+        Path file = directory.resolve(sequence.incrementAndGet() + ".bin");
+        try {
+            Files.write(file, value);
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Could not write rendition cache file " + file, e);
+        }
+    }
+
+    @Override
+    byte[] read(Path file, int length) {
+        ByteBuffer value = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (value.hasRemaining()) {
+                if (channel.read(value, value.position()) < 0) {
+                    throw new IOException("Unexpected end of file after " + value.position() + " of " + length + " bytes");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read rendition cache file " + file, e);
+        }
+        return value.array();
+    }
+
+    @Override
+    void free(Path file) {
+        // Sin mapeos ni canales abiertos, el borrado devuelve los bloques al momento
+        deleteQuietly(file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete rendition cache file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+import com.newsnow.imageapi.domain.model.RenditionKey;
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort;
+
+import java.util.Optional;
+
+/** Caché de renditions desactivada: nunca acierta y no guarda nada. */
+public class NoOpRenditionCache implements RenditionCachePort {
+
+    @Override
+    public Optional<CachedRendition> get(RenditionKey key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(RenditionKey key, CachedRendition rendition) {
+        // Nada que guardar
+    }
+}
@@ -0,0 +1,100 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Nivel caliente: los bytes viven fuera del heap, en slabs de ByteBuffer directos divididos en páginas fijas.
+ * Una entrada ocupa las páginas que necesite (no tienen que ser contiguas) y al desalojarla vuelven a la
+ * lista libre, sin fragmentación ni trabajo extra para el GC. Los slabs se reservan a medida que hacen falta,
+ * hasta el límite del nivel.
+ */
+final class OffHeapSlabTier extends CacheTier<int[]> {
+
+    static final int PAGE_SIZE = 8 * 1024;
+    static final int PAGES_PER_SLAB = 512; // Slabs de 4 MiB
+
+    private final int maxPages;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int[] freePages = new int[PAGES_PER_SLAB];
+    private int freeCount;
+
+    OffHeapSlabTier(long maxBytes, FrequencySketch sketch) {
+        super(maxBytes / PAGE_SIZE * PAGE_SIZE, maxBytes / 8, sketch, true);
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE, maxBytes / PAGE_SIZE);
+    }
+
+    @Override
+    long footprint(int length) {
+        return (long) pagesFor(length) * PAGE_SIZE;
+    }
+
+    @Override
+    int[] write(byte[] value) {
+        int[] pages = new int[pagesFor(value.length)];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = allocatePage();
+            int offset = i * PAGE_SIZE;
+            slabOf(pages[i]).put(offsetOf(pages[i]), value, offset, Math.min(PAGE_SIZE, value.length - offset));
+        }
+        return pages;
+    }
+
+    @Override
+    byte[] read(int[] pages, int length) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < pages.length; i++) {
+            int offset = i * PAGE_SIZE;
+            slabOf(pages[i]).get(offsetOf(pages[i]), value, offset, Math.min(PAGE_SIZE, length - offset));
+        }
+        return value;
+    }
+
+    @Override
+    void free(int[] pages) {
+        for (int page : pages) {
+            pushFreePage(page);
+        }
+    }
+
+    int allocatedSlabs() {
+        return slabs.size();
+    }
+
+    // El límite del nivel garantiza que siempre quedan páginas libres o slabs por reservar
+    private int allocatePage() {
+        if (freeCount == 0) {
+            int firstPage = slabs.size() * PAGES_PER_SLAB;
+            int pages = Math.min(PAGES_PER_SLAB, maxPages - firstPage);
+            if (pages <= 0) {
+                throw new IllegalStateException("Off-heap rendition cache has no free pages.");
+            }
+            slabs.add(ByteBuffer.allocateDirect(pages * PAGE_SIZE));
+            for (int page = firstPage + pages - 1; page >= firstPage; page--) {
+                pushFreePage(page);
+            }
+        }
+        return freePages[--freeCount];
+    }
+
+    private void pushFreePage(int page) {
+        if (freeCount == freePages.length) {
+            freePages = Arrays.copyOf(freePages, freePages.length * 2);
+        }
+        freePages[freeCount++] = page;
+    }
+
+    private ByteBuffer slabOf(int page) {
+        return slabs.get(page / PAGES_PER_SLAB);
+    }
+
+    private static int offsetOf(int page) {
+        return (page % PAGES_PER_SLAB) * PAGE_SIZE;
+    }
+
+    private static int pagesFor(int length) {
+        return Math.max(1, (length + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+/** Métricas de la caché de renditions por nivel, acumuladas desde el arranque. */
+public record RenditionCacheStats(Tier offHeap, Tier disk) {
+
+    /**
+     * @param rejections entradas no admitidas (demasiado grandes o menos populares que las víctimas)
+     */
+    public record Tier(long hits, long misses, long evictions, long rejections,
+                       int entries, long usedBytes, long maxBytes) {
+    }
+}
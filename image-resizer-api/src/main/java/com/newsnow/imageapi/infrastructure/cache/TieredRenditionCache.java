@@ -0,0 +1,201 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
+import com.newsnow.imageapi.domain.model.RenditionKey;
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Caché de renditions en dos niveles, cada uno con su límite en bytes:
+ * caliente fuera del heap (slabs de ByteBuffer directos) y templado en disco local (un fichero por entrada).
+ * Lo desalojado del nivel caliente baja al disco y un acierto en disco sube al nivel caliente.
+ * Ambos niveles comparten el estimador de frecuencia que decide la admisión (TinyLFU).
+ */
+public class TieredRenditionCache implements RenditionCachePort, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredRenditionCache.class);
+
+    // Tamaño típico de una rendition, para dimensionar el estimador de frecuencia
+    private static final int TYPICAL_RENDITION_BYTES = 32 * 1024;
+
+    private final FrequencySketch sketch;
+    private final OffHeapSlabTier hot;
+    private final DiskFileTier warm;
+    private final Path directory;
+
+    public TieredRenditionCache(long offHeapMaxBytes, long diskMaxBytes, Path diskDirectory) {
+        FrequencySketch sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE,
+                (offHeapMaxBytes + diskMaxBytes) / TYPICAL_RENDITION_BYTES));
+        this.directory = prepareDirectory(diskDirectory);
+        this.hot = new OffHeapSlabTier(offHeapMaxBytes, sketch);
+        this.warm = new DiskFileTier(directory, diskMaxBytes, sketch);
+        this.sketch = sketch;
+    }
+
+    @Override
+    public Optional<CachedRendition> get(RenditionKey key) {
+        String id = key.toString();
+        sketch.increment(id);
+
+        byte[] entry = hot.get(id);
+        if (entry == null) {
+            entry = warm.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            promote(id, entry);
+        }
+        return Optional.of(decode(entry));
+    }
+
+    @Override
+    public void put(RenditionKey key, CachedRendition rendition) {
+        String id = key.toString();
+        sketch.increment(id);
+        byte[] entry = encode(rendition);
+        try {
+            List<CacheTier.Evicted> demoted = hot.put(id, entry);
+            if (demoted == null) {
+                warm.put(id, entry); // Demasiado grande o poco popular para el nivel caliente
+            } else {
+                warm.remove(id);
+                demote(demoted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not cache rendition {}: {}", id, e.getMessage());
+        }
+    }
+
+    public RenditionCacheStats stats() {
+        return new RenditionCacheStats(hot.stats(), warm.stats());
+    }
+
+    @Override
+    public void close() {
+        hot.clear();
+        warm.clear();
+        deleteDirectory(directory);
+    }
+
+    // Acierto en disco: sube al nivel caliente si lo admite (y lo que sale de ahí baja al disco)
+    private void promote(String id, byte[] entry) {
+        try {
+            List<CacheTier.Evicted> demoted = hot.put(id, entry);
+            if (demoted != null) {
+                warm.remove(id);
+                demote(demoted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not promote rendition {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void demote(List<CacheTier.Evicted> evicted) {
+        for (CacheTier.Evicted entry : evicted) {
+            warm.put(entry.key(), entry.value());
+        }
+    }
+
+    // [longitud URL][URL UTF-8][longitud BlurHash][BlurHash][longitud vista previa][vista previa]
+    // [longitud formato][formato][calidad][SSIM (NaN = sin medir)][intentos][bytes de la imagen]
+    // (sin placeholder o sin codificación buscada, longitud -1 y se pasa a lo siguiente)
+    private static byte[] encode(CachedRendition rendition) {
+        byte[] url = rendition.imageUrl().getBytes(StandardCharsets.UTF_8);
+        ImagePlaceholder placeholder = rendition.placeholder();
+        byte[] blurHash = placeholder != null ? placeholder.blurHash().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] preview = placeholder != null ? placeholder.previewDataUri().getBytes(StandardCharsets.US_ASCII) : null;
+        int placeholderBytes = placeholder != null ? 2 * Integer.BYTES + blurHash.length + preview.length : Integer.BYTES;
+        ImageEncoding encoding = rendition.encoding();
+        byte[] format = encoding != null ? encoding.format().getBytes(StandardCharsets.US_ASCII) : null;
+        int encodingBytes = encoding != null
+                ? Integer.BYTES + format.length + Float.BYTES + Double.BYTES + Integer.BYTES
+                : Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + url.length + placeholderBytes + encodingBytes
+                        + rendition.imageBytes().length)
+                .putInt(url.length)
+                .put(url);
+        if (placeholder != null) {
+            buffer.putInt(blurHash.length).put(blurHash).putInt(preview.length).put(preview);
+        } else {
+            buffer.putInt(-1);
+        }
+        if (encoding != null) {
+            buffer.putInt(format.length).put(format)
+                    .putFloat(encoding.quality())
+                    .putDouble(encoding.ssim() != null ? encoding.ssim() : Double.NaN)
+                    .putInt(encoding.attempts());
+        } else {
+            buffer.putInt(-1);
+        }
+        return buffer.put(rendition.imageBytes()).array();
+    }
+
+    private static CachedRendition decode(byte[] entry) {
+        ByteBuffer buffer = ByteBuffer.wrap(entry);
+        String url = readString(buffer, buffer.getInt(), StandardCharsets.UTF_8);
+        ImagePlaceholder placeholder = null;
+        int blurHashLength = buffer.getInt();
+        if (blurHashLength >= 0) {
+            String blurHash = readString(buffer, blurHashLength, StandardCharsets.UTF_8);
+            placeholder = new ImagePlaceholder(blurHash, readString(buffer, buffer.getInt(), StandardCharsets.US_ASCII));
+        }
+        ImageEncoding encoding = null;
+        int formatLength = buffer.getInt();
+        if (formatLength >= 0) {
+            String format = readString(buffer, formatLength, StandardCharsets.US_ASCII);
+            float quality = buffer.getFloat();
+            double ssim = buffer.getDouble();
+            encoding = new ImageEncoding(format, quality, Double.isNaN(ssim) ? null : ssim, buffer.getInt());
+        }
+        byte[] image = new byte[buffer.remaining()];
+        buffer.get(image);
+        return new CachedRendition(url, image, placeholder, encoding);
+    }
+
+    private static String readString(ByteBuffer buffer, int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, charset);
+    }
+
+    // El índice no sobrevive a un reinicio: se empieza con el directorio vacío
+    private static Path prepareDirectory(Path directory) {
+        try {
+            deleteDirectory(directory);
+            return Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create rendition cache directory " + directory, e);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete rendition cache file {}: {}", file, e.getMessage());
+                }
+            });
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.warn("Could not delete rendition cache directory {}: {}", directory, e.getMessage());
+        }
+    }
+}
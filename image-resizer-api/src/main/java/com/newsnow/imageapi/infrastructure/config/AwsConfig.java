@@ -1,9 +1,12 @@
 package com.newsnow.imageapi.infrastructure.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
@@ -14,22 +17,45 @@ public class AwsConfig {
     @Value("${aws.region}")
     private String awsRegion;
 
+    // Conexiones HTTP simultáneas por cliente (con hilos virtuales conviene subirlo: 50 por defecto en el SDK)
+    @Value("${aws.http.max-connections:50}")
+    private int maxConnections;
+
     @Bean
-    public S3Client s3Client() {
+    public S3Client s3Client(@Qualifier("s3HttpClient") SdkHttpClient s3HttpClient) {
         // El SDK busca credenciales en el siguiente orden:
         DefaultCredentialsProvider credentialsProvider = DefaultCredentialsProvider.create();
 
         return S3Client.builder()
                 .region(Region.of(awsRegion))
                 .credentialsProvider(credentialsProvider)
+                .httpClient(s3HttpClient)
                 .build();
     }
 
     @Bean
-    public DynamoDbClient dynamoDbClient() {
+    public DynamoDbClient dynamoDbClient(@Qualifier("dynamoDbHttpClient") SdkHttpClient dynamoDbHttpClient) {
         return DynamoDbClient.builder()
                 .region(Region.of(awsRegion))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(dynamoDbHttpClient)
+                .build();
+    }
+
+    // Pools HTTP propios de cada cliente; se pueden cerrar/reabrir alrededor de un checkpoint (CRaC/SnapStart)
+    @Bean
+    public ReconnectableSdkHttpClient s3HttpClient() {
+        return new ReconnectableSdkHttpClient("s3", this::newApacheHttpClient);
+    }
+
+    @Bean
+    public ReconnectableSdkHttpClient dynamoDbHttpClient() {
+        return new ReconnectableSdkHttpClient("dynamodb", this::newApacheHttpClient);
+    }
+
+    private SdkHttpClient newApacheHttpClient() {
+        return ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
+import com.newsnow.imageapi.application.dto.ErrorResponse;
+import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import com.newsnow.imageapi.domain.port.out.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Fase de "priming": calienta durante el arranque (fase init de Lambda, antes del snapshot de SnapStart)
+ * las piezas que si no se inicializan perezosamente en la primera petición:
+ * registro SPI de ImageIO, un resize sintético por ImageProcessorPort, Jackson, el marshalling del SDK
+ * y, opcionalmente, una llamada real a DynamoDB (credenciales + TLS).
+ * Ningún fallo aquí impide arrancar: solo se registra.
+ */
+@Component
+public class ColdStartPrimer {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdStartPrimer.class);
+
+    private static final String[] FORMATS = {"JPEG", "PNG", "GIF", "BMP", "WEBP", "TIFF"};
+
+    private final ImageProcessorPort imageProcessorPort;
+    private final ObjectMapper objectMapper;
+    private final TaskRepository taskRepository;
+    private final ObjectProvider<Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>>> lambdaHandler;
+    private final ObjectProvider<ProcessingMetrics> processingMetrics;
+    private final boolean enabled;
+    private final boolean awsCalls;
+
+    public ColdStartPrimer(ImageProcessorPort imageProcessorPort,
+                           ObjectMapper objectMapper,
+                           TaskRepository taskRepository,
+                           ObjectProvider<Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>>> lambdaHandler,
+                           ObjectProvider<ProcessingMetrics> processingMetrics,
+                           @Value("${image-resizer.priming.enabled:true}") boolean enabled,
+                           @Value("${image-resizer.priming.aws-calls:false}") boolean awsCalls) {
+        this.imageProcessorPort = imageProcessorPort;
+        this.objectMapper = objectMapper;
+        this.taskRepository = taskRepository;
+        this.lambdaHandler = lambdaHandler;
+        this.processingMetrics = processingMetrics;
+        this.enabled = enabled;
+        this.awsCalls = awsCalls;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            prime();
+        }
+    }
+
+    public void prime() {
+        long start = System.nanoTime();
+        step("ImageIO", this::primeImageIO);
+        step("ImageProcessorPort", this::primeImageProcessor);
+        step("Jackson", this::primeJackson);
+        step("Lambda handler", this::primeLambdaHandler);
+        step("AWS SDK", this::primeAwsSdk);
+        // Las mediciones del resize sintético y de la invocación de prueba no son tráfico real (no se publican en EMF)
+        processingMetrics.ifAvailable(ProcessingMetrics::discardPending);
+        log.info("Cold-start priming finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Registro SPI (TwelveMonkeys, JAI) + readers/writers de cada formato soportado
+    private void primeImageIO() {
+        ImageIO.scanForPlugins();
+        for (String format : FORMATS) {
+            Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName(format);
+            if (!readers.hasNext()) {
+                log.warn("No ImageIO reader available for {}", format);
+            }
+            while (readers.hasNext()) {
+                log.debug("ImageIO reader for {}: {}", format, readers.next().getClass().getName());
+            }
+            ImageIO.getImageWritersByFormatName(format);
+        }
+    }
+
+    // Resize sintético JPEG y PNG: carga las clases de decode/resample/encode y calienta el JIT
+    private void primeImageProcessor() throws IOException {
+        BufferedImage sample = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                sample.setRGB(x, y, (x * 4) << 16 | (y * 4) << 8 | 0x80);
+            }
+        }
+        ImageResolution target = new ImageResolution(16, 16);
+        for (String format : new String[]{"jpg", "png"}) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            ImageIO.write(sample, format, encoded);
+            imageProcessorPort.resizeImage(new ByteArrayInputStream(encoded.toByteArray()), target);
+        }
+    }
+
+    // Serializadores/deserializadores de los DTOs que usa la API
+    private void primeJackson() throws IOException {
+        TaskResponse response = new TaskResponse(UUID.randomUUID(), OffsetDateTime.now(), "primer", "16x16", null, "PENDING");
+        objectMapper.readValue(objectMapper.writeValueAsString(response), TaskResponse.class);
+        objectMapper.writeValueAsString(new ErrorResponse(OffsetDateTime.now(), 404, "Not Found", "primer", "/"));
+        objectMapper.readValue("{\"imageData\":\"AA==\",\"filename\":\"p.png\",\"width\":1,\"height\":1}", Map.class);
+        objectMapper.readValue("{\"items\":[{\"imageData\":\"AA==\",\"filename\":\"p.png\",\"resolutions\":[{\"width\":1,\"height\":1}]}]}",
+                CreateBatchTaskRequest.class);
+    }
+
+    // Una invocación sintética del handler de Lambda a una ruta inexistente (404, sin tocar AWS)
+    private void primeLambdaHandler() {
+        lambdaHandler.ifAvailable(handler -> {
+            APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                    .withHttpMethod("GET")
+                    .withPath("/__priming");
+            handler.apply(MessageBuilder.withPayload(request).build());
+        });
+    }
+
+    // Marshalling del SDK y, si está habilitado, una lectura real (credenciales, TLS, pool de conexiones)
+    private void primeAwsSdk() {
+        PutObjectRequest.builder().bucket("priming").key("priming").build();
+        RequestBody.fromBytes(new byte[1]);
+        if (awsCalls) {
+            taskRepository.findById(new UUID(0L, 0L));
+        }
+    }
+
+    private void step(String name, PrimingStep step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+            log.debug("Priming step '{}' took {} ms", name, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Priming step '{}' failed: {}", name, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface PrimingStep {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,42 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hooks de checkpoint/restore (CRaC, Lambda SnapStart).
+ * Antes del snapshot se cierran los pools HTTP de los clientes AWS: las conexiones abiertas no sobreviven
+ * al restore (y compartirían estado TLS entre entornos restaurados). Tras el restore se abren pools nuevos.
+ * En una JVM sin soporte CRaC el registro es un no-op.
+ */
+@Component
+public class CracCheckpointHooks implements Resource {
+
+    private static final Logger log = LoggerFactory.getLogger(CracCheckpointHooks.class);
+
+    private final List<ReconnectableSdkHttpClient> httpClients;
+
+    public CracCheckpointHooks(List<ReconnectableSdkHttpClient> httpClients) {
+        this.httpClients = httpClients;
+        // El contexto global guarda referencias débiles: este bean (singleton) mantiene viva la instancia
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        httpClients.forEach(ReconnectableSdkHttpClient::disconnect);
+        log.info("Checkpoint: closed {} AWS HTTP connection pools", httpClients.size());
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        httpClients.forEach(ReconnectableSdkHttpClient::reconnect);
+        log.info("Restore: reopened {} AWS HTTP connection pools", httpClients.size());
+    }
+}
@@ -0,0 +1,61 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
+import com.newsnow.imageapi.application.dto.ErrorResponse;
+import com.newsnow.imageapi.application.dto.TaskResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import javax.imageio.spi.IIOServiceProvider;
+import javax.imageio.spi.ImageInputStreamSpi;
+import javax.imageio.spi.ImageOutputStreamSpi;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.spi.ImageTranscoderSpi;
+import javax.imageio.spi.ImageWriterSpi;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Metadatos para la imagen nativa de GraalVM (perfil Maven "native") que Spring AOT no deduce por sí solo:
+ * DTOs y eventos de API Gateway que serializa Jackson, los proveedores SPI de ImageIO
+ * (TwelveMonkeys, JAI) con sus recursos, y los recursos JSON que carga el SDK de AWS.
+ * Se calcula durante el build (process-aot) a partir del classpath real, así que un plugin
+ * de ImageIO nuevo en el pom queda incluido sin tocar nada aquí.
+ */
+public class NativeImageHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<? extends IIOServiceProvider>> IMAGEIO_SPI_TYPES = List.of(
+            ImageReaderSpi.class, ImageWriterSpi.class, ImageTranscoderSpi.class,
+            ImageInputStreamSpi.class, ImageOutputStreamSpi.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Jackson: cuerpos de la API y eventos de API Gateway (modo Lambda)
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                TaskResponse.class, ErrorResponse.class, CreateBatchTaskRequest.class, BatchTaskResponse.class,
+                APIGatewayProxyRequestEvent.class, APIGatewayProxyResponseEvent.class);
+
+        // ImageIO: IIORegistry instancia por ServiceLoader cada proveedor declarado en META-INF/services
+        for (Class<? extends IIOServiceProvider> spiType : IMAGEIO_SPI_TYPES) {
+            hints.resources().registerPattern("META-INF/services/" + spiType.getName());
+            ServiceLoader.load(spiType, classLoader).stream().forEach(provider ->
+                    hints.reflection().registerType(provider.type(), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        }
+        // TwelveMonkeys: perfiles ICC y DTDs de metadatos TIFF
+        hints.resources()
+                .registerPattern("com/twelvemonkeys/imageio/color/*.properties")
+                .registerPattern("profiles/*.icc")
+                .registerPattern("tiff-*-metadata-sun.dtd");
+
+        // SDK de AWS: configuración por defecto, endpoints de regiones y tipos MIME
+        hints.resources()
+                .registerPattern("software/amazon/awssdk/awscore/internal/defaults/sdk-default-configuration.json")
+                .registerPattern("software/amazon/awssdk/regions/internal/region/endpoints.json")
+                .registerPattern("software/amazon/awssdk/core/util/mime.types");
+    }
+}
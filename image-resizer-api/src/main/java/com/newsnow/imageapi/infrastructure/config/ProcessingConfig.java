@@ -0,0 +1,45 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import com.newsnow.imageapi.infrastructure.processing.CpuBoundImageProcessor;
+import com.newsnow.imageapi.infrastructure.processing.MemoryBudgetImageProcessor;
+import com.newsnow.imageapi.infrastructure.processing.ThumbnailatorImageProcessorAdapter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Compone el ImageProcessorPort que usa la aplicación a partir del adaptador de Thumbnailator
+ * y los decoradores activos según la configuración.
+ */
+@Configuration
+public class ProcessingConfig {
+
+    @Bean
+    @Primary
+    public ImageProcessorPort imageProcessorPort(ThumbnailatorImageProcessorAdapter thumbnailatorAdapter,
+                                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                                 @Value("${image-resizer.processing.cpu-threads:0}") int cpuThreads,
+                                                 @Value("${image-resizer.memory-budget.enabled:true}") boolean memoryBudget,
+                                                 @Value("${image-resizer.memory-budget.heap-fraction:0.5}") double heapFraction,
+                                                 @Value("${image-resizer.memory-budget.bytes-per-pixel:4}") int bytesPerPixel,
+                                                 @Value("${image-resizer.memory-budget.max-wait-ms:2000}") long maxWaitMs,
+                                                 @Value("${image-resizer.memory-budget.retry-after-seconds:2}") long retryAfterSeconds) {
+        ImageProcessorPort processor = thumbnailatorAdapter;
+        if (virtualThreads) {
+            // Con hilos virtuales el trabajo de CPU va a un pool propio del tamaño de los núcleos
+            processor = new CpuBoundImageProcessor(processor,
+                    cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors());
+        }
+        if (memoryBudget) {
+            // Fuera del pool de CPU: lo que espera presupuesto es el hilo de la petición, no un hilo de CPU
+            // Su close() (destroy method inferido por Spring) cierra también el pool de CpuBoundImageProcessor
+            processor = new MemoryBudgetImageProcessor(processor, MemoryBudgetImageProcessor.budgetFromHeapFraction(heapFraction),
+                    bytesPerPixel, Duration.ofMillis(maxWaitMs), retryAfterSeconds);
+        }
+        return processor;
+    }
+}
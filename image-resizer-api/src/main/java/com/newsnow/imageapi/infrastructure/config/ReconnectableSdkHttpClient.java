@@ -0,0 +1,62 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+
+import java.util.function.Supplier;
+
+/**
+ * SdkHttpClient que delega en un cliente HTTP "real" que se puede cerrar y volver a abrir.
+ * Los clientes del SDK (S3, DynamoDB) conservan esta instancia; alrededor de un checkpoint
+ * (CRaC / Lambda SnapStart) se cierran las conexiones del pool y tras el restore se crea un pool nuevo,
+ * sin reconstruir los clientes ni los adaptadores que los usan.
+ */
+public class ReconnectableSdkHttpClient implements SdkHttpClient {
+
+    private final String name;
+    private final Supplier<SdkHttpClient> factory;
+    private volatile SdkHttpClient delegate;
+
+    public ReconnectableSdkHttpClient(String name, Supplier<SdkHttpClient> factory) {
+        this.name = name;
+        this.factory = factory;
+        this.delegate = factory.get();
+    }
+
+    @Override
+    public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+        SdkHttpClient current = delegate;
+        if (current == null) {
+            // Petición durante un checkpoint (no debería pasar): se reabre bajo demanda
+            current = reconnect();
+        }
+        return current.prepareRequest(request);
+    }
+
+    /** Cierra el pool actual (todas sus conexiones abiertas). */
+    public synchronized void disconnect() {
+        if (delegate != null) {
+            delegate.close();
+            delegate = null;
+        }
+    }
+
+    /** Crea un pool nuevo si no hay uno abierto. */
+    public synchronized SdkHttpClient reconnect() {
+        if (delegate == null) {
+            delegate = factory.get();
+        }
+        return delegate;
+    }
+
+    @Override
+    public String clientName() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        disconnect();
+    }
+}
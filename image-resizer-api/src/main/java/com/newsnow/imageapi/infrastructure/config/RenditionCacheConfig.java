@@ -0,0 +1,28 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort;
+import com.newsnow.imageapi.infrastructure.cache.NoOpRenditionCache;
+import com.newsnow.imageapi.infrastructure.cache.TieredRenditionCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Caché de renditions: dos niveles (off-heap + disco local) si está habilitada; si no, una que nunca acierta.
+ */
+@Configuration
+public class RenditionCacheConfig {
+
+    @Bean
+    public RenditionCachePort renditionCache(@Value("${image-resizer.rendition-cache.enabled:false}") boolean enabled,
+                                             @Value("${image-resizer.rendition-cache.offheap-max-bytes:67108864}") long offHeapMaxBytes,
+                                             @Value("${image-resizer.rendition-cache.disk-max-bytes:536870912}") long diskMaxBytes,
+                                             @Value("${image-resizer.rendition-cache.disk-dir:${java.io.tmpdir}/image-resizer-renditions}") String diskDir) {
+        if (!enabled) {
+            return new NoOpRenditionCache();
+        }
+        return new TieredRenditionCache(offHeapMaxBytes, diskMaxBytes, Path.of(diskDir));
+    }
+}
@@ -0,0 +1,32 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import com.newsnow.imageapi.infrastructure.queue.FileWorkQueue;
+import com.newsnow.imageapi.infrastructure.queue.InMemoryWorkQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Cola de trabajo entre nodos API y workers: acotada en memoria (mismo proceso) o duradera en disco local
+ * (segmentos + checkpoint, compartible entre procesos del mismo host como sustituta de SQS).
+ */
+@Configuration
+public class WorkQueueConfig {
+
+    @Bean
+    public WorkQueuePort workQueue(@Value("${image-resizer.queue.type:memory}") String type,
+                                   @Value("${image-resizer.queue.capacity:1000}") int capacity,
+                                   @Value("${image-resizer.queue.retry-after-seconds:5}") long retryAfterSeconds,
+                                   @Value("${image-resizer.queue.file.dir:${java.io.tmpdir}/image-resizer-queue}") String directory,
+                                   @Value("${image-resizer.queue.file.segment-bytes:16777216}") long segmentBytes,
+                                   @Value("${image-resizer.queue.file.fsync:true}") boolean fsync) {
+        return switch (type) {
+            case "memory" -> new InMemoryWorkQueue(capacity, retryAfterSeconds);
+            case "file" -> new FileWorkQueue(Path.of(directory), segmentBytes, fsync);
+            default -> throw new IllegalArgumentException("Unknown work queue type: " + type + " (memory | file).");
+        };
+    }
+}
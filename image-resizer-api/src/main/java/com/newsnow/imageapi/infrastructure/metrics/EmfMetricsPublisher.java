@@ -0,0 +1,122 @@
+package com.newsnow.imageapi.infrastructure.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publica las mediciones de ProcessingMetrics en CloudWatch Embedded Metric Format (solo Lambda):
+ * un documento JSON por línea en stdout, que CloudWatch Logs convierte en métricas sin llamadas a la API.
+ * Las mediciones se acumulan durante la invocación y flush() escribe un documento por etapa/formato/tramo
+ * con todos sus valores (arrays de hasta 100), antes de que el entorno se congele al devolver la respuesta.
+ */
+public class EmfMetricsPublisher implements ProcessingMetrics.Recorder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmfMetricsPublisher.class);
+
+    // Límite de valores por métrica en un documento EMF
+    static final int MAX_VALUES_PER_DOCUMENT = 100;
+
+    private static final List<List<String>> DIMENSIONS = List.of(
+            List.of("Stage"),
+            List.of("Stage", "Format", "SizeBucket"));
+
+    private final ObjectMapper objectMapper;
+    private final String namespace;
+    private final PrintStream out;
+    // Mediciones de la invocación en curso (el pipeline puede registrar desde sus hilos de E/S)
+    private final Map<Key, Values> pending = new HashMap<>();
+
+    @Autowired
+    public EmfMetricsPublisher(ObjectMapper objectMapper,
+                               @Value("${image-resizer.metrics.emf.namespace:ImageResizer}") String namespace) {
+        this(objectMapper, namespace, System.out);
+    }
+
+    EmfMetricsPublisher(ObjectMapper objectMapper, String namespace, PrintStream out) {
+        this.objectMapper = objectMapper;
+        this.namespace = namespace;
+        this.out = out;
+    }
+
+    @Override
+    public synchronized void record(ProcessingMetrics.Stage stage, String format, String sizeBucket, long nanos, long bytes) {
+        Values values = pending.computeIfAbsent(new Key(stage.tagValue(), format, sizeBucket), key -> new Values());
+        values.millis.add(nanos / 1_000_000.0);
+        if (bytes >= 0) {
+            values.bytes.add(bytes);
+        }
+    }
+
+    @Override
+    public void flush() {
+        Map<Key, Values> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+        }
+        long timestamp = System.currentTimeMillis();
+        batch.forEach((key, values) -> {
+            for (int from = 0; from < values.millis.size(); from += MAX_VALUES_PER_DOCUMENT) {
+                write(key, timestamp,
+                        values.millis.subList(from, Math.min(from + MAX_VALUES_PER_DOCUMENT, values.millis.size())),
+                        values.bytes.subList(Math.min(from, values.bytes.size()), Math.min(from + MAX_VALUES_PER_DOCUMENT, values.bytes.size())));
+            }
+        });
+    }
+
+    @Override
+    public synchronized void discard() {
+        pending.clear();
+    }
+
+    private void write(Key key, long timestamp, List<Double> millis, List<Long> bytes) {
+        List<Map<String, String>> metrics = new ArrayList<>();
+        metrics.add(Map.of("Name", "Duration", "Unit", "Milliseconds"));
+        if (!bytes.isEmpty()) {
+            metrics.add(Map.of("Name", "Bytes", "Unit", "Bytes"));
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("_aws", Map.of(
+                "Timestamp", timestamp,
+                "CloudWatchMetrics", List.of(Map.of(
+                        "Namespace", namespace,
+                        "Dimensions", DIMENSIONS,
+                        "Metrics", metrics))));
+        document.put("Stage", key.stage());
+        document.put("Format", key.format());
+        document.put("SizeBucket", key.sizeBucket());
+        document.put("Duration", millis);
+        if (!bytes.isEmpty()) {
+            document.put("Bytes", bytes);
+        }
+        try {
+            out.println(objectMapper.writeValueAsString(document));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize EMF metrics for stage {}: {}", key.stage(), e.getMessage());
+        }
+    }
+
+    private record Key(String stage, String format, String sizeBucket) {
+    }
+
+    private static final class Values {
+        private final List<Double> millis = new ArrayList<>();
+        private final List<Long> bytes = new ArrayList<>();
+    }
+}
@@ -1,16 +1,28 @@
 package com.newsnow.imageapi.infrastructure.persistence;
 
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.PersistEvent;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
 import com.newsnow.imageapi.domain.model.ImageResolution;
 import com.newsnow.imageapi.domain.model.Task;
 import com.newsnow.imageapi.domain.model.TaskStatus;
 import com.newsnow.imageapi.domain.port.out.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,38 +30,123 @@ import java.util.UUID;
 @Repository
 public class DynamoDbTaskRepository implements TaskRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(DynamoDbTaskRepository.class);
+
     private final DynamoDbClient dynamoDbClient;
     private final String tableName;
+    private final ProcessingMetrics processingMetrics;
 
     // Mapeador reutilizable para convertir entre Task y Item de DynamoDB
     private static final TaskDynamoDbItemMapper MAPPER = new TaskDynamoDbItemMapper();
 
+    // Límites de BatchWriteItem
+    private static final int MAX_BATCH_WRITE_ITEMS = 25;
+    private static final int MAX_BATCH_WRITE_RETRIES = 5;
+    private static final long BATCH_WRITE_BACKOFF_MS = 50;
+
+    @Autowired
     public DynamoDbTaskRepository(DynamoDbClient dynamoDbClient,
-                                  @Value("${aws.dynamodb.table-name}") String tableName) {
+                                  @Value("${aws.dynamodb.table-name}") String tableName,
+                                  ProcessingMetrics processingMetrics) {
         this.dynamoDbClient = dynamoDbClient;
         this.tableName = tableName;
+        this.processingMetrics = processingMetrics;
+    }
+
+    public DynamoDbTaskRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        this(dynamoDbClient, tableName, ProcessingMetrics.noop());
     }
 
     @Override
     public void save(Task task) {
+        save(task, Deadline.none());
+    }
+
+    @Override
+    public void save(Task task, Deadline deadline) {
+        PersistEvent event = new PersistEvent();
+        event.beginStage();
+        long itemSize = -1;
+        boolean saved = false;
         try {
+            deadline.check("persist");
             // Mapear la entidad Task a un Item de DynamoDB
             Map<String, AttributeValue> item = MAPPER.toItem(task);
+            itemSize = itemSize(item);
 
-            // Crear la solicitud PutItem
-            PutItemRequest request = PutItemRequest.builder()
+            // Crear la solicitud PutItem (con el tiempo restante como timeout total de la llamada)
+            PutItemRequest.Builder request = PutItemRequest.builder()
                     .tableName(tableName)
-                    .item(item)
-                    .build();
+                    .item(item);
+            deadline.remaining().ifPresent(remaining ->
+                    request.overrideConfiguration(config -> config.apiCallTimeout(remaining.isZero() ? Duration.ofMillis(1) : remaining)));
 
-            // Ejecutar la operación
-            dynamoDbClient.putItem(request);
+            // Ejecutar la operación (sin formato de imagen: el tramo de tamaño es el del item)
+            processingMetrics.time(ProcessingMetrics.Stage.DYNAMODB_PUT, ProcessingMetrics.NONE, itemSize,
+                    () -> dynamoDbClient.putItem(request.build()));
+            saved = true;
 
+        } catch (ApiCallTimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded while saving task " + task.getTaskId() + ".", e);
         } catch (DynamoDbException e) {
             // Envolver excepciones de DynamoDB
-            System.err.println("DynamoDB Error saving task " + task.getTaskId() + ": " + e.getMessage());
+            log.error("DynamoDB Error saving task {}: {}", task.getTaskId(), e.getMessage());
             throw new RuntimeException("Failed to save task to DynamoDB", e);
+        } finally {
+            commit(event, "put", task.getTaskId(), task.getStatus().name(), 1, itemSize, saved);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Task> tasks) {
+        // BatchWriteItem admite como máximo 25 items por llamada
+        for (int from = 0; from < tasks.size(); from += MAX_BATCH_WRITE_ITEMS) {
+            List<Task> chunk = tasks.subList(from, Math.min(from + MAX_BATCH_WRITE_ITEMS, tasks.size()));
+            PersistEvent event = new PersistEvent();
+            event.beginStage();
+            List<WriteRequest> writes = chunk.stream()
+                    .map(task -> WriteRequest.builder()
+                            .putRequest(PutRequest.builder().item(MAPPER.toItem(task)).build())
+                            .build())
+                    .toList();
+            boolean saved = false;
+            try {
+                writeBatch(writes);
+                saved = true;
+            } finally {
+                if (event.isEnabled()) {
+                    long itemBytes = writes.stream().mapToLong(write -> itemSize(write.putRequest().item())).sum();
+                    commit(event, "batch_write", null, chunk.get(0).getStatus().name(), chunk.size(), itemBytes, saved);
+                }
+            }
+        }
+    }
+
+    // Ejecuta un BatchWriteItem reintentando (con backoff) los items que DynamoDB no procese
+    private void writeBatch(List<WriteRequest> writes) {
+        Map<String, List<WriteRequest>> pending = Map.of(tableName, writes);
+        try {
+            for (int attempt = 0; attempt <= MAX_BATCH_WRITE_RETRIES; attempt++) {
+                if (attempt > 0) {
+                    Thread.sleep(BATCH_WRITE_BACKOFF_MS << (attempt - 1));
+                }
+                BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+                if (!response.hasUnprocessedItems() || response.unprocessedItems().isEmpty()) {
+                    return;
+                }
+                pending = response.unprocessedItems();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving task batch to DynamoDB", e);
+        } catch (DynamoDbException e) {
+            log.error("DynamoDB Error saving task batch: {}", e.getMessage());
+            throw new RuntimeException("Failed to save task batch to DynamoDB", e);
         }
+        log.error("DynamoDB Error saving task batch: items still unprocessed after retries.");
+        throw new RuntimeException("Failed to save task batch to DynamoDB: unprocessed items remain");
     }
 
     @Override
@@ -66,32 +163,76 @@ public class DynamoDbTaskRepository implements TaskRepository {
                     .key(keyToGet)
                     .build();
 
-            // Ejecutar la operación
+            // Ejecutar la operación (el tamaño no se conoce hasta tener la respuesta)
+            PersistEvent event = new PersistEvent();
+            event.beginStage();
+            long start = System.nanoTime();
             GetItemResponse response = dynamoDbClient.getItem(request);
+            long itemSize = response.hasItem() ? itemSize(response.item()) : 0;
+            processingMetrics.record(ProcessingMetrics.Stage.DYNAMODB_GET, ProcessingMetrics.NONE, itemSize, System.nanoTime() - start);
 
             // Verificar si se encontró el item y mapearlo de vuelta a Task
             if (response.hasItem()) {
                 Task task = MAPPER.fromItem(response.item());
+                commit(event, "get", taskId, task.getStatus().name(), 1, itemSize, true);
                 return Optional.of(task);
             } else {
+                commit(event, "get", taskId, null, 0, itemSize, true);
                 return Optional.empty(); // No se encontró la tarea
             }
 
         } catch (DynamoDbException e) {
-            System.err.println("DynamoDB Error finding task " + taskId + ": " + e.getMessage());
+            log.error("DynamoDB Error finding task {}: {}", taskId, e.getMessage());
             throw new RuntimeException("Failed to find task in DynamoDB", e);
         }
     }
 
-    // --- Clase interna estática para el mapeo ---
-    private static class TaskDynamoDbItemMapper {
+    // Evento JFR de la operación (solo se rellena si hay una grabación que lo pida)
+    private static void commit(PersistEvent event, String operation, UUID taskId, String status, int taskCount,
+                               long itemBytes, boolean succeeded) {
+        if (event.endStage()) {
+            event.operation = operation;
+            event.taskId = taskId != null ? taskId.toString() : null;
+            event.status = status;
+            event.taskCount = taskCount;
+            event.itemBytes = itemBytes;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    // Tamaño aproximado del item tal como lo cuenta DynamoDB: nombres de atributo + valores (S y N)
+    static long itemSize(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += attribute.getKey().length();
+            AttributeValue value = attribute.getValue();
+            if (value.s() != null) {
+                size += value.s().length();
+            } else if (value.n() != null) {
+                size += value.n().length();
+            }
+        }
+        return size;
+    }
+
+    // --- Clase interna estática para el mapeo (visible en el paquete para los benchmarks JMH) ---
+    static class TaskDynamoDbItemMapper {
         private static final String ATTR_TASK_ID = "taskId";
         private static final String ATTR_CREATED_AT = "createdAt";
         private static final String ATTR_ORIGINAL_MD5 = "originalMD5";
+        private static final String ATTR_CONTENT_HASH = "contentHash";
         private static final String ATTR_REQ_WIDTH = "requestedWidth";
         private static final String ATTR_REQ_HEIGHT = "requestedHeight";
+        private static final String ATTR_REQ_EXTENSION = "requestedExtension";
         private static final String ATTR_STATUS = "status";
         private static final String ATTR_RESULT_URL = "resultImageUrl";
+        private static final String ATTR_BLUR_HASH = "blurHash";
+        private static final String ATTR_PLACEHOLDER = "placeholder";
+        private static final String ATTR_ENCODING_FORMAT = "encodingFormat";
+        private static final String ATTR_ENCODING_QUALITY = "encodingQuality";
+        private static final String ATTR_ENCODING_SSIM = "encodingSsim";
+        private static final String ATTR_ENCODING_ATTEMPTS = "encodingAttempts";
 
         // Formateador para timestamps ISO 8601
         private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
@@ -106,11 +247,38 @@ public class DynamoDbTaskRepository implements TaskRepository {
             item.put(ATTR_REQ_HEIGHT, AttributeValue.builder().n(String.valueOf(task.getRequestedResolution().getHeight())).build());
             item.put(ATTR_STATUS, AttributeValue.builder().s(task.getStatus().name()).build());
 
+            // Solo si difiere del MD5 (hash de deduplicación distinto de "md5")
+            if (!task.getContentHash().equals(task.getOriginalMD5())) {
+                item.put(ATTR_CONTENT_HASH, AttributeValue.builder().s(task.getContentHash()).build());
+            }
+
+            // Clave de la rendition en la caché (las tareas antiguas no la tienen)
+            if (task.getRequestedExtension() != null) {
+                item.put(ATTR_REQ_EXTENSION, AttributeValue.builder().s(task.getRequestedExtension()).build());
+            }
+
             // Solo añadir resultImageUrl si no es nulo
             if (task.getResultImageUrl() != null) {
                 item.put(ATTR_RESULT_URL, AttributeValue.builder().s(task.getResultImageUrl()).build());
             }
 
+            // Placeholder en el mismo item: GET /v1/task/{taskId} lo devuelve sin otra lectura
+            if (task.getPlaceholder() != null) {
+                item.put(ATTR_BLUR_HASH, AttributeValue.builder().s(task.getPlaceholder().blurHash()).build());
+                item.put(ATTR_PLACEHOLDER, AttributeValue.builder().s(task.getPlaceholder().previewDataUri()).build());
+            }
+
+            // Codificación con calidad buscada (solo si se configuró un objetivo de bytes o SSIM)
+            ImageEncoding encoding = task.getEncoding();
+            if (encoding != null) {
+                item.put(ATTR_ENCODING_FORMAT, AttributeValue.builder().s(encoding.format()).build());
+                item.put(ATTR_ENCODING_QUALITY, AttributeValue.builder().n(String.valueOf(encoding.quality())).build());
+                item.put(ATTR_ENCODING_ATTEMPTS, AttributeValue.builder().n(String.valueOf(encoding.attempts())).build());
+                if (encoding.ssim() != null) {
+                    item.put(ATTR_ENCODING_SSIM, AttributeValue.builder().n(String.valueOf(encoding.ssim())).build());
+                }
+            }
+
             return item;
         }
 
@@ -119,14 +287,25 @@ public class DynamoDbTaskRepository implements TaskRepository {
             UUID taskId = UUID.fromString(item.get(ATTR_TASK_ID).s());
             OffsetDateTime createdAt = OffsetDateTime.parse(item.get(ATTR_CREATED_AT).s(), ISO_FORMATTER);
             String originalMD5 = item.get(ATTR_ORIGINAL_MD5).s();
+            String contentHash = item.containsKey(ATTR_CONTENT_HASH) ? item.get(ATTR_CONTENT_HASH).s() : originalMD5;
             int width = Integer.parseInt(item.get(ATTR_REQ_WIDTH).n());
             int height = Integer.parseInt(item.get(ATTR_REQ_HEIGHT).n());
             ImageResolution resolution = new ImageResolution(width, height);
+            String requestedExtension = item.containsKey(ATTR_REQ_EXTENSION) ? item.get(ATTR_REQ_EXTENSION).s() : null;
             TaskStatus status = TaskStatus.valueOf(item.get(ATTR_STATUS).s());
             String resultUrl = item.containsKey(ATTR_RESULT_URL) ? item.get(ATTR_RESULT_URL).s() : null;
+            ImagePlaceholder placeholder = item.containsKey(ATTR_BLUR_HASH) && item.containsKey(ATTR_PLACEHOLDER)
+                    ? new ImagePlaceholder(item.get(ATTR_BLUR_HASH).s(), item.get(ATTR_PLACEHOLDER).s())
+                    : null;
+            ImageEncoding encoding = item.containsKey(ATTR_ENCODING_FORMAT)
+                    ? new ImageEncoding(item.get(ATTR_ENCODING_FORMAT).s(),
+                            Float.parseFloat(item.get(ATTR_ENCODING_QUALITY).n()),
+                            item.containsKey(ATTR_ENCODING_SSIM) ? Double.valueOf(item.get(ATTR_ENCODING_SSIM).n()) : null,
+                            Integer.parseInt(item.get(ATTR_ENCODING_ATTEMPTS).n()))
+                    : null;
 
             // Usar el constructor adecuado de Task para reconstruir
-            return new Task(taskId, createdAt, originalMD5, resolution, status, resultUrl);
+            return new Task(taskId, createdAt, originalMD5, contentHash, resolution, requestedExtension, status, resultUrl, placeholder, encoding);
         }
     }
 }
\ No newline at end of file
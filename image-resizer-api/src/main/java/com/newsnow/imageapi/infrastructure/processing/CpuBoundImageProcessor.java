@@ -0,0 +1,84 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.metrics.jfr.TaskEventContext;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorador que confina el redimensionado (CPU) a un pool de hilos de plataforma del tamaño de los núcleos.
+ * Con hilos virtuales, el hilo de la petición solo espera (y libera su carrier) mientras el pool trabaja:
+ * el decode/resize nunca monopoliza los carriers que atienden la E/S de S3 y DynamoDB.
+ */
+public class CpuBoundImageProcessor implements ImageProcessorPort, AutoCloseable {
+
+    private final ImageProcessorPort delegate;
+    private final ExecutorService cpuPool;
+
+    public CpuBoundImageProcessor(ImageProcessorPort delegate, int threads) {
+        this.delegate = delegate;
+        AtomicInteger counter = new AtomicInteger();
+        this.cpuPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "image-cpu-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution) throws ImageProcessingException {
+        return resizeImage(imageInputStream, targetResolution, Deadline.none());
+    }
+
+    @Override
+    public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return onCpuPool(() -> delegate.resizeImage(imageInputStream, targetResolution, deadline), deadline);
+    }
+
+    @Override
+    public ProcessedImage processImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return onCpuPool(() -> delegate.processImage(imageInputStream, targetResolution, deadline), deadline);
+    }
+
+    private <T> T onCpuPool(Callable<T> work, Deadline deadline) {
+        deadline.check("resize");
+        // Los eventos JFR del pool llevan el ID de la tarea del hilo que espera
+        Future<T> result = cpuPool.submit(TaskEventContext.wrap(work));
+        try {
+            // Con deadline, la espera (incluida la cola del pool) tampoco pasa del tiempo restante
+            Optional<Duration> remaining = deadline.remaining();
+            return remaining.isPresent() ? result.get(remaining.get().toNanos(), TimeUnit.NANOSECONDS) : result.get();
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new DeadlineExceededException("Deadline exceeded while waiting for image processing.", e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException("Interrupted while waiting for image processing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException; // Mantiene ImageProcessingException y demás tal cual
+            }
+            throw new ImageProcessingException("Unexpected error during image processing: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        cpuPool.shutdown();
+    }
+}
@@ -0,0 +1,57 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streams que comprueban el deadline en cada bloque: el decoder lee y el encoder escribe la imagen por bandas,
+ * así que un decode o encode lento se corta entre bandas en vez de consumir el resto de la invocación.
+ */
+final class DeadlineStreams {
+
+    private DeadlineStreams() {
+    }
+
+    static InputStream input(InputStream in, Deadline deadline) {
+        if (!deadline.isBounded()) {
+            return in;
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                deadline.check("decode");
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                deadline.check("decode");
+                return super.read(b, off, len);
+            }
+        };
+    }
+
+    static OutputStream output(OutputStream out, Deadline deadline) {
+        if (!deadline.isBounded()) {
+            return out;
+        }
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                deadline.check("encode");
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                deadline.check("encode");
+                out.write(b, off, len);
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.ingest.ImageDimensions;
+import com.newsnow.imageapi.application.ingest.ImageFormat;
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Decorador de control de admisión: antes de decodificar, estima la memoria de los rásteres a partir de las
+ * dimensiones de la cabecera (ancho x alto x bytes por píxel, original más miniatura) y la reserva de un
+ * presupuesto común a todo el proceso (un semáforo ponderado, en KiB, dimensionado como fracción del heap máximo).
+ * Si no hay presupuesto la petición espera en cola (FIFO) hasta {@code maxWait} o su deadline, y después se
+ * rechaza con TaskRejectedException (503 + Retry-After). Una imagen mayor que el presupuesto entero reserva
+ * el presupuesto entero: se procesa, pero sola.
+ * Es el bean que ve Spring: al cerrarse cierra el decorador envuelto (p.ej. el pool de CpuBoundImageProcessor).
+ */
+public class MemoryBudgetImageProcessor implements ImageProcessorPort, AutoCloseable {
+
+    // Sin dimensiones legibles (TIFF, formato desconocido) se estiman a partir del tamaño comprimido
+    static final long PIXELS_PER_UNKNOWN_BYTE = 8;
+
+    private static final int PERMIT_BYTES = 1024;
+
+    private final ImageProcessorPort delegate;
+    private final int bytesPerPixel;
+    private final Duration maxWait;
+    private final long retryAfterSeconds;
+    private final int totalPermits;
+    // Justo: las imágenes grandes no se quedan esperando indefinidamente detrás de una racha de pequeñas
+    private final Semaphore permits;
+
+    public MemoryBudgetImageProcessor(ImageProcessorPort delegate, long budgetBytes, int bytesPerPixel,
+                                      Duration maxWait, long retryAfterSeconds) {
+        if (budgetBytes < PERMIT_BYTES || bytesPerPixel <= 0) {
+            throw new IllegalArgumentException("Memory budget must be at least 1 KiB and bytes per pixel positive.");
+        }
+        this.delegate = delegate;
+        this.bytesPerPixel = bytesPerPixel;
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.totalPermits = (int) Math.min(Integer.MAX_VALUE, budgetBytes / PERMIT_BYTES);
+        this.permits = new Semaphore(totalPermits, true);
+    }
+
+    /** Presupuesto como fracción del heap máximo de la JVM (-Xmx). */
+    public static long budgetFromHeapFraction(double heapFraction) {
+        if (heapFraction <= 0 || heapFraction > 1) {
+            throw new IllegalArgumentException("Heap fraction must be in (0, 1].");
+        }
+        return (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+    }
+
+    @Override
+    public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution) throws ImageProcessingException {
+        return resizeImage(imageInputStream, targetResolution, Deadline.none());
+    }
+
+    @Override
+    public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return withinBudget(imageInputStream, targetResolution, deadline, in -> delegate.resizeImage(in, targetResolution, deadline));
+    }
+
+    @Override
+    public ProcessedImage processImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return withinBudget(imageInputStream, targetResolution, deadline, in -> delegate.processImage(in, targetResolution, deadline));
+    }
+
+    private <T> T withinBudget(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline,
+                               Function<InputStream, T> work) {
+        if (imageInputStream == null) {
+            throw new ImageProcessingException("Input stream cannot be null.");
+        }
+        // La cabecera se lee con mark/reset: el adaptador recibe el stream desde el primer byte
+        BufferedInputStream in = new BufferedInputStream(imageInputStream);
+        int required = permitsFor(estimateDecodedBytes(in, targetResolution));
+        acquire(required, deadline);
+        try {
+            return work.apply(in);
+        } finally {
+            permits.release(required);
+        }
+    }
+
+    /** Bytes del presupuesto que quedan libres ahora mismo. */
+    public long availableBytes() {
+        return (long) permits.availablePermits() * PERMIT_BYTES;
+    }
+
+    public long budgetBytes() {
+        return (long) totalPermits * PERMIT_BYTES;
+    }
+
+    // Ráster de la imagen original más el de la miniatura (que nunca supera la resolución pedida)
+    long estimateDecodedBytes(BufferedInputStream in, ImageResolution targetResolution) {
+        long targetPixels = (long) targetResolution.getWidth() * targetResolution.getHeight();
+        return (sourcePixels(in) + targetPixels) * bytesPerPixel;
+    }
+
+    private long sourcePixels(BufferedInputStream in) {
+        try {
+            in.mark(ImageDimensions.MAX_HEADER_BYTES);
+            byte[] header = in.readNBytes(ImageFormat.HEADER_LENGTH);
+            in.reset();
+            ImageFormat format = ImageFormat.sniff(header, header.length);
+            long pixels = ImageDimensions.read(format, in).map(ImageDimensions::pixelCount).orElse(-1L);
+            in.reset();
+            return pixels >= 0 ? pixels : in.available() * PIXELS_PER_UNKNOWN_BYTE;
+        } catch (IOException e) {
+            throw new ImageProcessingException("Failed to read image header: " + e.getMessage(), e);
+        }
+    }
+
+    private int permitsFor(long bytes) {
+        long needed = (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES;
+        return (int) Math.max(1, Math.min(totalPermits, needed));
+    }
+
+    private void acquire(int required, Deadline deadline) {
+        Duration wait = deadline.remaining().filter(left -> left.compareTo(maxWait) < 0).orElse(maxWait);
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(required, wait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingException("Interrupted while waiting for decode memory budget.", e);
+        }
+        if (!acquired) {
+            deadline.check("decode");
+            throw new TaskRejectedException("Decode memory budget exhausted (" + ((long) required * PERMIT_BYTES)
+                    + " bytes requested, " + availableBytes() + " available). Please retry later.", retryAfterSeconds);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
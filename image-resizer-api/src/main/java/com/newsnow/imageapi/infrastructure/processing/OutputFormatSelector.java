@@ -0,0 +1,208 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Formato de salida según el contenido del ráster redimensionado, muestreado en una rejilla de hasta 64x64 puntos:
+ * <ul>
+ *     <li>Pocos colores (gráficos planos, logos): PNG con paleta, si 256 colores cubren la imagen casi sin pérdida.</li>
+ *     <li>Transparencia, o colores repetidos con bordes nítidos (capturas, texto): PNG a color completo.</li>
+ *     <li>El resto (fotografías): WebP si hay un writer de WebP; si no, JPEG.</li>
+ * </ul>
+ */
+final class OutputFormatSelector {
+
+    private static final int GRID = 64;
+    private static final int PALETTE_SIZE = 256;
+    // La paleta solo se usa si sus 256 colores cubren al menos esta fracción de los píxeles (el resto, al más cercano)
+    private static final double PALETTE_COVERAGE = 0.99;
+    // Pasado este número de cubos de color no hay paleta razonable: se deja de contar
+    private static final int MAX_BUCKETS = 4096;
+    // Diferencia de luma entre píxeles vecinos que cuenta como borde nítido
+    private static final int EDGE_THRESHOLD = 48;
+    // Contenido gráfico: muchos colores repetidos (pocos distintos por muestra) y bordes nítidos
+    private static final double GRAPHIC_COLOUR_RATIO = 0.25;
+    private static final double GRAPHIC_EDGE_DENSITY = 0.02;
+
+    private final boolean webp;
+
+    OutputFormatSelector() {
+        this(ImageIO.getImageWritersByFormatName("webp").hasNext());
+    }
+
+    OutputFormatSelector(boolean webp) {
+        this.webp = webp;
+    }
+
+    /** Formato elegido ("png", "jpeg" o "webp") y la imagen que hay que codificar (con paleta, si se redujo). */
+    record Choice(String format, BufferedImage image) {
+    }
+
+    /** Lo medido sobre la rejilla: transparencia, colores distintos, muestras y fracción de vecinos con borde. */
+    record Analysis(boolean alpha, int distinctColours, int samples, double edgeDensity) {
+
+        double colourRatio() {
+            return (double) distinctColours / samples;
+        }
+    }
+
+    Choice select(BufferedImage image) {
+        Analysis analysis = analyse(image);
+        if (analysis.distinctColours() <= PALETTE_SIZE) {
+            BufferedImage palette = toPalette(image);
+            if (palette != null) {
+                return new Choice("png", palette);
+            }
+            return new Choice("png", image);
+        }
+        if (analysis.alpha()
+                || (analysis.colourRatio() <= GRAPHIC_COLOUR_RATIO && analysis.edgeDensity() >= GRAPHIC_EDGE_DENSITY)) {
+            return new Choice("png", image);
+        }
+        return new Choice(webp ? "webp" : "jpeg", image);
+    }
+
+    Analysis analyse(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int stepX = Math.max(1, width / GRID);
+        int stepY = Math.max(1, height / GRID);
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        boolean alpha = false;
+        Set<Integer> colours = new HashSet<>();
+        int samples = 0;
+        int comparisons = 0;
+        int edges = 0;
+        for (int y = stepY / 2; y < height; y += stepY) {
+            for (int x = stepX / 2; x < width; x += stepX) {
+                int pixel = opaqueOrClear(image.getRGB(x, y), hasAlpha);
+                samples++;
+                alpha |= hasAlpha && (pixel >>> 24) < 0xFF;
+                colours.add(pixel);
+                if (x + 1 < width) {
+                    comparisons++;
+                    edges += isEdge(pixel, opaqueOrClear(image.getRGB(x + 1, y), hasAlpha)) ? 1 : 0;
+                }
+                if (y + 1 < height) {
+                    comparisons++;
+                    edges += isEdge(pixel, opaqueOrClear(image.getRGB(x, y + 1), hasAlpha)) ? 1 : 0;
+                }
+            }
+        }
+        return new Analysis(alpha, colours.size(), samples, comparisons > 0 ? (double) edges / comparisons : 0);
+    }
+
+    /**
+     * Paleta de hasta 256 colores por popularidad: cubos de 5 bits por canal (también alfa) y la media de cada cubo.
+     * Null si los 256 cubos más frecuentes no cubren casi toda la imagen (degradados): reducir sería visible.
+     */
+    static BufferedImage toPalette(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Por cubo: [píxeles, suma alfa, suma rojo, suma verde, suma azul]
+        Map<Integer, long[]> buckets = new HashMap<>();
+        for (int i = 0; i < pixels.length; i++) {
+            int pixel = opaqueOrClear(pixels[i], hasAlpha);
+            pixels[i] = pixel;
+            long[] sums = buckets.computeIfAbsent(bucket(pixel), key -> new long[5]);
+            sums[0]++;
+            sums[1] += pixel >>> 24;
+            sums[2] += (pixel >> 16) & 0xFF;
+            sums[3] += (pixel >> 8) & 0xFF;
+            sums[4] += pixel & 0xFF;
+            if (buckets.size() > MAX_BUCKETS) {
+                return null;
+            }
+        }
+
+        List<Map.Entry<Integer, long[]>> byPopularity = new ArrayList<>(buckets.entrySet());
+        byPopularity.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        int size = Math.min(PALETTE_SIZE, byPopularity.size());
+        long covered = 0;
+        byte[] alphas = new byte[size];
+        byte[] reds = new byte[size];
+        byte[] greens = new byte[size];
+        byte[] blues = new byte[size];
+        Map<Integer, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            long[] sums = byPopularity.get(i).getValue();
+            covered += sums[0];
+            alphas[i] = (byte) (sums[1] / sums[0]);
+            reds[i] = (byte) (sums[2] / sums[0]);
+            greens[i] = (byte) (sums[3] / sums[0]);
+            blues[i] = (byte) (sums[4] / sums[0]);
+            indexes.put(byPopularity.get(i).getKey(), i);
+        }
+        if (covered < PALETTE_COVERAGE * pixels.length) {
+            return null;
+        }
+        // Los cubos que no entran en la paleta van a la entrada más parecida
+        for (int i = size; i < byPopularity.size(); i++) {
+            long[] sums = byPopularity.get(i).getValue();
+            indexes.put(byPopularity.get(i).getKey(), nearest(alphas, reds, greens, blues,
+                    sums[1] / sums[0], sums[2] / sums[0], sums[3] / sums[0], sums[4] / sums[0]));
+        }
+
+        IndexColorModel colourModel = hasAlpha
+                ? new IndexColorModel(8, size, reds, greens, blues, alphas)
+                : new IndexColorModel(8, size, reds, greens, blues);
+        BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colourModel);
+        byte[] data = ((DataBufferByte) indexed.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++) {
+            data[i] = (byte) (int) indexes.get(bucket(pixels[i]));
+        }
+        return indexed;
+    }
+
+    private static int nearest(byte[] alphas, byte[] reds, byte[] greens, byte[] blues, long a, long r, long g, long b) {
+        int best = 0;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < reds.length; i++) {
+            long da = (alphas[i] & 0xFF) - a;
+            long dr = (reds[i] & 0xFF) - r;
+            long dg = (greens[i] & 0xFF) - g;
+            long db = (blues[i] & 0xFF) - b;
+            long distance = da * da + dr * dr + dg * dg + db * db;
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    // Totalmente opaco y totalmente transparente tienen cubo propio: la media no debe volverlos translúcidos
+    private static int bucket(int pixel) {
+        int alpha = pixel >>> 24;
+        int alphaKey = alpha == 0 ? 0 : alpha == 0xFF ? 33 : 1 + (alpha >> 3);
+        return alphaKey << 15 | ((pixel >> 19) & 0x1F) << 10 | ((pixel >> 11) & 0x1F) << 5 | ((pixel >> 3) & 0x1F);
+    }
+
+    // Sin canal alfa, opaco; totalmente transparente, un único color (el RGB oculto no importa)
+    private static int opaqueOrClear(int pixel, boolean hasAlpha) {
+        if (!hasAlpha) {
+            return pixel | 0xFF000000;
+        }
+        return (pixel >>> 24) == 0 ? 0 : pixel;
+    }
+
+    private static boolean isEdge(int a, int b) {
+        return Math.abs(luma(a) - luma(b)) > EDGE_THRESHOLD;
+    }
+
+    private static int luma(int pixel) {
+        return (299 * ((pixel >> 16) & 0xFF) + 587 * ((pixel >> 8) & 0xFF) + 114 * (pixel & 0xFF)) / 1000;
+    }
+}
@@ -0,0 +1,50 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
+import net.coobird.thumbnailator.Thumbnails;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Placeholder (LQIP + BlurHash) a partir de un ráster ya decodificado: se reduce a una vista previa de pocos
+ * píxeles, que se codifica en PNG como data URI y de la que sale el BlurHash. No vuelve a leer ni decodificar nada.
+ */
+final class PlaceholderGenerator {
+
+    static final int DEFAULT_PREVIEW_SIZE = 16;
+    static final int DEFAULT_COMPONENTS_X = 4;
+    static final int DEFAULT_COMPONENTS_Y = 3;
+
+    private final int previewSize;
+    private final int componentsX;
+    private final int componentsY;
+
+    PlaceholderGenerator(int previewSize, int componentsX, int componentsY) {
+        if (previewSize <= 0) {
+            throw new IllegalArgumentException("Placeholder preview size must be positive.");
+        }
+        this.previewSize = previewSize;
+        this.componentsX = componentsX;
+        this.componentsY = componentsY;
+    }
+
+    PlaceholderGenerator() {
+        this(DEFAULT_PREVIEW_SIZE, DEFAULT_COMPONENTS_X, DEFAULT_COMPONENTS_Y);
+    }
+
+    ImagePlaceholder generate(BufferedImage image) throws IOException {
+        BufferedImage preview = image.getWidth() <= previewSize && image.getHeight() <= previewSize
+                ? image
+                : Thumbnails.of(image).size(previewSize, previewSize).asBufferedImage();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        if (!ImageIO.write(preview, "png", png)) {
+            throw new IOException("No PNG writer available for placeholder preview.");
+        }
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+        return new ImagePlaceholder(BlurHash.encode(preview, componentsX, componentsY), dataUri);
+    }
+}
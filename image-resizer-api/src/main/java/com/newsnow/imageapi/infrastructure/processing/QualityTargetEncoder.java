@@ -0,0 +1,234 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codificación con calidad buscada en lugar de fija, para formatos con pérdida (JPEG; WebP si hay un writer
+ * con compresión): búsqueda binaria de la calidad entre min-quality y max-quality hasta cumplir el objetivo,
+ * con un máximo de intentos y salida anticipada en cuanto el resultado queda cerca del límite.
+ * <ul>
+ *     <li>max-bytes: la mayor calidad cuyo resultado no pasa de max-bytes.</li>
+ *     <li>min-ssim: la menor calidad (menos bytes) cuyo SSIM frente al ráster redimensionado llega a min-ssim.</li>
+ * </ul>
+ * Si ninguna calidad probada cumple, se queda con la más cercana (la más pequeña o la de mayor SSIM).
+ */
+@Component
+public class QualityTargetEncoder {
+
+    public enum Target { NONE, MAX_BYTES, MIN_SSIM }
+
+    // Salida anticipada: ya en el 95-100 % del presupuesto de bytes, o a menos de 0.005 del SSIM pedido
+    private static final double BYTES_TOLERANCE = 0.05;
+    private static final double SSIM_TOLERANCE = 0.005;
+    // Por debajo de esta diferencia de calidad otro intento apenas cambia el resultado
+    private static final float MIN_QUALITY_STEP = 0.02f;
+
+    private static final Map<String, Boolean> TUNABLE_WRITERS = new ConcurrentHashMap<>();
+
+    private final Target target;
+    private final long maxBytes;
+    private final double minSsim;
+    private final int maxAttempts;
+    private final float minQuality;
+    private final float maxQuality;
+    private final int ssimMaxSide;
+
+    @Autowired
+    public QualityTargetEncoder(@Value("${image-resizer.encoding.target:none}") String target,
+                                @Value("${image-resizer.encoding.max-bytes:40960}") long maxBytes,
+                                @Value("${image-resizer.encoding.min-ssim:0.95}") double minSsim,
+                                @Value("${image-resizer.encoding.max-attempts:6}") int maxAttempts,
+                                @Value("${image-resizer.encoding.min-quality:0.4}") float minQuality,
+                                @Value("${image-resizer.encoding.max-quality:0.92}") float maxQuality,
+                                @Value("${image-resizer.encoding.ssim-max-side:256}") int ssimMaxSide) {
+        this(Target.valueOf(target.trim().toUpperCase(Locale.ROOT).replace('-', '_')),
+                maxBytes, minSsim, maxAttempts, minQuality, maxQuality, ssimMaxSide);
+    }
+
+    public QualityTargetEncoder(Target target, long maxBytes, double minSsim, int maxAttempts,
+                                float minQuality, float maxQuality, int ssimMaxSide) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Encoding max attempts must be at least 1.");
+        }
+        if (minQuality <= 0 || minQuality > maxQuality || maxQuality > 1) {
+            throw new IllegalArgumentException("Encoding quality range must satisfy 0 < min-quality <= max-quality <= 1.");
+        }
+        if (ssimMaxSide < 1) {
+            throw new IllegalArgumentException("SSIM max side must be positive.");
+        }
+        this.target = target;
+        this.maxBytes = maxBytes;
+        this.minSsim = minSsim;
+        this.maxAttempts = maxAttempts;
+        this.minQuality = minQuality;
+        this.maxQuality = maxQuality;
+        this.ssimMaxSide = ssimMaxSide;
+    }
+
+    /** Imagen codificada y cómo se llegó a ella. */
+    public record Encoded(byte[] bytes, ImageEncoding encoding) {
+    }
+
+    // Con objetivo configurado y un formato cuya calidad se pueda ajustar; si no, se codifica como siempre
+    public boolean appliesTo(String format) {
+        if (target == Target.NONE || format == null) {
+            return false;
+        }
+        String name = normalize(format);
+        return name.equals("jpeg") || (name.equals("webp") && TUNABLE_WRITERS.computeIfAbsent(name, QualityTargetEncoder::hasTunableWriter));
+    }
+
+    public Encoded encode(BufferedImage image, String format, Deadline deadline) throws IOException {
+        String name = normalize(format);
+        // Igual que Thumbnailator: JPEG sin canal alfa
+        BufferedImage encodable = name.equals("jpeg") && image.getType() != BufferedImage.TYPE_INT_RGB
+                ? copyToRgb(image)
+                : image;
+        Ssim.Reference reference = Ssim.reference(encodable, ssimMaxSide);
+
+        // Primero el extremo que, si cumple, ya es la respuesta: la máxima calidad si cabe, la mínima si ya da el SSIM
+        float low = minQuality;
+        float high = maxQuality;
+        float quality = target == Target.MAX_BYTES ? maxQuality : minQuality;
+        Attempt best = null;
+        Attempt closest = null;
+        int attempts = 0;
+        while (attempts < maxAttempts) {
+            deadline.check("encode");
+            byte[] bytes = write(encodable, name, quality);
+            Double ssim = target == Target.MIN_SSIM ? measure(reference, bytes) : null;
+            Attempt attempt = new Attempt(quality, bytes, ssim);
+            attempts++;
+
+            if (meets(attempt)) {
+                best = attempt;
+                if (nearLimit(attempt) || quality == (target == Target.MAX_BYTES ? maxQuality : minQuality)) {
+                    break;
+                }
+                // Cumple: se prueba por el lado que mejora (más calidad o menos bytes)
+                if (target == Target.MAX_BYTES) {
+                    low = quality;
+                } else {
+                    high = quality;
+                }
+            } else {
+                closest = closer(attempt, closest);
+                if (target == Target.MAX_BYTES) {
+                    high = quality;
+                } else {
+                    low = quality;
+                }
+            }
+            if (high - low < MIN_QUALITY_STEP) {
+                break;
+            }
+            quality = (low + high) / 2;
+        }
+
+        Attempt chosen = best != null ? best : closest;
+        Double ssim = chosen.ssim() != null ? chosen.ssim() : measure(reference, chosen.bytes());
+        return new Encoded(chosen.bytes(), new ImageEncoding(name, chosen.quality(), ssim, attempts));
+    }
+
+    private record Attempt(float quality, byte[] bytes, Double ssim) {
+    }
+
+    private boolean meets(Attempt attempt) {
+        return target == Target.MAX_BYTES
+                ? attempt.bytes().length <= maxBytes
+                : attempt.ssim() != null && attempt.ssim() >= minSsim;
+    }
+
+    private boolean nearLimit(Attempt attempt) {
+        return target == Target.MAX_BYTES
+                ? attempt.bytes().length >= maxBytes * (1 - BYTES_TOLERANCE)
+                : attempt.ssim() <= minSsim + SSIM_TOLERANCE;
+    }
+
+    // Entre las que no cumplen, la que más se acerca: la más pequeña o la de mayor SSIM
+    private Attempt closer(Attempt attempt, Attempt current) {
+        if (current == null) {
+            return attempt;
+        }
+        if (target == Target.MAX_BYTES) {
+            return attempt.bytes().length < current.bytes().length ? attempt : current;
+        }
+        double ssim = attempt.ssim() != null ? attempt.ssim() : -1;
+        double currentSsim = current.ssim() != null ? current.ssim() : -1;
+        return ssim > currentSsim ? attempt : current;
+    }
+
+    // Decodifica la candidata y la compara con la referencia; null si no se puede leer
+    private static Double measure(Ssim.Reference reference, byte[] bytes) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(bytes));
+        return decoded != null ? Ssim.compare(reference, decoded) : null;
+    }
+
+    private static byte[] write(BufferedImage image, String format, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            String[] types = param.getCompressionTypes();
+            if (types != null && types.length > 0 && param.getCompressionType() == null) {
+                param.setCompressionType(types[0]);
+            }
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean hasTunableWriter(String format) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            return false;
+        }
+        ImageWriter writer = writers.next();
+        try {
+            return writer.getDefaultWriteParam().canWriteCompressed();
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage copyToRgb(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static String normalize(String format) {
+        String name = format.toLowerCase(Locale.ROOT);
+        return name.equals("jpg") ? "jpeg" : name;
+    }
+}
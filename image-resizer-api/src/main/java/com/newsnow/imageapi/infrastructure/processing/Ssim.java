@@ -0,0 +1,102 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * SSIM rápido sobre la luma reducida: ambas imágenes se promedian por bloques hasta {@code maxSide} píxeles
+ * de lado como máximo y se compara en ventanas uniformes de 8x8 que avanzan de 4 en 4 (sin gaussiana).
+ * Suficiente para ordenar calidades de una misma imagen, no para comparar imágenes distintas entre sí.
+ */
+final class Ssim {
+
+    private static final int WINDOW = 8;
+    // Constantes estándar para un rango dinámico de 255
+    private static final double C1 = Math.pow(0.01 * 255, 2);
+    private static final double C2 = Math.pow(0.03 * 255, 2);
+
+    private Ssim() {
+    }
+
+    /** Luma reducida de la imagen de referencia: se calcula una vez y se compara con cada candidata. */
+    static final class Reference {
+        private final int width;
+        private final int height;
+        private final float[] luma;
+
+        private Reference(int width, int height, float[] luma) {
+            this.width = width;
+            this.height = height;
+            this.luma = luma;
+        }
+    }
+
+    static Reference reference(BufferedImage image, int maxSide) {
+        double scale = Math.min(1.0, (double) maxSide / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        return new Reference(width, height, luma(image, width, height));
+    }
+
+    // SSIM medio entre la referencia y la candidata (mismas dimensiones de origen): 1 = idénticas
+    static double compare(Reference reference, BufferedImage candidate) {
+        float[] other = luma(candidate, reference.width, reference.height);
+        return mean(reference.luma, other, reference.width, reference.height);
+    }
+
+    // Promedio por bloques (cada píxel de origen cuenta en un único píxel de destino); ignora el canal alfa
+    private static float[] luma(BufferedImage image, int width, int height) {
+        int sourceWidth = image.getWidth();
+        int sourceHeight = image.getHeight();
+        double[] sums = new double[width * height];
+        int[] counts = new int[width * height];
+        int[] row = new int[sourceWidth];
+        for (int sy = 0; sy < sourceHeight; sy++) {
+            image.getRGB(0, sy, sourceWidth, 1, row, 0, sourceWidth);
+            int offset = (int) ((long) sy * height / sourceHeight) * width;
+            for (int sx = 0; sx < sourceWidth; sx++) {
+                int rgb = row[sx];
+                int target = offset + (int) ((long) sx * width / sourceWidth);
+                sums[target] += 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                counts[target]++;
+            }
+        }
+        float[] luma = new float[sums.length];
+        for (int i = 0; i < luma.length; i++) {
+            luma[i] = (float) (sums[i] / counts[i]);
+        }
+        return luma;
+    }
+
+    private static double mean(float[] a, float[] b, int width, int height) {
+        int window = Math.min(WINDOW, Math.min(width, height));
+        int step = Math.max(1, window / 2);
+        double n = window * window;
+        double total = 0;
+        int windows = 0;
+        for (int y0 = 0; y0 + window <= height; y0 += step) {
+            for (int x0 = 0; x0 + window <= width; x0 += step) {
+                double sumA = 0, sumB = 0, sumAA = 0, sumBB = 0, sumAB = 0;
+                for (int y = y0; y < y0 + window; y++) {
+                    for (int i = y * width + x0, end = i + window; i < end; i++) {
+                        double va = a[i];
+                        double vb = b[i];
+                        sumA += va;
+                        sumB += vb;
+                        sumAA += va * va;
+                        sumBB += vb * vb;
+                        sumAB += va * vb;
+                    }
+                }
+                double meanA = sumA / n;
+                double meanB = sumB / n;
+                double varianceA = sumAA / n - meanA * meanA;
+                double varianceB = sumBB / n - meanB * meanB;
+                double covariance = sumAB / n - meanA * meanB;
+                total += ((2 * meanA * meanB + C1) * (2 * covariance + C2))
+                        / ((meanA * meanA + meanB * meanB + C1) * (varianceA + varianceB + C2));
+                windows++;
+            }
+        }
+        return total / windows;
+    }
+}
@@ -0,0 +1,171 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import jakarta.annotation.PreDestroy;
+import net.coobird.thumbnailator.resizers.DefaultResizerFactory;
+import net.coobird.thumbnailator.resizers.Resizer;
+import net.coobird.thumbnailator.resizers.ResizerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.AlphaComposite;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ResizerFactory de Thumbnailator que reparte la reducción de una imagen grande entre varios núcleos:
+ * cada paso de la reducción progresiva (mitades bilineales, como ProgressiveBilinearResizer) divide el ráster
+ * de destino en bandas horizontales que se pintan en paralelo con fork/join, todas leyendo el mismo origen
+ * (solo lectura). Por debajo de {@code minSourcePixels}, al ampliar o con un solo núcleo, delega en el
+ * DefaultResizerFactory: las imágenes pequeñas siguen en un hilo y con el mismo resultado que antes.
+ */
+@Component
+public class StripParallelResizerFactory implements ResizerFactory, AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final long minSourcePixels;
+    private final Resizer parallelResizer;
+
+    @Autowired
+    public StripParallelResizerFactory(@Value("${image-resizer.processing.parallel-resize.min-megapixels:4}") double minMegapixels,
+                                       @Value("${image-resizer.processing.parallel-resize.parallelism:0}") int parallelism,
+                                       @Value("${image-resizer.processing.parallel-resize.strip-rows:64}") int stripRows) {
+        this(newPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()),
+                (long) (minMegapixels * 1_000_000), stripRows);
+    }
+
+    public StripParallelResizerFactory(ForkJoinPool pool, long minSourcePixels, int stripRows) {
+        if (stripRows <= 0) {
+            throw new IllegalArgumentException("Strip rows must be positive.");
+        }
+        this.pool = pool;
+        this.minSourcePixels = minSourcePixels;
+        this.parallelResizer = new StripParallelResizer(pool, stripRows);
+    }
+
+    @Override
+    public Resizer getResizer() {
+        return DefaultResizerFactory.getInstance().getResizer();
+    }
+
+    @Override
+    public Resizer getResizer(Dimension originalSize, Dimension thumbnailSize) {
+        boolean downscale = thumbnailSize.width < originalSize.width && thumbnailSize.height < originalSize.height;
+        if (downscale && pool.getParallelism() > 1
+                && (long) originalSize.width * originalSize.height >= minSourcePixels) {
+            return parallelResizer;
+        }
+        return DefaultResizerFactory.getInstance().getResizer(originalSize, thumbnailSize);
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Hilos daemon con nombre propio: se distinguen en los volcados y no retienen el apagado de la JVM
+    private static ForkJoinPool newPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("image-resample-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    static final class StripParallelResizer implements Resizer {
+        private final ForkJoinPool pool;
+        private final int stripRows;
+
+        StripParallelResizer(ForkJoinPool pool, int stripRows) {
+            this.pool = pool;
+            this.stripRows = stripRows;
+        }
+
+        @Override
+        public void resize(BufferedImage srcImage, BufferedImage destImage) {
+            int targetWidth = destImage.getWidth();
+            int targetHeight = destImage.getHeight();
+            BufferedImage current = srcImage;
+
+            // Mismos pasos que ProgressiveBilinearResizer: desde el múltiplo x2 del destino inmediatamente
+            // inferior al original, dividiendo entre dos hasta quedar a menos del doble del destino
+            if (targetWidth * 2 < srcImage.getWidth() && targetHeight * 2 < srcImage.getHeight()) {
+                int stepWidth = targetWidth;
+                int stepHeight = targetHeight;
+                while (stepWidth < srcImage.getWidth() && stepHeight < srcImage.getHeight()) {
+                    stepWidth *= 2;
+                    stepHeight *= 2;
+                }
+                stepWidth /= 2;
+                stepHeight /= 2;
+                // Intermedios en un tipo que Java2D pinta directamente (el destino puede ser indexado o custom)
+                int intermediateType = destImage.getColorModel().hasAlpha()
+                        ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+                while (true) {
+                    BufferedImage step = new BufferedImage(stepWidth, stepHeight, intermediateType);
+                    drawInStrips(current, step);
+                    current = step;
+                    // El último intermedio es el doble del destino; de ahí se pinta directamente en destImage
+                    if (stepWidth < targetWidth * 4 || stepHeight < targetHeight * 4) {
+                        break;
+                    }
+                    stepWidth /= 2;
+                    stepHeight /= 2;
+                }
+            }
+            drawInStrips(current, destImage);
+        }
+
+        private void drawInStrips(BufferedImage source, BufferedImage destination) {
+            pool.invoke(new StripTask(source, destination, 0, destination.getHeight(), stripRows));
+        }
+    }
+
+    // Cada banda tiene su propio Graphics2D recortado a sus filas; el origen completo se escala sobre el clip,
+    // así los bordes de banda interpolan con las mismas filas vecinas que en el pintado en un solo hilo
+    private static final class StripTask extends RecursiveAction {
+        private final BufferedImage source;
+        private final BufferedImage destination;
+        private final int fromRow;
+        private final int toRow;
+        private final int stripRows;
+
+        private StripTask(BufferedImage source, BufferedImage destination, int fromRow, int toRow, int stripRows) {
+            this.source = source;
+            this.destination = destination;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.stripRows = stripRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= stripRows) {
+                draw();
+                return;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            invokeAll(new StripTask(source, destination, fromRow, middle, stripRows),
+                    new StripTask(source, destination, middle, toRow, stripRows));
+        }
+
+        private void draw() {
+            Graphics2D graphics = destination.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setComposite(AlphaComposite.Src);
+                graphics.setClip(0, fromRow, destination.getWidth(), toRow - fromRow);
+                graphics.drawImage(source, 0, 0, destination.getWidth(), destination.getHeight(), null);
+            } finally {
+                graphics.dispose();
+            }
+        }
+    }
+}
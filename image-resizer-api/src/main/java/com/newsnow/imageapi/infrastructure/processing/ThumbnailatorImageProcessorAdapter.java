@@ -1,20 +1,126 @@
 package com.newsnow.imageapi.infrastructure.processing;
 
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.DecodeEvent;
+import com.newsnow.imageapi.application.metrics.jfr.EncodeEvent;
+import com.newsnow.imageapi.application.metrics.jfr.ResizeEvent;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
 import com.newsnow.imageapi.domain.model.ImageResolution;
 import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
 import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
-import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.ThumbnailParameter;
+import net.coobird.thumbnailator.Thumbnailator;
+import net.coobird.thumbnailator.builders.ThumbnailParameterBuilder;
+import net.coobird.thumbnailator.resizers.DefaultResizerFactory;
+import net.coobird.thumbnailator.resizers.ResizerFactory;
+import net.coobird.thumbnailator.tasks.SourceSinkThumbnailTask;
+import net.coobird.thumbnailator.tasks.io.ImageSink;
+import net.coobird.thumbnailator.tasks.io.ImageSource;
+import net.coobird.thumbnailator.tasks.io.InputStreamImageSource;
+import net.coobird.thumbnailator.tasks.io.OutputStreamImageSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.LongSupplier;
 
 @Component
 public class ThumbnailatorImageProcessorAdapter implements ImageProcessorPort {
 
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailatorImageProcessorAdapter.class);
+
+    static {
+        // ImageIO cachea en ficheros temporales los streams que decodifica; las imágenes ya están en memoria.
+        // Aquí y no en el priming: la clase se carga en todos los modos de arranque, con o sin priming
+        ImageIO.setUseCache(false);
+    }
+
+    private final ProcessingMetrics processingMetrics;
+    // null = processImage no genera placeholders
+    private final PlaceholderGenerator placeholderGenerator;
+    // Elige el Resizer según tamaños de origen y destino (las imágenes grandes se reducen en paralelo por bandas)
+    private final ResizerFactory resizerFactory;
+    // null (o sin objetivo) = calidad fija del writer; con objetivo, JPEG/WebP buscan la calidad para bytes o SSIM
+    private final QualityTargetEncoder qualityTarget;
+    // null = processImage conserva el formato de entrada; si no, el formato sale del contenido del ráster
+    private final OutputFormatSelector formatSelector;
+
+    @Autowired
+    public ThumbnailatorImageProcessorAdapter(ProcessingMetrics processingMetrics,
+                                              StripParallelResizerFactory resizerFactory,
+                                              QualityTargetEncoder qualityTarget,
+                                              @Value("${image-resizer.placeholder.enabled:true}") boolean placeholders,
+                                              @Value("${image-resizer.placeholder.preview-size:16}") int previewSize,
+                                              @Value("${image-resizer.placeholder.components-x:4}") int componentsX,
+                                              @Value("${image-resizer.placeholder.components-y:3}") int componentsY,
+                                              @Value("${image-resizer.output-format.auto:false}") boolean autoFormat) {
+        this(processingMetrics, placeholders ? new PlaceholderGenerator(previewSize, componentsX, componentsY) : null,
+                resizerFactory, qualityTarget, autoFormat ? new OutputFormatSelector() : null);
+    }
+
+    public ThumbnailatorImageProcessorAdapter(ProcessingMetrics processingMetrics, ResizerFactory resizerFactory,
+                                              QualityTargetEncoder qualityTarget, boolean autoFormat) {
+        this(processingMetrics, new PlaceholderGenerator(), resizerFactory, qualityTarget,
+                autoFormat ? new OutputFormatSelector() : null);
+    }
+
+    public ThumbnailatorImageProcessorAdapter(ProcessingMetrics processingMetrics, ResizerFactory resizerFactory,
+                                              QualityTargetEncoder qualityTarget) {
+        this(processingMetrics, resizerFactory, qualityTarget, false);
+    }
+
+    public ThumbnailatorImageProcessorAdapter(ProcessingMetrics processingMetrics, ResizerFactory resizerFactory) {
+        this(processingMetrics, resizerFactory, null);
+    }
+
+    public ThumbnailatorImageProcessorAdapter(ProcessingMetrics processingMetrics) {
+        this(processingMetrics, DefaultResizerFactory.getInstance());
+    }
+
+    private ThumbnailatorImageProcessorAdapter(ProcessingMetrics processingMetrics, PlaceholderGenerator placeholderGenerator,
+                                               ResizerFactory resizerFactory, QualityTargetEncoder qualityTarget,
+                                               OutputFormatSelector formatSelector) {
+        this.processingMetrics = processingMetrics;
+        this.placeholderGenerator = placeholderGenerator;
+        this.resizerFactory = resizerFactory;
+        this.qualityTarget = qualityTarget;
+        this.formatSelector = formatSelector;
+    }
+
+    public ThumbnailatorImageProcessorAdapter() {
+        this(ProcessingMetrics.noop());
+    }
+
     @Override
     public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution) throws ImageProcessingException {
+        return resizeImage(imageInputStream, targetResolution, Deadline.none());
+    }
+
+    @Override
+    public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return process(imageInputStream, targetResolution, deadline, null, null).imageBytes();
+    }
+
+    // Además de la imagen, el placeholder sale del ráster ya decodificado y redimensionado (sin otra lectura).
+    // El formato automático solo aplica aquí: quien llama necesita saber cuál se eligió
+    @Override
+    public ProcessedImage processImage(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline) throws ImageProcessingException {
+        return process(imageInputStream, targetResolution, deadline, placeholderGenerator, formatSelector);
+    }
+
+    private ProcessedImage process(InputStream imageInputStream, ImageResolution targetResolution, Deadline deadline,
+                                   PlaceholderGenerator placeholders, OutputFormatSelector formats) throws ImageProcessingException {
         if (imageInputStream == null) {
             throw new ImageProcessingException("Input stream cannot be null.");
         }
@@ -23,30 +129,242 @@ public class ThumbnailatorImageProcessorAdapter implements ImageProcessorPort {
         try (InputStream managedInputStream = imageInputStream;
              ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
 
-            // --- LOG DE DEPURACIÓN ---
-            int availableBytes = managedInputStream.available(); // Llama sobre el stream gestionado
-            System.out.println("DEBUG: Bytes disponibles en InputStream antes de Thumbnails: " + availableBytes);
+            // Tamaño de la imagen (métricas y elección del redimensionador); un stream vacío no se procesa
+            int availableBytes = managedInputStream.available();
             if (availableBytes <= 0) {
-                System.err.println("ERROR: InputStream parece vacío antes de procesar!");
                 throw new ImageProcessingException("Input stream provided is empty.");
             }
-            // --- FIN LOG ---
 
-            // Usa Thumbnailator para redimensionar
-            Thumbnails.of(managedInputStream)
-                    .size(targetResolution.getWidth(), targetResolution.getHeight())
-                    .toOutputStream(outputStream);
+            // Usa Thumbnailator para redimensionar; el deadline se comprueba en cada bloque leído (decode) y escrito (encode)
+            deadline.check("decode");
+            processingMetrics.processingStarted(availableBytes);
+            TimedImageSink sink;
+            try {
+                sink = resize(DeadlineStreams.input(managedInputStream, deadline), DeadlineStreams.output(outputStream, deadline),
+                        targetResolution, availableBytes, outputStream::size, placeholders, formats, deadline);
+            } finally {
+                processingMetrics.processingFinished(availableBytes);
+            }
 
-            return outputStream.toByteArray();
+            return new ProcessedImage(outputStream.toByteArray(), sink.placeholder, sink.encoding, sink.chosenFormat);
 
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (IOException e) {
+            rethrowIfDeadlineExceeded(e);
             throw new ImageProcessingException("Failed to resize image due to IO error: " + e.getMessage(), e);
         } catch (IllegalArgumentException e) {
             throw new ImageProcessingException("Invalid arguments for image processing: " + e.getMessage(), e);
         } catch (Exception e) {
-            System.err.println("Unexpected error during image processing: " + e.getMessage());
-            e.printStackTrace();
+            rethrowIfDeadlineExceeded(e);
+            log.error("Unexpected error during image processing: {}", e.getMessage(), e);
             throw new ImageProcessingException("Unexpected error during image processing: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lo mismo que Thumbnails.of(in).size(w, h).toOutputStream(out), pero con la fuente y el destino envueltos
+     * para medir por separado la decodificación (read), la codificación (write) y, por diferencia, el redimensionado.
+     * Los mismos puntos emiten los eventos JFR de decode, resize y encode.
+     * Con {@code placeholders}, el destino genera además el placeholder a partir del ráster redimensionado.
+     * El redimensionado usa el Resizer que elija {@code resizerFactory} (por defecto, el mismo que Thumbnails.Builder).
+     * Con {@code qualityTarget}, la codificación busca la calidad (varios intentos, todos medidos como encode).
+     * Con {@code formats}, el destino elige el formato de salida (y la paleta) antes de codificar; cuenta como encode.
+     */
+    private TimedImageSink resize(InputStream in, OutputStream out, ImageResolution targetResolution, long inputBytes,
+                                  LongSupplier writtenBytes, PlaceholderGenerator placeholders, OutputFormatSelector formats,
+                                  Deadline deadline) throws IOException {
+        // Mismos valores por defecto que Thumbnails.Builder (tipo de imagen original, formato original, EXIF)
+        ThumbnailParameter parameter = new ThumbnailParameterBuilder()
+                .size(targetResolution.getWidth(), targetResolution.getHeight())
+                .imageType(ThumbnailParameter.ORIGINAL_IMAGE_TYPE)
+                .resizerFactory(resizerFactory)
+                .build();
+        TimedImageSource source = new TimedImageSource(new InputStreamImageSource(in), inputBytes);
+        TimedImageSink sink = new TimedImageSink(new OutputStreamImageSink(out), source, writtenBytes, placeholders,
+                qualityTarget, formats, deadline);
+
+        long start = System.nanoTime();
+        Thumbnailator.createThumbnail(new SourceSinkThumbnailTask<>(parameter, source, sink));
+        long total = System.nanoTime() - start;
+
+        String format = ProcessingMetrics.format(source.getInputFormatName());
+        processingMetrics.record(ProcessingMetrics.Stage.DECODE, format, inputBytes, source.nanos);
+        processingMetrics.record(ProcessingMetrics.Stage.RESIZE, format, inputBytes,
+                total - source.nanos - sink.placeholderNanos - sink.nanos);
+        if (placeholders != null) {
+            processingMetrics.record(ProcessingMetrics.Stage.PLACEHOLDER, format, inputBytes, sink.placeholderNanos);
+        }
+        processingMetrics.record(ProcessingMetrics.Stage.ENCODE, format, inputBytes, sink.nanos);
+        return sink;
+    }
+
+    // ImageIO y Thumbnailator pueden envolver la excepción lanzada desde el stream
+    private static void rethrowIfDeadlineExceeded(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException deadlineExceeded) {
+                throw deadlineExceeded;
+            }
+        }
+    }
+
+    // Fuente que mide el tiempo de read(): lectura + decodificación de la imagen original.
+    // Al terminar empieza el evento de resize, que cierra el destino al recibir la imagen redimensionada
+    private static final class TimedImageSource implements ImageSource<InputStream> {
+        private final ImageSource<InputStream> delegate;
+        private final long inputBytes;
+        private final ResizeEvent resizeEvent = new ResizeEvent();
+        private long nanos;
+        private int width;
+        private int height;
+
+        private TimedImageSource(ImageSource<InputStream> delegate, long inputBytes) {
+            this.delegate = delegate;
+            this.inputBytes = inputBytes;
+        }
+
+        @Override
+        public BufferedImage read() throws IOException {
+            DecodeEvent event = new DecodeEvent();
+            event.beginStage();
+            long start = System.nanoTime();
+            BufferedImage image;
+            try {
+                image = delegate.read();
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+            width = image.getWidth();
+            height = image.getHeight();
+            if (event.endStage()) {
+                event.format = ProcessingMetrics.format(delegate.getInputFormatName());
+                event.inputBytes = inputBytes;
+                event.width = width;
+                event.height = height;
+                event.commit();
+            }
+            resizeEvent.beginStage();
+            return image;
+        }
+
+        @Override
+        public String getInputFormatName() {
+            return delegate.getInputFormatName();
+        }
+
+        @Override
+        public void setThumbnailParameter(ThumbnailParameter param) {
+            delegate.setThumbnailParameter(param);
+        }
+
+        @Override
+        public InputStream getSource() {
+            return delegate.getSource();
+        }
+    }
+
+    // Destino que mide el tiempo de write(): codificación + escritura de la miniatura.
+    // Antes de codificar genera el placeholder si se pidió (un fallo ahí no hace fallar el redimensionado)
+    private static final class TimedImageSink implements ImageSink<OutputStream> {
+        private final ImageSink<OutputStream> delegate;
+        private final TimedImageSource source;
+        private final LongSupplier writtenBytes;
+        private final PlaceholderGenerator placeholders;
+        private final QualityTargetEncoder qualityTarget;
+        private final OutputFormatSelector formats;
+        private final Deadline deadline;
+        private String outputFormat;
+        private long nanos;
+        private long placeholderNanos;
+        private ImagePlaceholder placeholder;
+        private ImageEncoding encoding;
+        // Formato elegido por contenido (null si se conserva el de entrada)
+        private String chosenFormat;
+
+        private TimedImageSink(ImageSink<OutputStream> delegate, TimedImageSource source, LongSupplier writtenBytes,
+                               PlaceholderGenerator placeholders, QualityTargetEncoder qualityTarget,
+                               OutputFormatSelector formats, Deadline deadline) {
+            this.delegate = delegate;
+            this.source = source;
+            this.writtenBytes = writtenBytes;
+            this.placeholders = placeholders;
+            this.qualityTarget = qualityTarget;
+            this.formats = formats;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void write(BufferedImage img) throws IOException {
+            ResizeEvent resizeEvent = source.resizeEvent;
+            if (resizeEvent.endStage()) {
+                resizeEvent.sourceWidth = source.width;
+                resizeEvent.sourceHeight = source.height;
+                resizeEvent.width = img.getWidth();
+                resizeEvent.height = img.getHeight();
+                resizeEvent.commit();
+            }
+            if (placeholders != null) {
+                long placeholderStart = System.nanoTime();
+                try {
+                    placeholder = placeholders.generate(img);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not generate image placeholder: {}", e.getMessage());
+                } finally {
+                    placeholderNanos += System.nanoTime() - placeholderStart;
+                }
+            }
+            EncodeEvent event = new EncodeEvent();
+            event.beginStage();
+            // Sin formato explícito (ORIGINAL_FORMAT, que es null) se codifica en el de entrada
+            String format = outputFormat != null ? outputFormat : source.getInputFormatName();
+            long start = System.nanoTime();
+            try {
+                BufferedImage encodable = img;
+                if (formats != null) {
+                    OutputFormatSelector.Choice choice = formats.select(img);
+                    format = choice.format();
+                    encodable = choice.image();
+                    chosenFormat = format;
+                    setOutputFormatName(format);
+                }
+                if (qualityTarget != null && qualityTarget.appliesTo(format)) {
+                    QualityTargetEncoder.Encoded encoded = qualityTarget.encode(encodable, format, deadline);
+                    delegate.getSink().write(encoded.bytes());
+                    encoding = encoded.encoding();
+                } else {
+                    delegate.write(encodable);
+                }
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+            if (event.endStage()) {
+                event.format = ProcessingMetrics.format(format);
+                event.width = img.getWidth();
+                event.height = img.getHeight();
+                event.outputBytes = writtenBytes.getAsLong();
+                event.commit();
+            }
+        }
+
+        @Override
+        public void setOutputFormatName(String format) {
+            outputFormat = format;
+            delegate.setOutputFormatName(format);
+        }
+
+        @Override
+        public void setThumbnailParameter(ThumbnailParameter param) {
+            delegate.setThumbnailParameter(param);
+        }
+
+        @Override
+        public String preferredOutputFormatName() {
+            return delegate.preferredOutputFormatName();
+        }
+
+        @Override
+        public OutputStream getSink() {
+            return delegate.getSink();
+        }
+    }
+}
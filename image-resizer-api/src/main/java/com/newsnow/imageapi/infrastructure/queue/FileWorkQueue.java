@@ -0,0 +1,442 @@
+package com.newsnow.imageapi.infrastructure.queue;
+
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Cola de trabajo duradera en disco local, sustituta de SQS sin AWS (desarrollo, pruebas, un solo host).
+ * Los elementos se añaden al final de segmentos de solo escritura ({base}.log, donde base es la posición
+ * global de su primer byte; se abre otro al superar {@code segmentBytes}) y el consumidor guarda en
+ * "checkpoint" la posición hasta la que todo está confirmado. Al reiniciar se vuelve a entregar desde ahí
+ * (al menos una vez) y los segmentos ya confirmados se borran.
+ * Varios procesos pueden encolar sobre el mismo directorio (un lock de fichero serializa las escrituras);
+ * solo uno puede consumir, con tantos hilos como quiera. Un productor que se corta a mitad de escritura deja un
+ * registro incompleto al final: la siguiente escritura lo trunca antes de añadir (nunca escribe detrás de basura).
+ */
+public class FileWorkQueue implements WorkQueuePort, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileWorkQueue.class);
+
+    // Cada registro: [longitud][CRC32 de los datos][datos]
+    private static final int HEADER_BYTES = 8;
+    private static final byte FORMAT_VERSION = 1;
+    // Dos cadenas writeUTF como mucho: una longitud mayor solo puede ser un registro dañado
+    private static final int MAX_RECORD_BYTES = 2 * 65_535 + 32;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    // Sin aviso de otro proceso, cada cuánto se mira si el segmento creció
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final FileChannel producerLock;
+    // Hasta dónde se sabe que el último segmento está formado por registros completos (bajo el lock de productor)
+    private long verifiedBase = -1;
+    private long verifiedEnd;
+
+    // Lectura: un único cursor compartido por los hilos del consumidor
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final Condition appended = readLock.newCondition();
+    private FileLock consumerLock;
+    private FileChannel segment;
+    private long segmentBase;
+    private long readPosition;
+
+    // Confirmaciones: el checkpoint es la primera entrega pendiente (o lo ya entregado si no queda ninguna)
+    private final Object ackLock = new Object();
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long deliveredUpTo;
+    private long checkpoint;
+
+    public FileWorkQueue(Path directory, long segmentBytes, boolean fsync) {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Work queue segment size is too small.");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            this.producerLock = FileChannel.open(directory.resolve("producer.lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open work queue directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void enqueue(WorkItem item) {
+        byte[] payload = encode(item);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        // Un hilo a la vez en este proceso (el FileLock es por JVM) y un proceso a la vez en el directorio
+        synchronized (producerLock) {
+            try (FileLock lock = producerLock.lock()) {
+                TreeSet<Long> bases = segmentBases();
+                long base = bases.isEmpty() ? 0 : bases.last();
+                long size = recoverTail(base);
+                if (size > 0 && size + record.remaining() > segmentBytes) {
+                    base += size;
+                    size = 0;
+                }
+                long recordBytes = record.remaining();
+                try (FileChannel channel = FileChannel.open(segmentPath(base),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    while (record.hasRemaining()) {
+                        channel.write(record);
+                    }
+                    if (fsync) {
+                        channel.force(false);
+                    }
+                }
+                verifiedBase = base;
+                verifiedEnd = size + recordBytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not append to work queue " + directory, e);
+            }
+        }
+
+        // Consumidor en este mismo proceso: no espera al siguiente sondeo
+        readLock.lock();
+        try {
+            appended.signalAll();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Delivery> poll(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        readLock.lockInterruptibly();
+        try {
+            acquireConsumer();
+            while (true) {
+                Optional<Delivery> next = readNext();
+                long left = deadline - System.nanoTime();
+                if (next.isPresent() || left <= 0) {
+                    return next;
+                }
+                appended.await(Math.min(left, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)), TimeUnit.NANOSECONDS);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read work queue " + directory, e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void acknowledge(Delivery delivery) {
+        long committed;
+        synchronized (ackLock) {
+            if (!inFlight.remove(delivery.receipt())) {
+                return;
+            }
+            committed = inFlight.isEmpty() ? deliveredUpTo : inFlight.first();
+            if (committed <= checkpoint) {
+                return;
+            }
+            checkpoint = committed;
+            writeCheckpoint(committed);
+        }
+        deleteSegmentsBefore(committed);
+    }
+
+    /** Posición confirmada: al reiniciar se entrega desde aquí. */
+    public long checkpoint() {
+        synchronized (ackLock) {
+            return checkpoint;
+        }
+    }
+
+    @Override
+    public void close() {
+        readLock.lock();
+        try {
+            closeQuietly(segment);
+            segment = null;
+            if (consumerLock != null) {
+                closeQuietly(consumerLock.channel());
+                consumerLock = null;
+            }
+        } finally {
+            readLock.unlock();
+        }
+        closeQuietly(producerLock);
+    }
+
+    /**
+     * Longitud del segmento hasta el último registro completo. Con el lock de productor nadie más está escribiendo,
+     * así que un registro incompleto al final es de un productor que se cortó: se trunca. Se recorre desde el último
+     * punto verificado por este proceso (o desde el principio, si otro lo cambió por debajo).
+     * Un registro completo con CRC incorrecto no se toca: el consumidor lo salta sin perder los siguientes.
+     */
+    private long recoverTail(long base) throws IOException {
+        Path path = segmentPath(base);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = base == verifiedBase && size >= verifiedEnd ? verifiedEnd : 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (size - position >= HEADER_BYTES) {
+                header.clear();
+                readFully(channel, header, position);
+                int length = header.flip().getInt();
+                if (length < 0 || length > MAX_RECORD_BYTES || size - position - HEADER_BYTES < length) {
+                    break;
+                }
+                position += HEADER_BYTES + length;
+            }
+            if (position < size) {
+                log.warn("Truncating torn work queue record at position {} in {}", base + position, directory);
+                channel.truncate(position);
+                if (fsync) {
+                    channel.force(false);
+                }
+            }
+            verifiedBase = base;
+            verifiedEnd = position;
+            return position;
+        }
+    }
+
+    // El primer poll reclama el papel de consumidor y carga el checkpoint
+    private void acquireConsumer() throws IOException {
+        if (consumerLock != null) {
+            return;
+        }
+        FileChannel channel = FileChannel.open(directory.resolve("consumer.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Work queue " + directory + " already has a consumer.");
+        }
+        consumerLock = lock;
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        long start = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim())
+                : 0;
+        readPosition = start;
+        synchronized (ackLock) {
+            checkpoint = start;
+            deliveredUpTo = start;
+        }
+    }
+
+    private Optional<Delivery> readNext() throws IOException {
+        while (true) {
+            if (segment == null && !openSegment()) {
+                return Optional.empty();
+            }
+            long offset = readPosition - segmentBase;
+            long size = segment.size();
+            if (size - offset >= HEADER_BYTES) {
+                ByteBuffer header = read(offset, HEADER_BYTES);
+                int length = header.getInt();
+                int crc = header.getInt();
+                if (length >= 0 && length <= MAX_RECORD_BYTES && size - offset - HEADER_BYTES >= length) {
+                    long position = readPosition;
+                    byte[] payload = read(offset + HEADER_BYTES, length).array();
+                    readPosition += HEADER_BYTES + length;
+                    Optional<WorkItem> item = decode(payload, crc);
+                    if (item.isEmpty()) {
+                        log.warn("Skipping corrupt work queue record at position {} in {}", position, directory);
+                        markDelivered(readPosition, null);
+                        continue;
+                    }
+                    markDelivered(readPosition, position);
+                    return Optional.of(new Delivery(item.get(), position));
+                }
+            }
+            // Fin de los datos (o registro a medias): si ya hay un segmento posterior, este no volverá a crecer
+            Long next = segmentBases().higher(segmentBase);
+            if (next == null) {
+                return Optional.empty();
+            }
+            if (segment.size() > size) {
+                continue;
+            }
+            if (offset < size) {
+                log.warn("Skipping truncated work queue record at position {} in {}", readPosition, directory);
+            }
+            closeQuietly(segment);
+            segment = null;
+            readPosition = next;
+            markDelivered(next, null);
+        }
+    }
+
+    // El segmento que contiene readPosition (o el primero que quede, si el checkpoint es anterior)
+    private boolean openSegment() throws IOException {
+        TreeSet<Long> bases = segmentBases();
+        Long base = bases.floor(readPosition);
+        if (base == null) {
+            if (bases.isEmpty()) {
+                return false;
+            }
+            base = bases.first();
+            readPosition = base;
+        }
+        segment = FileChannel.open(segmentPath(base), StandardOpenOption.READ);
+        segmentBase = base;
+        return true;
+    }
+
+    private void markDelivered(long upTo, Long position) {
+        synchronized (ackLock) {
+            if (position != null) {
+                inFlight.add(position);
+            }
+            deliveredUpTo = upTo;
+        }
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(segment, buffer, offset);
+        return buffer.flip();
+    }
+
+    // Lectura posicional desde offset hasta llenar el buffer (vacío al empezar)
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of work queue segment.");
+            }
+        }
+    }
+
+    // Escritura atómica (fichero temporal + rename): un corte a mitad deja el checkpoint anterior
+    private void writeCheckpoint(long position) {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.writeString(temporary, Long.toString(position), StandardCharsets.US_ASCII);
+            if (fsync) {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write work queue checkpoint in " + directory, e);
+        }
+    }
+
+    // Un segmento se borra cuando el siguiente empieza antes del checkpoint; el último nunca (sigue recibiendo)
+    private void deleteSegmentsBefore(long committed) {
+        List<Long> bases = List.copyOf(segmentBases());
+        for (int i = 0; i + 1 < bases.size() && bases.get(i + 1) <= committed; i++) {
+            try {
+                Files.deleteIfExists(segmentPath(bases.get(i)));
+            } catch (IOException e) {
+                log.warn("Could not delete work queue segment {}: {}", bases.get(i), e.getMessage());
+            }
+        }
+    }
+
+    private TreeSet<Long> segmentBases() {
+        try (Stream<Path> files = Files.list(directory)) {
+            TreeSet<Long> bases = new TreeSet<>();
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+            return bases;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list work queue segments in " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(WorkItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(item.taskId().getMostSignificantBits());
+            out.writeLong(item.taskId().getLeastSignificantBits());
+            out.writeUTF(item.sourceImageUrl());
+            out.writeBoolean(item.originalFilename() != null);
+            if (item.originalFilename() != null) {
+                out.writeUTF(item.originalFilename());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Vacío si el CRC no cuadra o el contenido no se puede leer
+    private static Optional<WorkItem> decode(byte[] payload, int expectedCrc) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != expectedCrc) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            UUID taskId = new UUID(in.readLong(), in.readLong());
+            String sourceImageUrl = in.readUTF();
+            String originalFilename = in.readBoolean() ? in.readUTF() : null;
+            return Optional.of(new WorkItem(taskId, sourceImageUrl, originalFilename));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close work queue file: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.newsnow.imageapi.infrastructure.queue;
+
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola de trabajo en el propio proceso, acotada: API y workers en el mismo nodo.
+ * Llena, rechaza con TaskRejectedException (503 + Retry-After). No sobrevive a un reinicio:
+ * las tareas que queden en ella se pierden (siguen en PENDING en el repositorio).
+ */
+public class InMemoryWorkQueue implements WorkQueuePort {
+
+    private final BlockingQueue<Delivery> queue;
+    private final long retryAfterSeconds;
+    private final AtomicLong receipts = new AtomicLong();
+
+    public InMemoryWorkQueue(int capacity, long retryAfterSeconds) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void enqueue(WorkItem item) {
+        if (!queue.offer(new Delivery(item, receipts.incrementAndGet()))) {
+            throw new TaskRejectedException("Work queue is full. Please retry later.", retryAfterSeconds);
+        }
+    }
+
+    @Override
+    public Optional<Delivery> poll(Duration timeout) throws InterruptedException {
+        return Optional.ofNullable(queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void acknowledge(Delivery delivery) {
+        // Se sacó de la cola al entregarlo: no hay nada que confirmar
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
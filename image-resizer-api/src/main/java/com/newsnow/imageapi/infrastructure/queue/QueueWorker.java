@@ -0,0 +1,157 @@
+package com.newsnow.imageapi.infrastructure.queue;
+
+import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lado worker de la cola de trabajo: N hilos que sacan tareas de WorkQueuePort y las procesan con el caso de uso.
+ * Arranca con la aplicación si la cola está habilitada y el rol del nodo no es "api" (solo acepta tareas).
+ * Cada entrega se confirma al terminar, haya ido bien o no: un fallo deja la tarea en FAILED, no se reintenta.
+ * La excepción es el carril lleno (TaskRejectedException): la tarea aún no empezó y se reintenta la entrega.
+ */
+@Component
+public class QueueWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueWorker.class);
+
+    // Espera tras un error de la propia cola (disco, permisos...) antes de volver a sondear
+    private static final long ERROR_BACKOFF_MILLIS = 1000;
+
+    private final WorkQueuePort workQueue;
+    private final TaskUseCase taskUseCase;
+    private final boolean enabled;
+    private final int threads;
+    private final Duration pollTimeout;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @Autowired
+    public QueueWorker(WorkQueuePort workQueue,
+                       TaskUseCase taskUseCase,
+                       @Value("${image-resizer.queue.enabled:false}") boolean queueEnabled,
+                       @Value("${image-resizer.role:all}") String role,
+                       @Value("${image-resizer.worker.threads:0}") int threads,
+                       @Value("${image-resizer.worker.poll-timeout-ms:1000}") long pollTimeoutMs) {
+        this(workQueue, taskUseCase, queueEnabled && !"api".equalsIgnoreCase(role),
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), Duration.ofMillis(pollTimeoutMs));
+    }
+
+    public QueueWorker(WorkQueuePort workQueue, TaskUseCase taskUseCase, boolean enabled, int threads, Duration pollTimeout) {
+        this.workQueue = workQueue;
+        this.taskUseCase = taskUseCase;
+        this.enabled = enabled;
+        this.threads = threads;
+        this.pollTimeout = pollTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    // Hilos no daemon: en el modo solo-worker (sin servidor web) son los que mantienen viva la JVM
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 1; i <= threads; i++) {
+            Thread worker = new Thread(this::run, "queue-worker-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Queue worker started with {} threads", threads);
+    }
+
+    // Deja terminar la tarea en curso; solo interrumpe a los hilos que no acaben a tiempo
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+                if (worker.isAlive()) {
+                    worker.interrupt();
+                }
+            } catch (InterruptedException e) {
+                worker.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            Optional<WorkQueuePort.Delivery> delivery;
+            try {
+                delivery = workQueue.poll(pollTimeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Could not poll work queue: {}", e.getMessage(), e);
+                if (!backOff()) {
+                    return;
+                }
+                continue;
+            }
+            delivery.ifPresent(this::handle);
+        }
+    }
+
+    private void handle(WorkQueuePort.Delivery delivery) {
+        while (true) {
+            try {
+                taskUseCase.processQueuedTask(delivery.item());
+            } catch (TaskRejectedException e) {
+                // Carril lleno: la tarea sigue PENDING; se reintenta la misma entrega (al parar, queda sin confirmar)
+                log.debug("Queued task {} rejected by its lane: {}", delivery.item().taskId(), e.getMessage());
+                if (running && backOff()) {
+                    continue;
+                }
+                return;
+            } catch (Exception e) {
+                log.error("Queued task {} failed: {}", delivery.item().taskId(), e.getMessage());
+            }
+            break;
+        }
+        try {
+            workQueue.acknowledge(delivery);
+        } catch (RuntimeException e) {
+            // Sin confirmar se volverá a entregar; la tarea ya terminada se ignora entonces
+            log.error("Could not acknowledge queued task {}: {}", delivery.item().taskId(), e.getMessage(), e);
+        }
+    }
+
+    private boolean backOff() {
+        try {
+            Thread.sleep(ERROR_BACKOFF_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,63 +1,148 @@
 package com.newsnow.imageapi.infrastructure.storage;
 
+import com.newsnow.imageapi.application.ingest.ImageFormat;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.StoreEvent;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
 import com.newsnow.imageapi.domain.port.out.ImageStorageException;
 import com.newsnow.imageapi.domain.port.out.ImageStoragePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 
 @Component
 public class S3ImageStorageAdapter implements ImageStoragePort {
 
+    private static final Logger log = LoggerFactory.getLogger(S3ImageStorageAdapter.class);
+
     private final S3Client s3Client;
     private final String bucketName;
     private final String cloudfrontDomain;
+    private final ProcessingMetrics processingMetrics;
 
+    @Autowired
     public S3ImageStorageAdapter(S3Client s3Client,
                                  @Value("${aws.s3.bucket-name}") String bucketName,
-                                 @Value("${CLOUDFRONT_DOMAIN}") String cloudfrontDomain) {
+                                 @Value("${CLOUDFRONT_DOMAIN}") String cloudfrontDomain,
+                                 ProcessingMetrics processingMetrics) {
         this.s3Client = s3Client;
         this.bucketName = bucketName;
         this.cloudfrontDomain = cloudfrontDomain;
+        this.processingMetrics = processingMetrics;
+    }
+
+    public S3ImageStorageAdapter(S3Client s3Client, String bucketName, String cloudfrontDomain) {
+        this(s3Client, bucketName, cloudfrontDomain, ProcessingMetrics.noop());
     }
 
     @Override
     public String saveImage(InputStream imageInputStream, String filename, long contentLength) throws ImageStorageException {
-        String objectKey = "processed/" + filename;
+        return saveImage(imageInputStream, filename, contentLength, Deadline.none());
+    }
+
+    @Override
+    public String saveImage(InputStream imageInputStream, String filename, long contentLength, Deadline deadline) throws ImageStorageException {
+        return putObject("processed/" + filename, imageInputStream, filename, contentLength, deadline);
+    }
+
+    // Originales de las tareas encoladas: una regla de ciclo de vida del bucket puede caducar el prefijo
+    @Override
+    public String saveOriginal(InputStream imageInputStream, String filename, long contentLength, Deadline deadline) throws ImageStorageException {
+        return putObject("originals/" + filename, imageInputStream, filename, contentLength, deadline);
+    }
+
+    private String putObject(String objectKey, InputStream imageInputStream, String filename, long contentLength, Deadline deadline) {
+        StoreEvent event = new StoreEvent();
+        event.beginStage();
+        boolean stored = false;
 
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            deadline.check("store");
+            // Tipo de contenido según la extensión con la que se guarda: CloudFront lo sirve tal cual
+            PutObjectRequest.Builder builder = PutObjectRequest.builder()
                     .bucket(bucketName)
                     .key(objectKey)
-                    .build();
+                    .contentType(ImageFormat.fromExtension(extensionOf(filename)).getContentType());
+            // El tiempo restante es el timeout total de la llamada (reintentos incluidos)
+            deadline.remaining().ifPresent(remaining ->
+                    builder.overrideConfiguration(config -> config.apiCallTimeout(remaining.isZero() ? Duration.ofMillis(1) : remaining)));
+            PutObjectRequest putObjectRequest = builder.build();
             RequestBody requestBody = RequestBody.fromInputStream(imageInputStream, contentLength);
-            s3Client.putObject(putObjectRequest, requestBody);
+            // Formato según la extensión con la que se guarda (la de la imagen procesada)
+            String format = filename.contains(".") ? ProcessingMetrics.format(extensionOf(filename)) : ProcessingMetrics.NONE;
+            processingMetrics.time(ProcessingMetrics.Stage.S3_PUT, format, contentLength,
+                    () -> s3Client.putObject(putObjectRequest, requestBody));
+            stored = true;
             return String.format("https://%s/%s", cloudfrontDomain, objectKey);
+        } catch (DeadlineExceededException e) {
+            throw e;
+        } catch (ApiCallTimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded while storing image in S3.", e);
         } catch (S3Exception e) {
-            System.err.println("S3 Error during image storage: " + e.awsErrorDetails().errorMessage());
+            log.error("S3 Error during image storage: {}", e.awsErrorDetails().errorMessage());
             throw new ImageStorageException("Failed to store image in S3: " + e.awsErrorDetails().errorMessage(), e);
         } catch (SdkException e) {
-            System.err.println("AWS SDK Error during image storage: " + e.getMessage());
+            log.error("AWS SDK Error during image storage: {}", e.getMessage());
             throw new ImageStorageException("AWS SDK error during image storage: " + e.getMessage(), e);
         } catch (Exception e) {
-            System.err.println("Unexpected error during image storage: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Unexpected error during image storage: {}", e.getMessage(), e);
             throw new ImageStorageException("Unexpected error during image storage: " + e.getMessage(), e);
         } finally {
+            if (event.endStage()) {
+                event.objectKey = objectKey;
+                event.bytes = contentLength;
+                event.succeeded = stored;
+                event.commit();
+            }
             try {
                 if (imageInputStream != null) {
                     imageInputStream.close();
                 }
             } catch (IOException e) {
-                System.err.println("Warning: Failed to close input stream after S3 upload. " + e.getMessage());
+                log.warn("Failed to close input stream after S3 upload: {}", e.getMessage());
             }
         }
     }
-}
\ No newline at end of file
+
+    // ".png" de "abc.png"; vacía si el nombre no trae extensión
+    private static String extensionOf(String filename) {
+        return filename.contains(".") ? filename.substring(filename.lastIndexOf('.')) : "";
+    }
+
+    @Override
+    public byte[] loadImage(String imageUrl) throws ImageStorageException {
+        String prefix = String.format("https://%s/", cloudfrontDomain);
+        if (imageUrl == null || !imageUrl.startsWith(prefix)) {
+            throw new ImageStorageException("Image URL does not belong to this storage: " + imageUrl);
+        }
+        String objectKey = imageUrl.substring(prefix.length());
+
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .build();
+            return s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
+        } catch (S3Exception e) {
+            log.error("S3 Error during image load: {}", e.awsErrorDetails().errorMessage());
+            throw new ImageStorageException("Failed to load image from S3: " + e.awsErrorDetails().errorMessage(), e);
+        } catch (SdkException e) {
+            log.error("AWS SDK Error during image load: {}", e.getMessage());
+            throw new ImageStorageException("AWS SDK error during image load: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.newsnow.imageapi.infrastructure.web.controller;
+
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
+import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/tasks")
+@RequiredArgsConstructor
+public class BatchTaskController {
+    private final TaskUseCase taskUseCase;
+
+    // Lote de imágenes (Base64) con una o varias resoluciones cada una.
+    // Devuelve 200 con el resultado de cada combinación, incluidos los fallos parciales.
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchTaskResponse> createTasks(@RequestBody CreateBatchTaskRequest request) {
+        return ResponseEntity.ok(taskUseCase.createTasks(request));
+    }
+}
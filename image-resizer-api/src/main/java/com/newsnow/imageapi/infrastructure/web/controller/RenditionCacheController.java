@@ -0,0 +1,26 @@
+package com.newsnow.imageapi.infrastructure.web.controller;
+
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort;
+import com.newsnow.imageapi.infrastructure.cache.RenditionCacheStats;
+import com.newsnow.imageapi.infrastructure.cache.TieredRenditionCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/rendition-cache")
+@RequiredArgsConstructor
+public class RenditionCacheController {
+    private final RenditionCachePort renditionCache;
+
+    // Aciertos, fallos, desalojos y ocupación de cada nivel; 404 si la caché está desactivada
+    @GetMapping("/stats")
+    public ResponseEntity<RenditionCacheStats> getStats() {
+        if (renditionCache instanceof TieredRenditionCache tiered) {
+            return ResponseEntity.ok(tiered.stats());
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
@@ -2,49 +2,101 @@ package com.newsnow.imageapi.infrastructure.web.controller;
 
 import com.newsnow.imageapi.application.dto.CreateTaskRequest;
 import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
 import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.domain.model.Deadline;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/v1/task")
 @RequiredArgsConstructor
 public class TaskController {
     private final TaskUseCase taskUseCase;
+    private final ImageIngestor imageIngestor;
+
+    // Modo asíncrono (202 Accepted + procesamiento en background)
+    @Value("${image-resizer.async.enabled:false}")
+    private boolean asyncEnabled;
+
+    // Cola de trabajo (202 Accepted + procesamiento en un worker, quizá en otro nodo); tiene prioridad sobre async
+    @Value("${image-resizer.queue.enabled:false}")
+    private boolean queueEnabled;
+
+    // Tiempo máximo que se mantiene una petición de espera (long-poll / SSE)
+    @Value("${image-resizer.wait.max-timeout-seconds:60}")
+    private long maxWaitSeconds = 60;
+
+    private static final int MAX_EVENT_TASK_IDS = 100;
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // Presupuesto de tiempo del cliente (ms): las etapas lo comprueban y los SDK lo usan como timeout
+    static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<TaskResponse> createTask(
             @RequestParam("file") MultipartFile file,
             @RequestParam("width") int width,
-            @RequestParam("height") int height) throws IOException {
+            @RequestParam("height") int height,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutMillis) throws IOException {
 
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be empty.");
         }
 
-        // 1. Lee los bytes UNA VEZ
-        byte[] imageBytes = file.getBytes();
+        // 1. Lee el stream UNA VEZ (MD5 + formato en la misma pasada; a disco si es grande)
+        IngestedImage image = imageIngestor.ingest(file.getInputStream());
+
+        if (queueEnabled || asyncEnabled) {
+            // Modo asíncrono: 202 Accepted; el caso de uso (o su worker) cierra la imagen
+            CreateTaskRequest requestDto = new CreateTaskRequest(image, file.getOriginalFilename(), width, height);
+            requestDto.setIdempotencyKey(idempotencyKey);
+            TaskResponse responseDto = queueEnabled ? taskUseCase.enqueueTask(requestDto) : taskUseCase.submitTask(requestDto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/v1/task/" + responseDto.getTaskId()))
+                    .body(responseDto);
+        }
+
+        try (image) {
 
-        // 2. Crea el DTO con los bytes
-        CreateTaskRequest requestDto = new CreateTaskRequest(
-                imageBytes,
-                file.getOriginalFilename(),
-                imageBytes.length,
-                width,
-                height
-        );
+            // 2. Crea el DTO con la imagen ingerida
+            CreateTaskRequest requestDto = new CreateTaskRequest(
+                    image,
+                    file.getOriginalFilename(),
+                    width,
+                    height
+            );
+            // Los reintentos con la misma clave devuelven la tarea del primer intento
+            requestDto.setIdempotencyKey(idempotencyKey);
+            // Solo en modo síncrono: en background el cliente ya no está esperando
+            if (requestTimeoutMillis != null) {
+                requestDto.setDeadline(Deadline.after(Duration.ofMillis(requestTimeoutMillis)));
+            }
 
-        // 3. Llama al caso de uso
-        TaskResponse responseDto = taskUseCase.createTask(requestDto);
+            // 3. Llama al caso de uso
+            TaskResponse responseDto = taskUseCase.createTask(requestDto);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
+        }
     }
 
     @GetMapping("/{taskId}")
@@ -65,4 +117,87 @@ public class TaskController {
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    // Imagen procesada de la tarea: desde la caché de renditions si está, si no desde el almacenamiento
+    @GetMapping("/{taskId}/image")
+    public ResponseEntity<byte[]> getTaskImage(@PathVariable String taskId) {
+        UUID taskUuid = parseTaskId(taskId);
+        return taskUseCase.getTaskImage(taskUuid)
+                .map(image -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(image.getContentType()))
+                        // La imagen de una tarea no cambia nunca
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                        .body(image.getImageBytes()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Long-poll: mantiene la petición (sin ocupar un hilo) hasta que la tarea termina o vence el tiempo
+    @GetMapping("/{taskId}/wait")
+    public CompletableFuture<ResponseEntity<TaskResponse>> waitForTask(
+            @PathVariable String taskId,
+            @RequestParam(value = "timeout", defaultValue = "30") long timeoutSeconds) {
+
+        UUID taskUuid = parseTaskId(taskId);
+        return taskUseCase.awaitTask(taskUuid, waitTimeout(timeoutSeconds))
+                .thenApply(taskOptional -> taskOptional
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    // SSE: un evento 'task' por cada ID cuando llega a estado final (o el último estado al vencer el tiempo)
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(
+            @RequestParam("ids") List<String> taskIds,
+            @RequestParam(value = "timeout", defaultValue = "30") long timeoutSeconds) {
+
+        if (taskIds.isEmpty() || taskIds.size() > MAX_EVENT_TASK_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_EVENT_TASK_IDS + " task IDs are required.");
+        }
+        List<UUID> taskUuids = taskIds.stream().map(this::parseTaskId).distinct().toList();
+        Duration timeout = waitTimeout(timeoutSeconds);
+
+        // El emitter vive algo más que las esperas para poder enviar los últimos estados
+        SseEmitter emitter = new SseEmitter(timeout.plusSeconds(5).toMillis());
+        CompletableFuture<?>[] pending = taskUuids.stream()
+                .map(taskUuid -> taskUseCase.awaitTask(taskUuid, timeout)
+                        .thenAccept(taskOptional -> sendTaskEvent(emitter, taskUuid, taskOptional)))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(pending).whenComplete((ignored, error) -> {
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private void sendTaskEvent(SseEmitter emitter, UUID taskId, Optional<TaskResponse> taskOptional) {
+        try {
+            if (taskOptional.isPresent()) {
+                emitter.send(SseEmitter.event().id(taskId.toString()).name("task").data(taskOptional.get()));
+            } else {
+                emitter.send(SseEmitter.event().id(taskId.toString()).name("not-found").data(taskId.toString()));
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión: no hay nadie a quien avisar
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Duration waitTimeout(long timeoutSeconds) {
+        if (timeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Timeout must be a positive number of seconds.");
+        }
+        return Duration.ofSeconds(Math.min(timeoutSeconds, maxWaitSeconds));
+    }
+
+    private UUID parseTaskId(String taskId) {
+        try {
+            return UUID.fromString(taskId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid Task ID format. Please use UUID.");
+        }
+    }
+}
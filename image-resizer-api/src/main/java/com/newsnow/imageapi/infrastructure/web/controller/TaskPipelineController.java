@@ -0,0 +1,31 @@
+package com.newsnow.imageapi.infrastructure.web.controller;
+
+import com.newsnow.imageapi.application.usecase.TaskLaneScheduler;
+import com.newsnow.imageapi.application.usecase.TaskPipelineStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/pipeline")
+@RequiredArgsConstructor
+public class TaskPipelineController {
+    private final TaskPipelineStats pipelineStats;
+    private final TaskLaneScheduler taskLaneScheduler;
+
+    // Número de ejecuciones, media y máximo (ms) de cada etapa, y el tiempo medio ganado al solaparlas
+    @GetMapping("/stats")
+    public ResponseEntity<TaskPipelineStats.Snapshot> getStats() {
+        return ResponseEntity.ok(pipelineStats.snapshot());
+    }
+
+    // Por carril de tamaño: tareas en cola y en curso, y tiempo en cola (número, media y máximo en ms)
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<TaskLaneScheduler.Lane, TaskLaneScheduler.LaneStats>> getLanes() {
+        return ResponseEntity.ok(taskLaneScheduler.snapshot());
+    }
+}
@@ -1,8 +1,13 @@
 package com.newsnow.imageapi.infrastructure.web.exception;
 
 import com.newsnow.imageapi.application.dto.ErrorResponse;
+import com.newsnow.imageapi.application.ingest.ImageTooLargeException;
+import com.newsnow.imageapi.application.usecase.IdempotencyKeyConflictException;
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
 import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
 import com.newsnow.imageapi.domain.port.out.ImageStorageException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -39,6 +44,58 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    // Manejador para trabajo rechazado por falta de capacidad (cola llena, etc.)
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(TaskRejectedException ex, WebRequest request) {
+        logger.warn("Task rejected: " + ex.getMessage());
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    // Manejador para una Idempotency-Key reutilizada con otra imagen o resolución
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException ex, WebRequest request) {
+        logger.warn("Idempotency key conflict: " + ex.getMessage());
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // Manejador para imágenes por encima de image-resizer.ingest.max-bytes
+    @ExceptionHandler(ImageTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleImageTooLargeException(ImageTooLargeException ex, WebRequest request) {
+        logger.warn("Image too large: " + ex.getMessage());
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.PAYLOAD_TOO_LARGE,
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    // Sin tiempo para terminar la tarea (queda FAILED): reintentable
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceededException(DeadlineExceededException ex, WebRequest request) {
+        logger.warn("Deadline exceeded: " + ex.getMessage());
+        ErrorResponse errorResponse = createErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     // Manejador genérico para cualquier otra excepción no capturada
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleAllOtherExceptions(Exception ex, WebRequest request) {
@@ -0,0 +1,80 @@
+package com.newsnow.imageapi;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.Task;
+import com.newsnow.imageapi.domain.port.out.ImageStorageException;
+import com.newsnow.imageapi.domain.port.out.ImageStoragePort;
+import com.newsnow.imageapi.domain.port.out.TaskRepository;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sustituye DynamoDB y S3 por adaptadores en memoria (@Primary) en un contexto completo,
+ * tanto en el arranque Spring Boot como en el funcional de Lambda. Sin llamadas a AWS.
+ */
+public class InMemoryAdapters implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    @Override
+    public void initialize(GenericApplicationContext context) {
+        context.registerBean("inMemoryTaskRepository", TaskRepository.class, InMemoryTaskRepository::new,
+                definition -> definition.setPrimary(true));
+        context.registerBean("inMemoryImageStorage", ImageStoragePort.class, InMemoryImageStorage::new,
+                definition -> definition.setPrimary(true));
+    }
+
+    static class InMemoryImageStorage implements ImageStoragePort {
+
+        private final Map<String, byte[]> images = new ConcurrentHashMap<>();
+
+        @Override
+        public String saveImage(InputStream imageInputStream, String filename, long contentLength) {
+            return put("https://cdn.example.com/processed/" + filename, imageInputStream);
+        }
+
+        @Override
+        public String saveOriginal(InputStream imageInputStream, String filename, long contentLength, Deadline deadline) {
+            return put("https://cdn.example.com/originals/" + filename, imageInputStream);
+        }
+
+        private String put(String imageUrl, InputStream imageInputStream) {
+            try (imageInputStream) {
+                images.put(imageUrl, imageInputStream.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return imageUrl;
+        }
+
+        @Override
+        public byte[] loadImage(String imageUrl) {
+            byte[] image = images.get(imageUrl);
+            if (image == null) {
+                throw new ImageStorageException("Image not found: " + imageUrl);
+            }
+            return image;
+        }
+    }
+
+    static class InMemoryTaskRepository implements TaskRepository {
+
+        private final Map<UUID, Task> tasks = new ConcurrentHashMap<>();
+
+        @Override
+        public void save(Task task) {
+            tasks.put(task.getTaskId(), task);
+        }
+
+        @Override
+        public Optional<Task> findById(UUID taskId) {
+            return Optional.ofNullable(tasks.get(taskId));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.newsnow.imageapi;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.FunctionalSpringApplication;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Arranque funcional de LambdaApplication con adaptadores en memoria.
+ * Solo aplica al classpath del perfil "lambda" (mvn test -Plambda): con el perfil web, spring-cloud-function-web
+ * añade inicializadores que necesitan la autoconfiguración de Spring Boot.
+ */
+@DisabledIf("isWebProfileClasspath")
+class LambdaApplicationTest {
+
+    private static ConfigurableApplicationContext context;
+    private static FunctionInvocationWrapper handler;
+    private static ObjectMapper objectMapper;
+    // Copia de lo que EmfMetricsPublisher escribe en stdout
+    private static final ByteArrayOutputStream emfOutput = new ByteArrayOutputStream();
+
+    static boolean isWebProfileClasspath() {
+        return ClassUtils.isPresent("org.springframework.cloud.function.web.FunctionHttpProperties", null);
+    }
+
+    @BeforeAll
+    static void startFunctionalContext() {
+        FunctionalSpringApplication application = new FunctionalSpringApplication(LambdaApplication.class);
+        application.addInitializers(new InMemoryAdapters());
+        application.setDefaultProperties(Map.of("CLOUDFRONT_DOMAIN", "cdn.example.com"));
+        // EmfMetricsPublisher toma el System.out del arranque: se duplica para poder leer sus documentos
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                stdout.write(b);
+                synchronized (emfOutput) {
+                    emfOutput.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                stdout.write(bytes, offset, length);
+                synchronized (emfOutput) {
+                    emfOutput.write(bytes, offset, length);
+                }
+            }
+        }, true));
+        try {
+            // Por encima de application.properties
+            context = application.run("--image-resizer.ingest.max-bytes=65536");
+        } finally {
+            System.setOut(stdout);
+        }
+
+        // Igual que FunctionInvoker: la única función del catálogo
+        FunctionCatalog catalog = context.getBean(FunctionCatalog.class);
+        handler = catalog.lookup(LambdaApplication.HANDLER_NAME);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    @DisplayName("✅ Modo funcional: el catálogo expone el handler de API Gateway y ningún controller")
+    void shouldRegisterOnlyTheApiGatewayHandler() {
+        assertThat(handler).isNotNull();
+        assertThat(context.getBean(FunctionCatalog.class).getNames(null)).containsExactly(LambdaApplication.HANDLER_NAME);
+        assertThat(context.containsBean("taskController")).isFalse();
+    }
+
+    @Test
+    @DisplayName("✅ Modo funcional: POST /v1/task crea la tarea y GET /v1/task/{taskId} la devuelve")
+    void shouldCreateAndFetchTaskThroughRouteTable() throws Exception {
+        String body = "{\"imageData\":\"" + Base64.getEncoder().encodeToString(samplePng()) + "\","
+                + "\"filename\":\"photo.png\",\"width\":8,\"height\":8}";
+
+        APIGatewayProxyResponseEvent created = invoke("POST", "/v1/task", body);
+        assertThat(created.getStatusCode()).isEqualTo(201);
+        Map<?, ?> task = objectMapper.readValue(created.getBody(), Map.class);
+        assertThat(task.get("status")).isEqualTo("COMPLETED");
+        assertThat(task.get("timestamp")).isInstanceOf(String.class); // ISO-8601, no timestamp numérico
+
+        APIGatewayProxyResponseEvent fetched = invoke("GET", "/v1/task/" + task.get("taskId"), null);
+        assertThat(fetched.getStatusCode()).isEqualTo(200);
+        assertThat(objectMapper.readValue(fetched.getBody(), Map.class).get("taskId")).isEqualTo(task.get("taskId"));
+    }
+
+    @Test
+    @DisplayName("✅ Modo funcional: POST /v1/task publica en EMF la etapa hash de la ingesta")
+    void shouldFlushHashStageAsEmf() throws Exception {
+        synchronized (emfOutput) {
+            emfOutput.reset();
+        }
+        String body = "{\"imageData\":\"" + Base64.getEncoder().encodeToString(samplePng()) + "\","
+                + "\"filename\":\"photo.png\",\"width\":8,\"height\":8}";
+
+        assertThat(invoke("POST", "/v1/task", body).getStatusCode()).isEqualTo(201);
+
+        // La invocación vacía las métricas antes de responder: el documento ya está en stdout
+        assertThat(emfDocuments()).anySatisfy(document -> {
+            assertThat(document.get("Stage")).isEqualTo("hash");
+            assertThat(document.get("Format")).isEqualTo("png");
+            assertThat(document).containsKeys("_aws", "Duration", "Bytes");
+        });
+    }
+
+    @Test
+    @DisplayName("❌ Modo funcional: POST /v1/task con Base64 inválido devuelve 400 y por encima del límite 413")
+    void shouldRejectInvalidOrOversizedImageData() {
+        String invalid = "{\"imageData\":\"not*base64\",\"filename\":\"photo.png\",\"width\":8,\"height\":8}";
+        assertThat(invoke("POST", "/v1/task", invalid).getStatusCode()).isEqualTo(400);
+
+        String oversized = "{\"imageData\":\"" + Base64.getEncoder().encodeToString(new byte[70_000]) + "\","
+                + "\"filename\":\"photo.png\",\"width\":8,\"height\":8}";
+        assertThat(invoke("POST", "/v1/task", oversized).getStatusCode()).isEqualTo(413);
+    }
+
+    @Test
+    @DisplayName("❌ Modo funcional: sin tiempo restante en la invocación POST /v1/task devuelve 503 con Retry-After")
+    @SuppressWarnings("unchecked")
+    void shouldReturnRetryableErrorWhenInvocationIsOutOfTime() throws Exception {
+        // Menos tiempo restante que el margen reservado (1000 ms por defecto)
+        Context lambdaContext = mock(Context.class);
+        when(lambdaContext.getRemainingTimeInMillis()).thenReturn(500);
+        String body = "{\"imageData\":\"" + Base64.getEncoder().encodeToString(samplePng()) + "\","
+                + "\"filename\":\"photo.png\",\"width\":8,\"height\":8}";
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                .withHttpMethod("POST")
+                .withPath("/v1/task")
+                .withBody(body);
+
+        APIGatewayProxyResponseEvent response = ((Message<APIGatewayProxyResponseEvent>) handler.apply(
+                MessageBuilder.withPayload(request).setHeader(AWSLambdaUtils.AWS_CONTEXT, lambdaContext).build())).getPayload();
+
+        assertThat(response.getStatusCode()).isEqualTo(503);
+        assertThat(response.getHeaders()).containsEntry("Retry-After", "1");
+    }
+
+    @Test
+    @DisplayName("❓ Modo funcional: rutas desconocidas devuelven 404")
+    void shouldReturnNotFoundForUnknownRoutes() {
+        assertThat(invoke("GET", "/v1/task", null).getStatusCode()).isEqualTo(404);
+        assertThat(invoke("DELETE", "/v1/task/" + UUID.randomUUID(), null).getStatusCode()).isEqualTo(404);
+        assertThat(invoke("GET", "/v1/task/abc/extra", null).getStatusCode()).isEqualTo(404);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static APIGatewayProxyResponseEvent invoke(String method, String path, String body) {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                .withHttpMethod(method)
+                .withPath(path)
+                .withBody(body);
+        Message<APIGatewayProxyResponseEvent> response =
+                (Message<APIGatewayProxyResponseEvent>) handler.apply(MessageBuilder.withPayload(request).build());
+        return response.getPayload();
+    }
+
+    private static List<Map<String, Object>> emfDocuments() throws Exception {
+        String output;
+        synchronized (emfOutput) {
+            output = emfOutput.toString(StandardCharsets.UTF_8);
+        }
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (String line : output.split("\\R")) {
+            if (line.startsWith("{\"_aws\"")) {
+                documents.add(objectMapper.readValue(line, new TypeReference<>() {
+                }));
+            }
+        }
+        return documents;
+    }
+
+    private static byte[] samplePng() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,624 @@
+package com.newsnow.imageapi;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.function.context.FunctionalSpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de carga extremo a extremo sin AWS: arranca la aplicación real con S3 y DynamoDB sustituidos por
+ * dobles en proceso con latencia (LocalAwsStandIns) y la somete a una mezcla de imágenes de distintos tamaños
+ * a un ritmo objetivo. Con el perfil web recorre TaskController (HTTP real sobre Tomcat) y el handler de
+ * FunctionConfiguration; con -Plambda, el handler sobre el arranque funcional de LambdaApplication.
+ *
+ * Carga en lazo abierto: cada petición sale en su instante programado aunque las anteriores no hayan terminado,
+ * y su latencia se cuenta desde ese instante (sin "coordinated omission").
+ * Informa de throughput, p50/p99/p999, marca de agua del heap y GC por fase, y guarda el informe en JSON
+ * con claves ordenadas (target/load-test/report.json) para compararlo con diff entre versiones.
+ *
+ * No se ejecuta en el build normal:
+ *   mvn test -Dtest.excludedGroups= -Dgroups=load -Dtest=LoadTestHarness -Dload.rate=40 -Dload.duration-seconds=120
+ * Parámetros (-D): load.rate (peticiones/s), load.warmup-seconds, load.duration-seconds, load.get-ratio,
+ * load.images-dir (imágenes reales en lugar de las sintéticas), load.report, load.max-error-ratio, load.max-p99-ms,
+ * y las latencias de LocalAwsStandIns (load.s3.latency-ms, load.dynamodb.latency-ms y sus -jitter-ms).
+ */
+@Tag("load")
+class LoadTestHarness {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "20"));
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 60);
+    // Fracción de GET /v1/task/{taskId} sobre tareas ya creadas (el resto son POST /v1/task)
+    private static final double GET_RATIO = Double.parseDouble(System.getProperty("load.get-ratio", "0.2"));
+    private static final String IMAGES_DIR = System.getProperty("load.images-dir");
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-test/report.json"));
+    private static final double MAX_ERROR_RATIO = Double.parseDouble(System.getProperty("load.max-error-ratio", "0.01"));
+    private static final String MAX_P99_MS = System.getProperty("load.max-p99-ms");
+
+    private static final int[][] TARGETS = {{150, 100}, {800, 600}};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("📊 Carga: throughput, p50/p99/p999 y marca de agua del heap por punto de entrada")
+    void runLoad() throws Exception {
+        boolean web = isWebProfileClasspath();
+        List<WorkloadImage> images = workloadImages();
+
+        Map<String, Object> phases = new TreeMap<>();
+        try (ConfigurableApplicationContext context = web ? startWebApplication() : startLambdaApplication()) {
+            List<Driver> drivers = new ArrayList<>();
+            if (web) {
+                drivers.add(new ControllerDriver(context.getEnvironment().getProperty("local.server.port", Integer.class)));
+            }
+            drivers.add(new HandlerDriver(context.getBean(LambdaApplication.HANDLER_NAME, Function.class)));
+
+            for (Driver driver : drivers) {
+                Workload workload = new Workload(driver, images);
+                run(workload, WARMUP_SECONDS, null); // JIT, ImageIO, pools de conexiones
+                PhaseResult result = measure(workload);
+                System.out.println(result.summary(driver.name()));
+                phases.put(driver.name(), result.toReport());
+            }
+
+            LocalAwsStandIns.LocalS3Client s3 = (LocalAwsStandIns.LocalS3Client) context.getBean("localS3Client", S3Client.class);
+            writeReport(REPORT, config(images, context), phases, s3);
+        }
+
+        phases.values().forEach(LoadTestHarness::assertWithinLimits);
+    }
+
+    /**
+     * Solo la fase de TaskController, sobre una aplicación web arrancada con argumentos adicionales (p.ej. el modo
+     * de hilos de Tomcat): misma mezcla, ritmo y dobles de AWS que runLoad. Devuelve el informe de la fase.
+     */
+    Map<String, Object> measureController(String name, String... extraArgs) throws Exception {
+        List<WorkloadImage> images = workloadImages();
+        try (ConfigurableApplicationContext context = startWebApplication(extraArgs)) {
+            Workload workload = new Workload(new ControllerDriver(context.getEnvironment().getProperty("local.server.port", Integer.class)), images);
+            run(workload, WARMUP_SECONDS, null);
+            PhaseResult result = measure(workload);
+            System.out.println(result.summary(name));
+            Map<String, Object> report = result.toReport();
+            report.put("config", config(images, context));
+            return report;
+        }
+    }
+
+    // Límites configurables (load.max-error-ratio, load.max-p99-ms) sobre el informe de una fase
+    @SuppressWarnings("unchecked")
+    static void assertWithinLimits(Object phase) {
+        Map<String, Object> report = (Map<String, Object>) phase;
+        assertThat((double) report.get("errorRatio")).isLessThanOrEqualTo(MAX_ERROR_RATIO);
+        if (MAX_P99_MS != null) {
+            Map<String, Object> all = (Map<String, Object>) ((Map<String, Object>) report.get("latencyMs")).get("all");
+            assertThat((double) all.get("p99")).isLessThanOrEqualTo(Double.parseDouble(MAX_P99_MS));
+        }
+    }
+
+    static boolean isWebProfileClasspath() {
+        return ClassUtils.isPresent("org.springframework.cloud.function.web.FunctionHttpProperties", null);
+    }
+
+    // --- Arranque ---
+
+    private static String[] applicationArgs(String... extraArgs) {
+        return Stream.concat(Stream.of(
+                        "--server.port=0",
+                        "--CLOUDFRONT_DOMAIN=cdn.example.com",
+                        // Un log por petición falsearía los tiempos (y el stdout de surefire no es el de CloudWatch)
+                        "--logging.level.root=WARN",
+                        "--image-resizer.metrics.emf.enabled=false"),
+                Arrays.stream(extraArgs)).toArray(String[]::new);
+    }
+
+    private static ConfigurableApplicationContext startWebApplication(String... extraArgs) {
+        return new SpringApplicationBuilder(ImageResizerApiApplication.class)
+                .initializers(new LocalAwsStandIns())
+                .run(applicationArgs(extraArgs));
+    }
+
+    private static ConfigurableApplicationContext startLambdaApplication() {
+        FunctionalSpringApplication application = new FunctionalSpringApplication(LambdaApplication.class);
+        application.addInitializers(new LocalAwsStandIns());
+        return application.run(applicationArgs());
+    }
+
+    // --- Carga en lazo abierto ---
+
+    private PhaseResult measure(Workload workload) throws InterruptedException {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+
+        HeapSampler sampler = new HeapSampler();
+        sampler.start();
+        Samples samples = new Samples();
+        long elapsedNanos = run(workload, DURATION_SECONDS, samples);
+        sampler.stop();
+
+        Map<String, Long> poolPeaks = new TreeMap<>();
+        heapPools.forEach(pool -> poolPeaks.put(pool.getName(), pool.getPeakUsage().getUsed()));
+        return new PhaseResult(samples, elapsedNanos, sampler.peakUsedBytes(), poolPeaks,
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore);
+    }
+
+    // Lanza RATE peticiones por segundo durante 'seconds', cada una en su propio hilo virtual
+    private long run(Workload workload, int seconds, Samples samples) throws InterruptedException {
+        int total = (int) Math.round(RATE * seconds);
+        long intervalNanos = (long) (1_000_000_000L / RATE);
+        long start = System.nanoTime();
+        AtomicLong lastCompletion = new AtomicLong(start);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < total; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.execute(() -> {
+                    Outcome outcome = workload.next();
+                    long finished = System.nanoTime();
+                    lastCompletion.accumulateAndGet(finished, Math::max);
+                    if (samples != null) {
+                        samples.add(outcome.operation(), outcome.status(), finished - scheduled);
+                    }
+                });
+            }
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return lastCompletion.get() - start;
+    }
+
+    // --- Mezcla de peticiones ---
+
+    /** Imagen de la mezcla: nombre (clase de tamaño), bytes, extensión y peso relativo. */
+    record WorkloadImage(String name, byte[] bytes, String extension, int weight) {
+    }
+
+    /** Un resultado: operación ("create:<imagen>" o "get") y código HTTP (0 si la llamada falló). */
+    record Outcome(String operation, int status) {
+    }
+
+    private final class Workload {
+        private final Driver driver;
+        private final List<WorkloadImage> images;
+        private final int totalWeight;
+        // IDs de tareas creadas, para los GET (se reemplazan al azar para acotar la memoria)
+        private final String[] createdTaskIds = new String[1024];
+        private final AtomicLong created = new AtomicLong();
+
+        Workload(Driver driver, List<WorkloadImage> images) {
+            this.driver = driver;
+            this.images = images;
+            this.totalWeight = images.stream().mapToInt(WorkloadImage::weight).sum();
+        }
+
+        Outcome next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long count = created.get();
+            if (count > 0 && random.nextDouble() < GET_RATIO) {
+                String taskId = createdTaskIds[(int) random.nextLong(Math.min(count, createdTaskIds.length))];
+                if (taskId != null) {
+                    return new Outcome("get", safely(() -> driver.get(taskId).status()));
+                }
+            }
+            WorkloadImage image = pick(random.nextInt(totalWeight));
+            int[] target = TARGETS[random.nextInt(TARGETS.length)];
+            Response response;
+            try {
+                response = driver.create(image, target[0], target[1]);
+            } catch (Exception e) {
+                return new Outcome("create:" + image.name(), 0);
+            }
+            if (response.taskId() != null) {
+                long slot = created.getAndIncrement();
+                createdTaskIds[(int) (slot < createdTaskIds.length ? slot : random.nextInt(createdTaskIds.length))] = response.taskId();
+            }
+            return new Outcome("create:" + image.name(), response.status());
+        }
+
+        private WorkloadImage pick(int ticket) {
+            for (WorkloadImage image : images) {
+                ticket -= image.weight();
+                if (ticket < 0) {
+                    return image;
+                }
+            }
+            return images.get(images.size() - 1);
+        }
+
+        private int safely(ThrowingStatus call) {
+            try {
+                return call.get();
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingStatus {
+        int get() throws Exception;
+    }
+
+    record Response(int status, String taskId) {
+    }
+
+    private interface Driver {
+        String name();
+
+        Response create(WorkloadImage image, int width, int height) throws Exception;
+
+        Response get(String taskId) throws Exception;
+    }
+
+    // POST multipart / GET contra TaskController sobre Tomcat (HTTP real)
+    private final class ControllerDriver implements Driver {
+        private static final String BOUNDARY = "load-test-" + UUID.randomUUID();
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        private final String baseUrl;
+        // Cuerpo multipart por imagen y resolución, construido una sola vez
+        private final Map<String, byte[]> bodies = new java.util.concurrent.ConcurrentHashMap<>();
+
+        ControllerDriver(int port) {
+            this.baseUrl = "http://localhost:" + port + "/v1/task";
+        }
+
+        @Override
+        public String name() {
+            return "controller";
+        }
+
+        @Override
+        public Response create(WorkloadImage image, int width, int height) throws Exception {
+            byte[] body = bodies.computeIfAbsent(image.name() + "@" + width + "x" + height, key -> multipart(image, width, height));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl))
+                            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return new Response(response.statusCode(), isSuccess(response.statusCode()) ? taskId(response.body()) : null);
+        }
+
+        @Override
+        public Response get(String taskId) throws Exception {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + taskId)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return new Response(response.statusCode(), taskId);
+        }
+
+        private byte[] multipart(WorkloadImage image, int width, int height) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(image.bytes().length + 512);
+            String head = "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"width\"\r\n\r\n" + width + "\r\n"
+                    + "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"height\"\r\n\r\n" + height + "\r\n"
+                    + "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file\"; filename=\"" + image.name() + image.extension() + "\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n\r\n";
+            out.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(image.bytes());
+            out.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            return out.toByteArray();
+        }
+    }
+
+    // Eventos de API Gateway directamente contra el bean del handler (el mismo que invoca FunctionInvoker en Lambda)
+    private final class HandlerDriver implements Driver {
+        private final Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>> handler;
+        // Cuerpo JSON (Base64) por imagen y resolución, construido una sola vez
+        private final Map<String, String> bodies = new java.util.concurrent.ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        HandlerDriver(Function<?, ?> handler) {
+            this.handler = (Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>>) handler;
+        }
+
+        @Override
+        public String name() {
+            return "lambda-handler";
+        }
+
+        @Override
+        public Response create(WorkloadImage image, int width, int height) throws Exception {
+            String body = bodies.computeIfAbsent(image.name() + "@" + width + "x" + height, key ->
+                    "{\"imageData\":\"" + Base64.getEncoder().encodeToString(image.bytes()) + "\","
+                            + "\"filename\":\"" + image.name() + image.extension() + "\",\"width\":" + width + ",\"height\":" + height + "}");
+            APIGatewayProxyResponseEvent response = invoke("POST", "/v1/task", body);
+            return new Response(response.getStatusCode(), isSuccess(response.getStatusCode()) ? taskId(response.getBody()) : null);
+        }
+
+        @Override
+        public Response get(String taskId) {
+            return new Response(invoke("GET", "/v1/task/" + taskId, null).getStatusCode(), taskId);
+        }
+
+        private APIGatewayProxyResponseEvent invoke(String method, String path, String body) {
+            APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                    .withHttpMethod(method)
+                    .withPath(path)
+                    .withBody(body);
+            return handler.apply(MessageBuilder.withPayload(request).build()).getPayload();
+        }
+    }
+
+    // 201 en modo síncrono, 202 con image-resizer.async.enabled
+    private static boolean isSuccess(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    private String taskId(String body) throws java.io.IOException {
+        JsonNode taskId = objectMapper.readTree(body).get("taskId");
+        return taskId != null ? taskId.asText() : null;
+    }
+
+    // --- Imágenes ---
+
+    private static List<WorkloadImage> workloadImages() throws Exception {
+        return IMAGES_DIR != null ? loadImages(Path.of(IMAGES_DIR)) : syntheticImages();
+    }
+
+    // Mezcla por defecto: muchas miniaturas y fotos, algunas capturas PNG y pocos pósteres enormes
+    private static List<WorkloadImage> syntheticImages() throws Exception {
+        return List.of(
+                new WorkloadImage("thumbnail-jpeg-320x240", photo(320, 240, "jpeg"), ".jpg", 40),
+                new WorkloadImage("photo-jpeg-1920x1080", photo(1920, 1080, "jpeg"), ".jpg", 35),
+                new WorkloadImage("screenshot-png-1280x720", photo(1280, 720, "png"), ".png", 15),
+                new WorkloadImage("scan-bmp-1024x768", photo(1024, 768, "bmp"), ".bmp", 5),
+                new WorkloadImage("poster-jpeg-4000x3000", photo(4000, 3000, "jpeg"), ".jpg", 5));
+    }
+
+    // Imágenes reales de un directorio, todas con el mismo peso
+    private static List<WorkloadImage> loadImages(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<WorkloadImage> images = new ArrayList<>();
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                String filename = file.getFileName().toString();
+                int dot = filename.lastIndexOf('.');
+                images.add(new WorkloadImage(dot > 0 ? filename.substring(0, dot) : filename, Files.readAllBytes(file),
+                        dot > 0 ? filename.substring(dot) : "", 1));
+            }
+            assertThat(images).as("images in " + directory).isNotEmpty();
+            return images;
+        }
+    }
+
+    // Degradado con ruido: comprime como una foto (ni un color plano, ni ruido puro)
+    private static byte[] photo(int width, int height, String format) throws Exception {
+        Random random = new Random(width * 31L + height);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24);
+                int r = (x * 255 / width + noise) & 0xFF;
+                int g = (y * 255 / height + noise) & 0xFF;
+                int b = ((x + y) * 127 / (width + height) + noise) & 0xFF;
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ImageIO.write(image, format, out)).as("writer for " + format).isTrue();
+        return out.toByteArray();
+    }
+
+    // --- Medición ---
+
+    private static final class Samples {
+        private final ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+
+        void add(String operation, int status, long latencyNanos) {
+            samples.add(new Sample(operation, status, latencyNanos));
+        }
+    }
+
+    private record Sample(String operation, int status, long latencyNanos) {
+    }
+
+    // Muestrea el heap usado cada 10 ms: el pico entre dos GC que los MemoryPoolMXBean no ven en conjunto
+    private static final class HeapSampler {
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final AtomicLong peak = new AtomicLong();
+        private Thread thread;
+
+        void start() {
+            thread = Thread.ofPlatform().daemon().name("heap-sampler").start(() -> {
+                while (running.get()) {
+                    peak.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+                    LockSupport.parkNanos(10_000_000L);
+                }
+            });
+        }
+
+        void stop() throws InterruptedException {
+            running.set(false);
+            thread.join();
+        }
+
+        long peakUsedBytes() {
+            return peak.get();
+        }
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private record PhaseResult(Samples samples, long elapsedNanos, long heapPeakUsedBytes, Map<String, Long> heapPoolPeakBytes,
+                               long gcCount, long gcMillis) {
+
+        Map<String, Object> toReport() {
+            List<Sample> all = new ArrayList<>(samples.samples);
+            long errors = all.stream().filter(sample -> sample.status() < 200 || sample.status() >= 300).count();
+
+            Map<String, Object> latency = new TreeMap<>();
+            latency.put("all", percentiles(all));
+            Map<String, List<Sample>> byOperation = new TreeMap<>();
+            all.forEach(sample -> byOperation.computeIfAbsent(sample.operation(), key -> new ArrayList<>()).add(sample));
+            byOperation.forEach((operation, operationSamples) -> latency.put(operation, percentiles(operationSamples)));
+
+            Map<String, Long> statuses = new TreeMap<>();
+            all.forEach(sample -> statuses.merge(String.valueOf(sample.status()), 1L, Long::sum));
+
+            Map<String, Object> heap = new TreeMap<>();
+            heap.put("peakUsedMb", megabytes(heapPeakUsedBytes));
+            Map<String, Object> pools = new TreeMap<>();
+            heapPoolPeakBytes.forEach((pool, bytes) -> pools.put(pool, megabytes(bytes)));
+            heap.put("poolPeakMb", pools);
+            heap.put("maxMb", megabytes(Runtime.getRuntime().maxMemory()));
+
+            Map<String, Object> report = new TreeMap<>();
+            report.put("requests", all.size());
+            report.put("throughputPerSecond", round(all.size() / (elapsedNanos / 1e9)));
+            report.put("errorRatio", all.isEmpty() ? 0.0 : round((double) errors / all.size(), 4));
+            report.put("statuses", statuses);
+            report.put("latencyMs", latency);
+            report.put("heap", heap);
+            report.put("gc", Map.of("count", gcCount, "timeMs", gcMillis));
+            return report;
+        }
+
+        @SuppressWarnings("unchecked")
+        String summary(String name) {
+            Map<String, Object> report = toReport();
+            Map<String, Object> all = (Map<String, Object>) ((Map<String, Object>) report.get("latencyMs")).get("all");
+            Map<String, Object> heap = (Map<String, Object>) report.get("heap");
+            return String.format("[%s] requests=%s throughput=%s req/s errors=%s p50=%s ms p99=%s ms p999=%s ms heapPeak=%s MB gc=%s",
+                    name, report.get("requests"), report.get("throughputPerSecond"), report.get("errorRatio"),
+                    all.get("p50"), all.get("p99"), all.get("p999"), heap.get("peakUsedMb"), report.get("gc"));
+        }
+
+        private static Map<String, Object> percentiles(List<Sample> samples) {
+            long[] latencies = samples.stream().mapToLong(Sample::latencyNanos).sorted().toArray();
+            Map<String, Object> percentiles = new TreeMap<>();
+            percentiles.put("count", latencies.length);
+            percentiles.put("p50", percentile(latencies, 0.50));
+            percentiles.put("p99", percentile(latencies, 0.99));
+            percentiles.put("p999", percentile(latencies, 0.999));
+            percentiles.put("max", latencies.length == 0 ? 0.0 : round(latencies[latencies.length - 1] / 1e6));
+            return percentiles;
+        }
+
+        // Percentil por rango más cercano; con menos de 1000 muestras p999 es el máximo
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return round(sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6);
+        }
+
+        private static double megabytes(long bytes) {
+            return round(bytes / (1024.0 * 1024.0));
+        }
+
+        private static double round(double value) {
+            return round(value, 1);
+        }
+
+        private static double round(double value, int decimals) {
+            double scale = Math.pow(10, decimals);
+            return Math.round(value * scale) / scale;
+        }
+    }
+
+    // --- Informe ---
+
+    private Map<String, Object> config(List<WorkloadImage> images, ConfigurableApplicationContext context) {
+        Map<String, Object> config = new TreeMap<>();
+        config.put("rate", RATE);
+        config.put("warmupSeconds", WARMUP_SECONDS);
+        config.put("durationSeconds", DURATION_SECONDS);
+        config.put("getRatio", GET_RATIO);
+        config.put("targets", Arrays.stream(TARGETS).map(target -> target[0] + "x" + target[1]).toList());
+        Map<String, Object> mix = new TreeMap<>();
+        images.forEach(image -> mix.put(image.name(), Map.of("bytes", image.bytes().length, "weight", image.weight())));
+        config.put("images", mix);
+        Map<String, Object> latency = new TreeMap<>();
+        LocalAwsStandIns.Latency s3 = ((LocalAwsStandIns.LocalS3Client) context.getBean("localS3Client", S3Client.class)).latency();
+        LocalAwsStandIns.Latency dynamoDb = ((LocalAwsStandIns.LocalDynamoDbClient) context.getBean("localDynamoDbClient", DynamoDbClient.class)).latency();
+        latency.put("s3", Map.of("baseMs", s3.baseMillis(), "jitterMs", s3.jitterMillis()));
+        latency.put("dynamoDb", Map.of("baseMs", dynamoDb.baseMillis(), "jitterMs", dynamoDb.jitterMillis()));
+        config.put("standInLatency", latency);
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        config.put("javaVersion", Runtime.version().feature());
+        return config;
+    }
+
+    private void writeReport(Path path, Map<String, Object> config, Map<String, Object> phases, LocalAwsStandIns.LocalS3Client s3) throws Exception {
+        Map<String, Object> report = new TreeMap<>();
+        report.put("config", config);
+        report.put("phases", phases);
+        report.put("s3", Map.of("objects", s3.objectCount(), "bytes", s3.byteCount()));
+        writeReport(path, report);
+    }
+
+    // JSON con claves ordenadas: dos informes se comparan con diff
+    void writeReport(Path path, Map<String, Object> report) throws Exception {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValue(path.toFile(), report);
+        System.out.println("Load test report: " + path.toAbsolutePath());
+    }
+}
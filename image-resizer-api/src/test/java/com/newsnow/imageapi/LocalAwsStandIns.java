@@ -0,0 +1,173 @@
+package com.newsnow.imageapi;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustituye los clientes del SDK de S3 y DynamoDB (@Primary) por dobles en proceso con latencia inyectada.
+ * A diferencia de InMemoryAdapters, los adaptadores reales (S3ImageStorageAdapter, DynamoDbTaskRepository)
+ * siguen en el camino: mapeo de items, RequestBody, timeouts por deadline y métricas incluidos.
+ * Sirve para el arranque Spring Boot y para el funcional de Lambda.
+ *
+ * Latencia por llamada = base + uniforme(0, jitter), configurable con
+ * load.s3.latency-ms / load.s3.jitter-ms y load.dynamodb.latency-ms / load.dynamodb.jitter-ms.
+ */
+public class LocalAwsStandIns implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    @Override
+    public void initialize(GenericApplicationContext context) {
+        Environment env = context.getEnvironment();
+        Latency s3Latency = new Latency(
+                env.getProperty("load.s3.latency-ms", Long.class, 40L),
+                env.getProperty("load.s3.jitter-ms", Long.class, 20L));
+        Latency dynamoDbLatency = new Latency(
+                env.getProperty("load.dynamodb.latency-ms", Long.class, 8L),
+                env.getProperty("load.dynamodb.jitter-ms", Long.class, 4L));
+        context.registerBean("localS3Client", S3Client.class, () -> new LocalS3Client(s3Latency),
+                definition -> definition.setPrimary(true));
+        context.registerBean("localDynamoDbClient", DynamoDbClient.class, () -> new LocalDynamoDbClient(dynamoDbLatency),
+                definition -> definition.setPrimary(true));
+    }
+
+    record Latency(long baseMillis, long jitterMillis) {
+
+        void await() {
+            long millis = baseMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+            if (millis <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Solo putObject: consume el cuerpo entero (como el SDK al subirlo) pero guarda únicamente el tamaño,
+     * para que la marca de agua del heap sea la de la aplicación y no la del doble.
+     */
+    static final class LocalS3Client implements S3Client {
+
+        private final Latency latency;
+        private final AtomicLong objects = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        LocalS3Client(Latency latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest putObjectRequest, RequestBody requestBody) {
+            long length;
+            try (InputStream in = requestBody.contentStreamProvider().newStream()) {
+                length = in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            latency.await();
+            objects.incrementAndGet();
+            bytes.addAndGet(length);
+            return PutObjectResponse.builder().eTag(Long.toHexString(length)).build();
+        }
+
+        Latency latency() {
+            return latency;
+        }
+
+        long objectCount() {
+            return objects.get();
+        }
+
+        long byteCount() {
+            return bytes.get();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** putItem / getItem / batchWriteItem sobre un mapa por clave de partición (taskId). */
+    static final class LocalDynamoDbClient implements DynamoDbClient {
+
+        private static final String PARTITION_KEY = "taskId";
+
+        private final Latency latency;
+        private final Map<String, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+
+        LocalDynamoDbClient(Latency latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public PutItemResponse putItem(PutItemRequest putItemRequest) {
+            latency.await();
+            put(putItemRequest.item());
+            return PutItemResponse.builder().build();
+        }
+
+        @Override
+        public GetItemResponse getItem(GetItemRequest getItemRequest) {
+            latency.await();
+            Map<String, AttributeValue> item = items.get(getItemRequest.key().get(PARTITION_KEY).s());
+            return item == null ? GetItemResponse.builder().build() : GetItemResponse.builder().item(item).build();
+        }
+
+        @Override
+        public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest batchWriteItemRequest) {
+            latency.await();
+            for (List<WriteRequest> writes : batchWriteItemRequest.requestItems().values()) {
+                writes.forEach(write -> put(write.putRequest().item()));
+            }
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of()).build();
+        }
+
+        Latency latency() {
+            return latency;
+        }
+
+        private void put(Map<String, AttributeValue> item) {
+            items.put(item.get(PARTITION_KEY).s(), item);
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.newsnow.imageapi;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Comparación de carga: hilos de plataforma (pool de 200, como Tomcat por defecto) frente a hilos virtuales
+ * (spring.threads.virtual.enabled, con el redimensionado confinado en CpuBoundImageProcessor).
+ * Cada modo arranca la aplicación web real con LoadTestHarness: las peticiones recorren TaskController y
+ * TaskService, y la E/S bloqueante de DynamoDB/S3 la simulan los dobles con latencia de LocalAwsStandIns.
+ * Informe de ambos modos en target/load-test/thread-modes.json (-Dload.thread-modes-report para cambiarlo).
+ *
+ * No se ejecuta en el build normal (la diferencia se nota con ritmo y latencias altas):
+ *   mvn test -Dtest.excludedGroups= -Dgroups=load -Dtest=VirtualThreadModeLoadTest -Dload.rate=200 -Dload.s3.latency-ms=60
+ * Acepta los mismos parámetros (-D) que LoadTestHarness.
+ */
+@Tag("load")
+@EnabledIf("com.newsnow.imageapi.LoadTestHarness#isWebProfileClasspath")
+class VirtualThreadModeLoadTest {
+
+    private static final int PLATFORM_POOL_SIZE = 200; // server.tomcat.threads.max por defecto
+    private static final Path REPORT = Path.of(System.getProperty("load.thread-modes-report", "target/load-test/thread-modes.json"));
+
+    @Test
+    @DisplayName("📊 Carga: hilos de plataforma vs hilos virtuales con pool de CPU, a través de TaskController")
+    void comparePlatformAndVirtualThreadModes() throws Exception {
+        LoadTestHarness harness = new LoadTestHarness();
+
+        Map<String, Object> phases = new TreeMap<>();
+        phases.put("platform", harness.measureController("platform",
+                "--spring.threads.virtual.enabled=false", "--server.tomcat.threads.max=" + PLATFORM_POOL_SIZE));
+        phases.put("virtual", harness.measureController("virtual",
+                "--spring.threads.virtual.enabled=true"));
+        harness.writeReport(REPORT, Map.of("phases", phases));
+
+        phases.values().forEach(LoadTestHarness::assertWithinLimits);
+    }
+}
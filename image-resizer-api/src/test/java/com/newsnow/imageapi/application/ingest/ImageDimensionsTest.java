@@ -0,0 +1,53 @@
+package com.newsnow.imageapi.application.ingest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ImageDimensionsTest {
+
+    private final ImageIngestor ingestor = new ImageIngestor(1024 * 1024);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"png", "jpg", "gif", "bmp"})
+    @DisplayName("✅ ImageDimensions: Debería leer ancho y alto de la cabecera")
+    void shouldReadDimensionsFromHeader(String format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(37, 23, BufferedImage.TYPE_INT_RGB), format, out);
+
+        try (IngestedImage image = ingestor.ingest(out.toByteArray())) {
+            assertThat(ImageDimensions.read(image)).contains(new ImageDimensions(37, 23));
+        }
+    }
+
+    @Test
+    @DisplayName("✅ ImageDimensions: Debería leer las dimensiones de un WebP extendido (VP8X)")
+    void shouldReadWebpExtendedDimensions() throws Exception {
+        byte[] webp = {'R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P',
+                'V', 'P', '8', 'X', 10, 0, 0, 0, 0, 0, 0, 0,
+                (byte) 0x7F, 0x07, 0x00, // ancho - 1 = 1919
+                0x37, 0x04, 0x00};       // alto - 1 = 1079
+
+        try (IngestedImage image = ingestor.ingest(webp)) {
+            assertThat(ImageDimensions.read(image)).contains(new ImageDimensions(1920, 1080));
+        }
+    }
+
+    @Test
+    @DisplayName("❓ ImageDimensions: Debería devolver vacío con una cabecera truncada o un formato desconocido")
+    void shouldReturnEmptyForTruncatedOrUnknownImages() throws Exception {
+        byte[] truncatedPng = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0};
+        try (IngestedImage truncated = ingestor.ingest(truncatedPng);
+             IngestedImage unknown = ingestor.ingest(new byte[]{1, 2, 3})) {
+            assertThat(ImageDimensions.read(truncated)).isEmpty();
+            assertThat(ImageDimensions.read(unknown)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.newsnow.imageapi.application.ingest;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ImageIngestorTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @Test
+    @DisplayName("✅ ingest: Debería mantener en heap las imágenes por debajo del umbral")
+    void shouldKeepSmallImagesOnHeap() throws Exception {
+        byte[] content = sampleContent(PNG_HEADER, 500);
+        ImageIngestor ingestor = new ImageIngestor(1024);
+
+        try (IngestedImage image = ingestor.ingest(new ByteArrayInputStream(content))) {
+            assertThat(image.isSpilledToDisk()).isFalse();
+            assertThat(image.getContentLength()).isEqualTo(content.length);
+            assertThat(image.getFormat()).isEqualTo(ImageFormat.PNG);
+            assertThat(image.getOriginalMD5()).isEqualTo(md5(content));
+            try (InputStream in = image.openStream()) {
+                assertThat(in.readAllBytes()).isEqualTo(content);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("✅ ingest: Debería volcar a un fichero mapeado las imágenes por encima del umbral")
+    void shouldSpillLargeImagesToMappedFile() throws Exception {
+        byte[] jpegHeader = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        byte[] content = sampleContent(jpegHeader, 50_000);
+        ImageIngestor ingestor = new ImageIngestor(4096);
+
+        Path spillFile;
+        try (IngestedImage image = ingestor.ingest(new ByteArrayInputStream(content))) {
+            assertThat(image.isSpilledToDisk()).isTrue();
+            assertThat(image.getContentLength()).isEqualTo(content.length);
+            assertThat(image.getFormat()).isEqualTo(ImageFormat.JPEG);
+            assertThat(image.getOriginalMD5()).isEqualTo(md5(content));
+            // Dos streams independientes sobre el mismo contenido
+            try (InputStream first = image.openStream(); InputStream second = image.openStream()) {
+                assertThat(first.readAllBytes()).isEqualTo(content);
+                assertThat(second.readAllBytes()).isEqualTo(content);
+            }
+            spillFile = image.getSpillFile();
+            assertThat(spillFile).exists();
+        }
+        assertThat(Files.exists(spillFile)).isFalse();
+    }
+
+    @Test
+    @DisplayName("✅ ingest: Debería medir la etapa hash y contar los bytes volcados mientras la imagen siga abierta")
+    void shouldRecordHashStageAndSpilledBytes() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageIngestor ingestor = new ImageIngestor(4096, Long.MAX_VALUE, "md5", new ProcessingMetrics(registry));
+        byte[] content = sampleContent(PNG_HEADER, 50_000);
+
+        IngestedImage image = ingestor.ingest(new ByteArrayInputStream(content));
+        assertThat(registry.get("image_resizer.ingest.spilled.bytes").gauge().value()).isEqualTo(content.length);
+        image.close();
+        image.close(); // Cerrar dos veces no descuenta dos veces
+
+        assertThat(registry.get("image_resizer.ingest.spilled.bytes").gauge().value()).isZero();
+        assertThat(registry.get("image_resizer.stage").tags("stage", "hash", "format", "png", "size", "lt_64k")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("❓ ingest: Debería devolver UNKNOWN si la cabecera no es reconocible")
+    void shouldReturnUnknownFormatForUnrecognisedHeader() throws Exception {
+        ImageIngestor ingestor = new ImageIngestor(1024);
+
+        try (IngestedImage image = ingestor.ingest(new ByteArrayInputStream("simulated image content".getBytes()))) {
+            assertThat(image.getFormat()).isEqualTo(ImageFormat.UNKNOWN);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ ingest: Debería calcular el hash de deduplicación configurado junto al MD5 en la misma lectura")
+    void shouldComputeConfiguredContentHashAlongsideMd5() throws Exception {
+        byte[] content = sampleContent(PNG_HEADER, 10_000);
+
+        try (IngestedImage md5 = new ImageIngestor(1024, 1 << 20, "md5").ingest(new ByteArrayInputStream(content));
+             IngestedImage sha = new ImageIngestor(1024, 1 << 20, "sha-256").ingest(new ByteArrayInputStream(content));
+             IngestedImage xxh = new ImageIngestor(1024, 1 << 20, "xxh64").ingest(new ByteArrayInputStream(content))) {
+            assertThat(md5.getContentHash()).isEqualTo(md5.getOriginalMD5()).isEqualTo(md5(content));
+            assertThat(sha.getOriginalMD5()).isEqualTo(md5(content));
+            assertThat(sha.getContentHash()).isEqualTo("sha256:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+            assertThat(xxh.getOriginalMD5()).isEqualTo(md5(content));
+            assertThat(xxh.getContentHash()).matches("xxh64:[0-9a-f]{16}");
+        }
+        assertThatThrownBy(() -> new ImageIngestor(1024, 1 << 20, "crc32"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("✅ DigestingInputStream: Leer byte a byte debería dar los mismos hashes y formato que leer por bloques")
+    void singleByteReadsShouldMatchBlockReads() throws Exception {
+        byte[] content = sampleContent(PNG_HEADER, 5000);
+        DigestingInputStream bytewise = new DigestingInputStream(new ByteArrayInputStream(content), 1 << 20, ContentHash.SHA_256);
+        while (bytewise.read() != -1) {
+            // Cada byte pasa por el buffer de un byte reutilizado
+        }
+        DigestingInputStream blockwise = new DigestingInputStream(new ByteArrayInputStream(content), 1 << 20, ContentHash.SHA_256);
+        blockwise.readAllBytes();
+
+        DigestingInputStream.Digests expected = blockwise.digests(); // digests() cierra los hashes: una sola llamada
+        assertThat(bytewise.getCount()).isEqualTo(content.length);
+        assertThat(bytewise.digests()).isEqualTo(expected);
+        assertThat(expected.originalMD5()).isEqualTo(md5(content));
+        assertThat(expected.format()).isEqualTo(ImageFormat.PNG);
+    }
+
+    @Test
+    @DisplayName("✅ XxHash64: Debería coincidir con los vectores de referencia y no depender de cómo se trocea la entrada")
+    void shouldMatchXxHash64ReferenceVectors() {
+        assertThat(xxh64("".getBytes())).isEqualTo("ef46db3751d8e999");
+        assertThat(xxh64("a".getBytes())).isEqualTo("d24ec4f1a98c6e5b");
+        assertThat(xxh64("abc".getBytes())).isEqualTo("44bc2cf5ad770999");
+        assertThat(xxh64("Nobody inspects the spammish repetition".getBytes())).isEqualTo("fbcea83c8a378bf1");
+
+        byte[] content = sampleContent(PNG_HEADER, 1000);
+        XxHash64 chunked = new XxHash64();
+        for (int offset = 0, size = 1; offset < content.length; offset += size, size = size * 2 + 1) {
+            chunked.update(content, offset, Math.min(size, content.length - offset));
+        }
+        assertThat(chunked.hexDigest()).isEqualTo(xxh64(content));
+    }
+
+    @Test
+    @DisplayName("❌ ingest: Debería cortar la lectura al superar el tamaño máximo y borrar el fichero temporal")
+    void shouldRejectImagesAboveMaxBytes() throws Exception {
+        byte[] content = sampleContent(PNG_HEADER, 50_000);
+        ImageIngestor ingestor = new ImageIngestor(4096, 20_000, "md5");
+        long spillFilesBefore = countSpillFiles();
+
+        assertThatThrownBy(() -> ingestor.ingest(new ByteArrayInputStream(content)))
+                .isInstanceOf(ImageTooLargeException.class)
+                .hasMessageContaining("20000");
+        assertThatThrownBy(() -> ingestor.ingest(content))
+                .isInstanceOf(ImageTooLargeException.class);
+        assertThat(countSpillFiles()).isEqualTo(spillFilesBefore);
+
+        // Justo en el límite se acepta
+        try (IngestedImage image = ingestor.ingest(new ByteArrayInputStream(content, 0, 20_000))) {
+            assertThat(image.getContentLength()).isEqualTo(20_000);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ ingest(byte[]): Debería envolver el array recibido sin copiarlo")
+    void shouldWrapByteArrayWithoutCopying() throws Exception {
+        byte[] content = sampleContent(PNG_HEADER, 500);
+
+        try (IngestedImage image = new ImageIngestor(1024).ingest(content)) {
+            assertThat(image.getFormat()).isEqualTo(ImageFormat.PNG);
+            assertThat(image.getOriginalMD5()).isEqualTo(md5(content));
+            content[100] ^= 1; // El contenido es el mismo array
+            try (InputStream in = image.openStream()) {
+                assertThat(in.readAllBytes()).isEqualTo(content);
+            }
+        }
+    }
+
+    private static byte[] sampleContent(byte[] header, int size) {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        System.arraycopy(header, 0, content, 0, header.length);
+        return content;
+    }
+
+    private static String xxh64(byte[] content) {
+        XxHash64 hash = new XxHash64();
+        hash.update(content, 0, content.length);
+        return hash.hexDigest();
+    }
+
+    private static long countSpillFiles() throws Exception {
+        try (var files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("image-ingest-")).count();
+        }
+    }
+
+    private static String md5(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+    }
+}
@@ -0,0 +1,139 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyKeyRegistryTest {
+
+    @Test
+    @DisplayName("✅ claim: Debería descartar la clave usada hace más tiempo al superar el tamaño máximo")
+    void shouldEvictLeastRecentlyUsedKey() {
+        // Arrange
+        IdempotencyKeyRegistry registry = new IdempotencyKeyRegistry(2);
+        registry.claim("a").complete(UUID.randomUUID());
+        registry.claim("b").complete(UUID.randomUUID());
+        registry.claim("a"); // "a" pasa a ser la más reciente
+
+        // Act
+        registry.claim("c");
+
+        // Assert: "b" salió de la caché y vuelve a tener dueño; "a" sigue reservada
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.claim("a").isOwner()).isFalse();
+        assertThat(registry.claim("b").isOwner()).isTrue();
+    }
+
+    @Test
+    @DisplayName("✅ claim: No debería descartar una clave cuyo primer intento sigue en curso")
+    void shouldNotEvictInFlightKey() {
+        // Arrange: "a" sigue en curso y es la usada hace más tiempo
+        IdempotencyKeyRegistry registry = new IdempotencyKeyRegistry(2);
+        registry.claim("a");
+        registry.claim("b").complete(UUID.randomUUID());
+
+        // Act
+        registry.claim("c");
+
+        // Assert: sale "b" (terminada); un duplicado de "a" sigue esperando al primer dueño
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.claim("a").isOwner()).isFalse();
+        assertThat(registry.claim("b").isOwner()).isTrue();
+    }
+
+    @Test
+    @DisplayName("⏱️ awaitTaskId: Debería lanzar DeadlineExceededException si el dueño no termina a tiempo")
+    void awaitTaskIdShouldRespectDeadline() {
+        // Arrange
+        IdempotencyKeyRegistry registry = new IdempotencyKeyRegistry(10);
+        registry.claim("retry-123");
+        IdempotencyKeyRegistry.Claim duplicate = registry.claim("retry-123");
+
+        // Act & Assert
+        assertThatThrownBy(() -> duplicate.awaitTaskId(Deadline.after(Duration.ofMillis(50))))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(duplicate.taskId()).isNotDone();
+    }
+
+    @Test
+    @DisplayName("✅ fail: Debería liberar la clave y propagar el error a quien espera")
+    void shouldReleaseKeyWhenOwnerFails() {
+        // Arrange
+        IdempotencyKeyRegistry registry = new IdempotencyKeyRegistry(10);
+        IdempotencyKeyRegistry.Claim owner = registry.claim("retry-123");
+        IdempotencyKeyRegistry.Claim duplicate = registry.claim("retry-123");
+
+        // Act
+        owner.fail(new IllegalStateException("Processing Error"));
+
+        // Assert
+        assertThatThrownBy(() -> duplicate.taskId().join()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(registry.claim("retry-123").isOwner()).isTrue();
+    }
+
+    @Test
+    @DisplayName("✅ release: Debería olvidar la clave ya completada para que la siguiente petición la reserve")
+    void shouldForgetCompletedKeyOnRelease() {
+        // Arrange
+        IdempotencyKeyRegistry registry = new IdempotencyKeyRegistry(10);
+        registry.claim("retry-123").complete(UUID.randomUUID());
+        IdempotencyKeyRegistry.Claim cached = registry.claim("retry-123");
+
+        // Act
+        cached.release();
+
+        // Assert
+        assertThat(registry.size()).isZero();
+        assertThat(registry.claim("retry-123").isOwner()).isTrue();
+    }
+
+    @Test
+    @DisplayName("✅ claim: Con peticiones concurrentes, solo una debería ser dueña y el resto recibir su ID")
+    void shouldGrantSingleOwnerUnderConcurrentClaims() throws Exception {
+        // Arrange
+        IdempotencyKeyRegistry registry = new IdempotencyKeyRegistry(10);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<IdempotencyKeyRegistry.Claim>> claims = new ArrayList<>();
+        Callable<IdempotencyKeyRegistry.Claim> claim = () -> {
+            start.await();
+            return registry.claim("retry-123");
+        };
+
+        // Act
+        try {
+            for (int i = 0; i < threads; i++) {
+                claims.add(executor.submit(claim));
+            }
+            start.countDown();
+            List<IdempotencyKeyRegistry.Claim> results = new ArrayList<>();
+            for (Future<IdempotencyKeyRegistry.Claim> future : claims) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            UUID taskId = UUID.randomUUID();
+            results.stream().filter(IdempotencyKeyRegistry.Claim::isOwner).forEach(owner -> owner.complete(taskId));
+
+            // Assert
+            assertThat(results).filteredOn(IdempotencyKeyRegistry.Claim::isOwner).hasSize(1);
+            assertThat(results).allSatisfy(result -> assertThat(result.taskId().join()).isEqualTo(taskId));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
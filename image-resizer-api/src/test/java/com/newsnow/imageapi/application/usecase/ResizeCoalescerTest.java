@@ -0,0 +1,110 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.model.RenditionKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResizeCoalescerTest {
+
+    private static final RenditionKey KEY = new RenditionKey("md5", new ImageResolution(100, 50), ".jpg");
+
+    private final ResizeCoalescer coalescer = new ResizeCoalescer();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("❓ resize: Si el trabajo lanza un Error, quien espera debería recibirlo en lugar de quedarse bloqueado")
+    void shouldReleaseFollowersWhenLeaderThrowsError() throws Exception {
+        // Arrange
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> releaseLeader = new CompletableFuture<>();
+        Future<?> leader = executor.submit(() -> coalescer.resize(KEY, () -> {
+            leaderStarted.countDown();
+            releaseLeader.join();
+            throw new OutOfMemoryError("Java heap space");
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<StoredRendition> follower = executor.submit(() -> coalescer.resize(KEY, () -> new StoredRendition("unused", null)));
+        while (coalescer.coalescedCount() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        releaseLeader.complete(null);
+
+        // Assert
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("❓ resize: Quien espera debería rendirse al vencer su propio deadline, sin afectar al trabajo en curso")
+    void shouldBoundFollowerWaitByItsOwnDeadline() throws Exception {
+        // Arrange
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> releaseLeader = new CompletableFuture<>();
+        Future<StoredRendition> leader = executor.submit(() -> coalescer.resize(KEY, () -> {
+            leaderStarted.countDown();
+            releaseLeader.join();
+            return new StoredRendition("https://cdn.example.com/processed/a.jpg", null);
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert
+        assertThatThrownBy(() -> coalescer.resize(KEY, Deadline.after(Duration.ofMillis(50)), () -> new StoredRendition("unused", null)))
+                .isInstanceOf(DeadlineExceededException.class);
+        releaseLeader.complete(null);
+        assertThat(leader.get(5, TimeUnit.SECONDS).imageUrl()).isEqualTo("https://cdn.example.com/processed/a.jpg");
+    }
+
+    @Test
+    @DisplayName("✅ resize: Si el trabajo en curso falla por su deadline, quien espera con tiempo debería hacerlo él mismo")
+    void shouldRetryAsLeaderWhenLeaderFailsForItsOwnDeadline() throws Exception {
+        // Arrange
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> releaseLeader = new CompletableFuture<>();
+        Future<?> leader = executor.submit(() -> coalescer.resize(KEY, () -> {
+            leaderStarted.countDown();
+            releaseLeader.join();
+            throw new DeadlineExceededException("Deadline exceeded before encode.");
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicInteger followerRuns = new AtomicInteger();
+        Future<StoredRendition> follower = executor.submit(() -> coalescer.resize(KEY, Deadline.after(Duration.ofSeconds(30)), () -> {
+            followerRuns.incrementAndGet();
+            return new StoredRendition("https://cdn.example.com/processed/b.jpg", null);
+        }));
+        while (coalescer.coalescedCount() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        releaseLeader.complete(null);
+
+        // Assert
+        assertThat(follower.get(5, TimeUnit.SECONDS).imageUrl()).isEqualTo("https://cdn.example.com/processed/b.jpg");
+        assertThat(followerRuns).hasValue(1);
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DeadlineExceededException.class);
+    }
+}
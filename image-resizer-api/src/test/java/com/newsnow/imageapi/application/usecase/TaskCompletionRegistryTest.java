@@ -0,0 +1,71 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.application.dto.TaskResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskCompletionRegistryTest {
+
+    private final TaskCompletionRegistry registry = new TaskCompletionRegistry();
+
+    @Test
+    @DisplayName("✅ complete: Debería despertar a todos los suscriptores de la tarea")
+    void shouldCompleteAllSubscribers() {
+        // Arrange
+        UUID taskId = UUID.randomUUID();
+        TaskCompletionRegistry.Subscription first = registry.subscribe(taskId);
+        TaskCompletionRegistry.Subscription second = registry.subscribe(taskId);
+
+        // Act
+        registry.complete(response(taskId, "COMPLETED"));
+
+        // Assert
+        assertThat(first.completion()).isCompletedWithValueMatching(task -> task.getStatus().equals("COMPLETED"));
+        assertThat(second.completion()).isCompletedWithValueMatching(task -> task.getStatus().equals("COMPLETED"));
+        assertThat(registry.waitingTasks()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ unsubscribe: Una baja tardía no debería borrar la espera de un suscriptor posterior")
+    void staleUnsubscribeShouldNotDropNewerSubscription() {
+        // Arrange: la tarea termina, se vuelve a procesar (reintento con Idempotency-Key) y alguien la espera otra vez
+        UUID taskId = UUID.randomUUID();
+        TaskCompletionRegistry.Subscription stale = registry.subscribe(taskId);
+        registry.complete(response(taskId, "FAILED"));
+        TaskCompletionRegistry.Subscription current = registry.subscribe(taskId);
+
+        // Act: el primer suscriptor se da de baja después de despertar
+        stale.unsubscribe();
+        stale.unsubscribe();
+        registry.complete(response(taskId, "COMPLETED"));
+
+        // Assert
+        assertThat(stale.completion()).isCompletedWithValueMatching(task -> task.getStatus().equals("FAILED"));
+        assertThat(current.completion()).isCompletedWithValueMatching(task -> task.getStatus().equals("COMPLETED"));
+        assertThat(registry.waitingTasks()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ unsubscribe: Debería liberar la entrada cuando se da de baja el último suscriptor")
+    void shouldReleaseEntryWhenLastSubscriberLeaves() {
+        // Arrange
+        UUID taskId = UUID.randomUUID();
+        TaskCompletionRegistry.Subscription first = registry.subscribe(taskId);
+        TaskCompletionRegistry.Subscription second = registry.subscribe(taskId);
+
+        // Act & Assert
+        first.unsubscribe();
+        assertThat(registry.waitingTasks()).isEqualTo(1);
+        second.unsubscribe();
+        assertThat(registry.waitingTasks()).isZero();
+    }
+
+    private static TaskResponse response(UUID taskId, String status) {
+        return new TaskResponse(taskId, OffsetDateTime.now(), "md5", "100x50", null, status);
+    }
+}
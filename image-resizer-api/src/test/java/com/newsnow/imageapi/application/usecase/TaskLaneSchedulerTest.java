@@ -0,0 +1,159 @@
+package com.newsnow.imageapi.application.usecase;
+
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TaskLaneSchedulerTest {
+
+    private final ImageIngestor ingestor = new ImageIngestor(1024);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProcessingMetrics processingMetrics = new ProcessingMetrics(meterRegistry);
+    private TaskLaneScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ classify: Debería asignar el carril según píxeles de la cabecera y formato")
+    void shouldClassifyByHeaderPixelsAndFormat() {
+        scheduler = new TaskLaneScheduler(2, 16, 1, 1, 1, 10, 5, processingMetrics);
+
+        try (IngestedImage thumbnail = ingestor.ingest(pngHeader(800, 600));
+             IngestedImage photo = ingestor.ingest(pngHeader(3000, 2000));
+             IngestedImage poster = ingestor.ingest(pngHeader(6000, 4000))) {
+            assertThat(scheduler.classify(thumbnail)).isEqualTo(TaskLaneScheduler.Lane.SMALL);
+            // 6 MP x 1.5 (PNG) = 9 MP equivalentes
+            assertThat(scheduler.classify(photo)).isEqualTo(TaskLaneScheduler.Lane.MEDIUM);
+            assertThat(scheduler.classify(poster)).isEqualTo(TaskLaneScheduler.Lane.LARGE);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ call: Una tarea pequeña no debería esperar detrás de una grande")
+    void smallTaskShouldNotWaitBehindLargeOne() throws Exception {
+        // Arrange: el único hilo del carril grande queda ocupado
+        scheduler = new TaskLaneScheduler(2, 16, 1, 1, 1, 10, 5, processingMetrics);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(TaskLaneScheduler.Lane.LARGE, () -> await(release));
+        scheduler.submit(TaskLaneScheduler.Lane.LARGE, () -> await(release));
+
+        // Act
+        String result = scheduler.call(TaskLaneScheduler.Lane.SMALL, () -> "thumbnail");
+
+        // Assert
+        assertThat(result).isEqualTo("thumbnail");
+        assertThat(scheduler.snapshot().get(TaskLaneScheduler.Lane.LARGE))
+                .satisfies(large -> {
+                    assertThat(large.active()).isEqualTo(1);
+                    assertThat(large.queued()).isEqualTo(1);
+                });
+        assertThat(scheduler.snapshot().get(TaskLaneScheduler.Lane.SMALL).count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("❌ submit: Debería rechazar con TaskRejectedException cuando la cola del carril está llena")
+    void shouldRejectWhenLaneQueueIsFull() {
+        scheduler = new TaskLaneScheduler(2, 16, 1, 1, 1, 1, 7, processingMetrics);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(TaskLaneScheduler.Lane.LARGE, () -> await(release));
+        scheduler.submit(TaskLaneScheduler.Lane.LARGE, () -> await(release));
+
+        try {
+            assertThatThrownBy(() -> scheduler.submit(TaskLaneScheduler.Lane.LARGE, () -> { }))
+                    .isInstanceOf(TaskRejectedException.class)
+                    .hasMessageContaining("large")
+                    .extracting("retryAfterSeconds").isEqualTo(7L);
+            // Los otros carriles siguen aceptando trabajo
+            assertThat(scheduler.call(TaskLaneScheduler.Lane.MEDIUM, () -> 1)).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("❌ dispatch: Debería rechazar la tarea asíncrona cuando el carril ya admitió hilos + cola")
+    void shouldRejectDispatchBeyondLaneCapacity() throws Exception {
+        // Arrange: carril grande con 1 hilo y cola de 1 -> admite 2 tareas asíncronas a la vez
+        scheduler = new TaskLaneScheduler(2, 16, 1, 1, 1, 1, 7, processingMetrics);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable blocking = () -> {
+            started.countDown();
+            await(release);
+        };
+        scheduler.dispatch(TaskLaneScheduler.Lane.LARGE, blocking);
+        scheduler.dispatch(TaskLaneScheduler.Lane.LARGE, blocking);
+
+        try {
+            // Las admitidas no ocupan los hilos del carril: su etapa de CPU sigue teniendo sitio
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(scheduler.call(TaskLaneScheduler.Lane.LARGE, () -> 1)).isEqualTo(1);
+            assertThatThrownBy(() -> scheduler.dispatch(TaskLaneScheduler.Lane.LARGE, () -> { }))
+                    .isInstanceOf(TaskRejectedException.class)
+                    .extracting("retryAfterSeconds").isEqualTo(7L);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ call: Debería publicar el tiempo en cola y las tareas de cada carril en las métricas")
+    void shouldPublishLaneMetrics() {
+        // Arrange
+        scheduler = new TaskLaneScheduler(2, 16, 1, 1, 1, 10, 5, processingMetrics);
+
+        // Act
+        scheduler.call(TaskLaneScheduler.Lane.MEDIUM, "png", 2_000_000, () -> 1);
+
+        // Assert: timer por carril, etapa lane_queue junto al resto y gauges de cola/en curso
+        assertThat(meterRegistry.get("image_resizer.lane.queue").tag("lane", "medium").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("image_resizer.stage").tag("stage", "lane_queue").tag("format", "png")
+                .tag("size", "1m_8m").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("image_resizer.lane.queued").tag("lane", "medium").gauge().value()).isZero();
+        assertThat(meterRegistry.get("image_resizer.lane.active").tag("lane", "large").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("❌ call: Debería propagar la excepción del trabajo tal cual")
+    void callShouldPropagateWorkException() {
+        scheduler = new TaskLaneScheduler(Runnable::run, 5);
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        assertThatThrownBy(() -> scheduler.call(TaskLaneScheduler.Lane.SMALL, () -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+
+    // Firma PNG + chunk IHDR: suficiente para leer las dimensiones
+    private static byte[] pngHeader(int width, int height) {
+        return ByteBuffer.allocate(33)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A})
+                .putInt(13).put(new byte[]{'I', 'H', 'D', 'R'})
+                .putInt(width).putInt(height)
+                .array();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package com.newsnow.imageapi.application.usecase;
 
+import com.newsnow.imageapi.application.dto.BatchTaskResponse;
+import com.newsnow.imageapi.application.dto.CreateBatchTaskRequest;
 import com.newsnow.imageapi.application.dto.CreateTaskRequest;
+import com.newsnow.imageapi.application.dto.TaskImage;
 import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
+import com.newsnow.imageapi.application.ingest.ImageTooLargeException;
+import com.newsnow.imageapi.application.ingest.IngestedImage;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.TaskEventContext;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
 import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.model.RenditionKey;
 import com.newsnow.imageapi.domain.model.Task;
 import com.newsnow.imageapi.domain.model.TaskStatus;
 import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
 import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
 import com.newsnow.imageapi.domain.port.out.ImageStorageException;
 import com.newsnow.imageapi.domain.port.out.ImageStoragePort;
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort;
 import com.newsnow.imageapi.domain.port.out.TaskRepository;
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,12 +33,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit; // Importar ChronoUnit
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +63,29 @@ class TaskServiceTest {
     private ImageProcessorPort imageProcessorPort;
     @Mock
     private ImageStoragePort imageStoragePort;
+    @Spy
+    private TaskLaneScheduler taskLaneScheduler = new TaskLaneScheduler(Runnable::run, 5); // Todos los carriles en el mismo hilo
+    @Spy
+    private TaskBatchExecutor taskBatchExecutor = new TaskBatchExecutor(Runnable::run);
+    @Spy
+    private TaskCompletionRegistry taskCompletionRegistry = new TaskCompletionRegistry();
+    @Spy
+    private IdempotencyKeyRegistry idempotencyKeys = new IdempotencyKeyRegistry(100);
+    @Spy
+    private ResizeCoalescer resizeCoalescer = new ResizeCoalescer();
+    @Mock
+    private RenditionCachePort renditionCache;
+    @Mock
+    private WorkQueuePort workQueue;
+    @Spy
+    private ImageIngestor imageIngestor = new ImageIngestor(1024);
+    @Spy
+    private TaskPipelineExecutor taskPipelineExecutor = new TaskPipelineExecutor(Runnable::run); // Secuencial salvo que el test lo cambie
+    @Spy
+    private TaskPipelineStats pipelineStats = new TaskPipelineStats();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private ProcessingMetrics processingMetrics = new ProcessingMetrics(meterRegistry);
 
     @Captor
     private ArgumentCaptor<Task> taskCaptor;
@@ -63,6 +112,11 @@ class TaskServiceTest {
                 targetResolution.getWidth(),
                 targetResolution.getHeight()
         );
+        // Los mocks no ejecutan los métodos default: las variantes con deadline comprueban y delegan en los stubs
+        lenient().doCallRealMethod().when(taskRepository).save(any(Task.class), any(Deadline.class));
+        lenient().doCallRealMethod().when(imageProcessorPort).resizeImage(any(), any(), any(Deadline.class));
+        lenient().doCallRealMethod().when(imageProcessorPort).processImage(any(), any(), any(Deadline.class));
+        lenient().doCallRealMethod().when(imageStoragePort).saveImage(any(), anyString(), anyLong(), any(Deadline.class));
     }
 
     @Test
@@ -92,6 +146,8 @@ class TaskServiceTest {
         verify(imageProcessorPort, times(1)).resizeImage(any(InputStream.class), eq(targetResolution));
         verify(imageStoragePort, times(1)).saveImage(any(InputStream.class), endsWith(response.getTaskId().toString() + ".jpg"), eq((long) resizedBytes.length));
         verify(taskRepository, times(2)).save(taskCaptor.capture());
+        // Imagen diminuta: se procesa en el carril de las pequeñas
+        verify(taskLaneScheduler).call(eq(TaskLaneScheduler.Lane.SMALL), anyString(), anyLong(), any());
 
         // Verificar los estados guardados
         List<Task> savedTasks = taskCaptor.getAllValues();
@@ -106,6 +162,144 @@ class TaskServiceTest {
     }
 
 
+    @Test
+    @DisplayName("✅ createTask: Debería usar el MD5 y el formato calculados durante la ingesta")
+    void shouldUseIngestedImageHashAndFormat() throws Exception {
+        // Arrange
+        byte[] pngBytes = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 1, 2, 3};
+        byte[] resizedBytes = new byte[]{4, 5, 6};
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution)))
+                .thenReturn(resizedBytes);
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong()))
+                .thenReturn("http://example.com/processed/image.png");
+
+        try (IngestedImage image = new ImageIngestor(1024).ingest(new ByteArrayInputStream(pngBytes))) {
+            // Sin extensión en el nombre: se usa el formato detectado
+            CreateTaskRequest request = new CreateTaskRequest(image, "upload", 100, 50);
+
+            // Act
+            TaskResponse response = taskService.createTask(request);
+
+            // Assert
+            assertThat(response.getOriginalMD5()).isEqualTo(image.getOriginalMD5());
+            verify(imageStoragePort).saveImage(any(InputStream.class), eq(response.getTaskId() + ".png"), eq((long) resizedBytes.length));
+            // El sondeo de cabecera para elegir carril queda etiquetado con el formato detectado
+            assertThat(meterRegistry.get("image_resizer.stage")
+                    .tags("stage", "header_probe", "format", "png", "size", "lt_64k")
+                    .timer().count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Los adaptadores deberían ver el ID de la tarea para sus eventos JFR, y solo durante la tarea")
+    void shouldExposeTaskIdToAdaptersForJfrEvents() throws Exception {
+        // Arrange
+        List<String> seenTaskIds = new CopyOnWriteArrayList<>();
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            seenTaskIds.add(TaskEventContext.currentTaskId());
+            return new byte[]{4, 5, 6};
+        });
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenAnswer(invocation -> {
+            seenTaskIds.add(TaskEventContext.currentTaskId());
+            return "http://example.com/processed/image.jpg";
+        });
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(seenTaskIds).containsExactly(response.getTaskId().toString(), response.getTaskId().toString());
+        assertThat(TaskEventContext.currentTaskId()).isNull();
+    }
+
+    @Test
+    @DisplayName("✅ createTask: La escritura PROCESSING debería solaparse con el redimensionado")
+    void shouldOverlapInitialPersistenceWithResize() throws Exception {
+        // Arrange: la escritura inicial solo termina si el redimensionado ya empezó
+        runPipelineStagesOnSeparateThreads();
+        CountDownLatch resizeStarted = new CountDownLatch(1);
+        List<TaskStatus> savedStatuses = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            if (task.getStatus() == TaskStatus.PROCESSING) {
+                assertThat(resizeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            savedStatuses.add(task.getStatus());
+            return null;
+        }).when(taskRepository).save(any(Task.class));
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            resizeStarted.countDown();
+            return new byte[]{4, 5, 6};
+        });
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+        assertThat(savedStatuses).containsExactly(TaskStatus.PROCESSING, TaskStatus.COMPLETED);
+        TaskPipelineStats.Snapshot stats = pipelineStats.snapshot();
+        assertThat(stats.stages()).allSatisfy((stage, stageStats) -> assertThat(stageStats.count()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("❌ createTask: Si el redimensionado falla con la escritura inicial en vuelo, FAILED debería escribirse después")
+    void shouldWriteFailedAfterInFlightInitialPersistence() throws Exception {
+        // Arrange: el redimensionado falla antes de que termine la escritura PROCESSING
+        runPipelineStagesOnSeparateThreads();
+        CountDownLatch resizeFailed = new CountDownLatch(1);
+        List<TaskStatus> savedStatuses = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            TaskStatus status = task.getStatus();
+            if (status == TaskStatus.PROCESSING) {
+                assertThat(resizeFailed.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            savedStatuses.add(status);
+            return null;
+        }).when(taskRepository).save(any(Task.class));
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            resizeFailed.countDown();
+            throw new ImageProcessingException("Processing Error");
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.createTask(validRequest)).isInstanceOf(ImageProcessingException.class);
+        assertThat(savedStatuses).containsExactly(TaskStatus.PROCESSING, TaskStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("❌ createTask: Si vence el deadline tras redimensionar, no debería subir y la tarea debería quedar FAILED")
+    void shouldFailTaskWithoutStoringWhenDeadlineExpires() throws Exception {
+        // Arrange: el redimensionado consume todo el presupuesto
+        validRequest.setDeadline(Deadline.after(Duration.ofMillis(50)));
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return new byte[]{4, 5, 6};
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.createTask(validRequest))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("store");
+
+        verify(imageStoragePort, never()).saveImage(any(), any(), anyLong());
+        verify(taskRepository, times(2)).save(taskCaptor.capture());
+        assertThat(taskCaptor.getAllValues().get(1).getStatus()).isEqualTo(TaskStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("❌ createTask: Con el deadline ya vencido no debería crear la tarea")
+    void shouldNotCreateTaskWhenDeadlineAlreadyExpired() {
+        validRequest.setDeadline(Deadline.after(Duration.ZERO));
+
+        assertThatThrownBy(() -> taskService.createTask(validRequest))
+                .isInstanceOf(DeadlineExceededException.class);
+
+        verifyNoInteractions(taskRepository, imageProcessorPort, imageStoragePort);
+    }
+
     @Test
     @DisplayName("✅ createTask: Debería lanzar IllegalArgumentException si los bytes son nulos o vacíos")
     void shouldThrowIllegalArgumentExceptionWhenBytesAreInvalid() {
@@ -159,6 +353,25 @@ class TaskServiceTest {
     }
 
 
+    @Test
+    @DisplayName("❌ createTask: Si falla la escritura FAILED, debería propagar el error original y despertar a los que esperan")
+    void shouldRethrowOriginalErrorWhenFailedSaveFails() {
+        // Arrange
+        ImageProcessingException processingException = new ImageProcessingException("Processing Error");
+        RuntimeException saveError = new RuntimeException("ProvisionedThroughputExceededException");
+        when(imageProcessorPort.resizeImage(any(InputStream.class), any(ImageResolution.class)))
+                .thenThrow(processingException);
+        doThrow(saveError).when(taskRepository).save(argThat(task -> task.getStatus() == TaskStatus.FAILED));
+
+        // Act & Assert Exception
+        assertThatThrownBy(() -> taskService.createTask(validRequest))
+                .isSameAs(processingException)
+                .satisfies(e -> assertThat(e.getSuppressed()).containsExactly(saveError));
+
+        // Assert
+        verify(taskCompletionRegistry).complete(argThat(task -> task.getStatus().equals(TaskStatus.FAILED.name())));
+    }
+
     @Test
     @DisplayName("✅ createTask: Debería guardar tarea como FAILED si el almacenamiento de imagen falla")
     void shouldSaveFolderAsFailedWhenImageStorageFails() throws Exception {
@@ -195,6 +408,597 @@ class TaskServiceTest {
         verify(imageStoragePort, times(1)).saveImage(any(), any(), anyLong());
     }
 
+    @Test
+    @DisplayName("✅ createTask: Debería devolver la misma tarea sin reprocesar si se reintenta con la misma Idempotency-Key")
+    void shouldReturnSameTaskWhenRetriedWithSameIdempotencyKey() throws Exception {
+        // Arrange
+        Map<UUID, Task> stored = storeTasksInMemory();
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenReturn(new byte[]{4, 5, 6});
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+        validRequest.setIdempotencyKey("retry-123");
+
+        // Act
+        TaskResponse first = taskService.createTask(validRequest);
+        TaskResponse retry = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(retry.getTaskId()).isEqualTo(first.getTaskId()).isEqualTo(IdempotencyKeyRegistry.taskIdFor("retry-123"));
+        assertThat(retry.getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+        assertThat(stored).hasSize(1);
+        verify(imageProcessorPort, times(1)).resizeImage(any(InputStream.class), any());
+        verify(imageStoragePort, times(1)).saveImage(any(InputStream.class), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Una petición concurrente con la misma Idempotency-Key debería esperar a la primera")
+    void shouldWaitForInFlightTaskWithSameIdempotencyKey() throws Exception {
+        // Arrange: el primer resize se bloquea hasta que el test lo libera
+        storeTasksInMemory();
+        CountDownLatch resizeStarted = new CountDownLatch(1);
+        CountDownLatch releaseResize = new CountDownLatch(1);
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            resizeStarted.countDown();
+            releaseResize.await(5, TimeUnit.SECONDS);
+            return new byte[]{4, 5, 6};
+        });
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+        validRequest.setIdempotencyKey("retry-123");
+
+        // Act
+        CompletableFuture<TaskResponse> first = CompletableFuture.supplyAsync(() -> taskService.createTask(validRequest));
+        assertThat(resizeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<TaskResponse> duplicate = CompletableFuture.supplyAsync(() -> taskService.createTask(validRequest));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone(); // Espera al primero en lugar de procesar
+        releaseResize.countDown();
+
+        // Assert
+        TaskResponse duplicateResponse = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(duplicateResponse.getTaskId()).isEqualTo(first.get(5, TimeUnit.SECONDS).getTaskId());
+        assertThat(duplicateResponse.getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+        verify(imageProcessorPort, times(1)).resizeImage(any(InputStream.class), any());
+    }
+
+    @Test
+    @DisplayName("⏱️ createTask: Un duplicado no debería esperar a la primera petición más allá de su deadline")
+    void duplicateShouldStopWaitingAtItsDeadline() {
+        // Arrange: la clave está reservada por un primer intento que no termina
+        IdempotencyKeyRegistry.Claim owner = idempotencyKeys.claim("retry-123");
+        validRequest.setIdempotencyKey("retry-123");
+        validRequest.setDeadline(Deadline.after(Duration.ofMillis(100)));
+
+        // Act & Assert: 503 reintentable en lugar de un hilo colgado
+        assertThatThrownBy(() -> taskService.createTask(validRequest))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("Idempotency-Key");
+        assertThat(owner.taskId()).isNotDone(); // La espera del duplicado no afecta al primer intento
+        verifyNoInteractions(imageProcessorPort, imageStoragePort);
+    }
+
+    @Test
+    @DisplayName("✅ submitTask: Un reintento con la Idempotency-Key de una tarea que terminó en FAILED debería volver a procesarla")
+    void shouldRerunFailedTaskWhenRetriedWithSameIdempotencyKey() {
+        // Arrange: la clave sigue en memoria, pero el worker dejó su tarea en FAILED
+        Map<UUID, Task> stored = storeTasksInMemory();
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution)))
+                .thenThrow(new ImageProcessingException("Processing Error"))
+                .thenReturn(new byte[]{4, 5, 6});
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+        validRequest.setIdempotencyKey("retry-123");
+        UUID taskId = IdempotencyKeyRegistry.taskIdFor("retry-123");
+        taskService.submitTask(validRequest);
+        assertThat(stored.get(taskId).getStatus()).isEqualTo(TaskStatus.FAILED);
+
+        // Act
+        TaskResponse retry = taskService.submitTask(validRequest);
+
+        // Assert
+        assertThat(retry.getTaskId()).isEqualTo(taskId);
+        assertThat(stored.get(taskId).getStatus()).isEqualTo(TaskStatus.COMPLETED);
+        verify(imageProcessorPort, times(2)).resizeImage(any(InputStream.class), any());
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Debería resolver en el repositorio una Idempotency-Key que ya no está en memoria")
+    void shouldResolveIdempotencyKeyFromRepository() {
+        // Arrange: la tarea la completó otra instancia (o la clave se desalojó de la caché)
+        UUID taskId = IdempotencyKeyRegistry.taskIdFor("retry-123");
+        Task completed = new Task(taskId, OffsetDateTime.now(), "5289df737df57326fcdd22597afb1fac", targetResolution,
+                TaskStatus.COMPLETED, "http://example.com/processed/image.jpg");
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(completed));
+        validRequest.setIdempotencyKey("retry-123");
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getTaskId()).isEqualTo(taskId);
+        assertThat(response.getImageUrl()).isEqualTo("http://example.com/processed/image.jpg");
+        verifyNoInteractions(imageProcessorPort, imageStoragePort);
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("❌ createTask: Debería rechazar una Idempotency-Key reutilizada con otra resolución")
+    void shouldRejectIdempotencyKeyReusedWithDifferentRequest() {
+        // Arrange
+        UUID taskId = IdempotencyKeyRegistry.taskIdFor("retry-123");
+        Task completed = new Task(taskId, OffsetDateTime.now(), "5289df737df57326fcdd22597afb1fac", new ImageResolution(10, 10),
+                TaskStatus.COMPLETED, "http://example.com/processed/image.jpg");
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(completed));
+        validRequest.setIdempotencyKey("retry-123");
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.createTask(validRequest))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+        verifyNoInteractions(imageProcessorPort, imageStoragePort);
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Las peticiones idénticas en vuelo deberían compartir un solo redimensionado")
+    void shouldCoalesceIdenticalInFlightResizes() throws Exception {
+        // Arrange: el primer resize se bloquea hasta que llegan las peticiones duplicadas
+        CountDownLatch resizeStarted = new CountDownLatch(1);
+        CountDownLatch releaseResize = new CountDownLatch(1);
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            resizeStarted.countDown();
+            releaseResize.await(5, TimeUnit.SECONDS);
+            return new byte[]{4, 5, 6};
+        });
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/shared.jpg");
+
+        // Act
+        CompletableFuture<TaskResponse> first = CompletableFuture.supplyAsync(() -> taskService.createTask(validRequest));
+        assertThat(resizeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<TaskResponse>> duplicates = List.of(
+                CompletableFuture.supplyAsync(() -> taskService.createTask(validRequest)),
+                CompletableFuture.supplyAsync(() -> taskService.createTask(validRequest)));
+        while (resizeCoalescer.coalescedCount() < duplicates.size()) {
+            Thread.sleep(10);
+        }
+        releaseResize.countDown();
+
+        // Assert: una tarea por petición, pero un único resize + subida y la misma URL
+        TaskResponse firstResponse = first.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<TaskResponse> duplicate : duplicates) {
+            TaskResponse response = duplicate.get(5, TimeUnit.SECONDS);
+            assertThat(response.getTaskId()).isNotEqualTo(firstResponse.getTaskId());
+            assertThat(response.getImageUrl()).isEqualTo("http://example.com/processed/shared.jpg");
+            assertThat(response.getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+        }
+        verify(imageProcessorPort, times(1)).resizeImage(any(InputStream.class), any());
+        verify(imageStoragePort, times(1)).saveImage(any(InputStream.class), anyString(), anyLong());
+        assertThat(resizeCoalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Debería volver a redimensionar cuando no hay un trabajo idéntico en vuelo")
+    void shouldNotCoalesceSequentialResizes() throws Exception {
+        // Arrange
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenReturn(new byte[]{4, 5, 6});
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        // Act
+        taskService.createTask(validRequest);
+        taskService.createTask(validRequest);
+
+        // Assert
+        verify(imageProcessorPort, times(2)).resizeImage(any(InputStream.class), any());
+        assertThat(resizeCoalescer.coalescedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Debería reutilizar una rendition idéntica de la caché sin redimensionar ni subir")
+    void shouldReuseCachedRenditionWithoutResizingOrUploading() {
+        // Arrange
+        RenditionKey key = new RenditionKey("5289df737df57326fcdd22597afb1fac", targetResolution, ".jpg");
+        when(renditionCache.get(key)).thenReturn(Optional.of(
+                new RenditionCachePort.CachedRendition("http://example.com/processed/cached.jpg", new byte[]{4, 5, 6})));
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getImageUrl()).isEqualTo("http://example.com/processed/cached.jpg");
+        assertThat(response.getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+        verifyNoInteractions(imageProcessorPort, imageStoragePort);
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Debería guardar en la caché la rendition recién almacenada")
+    void shouldCacheNewlyStoredRendition() {
+        // Arrange
+        byte[] resizedBytes = new byte[]{4, 5, 6};
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenReturn(resizedBytes);
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        // Act
+        taskService.createTask(validRequest);
+
+        // Assert
+        RenditionKey key = new RenditionKey("5289df737df57326fcdd22597afb1fac", targetResolution, ".jpg");
+        verify(renditionCache).put(eq(key), argThat(cached -> cached.imageUrl().equals("http://example.com/processed/image.jpg")
+                && cached.imageBytes() == resizedBytes));
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Debería guardar el placeholder del procesador en la tarea, la respuesta y la caché")
+    void shouldStorePlaceholderFromProcessor() {
+        // Arrange
+        byte[] resizedBytes = new byte[]{4, 5, 6};
+        ImagePlaceholder placeholder = new ImagePlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj", "data:image/png;base64,AAAA");
+        doReturn(new ImageProcessorPort.ProcessedImage(resizedBytes, placeholder))
+                .when(imageProcessorPort).processImage(any(InputStream.class), eq(targetResolution), any(Deadline.class));
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getBlurHash()).isEqualTo(placeholder.blurHash());
+        assertThat(response.getPlaceholder()).isEqualTo(placeholder.previewDataUri());
+        verify(taskRepository, atLeastOnce()).save(taskCaptor.capture());
+        Task saved = taskCaptor.getValue();
+        assertThat(saved.getStatus()).isEqualTo(TaskStatus.COMPLETED);
+        assertThat(saved.getPlaceholder()).isEqualTo(placeholder);
+        verify(renditionCache).put(any(), argThat(cached -> placeholder.equals(cached.placeholder())));
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Debería guardar la codificación buscada en la tarea, la respuesta y la caché")
+    void shouldStoreEncodingFromProcessor() {
+        // Arrange
+        ImageEncoding encoding = new ImageEncoding("jpeg", 0.72f, 0.961, 3);
+        doReturn(new ImageProcessorPort.ProcessedImage(new byte[]{4, 5, 6}, null, encoding))
+                .when(imageProcessorPort).processImage(any(InputStream.class), eq(targetResolution), any(Deadline.class));
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getQuality()).isEqualTo(0.72f);
+        assertThat(response.getSsim()).isEqualTo(0.961);
+        assertThat(response.getEncodeAttempts()).isEqualTo(3);
+        verify(taskRepository, atLeastOnce()).save(taskCaptor.capture());
+        assertThat(taskCaptor.getValue().getEncoding()).isEqualTo(encoding);
+        verify(renditionCache).put(any(), argThat(cached -> encoding.equals(cached.encoding())));
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Si el procesador elige el formato, el fichero almacenado debería llevar su extensión")
+    void shouldStoreWithFormatChosenByProcessor() {
+        // Arrange
+        doReturn(new ImageProcessorPort.ProcessedImage(new byte[]{4, 5, 6}, null, null, "png"))
+                .when(imageProcessorPort).processImage(any(InputStream.class), eq(targetResolution), any(Deadline.class));
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.png");
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        verify(imageStoragePort).saveImage(any(InputStream.class), eq(response.getTaskId() + ".png"), eq(3L));
+        assertThat(response.getImageUrl()).endsWith(".png");
+        // La rendition se sigue identificando por la extensión original
+        verify(renditionCache).put(argThat(key -> key.outputExtension().equals(".jpg")), any());
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Una rendition de la caché debería conservar su placeholder")
+    void shouldReturnPlaceholderOfCachedRendition() {
+        // Arrange
+        ImagePlaceholder placeholder = new ImagePlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj", "data:image/png;base64,AAAA");
+        RenditionKey key = new RenditionKey("5289df737df57326fcdd22597afb1fac", targetResolution, ".jpg");
+        when(renditionCache.get(key)).thenReturn(Optional.of(
+                new RenditionCachePort.CachedRendition("http://example.com/processed/cached.jpg", new byte[]{4, 5, 6}, placeholder)));
+
+        // Act
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getBlurHash()).isEqualTo(placeholder.blurHash());
+        assertThat(response.getPlaceholder()).isEqualTo(placeholder.previewDataUri());
+        verifyNoInteractions(imageProcessorPort);
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Con otro hash de deduplicación la rendition se identifica por él y originalMD5 sigue siendo el MD5")
+    void shouldKeyRenditionsByConfiguredContentHash() throws Exception {
+        // Arrange
+        byte[] resizedBytes = new byte[]{4, 5, 6};
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenReturn(resizedBytes);
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        try (IngestedImage image = new ImageIngestor(1024, 1024, "xxh64").ingest(new ByteArrayInputStream(sampleImageBytes))) {
+            // Act
+            TaskResponse response = taskService.createTask(new CreateTaskRequest(image, sampleOriginalFilename, 100, 50));
+
+            // Assert
+            assertThat(response.getOriginalMD5()).isEqualTo("5289df737df57326fcdd22597afb1fac");
+            assertThat(image.getContentHash()).startsWith("xxh64:");
+            verify(renditionCache).put(eq(new RenditionKey(image.getContentHash(), targetResolution, ".jpg")), any());
+            verify(taskRepository, times(2)).save(argThat(task -> task.getContentHash().equals(image.getContentHash())));
+        }
+    }
+
+    @Test
+    @DisplayName("✅ submitTask: Debería devolver la tarea PENDING y completarla en el worker")
+    void shouldReturnPendingTaskAndCompleteItInWorker() throws Exception {
+        // Arrange
+        byte[] resizedBytes = new byte[]{4, 5, 6};
+        String expectedImageUrl = "http://example.com/processed/image.jpg";
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution)))
+                .thenReturn(resizedBytes);
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), eq((long) resizedBytes.length)))
+                .thenReturn(expectedImageUrl);
+
+        // Act
+        TaskResponse response = taskService.submitTask(validRequest);
+
+        // Assert: la respuesta refleja el estado en el momento de aceptar la tarea
+        assertThat(response.getStatus()).isEqualTo(TaskStatus.PENDING.name());
+        assertThat(response.getImageUrl()).isNull();
+
+        // PENDING, PROCESSING y COMPLETED
+        verify(taskRepository, times(3)).save(taskCaptor.capture());
+        Task lastSave = taskCaptor.getValue();
+        assertThat(lastSave.getTaskId()).isEqualTo(response.getTaskId());
+        assertThat(lastSave.getStatus()).isEqualTo(TaskStatus.COMPLETED);
+        assertThat(lastSave.getResultImageUrl()).isEqualTo(expectedImageUrl);
+    }
+
+    @Test
+    @DisplayName("✅ submitTask: Debería marcar la tarea como FAILED si la cola está llena")
+    void shouldMarkTaskAsFailedWhenWorkerPoolRejects() {
+        // Arrange
+        doThrow(new TaskRejectedException("Task queue is full. Please retry later.", 5))
+                .when(taskLaneScheduler).dispatch(any(TaskLaneScheduler.Lane.class), any(Runnable.class));
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.submitTask(validRequest))
+                .isInstanceOf(TaskRejectedException.class);
+
+        verify(taskRepository, times(2)).save(taskCaptor.capture());
+        assertThat(taskCaptor.getValue().getStatus()).isEqualTo(TaskStatus.FAILED);
+        verifyNoInteractions(imageProcessorPort, imageStoragePort);
+    }
+
+    @Test
+    @DisplayName("✅ enqueueTask: Debería guardar el original, persistir la tarea PENDING y publicarla en la cola")
+    void shouldStoreOriginalPersistPendingTaskAndEnqueueIt() {
+        // Arrange
+        String originalUrl = "http://example.com/originals/original.jpg";
+        when(imageStoragePort.saveOriginal(any(InputStream.class), anyString(), eq((long) sampleImageBytes.length), any(Deadline.class)))
+                .thenReturn(originalUrl);
+        ArgumentCaptor<WorkQueuePort.WorkItem> itemCaptor = ArgumentCaptor.forClass(WorkQueuePort.WorkItem.class);
+
+        // Act
+        TaskResponse response = taskService.enqueueTask(validRequest);
+
+        // Assert: el worker recibe la tarea y dónde leer su original; aquí no se redimensiona nada
+        assertThat(response.getStatus()).isEqualTo(TaskStatus.PENDING.name());
+        verify(imageStoragePort).saveOriginal(any(InputStream.class), eq(response.getTaskId() + ".jpg"),
+                eq((long) sampleImageBytes.length), any(Deadline.class));
+        verify(taskRepository).save(taskCaptor.capture());
+        assertThat(taskCaptor.getValue().getStatus()).isEqualTo(TaskStatus.PENDING);
+        verify(workQueue).enqueue(itemCaptor.capture());
+        assertThat(itemCaptor.getValue()).isEqualTo(
+                new WorkQueuePort.WorkItem(response.getTaskId(), originalUrl, sampleOriginalFilename));
+        verifyNoInteractions(imageProcessorPort);
+    }
+
+    @Test
+    @DisplayName("❌ enqueueTask: Debería marcar la tarea como FAILED y propagar el rechazo si la cola está llena")
+    void shouldMarkTaskAsFailedWhenWorkQueueRejects() {
+        // Arrange
+        when(imageStoragePort.saveOriginal(any(InputStream.class), anyString(), anyLong(), any(Deadline.class)))
+                .thenReturn("http://example.com/originals/original.jpg");
+        doThrow(new TaskRejectedException("Work queue is full. Please retry later.", 5))
+                .when(workQueue).enqueue(any());
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.enqueueTask(validRequest))
+                .isInstanceOf(TaskRejectedException.class);
+
+        verify(taskRepository, times(2)).save(taskCaptor.capture());
+        assertThat(taskCaptor.getValue().getStatus()).isEqualTo(TaskStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("✅ processQueuedTask: Debería leer el original del almacenamiento y completar la tarea PENDING")
+    void shouldProcessQueuedTaskFromStoredOriginal() {
+        // Arrange
+        Task pending = new Task(UUID.randomUUID(), "md5", "md5", targetResolution);
+        String originalUrl = "http://example.com/originals/original.jpg";
+        String expectedImageUrl = "http://example.com/processed/image.jpg";
+        when(taskRepository.findById(pending.getTaskId())).thenReturn(Optional.of(pending));
+        when(imageStoragePort.loadImage(originalUrl)).thenReturn(sampleImageBytes);
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution)))
+                .thenReturn(new byte[]{4, 5, 6});
+        when(imageStoragePort.saveImage(any(InputStream.class), eq(pending.getTaskId() + ".jpg"), eq(3L)))
+                .thenReturn(expectedImageUrl);
+
+        // Act
+        taskService.processQueuedTask(new WorkQueuePort.WorkItem(pending.getTaskId(), originalUrl, sampleOriginalFilename));
+
+        // Assert
+        assertThat(pending.getStatus()).isEqualTo(TaskStatus.COMPLETED);
+        assertThat(pending.getResultImageUrl()).isEqualTo(expectedImageUrl);
+        verify(taskRepository, times(2)).save(pending);
+        verify(taskLaneScheduler).call(eq(TaskLaneScheduler.Lane.SMALL), anyString(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("✅ processQueuedTask: Debería ignorar la entrega repetida de una tarea ya terminada")
+    void shouldIgnoreRedeliveredTerminalTask() {
+        // Arrange
+        Task completed = new Task(UUID.randomUUID(), "md5", "md5", targetResolution);
+        completed.markAsProcessing();
+        completed.markAsCompleted("http://example.com/processed/image.jpg", null);
+        when(taskRepository.findById(completed.getTaskId())).thenReturn(Optional.of(completed));
+
+        // Act
+        taskService.processQueuedTask(new WorkQueuePort.WorkItem(completed.getTaskId(), "http://example.com/originals/x.jpg", null));
+
+        // Assert
+        verify(taskRepository, never()).save(any(Task.class));
+        verifyNoInteractions(imageStoragePort, imageProcessorPort);
+    }
+
+    @Test
+    @DisplayName("✅ processQueuedTask: Con el carril lleno debería dejar la tarea en PROCESSING y propagar el rechazo")
+    void shouldLeaveQueuedTaskProcessingWhenLaneRejects() {
+        // Arrange
+        Task pending = new Task(UUID.randomUUID(), "md5", "md5", targetResolution);
+        String originalUrl = "http://example.com/originals/original.jpg";
+        when(taskRepository.findById(pending.getTaskId())).thenReturn(Optional.of(pending));
+        when(imageStoragePort.loadImage(originalUrl)).thenReturn(sampleImageBytes);
+        doThrow(new TaskRejectedException("Task queue for small images is full. Please retry later.", 5))
+                .when(taskLaneScheduler).call(any(TaskLaneScheduler.Lane.class), anyString(), anyLong(), any());
+
+        // Act & Assert
+        assertThatThrownBy(() -> taskService.processQueuedTask(
+                new WorkQueuePort.WorkItem(pending.getTaskId(), originalUrl, sampleOriginalFilename)))
+                .isInstanceOf(TaskRejectedException.class);
+
+        // No es terminal: la siguiente entrega de la cola la procesa
+        assertThat(pending.getStatus()).isEqualTo(TaskStatus.PROCESSING);
+        verify(taskRepository, times(1)).save(pending);
+        verify(taskCompletionRegistry, never()).complete(any());
+    }
+
+    @Test
+    @DisplayName("✅ createTask: Solo el redimensionado debería ejecutarse en el carril; la E/S queda fuera")
+    void shouldRunOnlyImageProcessingInsideLane() throws Exception {
+        // Arrange: se anota si cada llamada a los puertos ocurre dentro del carril
+        AtomicBoolean inLane = new AtomicBoolean();
+        List<String> calls = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            inLane.set(true);
+            try {
+                return invocation.callRealMethod();
+            } finally {
+                inLane.set(false);
+            }
+        }).when(taskLaneScheduler).call(any(TaskLaneScheduler.Lane.class), anyString(), anyLong(), any());
+        doAnswer(invocation -> calls.add("save:" + inLane.get())).when(taskRepository).save(any(Task.class));
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenAnswer(invocation -> {
+            calls.add("resize:" + inLane.get());
+            return new byte[]{4, 5, 6};
+        });
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenAnswer(invocation -> {
+            calls.add("store:" + inLane.get());
+            return "http://example.com/processed/image.jpg";
+        });
+
+        // Act
+        taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(calls).containsExactly("save:false", "resize:true", "store:false", "save:false");
+    }
+
+    @Test
+    @DisplayName("✅ createTasks: Debería procesar el lote y devolver los fallos parciales por elemento")
+    void shouldProcessBatchAndReportPartialFailures() throws Exception {
+        // Arrange: imagen 0 con dos resoluciones (una falla al procesar), imagen 1 sin datos
+        ImageResolution failingResolution = new ImageResolution(10, 10);
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution)))
+                .thenReturn(new byte[]{4, 5, 6});
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(failingResolution)))
+                .thenThrow(new ImageProcessingException("Processing Error"));
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong()))
+                .thenReturn("http://example.com/processed/image.jpg");
+
+        CreateBatchTaskRequest batch = new CreateBatchTaskRequest(List.of(
+                new CreateBatchTaskRequest.Item(sampleImageBytes, "a.jpg", List.of(
+                        new CreateBatchTaskRequest.Resolution(100, 50),
+                        new CreateBatchTaskRequest.Resolution(10, 10))),
+                new CreateBatchTaskRequest.Item(null, "b.jpg", List.of(new CreateBatchTaskRequest.Resolution(100, 50)))
+        ));
+
+        // Act
+        BatchTaskResponse response = taskService.createTasks(batch);
+
+        // Assert
+        assertThat(response.getTotal()).isEqualTo(3);
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(BatchTaskResponse.ItemResult::getItemIndex).containsExactly(0, 0, 1);
+        assertThat(response.getResults().get(0).getTask().getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+        assertThat(response.getResults().get(1).getTask().getStatus()).isEqualTo(TaskStatus.FAILED.name());
+        assertThat(response.getResults().get(1).getError()).isEqualTo("Processing Error");
+        assertThat(response.getResults().get(2).getTask()).isNull();
+
+        // Dos escrituras por lotes (PROCESSING y estado final), ninguna individual
+        verify(taskRepository, times(2)).saveAll(anyList());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("❓ createTasks: Si falla la escritura final por lotes, debería guardar tarea a tarea, informar las que no se guardan y notificar todas")
+    void shouldSaveOneByOneWhenFinalBatchWriteFails() {
+        // Arrange: la segunda escritura por lotes falla y, tarea a tarea, la segunda tampoco se guarda
+        when(imageProcessorPort.resizeImage(any(InputStream.class), any(ImageResolution.class))).thenReturn(new byte[]{4, 5, 6});
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+        doNothing()
+                .doThrow(new RuntimeException("ProvisionedThroughputExceededException"))
+                .when(taskRepository).saveAll(anyList());
+        doNothing()
+                .doThrow(new RuntimeException("ProvisionedThroughputExceededException"))
+                .when(taskRepository).save(any(Task.class));
+
+        CreateBatchTaskRequest batch = new CreateBatchTaskRequest(List.of(
+                new CreateBatchTaskRequest.Item(sampleImageBytes, "a.jpg", List.of(
+                        new CreateBatchTaskRequest.Resolution(100, 50),
+                        new CreateBatchTaskRequest.Resolution(10, 10)))
+        ));
+
+        // Act
+        BatchTaskResponse response = taskService.createTasks(batch);
+
+        // Assert
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getError()).isNull();
+        assertThat(response.getResults().get(1).getError()).contains("Could not save the final task state");
+        verify(taskRepository, times(2)).saveAll(anyList());
+        verify(taskRepository, times(2)).save(any(Task.class));
+        verify(taskCompletionRegistry, times(2)).complete(any(TaskResponse.class));
+    }
+
+    @Test
+    @DisplayName("❌ createTasks: Una imagen por encima del tamaño máximo debería fallar solo su elemento")
+    void shouldFailOnlyOversizedBatchItem() {
+        // Arrange
+        byte[] oversized = new byte[2048];
+        doThrow(new ImageTooLargeException(1024)).when(imageIngestor).ingest(oversized);
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenReturn(new byte[]{4, 5, 6});
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/processed/image.jpg");
+
+        CreateBatchTaskRequest batch = new CreateBatchTaskRequest(List.of(
+                new CreateBatchTaskRequest.Item(oversized, "big.jpg", List.of(new CreateBatchTaskRequest.Resolution(100, 50))),
+                new CreateBatchTaskRequest.Item(sampleImageBytes, "a.jpg", List.of(new CreateBatchTaskRequest.Resolution(100, 50)))
+        ));
+
+        // Act
+        BatchTaskResponse response = taskService.createTasks(batch);
+
+        // Assert
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getResults().get(0).getError()).contains("maximum allowed size of 1024 bytes");
+        assertThat(response.getResults().get(1).getTask().getStatus()).isEqualTo(TaskStatus.COMPLETED.name());
+    }
+
+    @Test
+    @DisplayName("❌ createTasks: Debería lanzar IllegalArgumentException si el lote está vacío")
+    void shouldThrowIllegalArgumentExceptionWhenBatchIsEmpty() {
+        assertThatThrownBy(() -> taskService.createTasks(new CreateBatchTaskRequest(List.of())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least one item");
+        verifyNoInteractions(taskRepository);
+    }
+
     @Test
     @DisplayName("✅ getTaskById: Debería devolver TaskResponse si la tarea existe")
     void shouldReturnTaskResponseWhenTaskExists() {
@@ -237,4 +1041,196 @@ class TaskServiceTest {
         assertThat(responseOptional).isEmpty();
         verify(taskRepository, times(1)).findById(sampleTaskId);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("✅ getTaskImage: Debería servir la imagen desde la caché de renditions")
+    void shouldServeTaskImageFromRenditionCache() {
+        // Arrange
+        UUID taskId = UUID.randomUUID();
+        Task completed = new Task(taskId, OffsetDateTime.now(), "md5hash", targetResolution, TaskStatus.COMPLETED,
+                "https://cdn.example.com/processed/" + taskId + ".png");
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(completed));
+        when(renditionCache.get(new RenditionKey("md5hash", targetResolution, ".png"))).thenReturn(Optional.of(
+                new RenditionCachePort.CachedRendition(completed.getResultImageUrl(), new byte[]{7, 8})));
+
+        // Act
+        Optional<TaskImage> image = taskService.getTaskImage(taskId);
+
+        // Assert
+        assertThat(image).isPresent();
+        assertThat(image.get().getImageBytes()).containsExactly(7, 8);
+        assertThat(image.get().getContentType()).isEqualTo("image/png");
+        verifyNoInteractions(imageStoragePort);
+    }
+
+    @Test
+    @DisplayName("✅ getTaskImage: Si no está en caché debería leerla del almacenamiento y guardarla")
+    void shouldLoadTaskImageFromStorageOnCacheMiss() {
+        // Arrange
+        UUID taskId = UUID.randomUUID();
+        String imageUrl = "https://cdn.example.com/processed/" + taskId + ".jpg";
+        Task completed = new Task(taskId, OffsetDateTime.now(), "md5hash", targetResolution, TaskStatus.COMPLETED, imageUrl);
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(completed));
+        when(imageStoragePort.loadImage(imageUrl)).thenReturn(new byte[]{7, 8});
+
+        // Act
+        Optional<TaskImage> image = taskService.getTaskImage(taskId);
+
+        // Assert
+        assertThat(image).isPresent();
+        assertThat(image.get().getContentType()).isEqualTo("image/jpeg");
+        verify(renditionCache).put(eq(new RenditionKey("md5hash", targetResolution, ".jpg")), any());
+    }
+
+    @Test
+    @DisplayName("✅ getTaskImage + createTask: La entrada guardada al leer debería conservar placeholder y codificación")
+    void shouldKeepPlaceholderAndEncodingWhenImageReadRepopulatesCache() {
+        // Arrange: caché real (mapa) en lugar del mock, para que createTask vea lo que guardó getTaskImage
+        Map<RenditionKey, RenditionCachePort.CachedRendition> entries = new HashMap<>();
+        doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(renditionCache).put(any(), any());
+        when(renditionCache.get(any())).thenAnswer(invocation -> Optional.ofNullable(entries.get(invocation.getArgument(0))));
+        UUID taskId = UUID.randomUUID();
+        String imageUrl = "https://cdn.example.com/processed/" + taskId + ".jpg";
+        ImagePlaceholder placeholder = new ImagePlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj", "data:image/png;base64,AAAA");
+        ImageEncoding encoding = new ImageEncoding("jpeg", 0.72f, 0.961, 3);
+        Task completed = new Task(taskId, OffsetDateTime.now(), "5289df737df57326fcdd22597afb1fac",
+                "5289df737df57326fcdd22597afb1fac", targetResolution, TaskStatus.COMPLETED, imageUrl, placeholder, encoding);
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(completed));
+        when(imageStoragePort.loadImage(imageUrl)).thenReturn(new byte[]{7, 8});
+
+        // Act
+        taskService.getTaskImage(taskId);
+        TaskResponse response = taskService.createTask(validRequest);
+
+        // Assert
+        assertThat(response.getImageUrl()).isEqualTo(imageUrl);
+        assertThat(response.getBlurHash()).isEqualTo(placeholder.blurHash());
+        assertThat(response.getPlaceholder()).isEqualTo(placeholder.previewDataUri());
+        assertThat(response.getQuality()).isEqualTo(0.72f);
+        assertThat(response.getEncodeAttempts()).isEqualTo(3);
+        verifyNoInteractions(imageProcessorPort);
+    }
+
+    @Test
+    @DisplayName("✅ createTask + getTaskImage: Con otro formato de salida elegido por contenido debería servir la entrada de createTask")
+    void shouldServeFormatChangingRenditionFromCacheEntryWrittenAtCreate() {
+        // Arrange: caché real (mapa); el procesador guarda el JPEG pedido como PNG
+        Map<RenditionKey, RenditionCachePort.CachedRendition> entries = new HashMap<>();
+        doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(renditionCache).put(any(), any());
+        when(renditionCache.get(any())).thenAnswer(invocation -> Optional.ofNullable(entries.get(invocation.getArgument(0))));
+        storeTasksInMemory();
+        doReturn(new ImageProcessorPort.ProcessedImage(new byte[]{4, 5, 6}, null, null, "png"))
+                .when(imageProcessorPort).processImage(any(InputStream.class), eq(targetResolution), any(Deadline.class));
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong()))
+                .thenAnswer(invocation -> "https://cdn.example.com/processed/" + invocation.getArgument(1));
+
+        // Act
+        TaskResponse created = taskService.createTask(validRequest);
+        Optional<TaskImage> image = taskService.getTaskImage(created.getTaskId());
+
+        // Assert: una sola entrada, con el formato pedido en la clave, y servida sin leer del almacenamiento
+        assertThat(created.getImageUrl()).endsWith(".png");
+        assertThat(entries.keySet()).extracting(RenditionKey::outputExtension).containsExactly(".jpg");
+        assertThat(image).isPresent();
+        assertThat(image.get().getImageBytes()).containsExactly(4, 5, 6);
+        assertThat(image.get().getContentType()).isEqualTo("image/png");
+        verify(imageStoragePort, never()).loadImage(anyString());
+    }
+
+    @Test
+    @DisplayName("❓ getTaskImage: Debería devolver vacío si la tarea no está COMPLETED")
+    void shouldReturnEmptyImageWhenTaskIsNotCompleted() {
+        // Arrange
+        UUID taskId = UUID.randomUUID();
+        Task processing = new Task(taskId, OffsetDateTime.now(), "md5hash", targetResolution, TaskStatus.PROCESSING, null);
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(processing));
+
+        // Act & Assert
+        assertThat(taskService.getTaskImage(taskId)).isEmpty();
+        verifyNoInteractions(imageStoragePort, renditionCache);
+    }
+
+    @Test
+    @DisplayName("✅ awaitTask: Debería devolver inmediatamente si la tarea ya está en estado final")
+    void awaitTaskShouldReturnImmediatelyWhenTaskIsTerminal() {
+        // Arrange
+        sampleTaskId = UUID.randomUUID();
+        Task completedTask = new Task(sampleTaskId, OffsetDateTime.now(), "md5hash", targetResolution,
+                TaskStatus.COMPLETED, "http://example.com/image.jpg");
+        when(taskRepository.findById(sampleTaskId)).thenReturn(Optional.of(completedTask));
+
+        // Act
+        CompletableFuture<Optional<TaskResponse>> result = taskService.awaitTask(sampleTaskId, Duration.ofSeconds(5));
+
+        // Assert
+        assertThat(result).isCompleted();
+        assertThat(result.join()).get().extracting(TaskResponse::getStatus).isEqualTo(TaskStatus.COMPLETED.name());
+        assertThat(taskCompletionRegistry.waitingTasks()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ awaitTask: Debería despertar al terminar la tarea en el servicio")
+    void awaitTaskShouldCompleteWhenServiceSignalsCompletion() throws Exception {
+        // Arrange: tarea PENDING en el repositorio, procesada después por submitTask
+        byte[] resizedBytes = new byte[]{4, 5, 6};
+        when(imageProcessorPort.resizeImage(any(InputStream.class), eq(targetResolution))).thenReturn(resizedBytes);
+        when(imageStoragePort.saveImage(any(InputStream.class), anyString(), anyLong())).thenReturn("http://example.com/image.jpg");
+        List<Runnable> queued = new java.util.ArrayList<>();
+        doAnswer(invocation -> queued.add(invocation.getArgument(1)))
+                .when(taskLaneScheduler).dispatch(any(TaskLaneScheduler.Lane.class), any(Runnable.class));
+
+        TaskResponse accepted = taskService.submitTask(validRequest);
+        Task pendingTask = new Task(accepted.getTaskId(), accepted.getTimestamp(), accepted.getOriginalMD5(),
+                targetResolution, TaskStatus.PENDING, null);
+        when(taskRepository.findById(accepted.getTaskId())).thenReturn(Optional.of(pendingTask));
+
+        // Act
+        CompletableFuture<Optional<TaskResponse>> result = taskService.awaitTask(accepted.getTaskId(), Duration.ofSeconds(5));
+        assertThat(result).isNotDone();
+        queued.forEach(Runnable::run); // El worker procesa la tarea
+
+        // Assert
+        assertThat(result.get(1, TimeUnit.SECONDS)).get()
+                .extracting(TaskResponse::getStatus).isEqualTo(TaskStatus.COMPLETED.name());
+        assertThat(taskCompletionRegistry.waitingTasks()).isZero();
+    }
+
+    @Test
+    @DisplayName("⏱️ awaitTask: Debería devolver el último estado conocido si vence el tiempo")
+    void awaitTaskShouldReturnLastKnownStateOnTimeout() throws Exception {
+        // Arrange
+        sampleTaskId = UUID.randomUUID();
+        Task processingTask = new Task(sampleTaskId, OffsetDateTime.now(), "md5hash", targetResolution,
+                TaskStatus.PROCESSING, null);
+        when(taskRepository.findById(sampleTaskId)).thenReturn(Optional.of(processingTask));
+
+        // Act
+        Optional<TaskResponse> result = taskService.awaitTask(sampleTaskId, Duration.ofMillis(50)).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(result).get().extracting(TaskResponse::getStatus).isEqualTo(TaskStatus.PROCESSING.name());
+        assertThat(taskCompletionRegistry.waitingTasks()).isZero();
+    }
+
+    // Cada etapa de E/S del pipeline en su propio hilo, como con el executor real
+    private void runPipelineStagesOnSeparateThreads() {
+        doAnswer(invocation -> {
+            new Thread(invocation.<Runnable>getArgument(0)).start();
+            return null;
+        }).when(taskPipelineExecutor).execute(any(Runnable.class));
+    }
+
+    // Repositorio en memoria sobre el mock: save guarda y findById lee lo guardado
+    private Map<UUID, Task> storeTasksInMemory() {
+        Map<UUID, Task> stored = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            stored.put(task.getTaskId(), task);
+            return null;
+        }).when(taskRepository).save(any(Task.class));
+        when(taskRepository.findById(any(UUID.class))).thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.getArgument(0))));
+        return stored;
+    }
+}
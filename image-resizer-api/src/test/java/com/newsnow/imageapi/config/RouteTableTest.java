@@ -0,0 +1,45 @@
+package com.newsnow.imageapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteTableTest {
+
+    private final RouteTable<String> routes = new RouteTable<String>()
+            .add("POST", "/v1/task", "createTask")
+            .add("POST", "/v1/tasks", "createTasks")
+            .add("GET", "/v1/task/{taskId}", "getTask");
+
+    @Test
+    @DisplayName("✅ match: Debería resolver rutas fijas sin distinguir mayúsculas en el método")
+    void shouldMatchExactRoutes() {
+        assertThat(routes.match("POST", "/v1/task")).get()
+                .satisfies(match -> assertThat(match.handler()).isEqualTo("createTask"));
+        assertThat(routes.match("post", "/v1/tasks")).get()
+                .satisfies(match -> assertThat(match.handler()).isEqualTo("createTasks"));
+    }
+
+    @Test
+    @DisplayName("✅ match: Debería extraer las variables de las rutas con plantilla")
+    void shouldExtractPathVariables() {
+        assertThat(routes.match("GET", "/v1/task/1234")).get()
+                .satisfies(match -> {
+                    assertThat(match.handler()).isEqualTo("getTask");
+                    assertThat(match.pathVariables()).isEqualTo(Map.of("taskId", "1234"));
+                });
+    }
+
+    @Test
+    @DisplayName("❓ match: No debería resolver métodos, segmentos o rutas desconocidas")
+    void shouldNotMatchUnknownRoutes() {
+        assertThat(routes.match("GET", "/v1/task")).isEmpty();
+        assertThat(routes.match("DELETE", "/v1/task/1234")).isEmpty();
+        assertThat(routes.match("GET", "/v1/task/1234/wait")).isEmpty();
+        assertThat(routes.match("GET", "/v1/task//")).isEmpty();
+        assertThat(routes.match(null, null)).isEmpty();
+    }
+}
@@ -0,0 +1,45 @@
+package com.newsnow.imageapi.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DeadlineTest {
+
+    @Test
+    @DisplayName("✅ Deadline: Sin límite nunca vence ni tiene tiempo restante")
+    void noneShouldNeverExpire() {
+        Deadline deadline = Deadline.none();
+
+        assertThat(deadline.isBounded()).isFalse();
+        assertThat(deadline.isExpired()).isFalse();
+        assertThat(deadline.remaining()).isEmpty();
+        assertThatCode(() -> deadline.check("resize")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("✅ Deadline: Con presupuesto debería informar del tiempo restante")
+    void shouldReportRemainingTime() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        assertThat(deadline.isBounded()).isTrue();
+        assertThat(deadline.isExpired()).isFalse();
+        assertThat(deadline.remaining()).hasValueSatisfying(left ->
+                assertThat(left).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("❌ Deadline: Vencido debería lanzar DeadlineExceededException con la etapa")
+    void shouldThrowWhenExpired() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(-5));
+
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.remaining()).hasValue(Duration.ZERO);
+        assertThatThrownBy(() -> deadline.check("store"))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("store");
+    }
+}
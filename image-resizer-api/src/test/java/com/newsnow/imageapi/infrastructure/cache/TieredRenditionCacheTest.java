@@ -0,0 +1,200 @@
+package com.newsnow.imageapi.infrastructure.cache;
+
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.model.RenditionKey;
+import com.newsnow.imageapi.domain.port.out.RenditionCachePort.CachedRendition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredRenditionCacheTest {
+
+    // Una rendition de 20 KiB ocupa 3 páginas (24 KiB) del nivel off-heap
+    private static final int RENDITION_BYTES = 20 * 1024;
+    private static final int OFF_HEAP_RENDITIONS = 8;
+    private static final long OFF_HEAP_BYTES = OFF_HEAP_RENDITIONS * 24 * 1024;
+    private static final long DISK_BYTES = 10L * (RENDITION_BYTES + 64);
+
+    @TempDir
+    Path tempDir;
+
+    private TieredRenditionCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ get: Debería devolver la URL y los bytes guardados desde el nivel off-heap")
+    void shouldServeRenditionFromOffHeapTier() {
+        cache = newCache();
+        cache.put(key(1), rendition(1));
+
+        Optional<CachedRendition> cached = cache.get(key(1));
+
+        assertThat(cached).isPresent();
+        assertThat(cached.get().imageUrl()).isEqualTo("https://cdn.example.com/processed/1.jpg");
+        assertThat(cached.get().imageBytes()).isEqualTo(rendition(1).imageBytes());
+        RenditionCacheStats stats = cache.stats();
+        assertThat(stats.offHeap().hits()).isEqualTo(1);
+        assertThat(stats.offHeap().usedBytes()).isEqualTo(3 * OffHeapSlabTier.PAGE_SIZE);
+        assertThat(stats.disk().entries()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ get: Debería conservar el placeholder de la rendition también tras bajar al disco")
+    void shouldKeepPlaceholderAcrossTiers() {
+        cache = newCache();
+        ImagePlaceholder placeholder = new ImagePlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj", "data:image/png;base64,AAAA");
+        CachedRendition original = rendition(1);
+        cache.put(key(1), new CachedRendition(original.imageUrl(), original.imageBytes(), placeholder));
+        for (int i = 2; i <= OFF_HEAP_RENDITIONS + 1; i++) {
+            cache.put(key(i), rendition(i));
+        }
+
+        Optional<CachedRendition> fromDisk = cache.get(key(1));
+        Optional<CachedRendition> withoutPlaceholder = cache.get(key(2));
+
+        assertThat(fromDisk).isPresent();
+        assertThat(fromDisk.get().placeholder()).isEqualTo(placeholder);
+        assertThat(fromDisk.get().imageBytes()).isEqualTo(original.imageBytes());
+        assertThat(withoutPlaceholder.get().placeholder()).isNull();
+    }
+
+    @Test
+    @DisplayName("✅ get: Debería conservar la codificación buscada de la rendition (SSIM sin medir incluido) tras bajar al disco")
+    void shouldKeepEncodingAcrossTiers() {
+        cache = newCache();
+        ImageEncoding measured = new ImageEncoding("jpeg", 0.72f, 0.961, 3);
+        ImageEncoding unmeasured = new ImageEncoding("webp", 0.5f, null, 6);
+        CachedRendition first = rendition(1);
+        CachedRendition second = rendition(2);
+        cache.put(key(1), new CachedRendition(first.imageUrl(), first.imageBytes(), null, measured));
+        cache.put(key(2), new CachedRendition(second.imageUrl(), second.imageBytes(), null, unmeasured));
+        for (int i = 3; i <= OFF_HEAP_RENDITIONS + 2; i++) {
+            cache.put(key(i), rendition(i));
+        }
+
+        assertThat(cache.get(key(1)).get().encoding()).isEqualTo(measured);
+        assertThat(cache.get(key(1)).get().imageBytes()).isEqualTo(first.imageBytes());
+        assertThat(cache.get(key(2)).get().encoding()).isEqualTo(unmeasured);
+        assertThat(cache.get(key(3)).get().encoding()).isNull();
+    }
+
+    @Test
+    @DisplayName("✅ put: Lo desalojado del nivel off-heap debería bajar al disco y volver a subir al pedirlo")
+    void shouldDemoteEvictedRenditionsToDiskAndPromoteOnHit() {
+        cache = newCache();
+        for (int i = 1; i <= OFF_HEAP_RENDITIONS + 1; i++) {
+            cache.put(key(i), rendition(i));
+        }
+
+        RenditionCacheStats afterPut = cache.stats();
+        assertThat(afterPut.offHeap().entries()).isEqualTo(OFF_HEAP_RENDITIONS);
+        assertThat(afterPut.offHeap().evictions()).isEqualTo(1);
+        assertThat(afterPut.disk().entries()).isEqualTo(1); // La más antigua (1) está ahora en disco
+
+        Optional<CachedRendition> fromDisk = cache.get(key(1));
+
+        assertThat(fromDisk).isPresent();
+        assertThat(fromDisk.get().imageBytes()).isEqualTo(rendition(1).imageBytes());
+        RenditionCacheStats afterGet = cache.stats();
+        assertThat(afterGet.disk().hits()).isEqualTo(1);
+        assertThat(afterGet.offHeap().entries()).isEqualTo(OFF_HEAP_RENDITIONS);
+        assertThat(afterGet.offHeap().usedBytes()).isLessThanOrEqualTo(afterGet.offHeap().maxBytes());
+        assertThat(afterGet.disk().usedBytes()).isLessThanOrEqualTo(afterGet.disk().maxBytes());
+    }
+
+    @Test
+    @DisplayName("✅ put: Una rendition pedida una sola vez no debería desplazar a las populares (TinyLFU)")
+    void shouldNotAdmitOneHitWonderOverPopularRenditions() {
+        cache = newCache();
+        for (int i = 1; i <= OFF_HEAP_RENDITIONS; i++) {
+            cache.put(key(i), rendition(i));
+            cache.get(key(i));
+            cache.get(key(i));
+        }
+
+        cache.put(key(99), rendition(99));
+
+        RenditionCacheStats stats = cache.stats();
+        assertThat(stats.offHeap().rejections()).isEqualTo(1);
+        assertThat(stats.offHeap().evictions()).isZero();
+        assertThat(cache.get(key(1))).isPresent();
+        assertThat(cache.get(key(99))).isPresent(); // No cabe arriba, pero queda en disco
+        assertThat(cache.stats().disk().hits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("❓ put: Si la nueva versión de una rendition no se admite, no debería seguir sirviéndose la anterior")
+    void shouldDropStaleRenditionWhenReplacementIsNotAdmitted() {
+        // Arrange: la nueva versión supera el tamaño máximo por entrada de ambos niveles
+        cache = newCache();
+        cache.put(key(1), rendition(1));
+        byte[] oversized = new byte[(int) DISK_BYTES];
+
+        // Act
+        cache.put(key(1), new CachedRendition("https://cdn.example.com/processed/1-v2.jpg", oversized));
+
+        // Assert
+        assertThat(cache.get(key(1))).isEmpty();
+        assertThat(cache.stats().offHeap().entries()).isZero();
+    }
+
+    @Test
+    @DisplayName("❓ get: Debería contar un fallo en ambos niveles si la rendition no está")
+    void shouldCountMissesOnBothTiers() {
+        cache = newCache();
+
+        assertThat(cache.get(key(1))).isEmpty();
+
+        RenditionCacheStats stats = cache.stats();
+        assertThat(stats.offHeap().misses()).isEqualTo(1);
+        assertThat(stats.disk().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("✅ close: Debería borrar los ficheros del nivel en disco")
+    void shouldDeleteDiskTierOnClose() throws Exception {
+        Path directory = tempDir.resolve("renditions");
+        cache = new TieredRenditionCache(OFF_HEAP_BYTES, DISK_BYTES, directory);
+        for (int i = 1; i <= OFF_HEAP_RENDITIONS + 2; i++) {
+            cache.put(key(i), rendition(i));
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+
+        cache.close();
+        cache = null;
+
+        assertThat(directory).doesNotExist();
+    }
+
+    private TieredRenditionCache newCache() {
+        return new TieredRenditionCache(OFF_HEAP_BYTES, DISK_BYTES, tempDir.resolve("renditions"));
+    }
+
+    private static RenditionKey key(int id) {
+        return new RenditionKey("md5-" + id, new ImageResolution(100, 50), ".jpg");
+    }
+
+    private static CachedRendition rendition(int id) {
+        byte[] bytes = new byte[RENDITION_BYTES];
+        Arrays.fill(bytes, (byte) id);
+        return new CachedRendition("https://cdn.example.com/processed/" + id + ".jpg", bytes);
+    }
+}
@@ -0,0 +1,167 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.newsnow.imageapi.ImageResizerApiApplication;
+import com.newsnow.imageapi.InMemoryAdapters;
+import com.newsnow.imageapi.LambdaApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cloud.function.context.FunctionalSpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de arranque en frío: cada medición es una JVM nueva (como un cold start de Lambda) que levanta
+ * el contexto como lo haría FunctionInvoker y hace la primera petición POST /v1/task por el handler de Lambda,
+ * con S3/DynamoDB sustituidos por fakes en memoria. Compara el arranque Spring Boot completo con el
+ * funcional de LambdaApplication, con y sin priming.
+ * Para comparar también el classpath, ejecutarlo con el perfil por defecto y con -Plambda.
+ *
+ * No se ejecuta en el build normal:  mvn test -Dtest.excludedGroups= -Dgroups=load [-Plambda]
+ */
+@Tag("load")
+class ColdStartBenchmarkTest {
+
+    private static final int RUNS_PER_MODE = 3;
+    private static final String BOOT = "boot";
+    private static final String FUNCTIONAL = "functional";
+    private static final String FUNCTION_WEB_CLASS = "org.springframework.cloud.function.web.FunctionHttpProperties";
+
+    @Test
+    @DisplayName("📊 Arranque en frío: Spring Boot vs funcional, con y sin priming")
+    void compareColdStartModes() throws Exception {
+        // Con el perfil web en el classpath (spring-cloud-function-web) el modo funcional no arranca:
+        // ese modo solo existe en el jar del perfil "lambda"
+        List<String> modes = ClassUtils.isPresent(FUNCTION_WEB_CLASS, null) ? List.of(BOOT) : List.of(BOOT, FUNCTIONAL);
+        Map<String, List<long[]>> results = new LinkedHashMap<>();
+        for (int i = 0; i < RUNS_PER_MODE; i++) {
+            for (String mode : modes) {
+                for (boolean priming : List.of(false, true)) {
+                    results.computeIfAbsent(String.format("%-10s priming=%-3s", mode, priming ? "on" : "off"),
+                            key -> new ArrayList<>()).add(fork(mode, priming));
+                }
+            }
+        }
+
+        results.forEach(ColdStartBenchmarkTest::report);
+        assertThat(results).hasSize(modes.size() * 2);
+    }
+
+    private static long[] fork(String mode, boolean priming) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java,
+                "-cp", System.getProperty("java.class.path"),
+                "-Dimage-resizer.priming.enabled=" + priming,
+                ColdStart.class.getName(), mode)
+                .redirectErrorStream(true)
+                .start();
+
+        long[] result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("RESULT ")) {
+                    result = Arrays.stream(line.substring(7).split(" ")).mapToLong(Long::parseLong).toArray();
+                }
+            }
+        }
+        assertThat(process.waitFor()).isZero();
+        assertThat(result).as("child JVM result").isNotNull();
+        return result;
+    }
+
+    private static void report(String mode, List<long[]> runs) {
+        System.out.printf("%s  init=%s ms  firstRequest=%s ms  secondRequest=%s ms  classes=%s  heap=%s MB  (mediana de %d JVMs)%n",
+                mode, median(runs, 0), median(runs, 1), median(runs, 2), median(runs, 3), median(runs, 4), runs.size());
+    }
+
+    private static long median(List<long[]> runs, int column) {
+        return runs.stream().mapToLong(run -> run[column]).sorted().skip(runs.size() / 2).findFirst().orElse(0);
+    }
+
+    /** Proceso hijo: arranca el contexto, mide init y las dos primeras peticiones e imprime una línea RESULT. */
+    static class ColdStart {
+
+        @SuppressWarnings("unchecked")
+        public static void main(String[] args) throws Exception {
+            long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+            Map<String, Object> properties = Map.of("CLOUDFRONT_DOMAIN", "cdn.example.com", "logging.level.root", "WARN",
+                    "server.port", "0");
+            SpringApplication application;
+            if (FUNCTIONAL.equals(args[0])) {
+                // Arranque del jar de Lambda (perfil "lambda"): FunctionInvoker con MAIN_CLASS=LambdaApplication
+                application = new FunctionalSpringApplication(LambdaApplication.class);
+            } else {
+                // Igual que FunctionInvoker con ImageResizerApiApplication: si hay servlet en el classpath arranca Tomcat
+                application = new SpringApplication(ImageResizerApiApplication.class);
+            }
+            application.addInitializers(new InMemoryAdapters());
+            application.setDefaultProperties(properties);
+
+            try (ConfigurableApplicationContext context = application.run()) {
+                long initMs = System.currentTimeMillis() - jvmStart;
+
+                Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>> handler =
+                        context.getBean(LambdaApplication.HANDLER_NAME, Function.class);
+                String body = "{\"imageData\":\"" + Base64.getEncoder().encodeToString(sampleJpeg()) + "\","
+                        + "\"filename\":\"photo.jpg\",\"width\":320,\"height\":240}";
+
+                long firstMs = timeRequest(handler, body);
+                long secondMs = timeRequest(handler, body);
+                int loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+                System.gc();
+                long heapUsedMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+                System.out.println("RESULT " + initMs + " " + firstMs + " " + secondMs + " " + loadedClasses + " " + heapUsedMb);
+            }
+        }
+
+        private static long timeRequest(Function<Message<APIGatewayProxyRequestEvent>, Message<APIGatewayProxyResponseEvent>> handler,
+                                        String body) {
+            APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                    .withHttpMethod("POST")
+                    .withPath("/v1/task")
+                    .withBody(body);
+            long start = System.nanoTime();
+            APIGatewayProxyResponseEvent response = handler.apply(MessageBuilder.withPayload(request).build()).getPayload();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (response.getStatusCode() != 201) {
+                throw new IllegalStateException("Unexpected response: " + response.getStatusCode() + " " + response.getBody());
+            }
+            return elapsedMs;
+        }
+
+        private static byte[] sampleJpeg() throws Exception {
+            BufferedImage image = new BufferedImage(1280, 960, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, (x & 0xFF) << 16 | (y & 0xFF) << 8 | ((x + y) & 0xFF));
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.newsnow.imageapi.infrastructure.config;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.newsnow.imageapi.application.dto.TaskResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import javax.imageio.spi.ImageReaderSpi;
+import java.util.ServiceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeImageHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeImageHintsTest() {
+        new NativeImageHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("✅ hints: Debería registrar los DTOs y eventos que serializa Jackson")
+    void shouldRegisterJacksonBindings() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(TaskResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(APIGatewayProxyRequestEvent.class)).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("✅ hints: Debería registrar cada proveedor SPI de ImageIO del classpath y su fichero de servicio")
+    void shouldRegisterImageIoServiceProviders() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/" + ImageReaderSpi.class.getName()))
+                .accepts(hints);
+        assertThat(ServiceLoader.load(ImageReaderSpi.class).stream())
+                .extracting(ServiceLoader.Provider::type)
+                .isNotEmpty()
+                .allSatisfy(spi -> assertThat(RuntimeHintsPredicates.reflection()
+                        .onType(spi).withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints));
+    }
+
+    @Test
+    @DisplayName("✅ hints: Debería incluir los recursos de TwelveMonkeys y del SDK de AWS")
+    void shouldRegisterLibraryResources() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("profiles/ClayRGB1998.icc")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("software/amazon/awssdk/regions/internal/region/endpoints.json")).accepts(hints);
+    }
+}
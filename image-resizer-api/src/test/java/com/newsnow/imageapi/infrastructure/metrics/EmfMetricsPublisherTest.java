@@ -0,0 +1,97 @@
+package com.newsnow.imageapi.infrastructure.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmfMetricsPublisherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final EmfMetricsPublisher publisher = new EmfMetricsPublisher(objectMapper, "ImageResizerTest",
+            new PrintStream(stdout, true, StandardCharsets.UTF_8));
+    private final ProcessingMetrics metrics = ProcessingMetrics.noop();
+
+    EmfMetricsPublisherTest() {
+        metrics.addRecorder(publisher);
+    }
+
+    @Test
+    @DisplayName("✅ flush: Debería escribir un documento EMF por etapa/formato/tramo con todos sus valores")
+    void shouldWriteOneEmfDocumentPerSeries() throws Exception {
+        metrics.record(ProcessingMetrics.Stage.DECODE, "jpeg", 200_000, 12_000_000);
+        metrics.record(ProcessingMetrics.Stage.DECODE, "jpeg", 300_000, 8_000_000);
+        metrics.record(ProcessingMetrics.Stage.HANDLER_OVERHEAD, ProcessingMetrics.NONE, -1, 1_500_000);
+
+        metrics.flush();
+
+        List<JsonNode> documents = documents();
+        assertThat(documents).hasSize(2);
+        JsonNode decode = documents.stream().filter(doc -> doc.get("Stage").asText().equals("decode")).findFirst().orElseThrow();
+        assertThat(decode.get("Format").asText()).isEqualTo("jpeg");
+        assertThat(decode.get("SizeBucket").asText()).isEqualTo("64k_1m");
+        assertThat(decode.get("Duration").toString()).isEqualTo("[12.0,8.0]");
+        assertThat(decode.get("Bytes").toString()).isEqualTo("[200000,300000]");
+        JsonNode directive = decode.get("_aws").get("CloudWatchMetrics").get(0);
+        assertThat(directive.get("Namespace").asText()).isEqualTo("ImageResizerTest");
+        assertThat(directive.get("Dimensions").toString()).isEqualTo("[[\"Stage\"],[\"Stage\",\"Format\",\"SizeBucket\"]]");
+        assertThat(decode.get("_aws").get("Timestamp").isNumber()).isTrue();
+
+        // Sin tamaño no se declara la métrica Bytes
+        JsonNode overhead = documents.stream().filter(doc -> doc.get("Stage").asText().equals("handler_overhead")).findFirst().orElseThrow();
+        assertThat(overhead.has("Bytes")).isFalse();
+        assertThat(overhead.get("_aws").get("CloudWatchMetrics").get(0).get("Metrics")).hasSize(1);
+
+        // Lo publicado no se repite en la siguiente invocación
+        stdout.reset();
+        metrics.flush();
+        assertThat(stdout.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ flush: Debería partir en varios documentos las series con más de 100 valores")
+    void shouldSplitSeriesAboveEmfValueLimit() throws Exception {
+        for (int i = 0; i < EmfMetricsPublisher.MAX_VALUES_PER_DOCUMENT + 5; i++) {
+            metrics.record(ProcessingMetrics.Stage.DYNAMODB_PUT, ProcessingMetrics.NONE, 300, 1_000_000);
+        }
+
+        metrics.flush();
+
+        List<JsonNode> documents = documents();
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(0).get("Duration")).hasSize(EmfMetricsPublisher.MAX_VALUES_PER_DOCUMENT);
+        assertThat(documents.get(1).get("Duration")).hasSize(5);
+        assertThat(documents.get(1).get("Bytes")).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("❓ discardPending: Las mediciones del priming no deberían publicarse")
+    void shouldDiscardPendingMeasurements() {
+        metrics.record(ProcessingMetrics.Stage.RESIZE, "png", 1_000, 5_000_000);
+
+        metrics.discardPending();
+        metrics.flush();
+
+        assertThat(stdout.size()).isZero();
+    }
+
+    private List<JsonNode> documents() throws Exception {
+        List<JsonNode> documents = new ArrayList<>();
+        for (String line : stdout.toString(StandardCharsets.UTF_8).split("\\R")) {
+            if (!line.isBlank()) {
+                documents.add(objectMapper.readTree(line));
+            }
+        }
+        return documents;
+    }
+}
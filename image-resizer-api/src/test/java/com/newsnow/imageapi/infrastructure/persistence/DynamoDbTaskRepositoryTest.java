@@ -1,5 +1,7 @@
 package com.newsnow.imageapi.infrastructure.persistence;
 
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
 import com.newsnow.imageapi.domain.model.ImageResolution;
 import com.newsnow.imageapi.domain.model.Task;
 import com.newsnow.imageapi.domain.model.TaskStatus;
@@ -17,9 +19,11 @@ import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -80,6 +84,9 @@ class DynamoDbTaskRepositoryTest {
         assertThat(item.get("requestedHeight").n()).isEqualTo(String.valueOf(testTask.getRequestedResolution().getHeight()));
         assertThat(item.get("status").s()).isEqualTo(testTask.getStatus().name());
         assertThat(item.get("resultImageUrl").s()).isEqualTo(testTask.getResultImageUrl());
+        assertThat(item).doesNotContainKey("contentHash"); // Igual al MD5: no se duplica
+        assertThat(item).doesNotContainKeys("blurHash", "placeholder"); // Sin placeholder
+        assertThat(item).doesNotContainKeys("encodingFormat", "encodingQuality", "encodingSsim", "encodingAttempts");
     }
 
     @Test
@@ -114,12 +121,76 @@ class DynamoDbTaskRepositoryTest {
         Task foundTask = result.get();
         assertThat(foundTask.getTaskId()).isEqualTo(testTaskId);
         assertThat(foundTask.getOriginalMD5()).isEqualTo("mock-md5");
+        assertThat(foundTask.getContentHash()).isEqualTo("mock-md5"); // Ítems sin contentHash
         assertThat(foundTask.getStatus()).isEqualTo(TaskStatus.PROCESSING);
         assertThat(foundTask.getRequestedResolution().getWidth()).isEqualTo(400);
         assertThat(foundTask.getRequestedResolution().getHeight()).isEqualTo(300);
         assertThat(foundTask.getResultImageUrl()).isNull(); // Verificamos que maneja la ausencia
     }
 
+    @Test
+    @DisplayName("✅ DynamoDB Adapter: Debería guardar el placeholder en el mismo item y reconstruirlo al leer")
+    void shouldRoundTripPlaceholder() {
+        // Arrange
+        ImagePlaceholder placeholder = new ImagePlaceholder("LEHV6nWB2yk8pyo0adR*.7kCMdnj", "data:image/png;base64,AAAA");
+        Task completed = new Task(testTaskId, OffsetDateTime.now(), "md5-hash-test", "md5-hash-test",
+                new ImageResolution(300, 200), TaskStatus.COMPLETED, "http://image.url/img.png", placeholder);
+        repository.save(completed);
+        verify(dynamoDbClientMock).putItem(putItemRequestCaptor.capture());
+        Map<String, AttributeValue> item = putItemRequestCaptor.getValue().item();
+        when(dynamoDbClientMock.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().item(item).build());
+
+        // Act
+        Optional<Task> result = repository.findById(testTaskId);
+
+        // Assert
+        assertThat(item.get("blurHash").s()).isEqualTo(placeholder.blurHash());
+        assertThat(item.get("placeholder").s()).isEqualTo(placeholder.previewDataUri());
+        assertThat(result).isPresent();
+        assertThat(result.get().getPlaceholder()).isEqualTo(placeholder);
+    }
+
+    @Test
+    @DisplayName("✅ DynamoDB Adapter: Debería guardar la codificación buscada (formato, calidad, SSIM, intentos) y reconstruirla")
+    void shouldRoundTripEncoding() {
+        // Arrange
+        ImageEncoding encoding = new ImageEncoding("jpeg", 0.72f, 0.961, 3);
+        Task completed = new Task(testTaskId, OffsetDateTime.now(), "md5-hash-test", "md5-hash-test",
+                new ImageResolution(300, 200), TaskStatus.COMPLETED, "http://image.url/img.jpg", null, encoding);
+        repository.save(completed);
+        verify(dynamoDbClientMock).putItem(putItemRequestCaptor.capture());
+        Map<String, AttributeValue> item = putItemRequestCaptor.getValue().item();
+        when(dynamoDbClientMock.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().item(item).build());
+
+        // Act
+        Optional<Task> result = repository.findById(testTaskId);
+
+        // Assert
+        assertThat(item.get("encodingQuality").n()).isEqualTo("0.72");
+        assertThat(item.get("encodingAttempts").n()).isEqualTo("3");
+        assertThat(result).isPresent();
+        assertThat(result.get().getEncoding()).isEqualTo(encoding);
+    }
+
+    @Test
+    @DisplayName("✅ DynamoDB Adapter: Debería guardar la extensión de salida pedida y reconstruirla")
+    void shouldRoundTripRequestedExtension() {
+        // Arrange
+        Task pending = new Task(testTaskId, "md5-hash-test", "md5-hash-test", new ImageResolution(300, 200), "webp");
+        repository.save(pending);
+        verify(dynamoDbClientMock).putItem(putItemRequestCaptor.capture());
+        Map<String, AttributeValue> item = putItemRequestCaptor.getValue().item();
+        when(dynamoDbClientMock.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().item(item).build());
+
+        // Act
+        Optional<Task> result = repository.findById(testTaskId);
+
+        // Assert
+        assertThat(item.get("requestedExtension").s()).isEqualTo("webp");
+        assertThat(result).isPresent();
+        assertThat(result.get().getRequestedExtension()).isEqualTo("webp");
+    }
+
     @Test
     @DisplayName("❓ DynamoDB Adapter findById(): Debería devolver Optional vacío si getItem no encuentra item")
     void findByIdShouldReturnEmptyWhenGetItemReturnsNoItem() {
@@ -135,4 +206,32 @@ class DynamoDbTaskRepositoryTest {
         verify(dynamoDbClientMock).getItem(any(GetItemRequest.class));
         assertThat(result).isEmpty(); // Verifica que el Optional está vacío
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("✅ DynamoDB Adapter saveAll(): Debería agrupar en BatchWriteItem de 25 y reintentar los no procesados")
+    void saveAllShouldChunkBatchWritesAndRetryUnprocessedItems() {
+        // Arrange: 30 tareas -> 2 lotes (25 + 5); el primer lote deja un item sin procesar
+        List<Task> tasks = IntStream.range(0, 30)
+                .mapToObj(i -> new Task(UUID.randomUUID(), OffsetDateTime.now(), "md5-" + i,
+                        new ImageResolution(100, 100), TaskStatus.PROCESSING, null))
+                .toList();
+        WriteRequest leftover = WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(Map.of("taskId", AttributeValue.builder().s("x").build())).build())
+                .build();
+        when(dynamoDbClientMock.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().unprocessedItems(Map.of(testTableName, List.of(leftover))).build())
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        // Act
+        repository.saveAll(tasks);
+
+        // Assert: lote 1, reintento del item pendiente, lote 2
+        ArgumentCaptor<BatchWriteItemRequest> captor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDbClientMock, times(3)).batchWriteItem(captor.capture());
+        List<BatchWriteItemRequest> requests = captor.getAllValues();
+        assertThat(requests.get(0).requestItems().get(testTableName)).hasSize(25);
+        assertThat(requests.get(1).requestItems().get(testTableName)).containsExactly(leftover);
+        assertThat(requests.get(2).requestItems().get(testTableName)).hasSize(5);
+        verify(dynamoDbClientMock, never()).putItem(any(PutItemRequest.class));
+    }
+}
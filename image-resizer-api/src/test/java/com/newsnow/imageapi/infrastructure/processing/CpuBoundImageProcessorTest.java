@@ -0,0 +1,86 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.DeadlineExceededException;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CpuBoundImageProcessorTest {
+
+    private CpuBoundImageProcessor processor;
+
+    @AfterEach
+    void tearDown() {
+        processor.close();
+    }
+
+    @Test
+    @DisplayName("✅ CpuBound: Debería ejecutar el redimensionado en el pool de CPU aunque se llame desde un hilo virtual")
+    void shouldRunResizeOnCpuPoolFromVirtualThread() throws Exception {
+        // Arrange
+        AtomicReference<Thread> workerThread = new AtomicReference<>();
+        ImageProcessorPort delegate = (input, resolution) -> {
+            workerThread.set(Thread.currentThread());
+            return new byte[]{1, 2, 3};
+        };
+        processor = new CpuBoundImageProcessor(delegate, 2);
+        AtomicReference<byte[]> result = new AtomicReference<>();
+
+        // Act
+        Thread caller = Thread.ofVirtual().start(() ->
+                result.set(processor.resizeImage(new ByteArrayInputStream(new byte[]{9}), new ImageResolution(10, 10))));
+        caller.join();
+
+        // Assert
+        assertThat(result.get()).containsExactly(1, 2, 3);
+        assertThat(workerThread.get().isVirtual()).isFalse();
+        assertThat(workerThread.get().getName()).startsWith("image-cpu-");
+    }
+
+    @Test
+    @DisplayName("❌ CpuBound: Debería propagar la ImageProcessingException del adaptador")
+    void shouldPropagateProcessingException() {
+        // Arrange
+        ImageProcessingException failure = new ImageProcessingException("Processing Error");
+        processor = new CpuBoundImageProcessor((input, resolution) -> {
+            throw failure;
+        }, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> processor.resizeImage(new ByteArrayInputStream(new byte[]{9}), new ImageResolution(10, 10)))
+                .isSameAs(failure);
+    }
+
+    @Test
+    @DisplayName("❌ CpuBound: Debería dejar de esperar e interrumpir el redimensionado al vencer el deadline")
+    void shouldStopWaitingWhenDeadlineExpires() throws Exception {
+        // Arrange
+        CountDownLatch interrupted = new CountDownLatch(1);
+        processor = new CpuBoundImageProcessor((input, resolution) -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new byte[0];
+        }, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> processor.resizeImage(new ByteArrayInputStream(new byte[]{9}), new ImageResolution(10, 10),
+                Deadline.after(Duration.ofMillis(50))))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemoryBudgetImageProcessorTest {
+
+    @Test
+    @DisplayName("✅ MemoryBudget: Debería reservar ancho x alto x bytes por píxel de la cabecera y entregar el stream completo")
+    void shouldReserveDecodedBytesFromHeaderAndPassWholeStream() throws Exception {
+        // Arrange
+        byte[] original = sampleImage(400, 300);
+        AtomicLong availableDuringResize = new AtomicLong();
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        AtomicReference<MemoryBudgetImageProcessor> processor = new AtomicReference<>();
+        ImageProcessorPort delegate = (input, resolution) -> {
+            availableDuringResize.set(processor.get().availableBytes());
+            received.set(readAll(input));
+            return new byte[]{1};
+        };
+        processor.set(new MemoryBudgetImageProcessor(delegate, 10L * 1024 * 1024, 4, Duration.ZERO, 2));
+
+        // Act
+        processor.get().resizeImage(new ByteArrayInputStream(original), new ImageResolution(40, 30));
+
+        // Assert: (400x300 + 40x30) x 4 bytes, redondeado a KiB
+        long reserved = (400 * 300 + 40 * 30) * 4L;
+        assertThat(availableDuringResize.get()).isEqualTo(10L * 1024 * 1024 - (reserved + 1023) / 1024 * 1024);
+        assertThat(received.get()).isEqualTo(original);
+        assertThat(processor.get().availableBytes()).isEqualTo(processor.get().budgetBytes());
+    }
+
+    @Test
+    @DisplayName("✅ MemoryBudget: Al cerrarse debería cerrar el procesador envuelto (p.ej. el pool de CPU)")
+    void shouldCloseWrappedProcessor() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        class CloseableProcessor implements ImageProcessorPort, AutoCloseable {
+            @Override
+            public byte[] resizeImage(InputStream imageInputStream, ImageResolution targetResolution) {
+                return new byte[]{1};
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        }
+        MemoryBudgetImageProcessor processor = new MemoryBudgetImageProcessor(new CloseableProcessor(), 10L * 1024 * 1024, 4, Duration.ZERO, 2);
+
+        // Act
+        processor.close();
+
+        // Assert
+        assertThat(closed).isTrue();
+        assertThatCode(new MemoryBudgetImageProcessor((input, resolution) -> new byte[]{1}, 10L * 1024 * 1024, 4, Duration.ZERO, 2)::close)
+                .doesNotThrowAnyException(); // Un procesador sin recursos no necesita cerrarse
+    }
+
+    @Test
+    @DisplayName("❌ MemoryBudget: Debería rechazar con TaskRejectedException cuando el presupuesto está agotado")
+    void shouldRejectWhenBudgetIsExhausted() throws Exception {
+        // Arrange: la primera imagen ocupa todo el presupuesto hasta que se libera el latch
+        byte[] original = sampleImage(400, 300);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemoryBudgetImageProcessor processor = new MemoryBudgetImageProcessor((input, resolution) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new byte[0];
+        }, 256 * 1024, 4, Duration.ofMillis(50), 7);
+        Thread first = Thread.ofPlatform().start(() ->
+                processor.resizeImage(new ByteArrayInputStream(original), new ImageResolution(40, 30)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert
+        assertThatThrownBy(() -> processor.resizeImage(new ByteArrayInputStream(original), new ImageResolution(40, 30)))
+                .isInstanceOf(TaskRejectedException.class)
+                .extracting(e -> ((TaskRejectedException) e).getRetryAfterSeconds())
+                .isEqualTo(7L);
+        release.countDown();
+        first.join();
+        assertThat(processor.availableBytes()).isEqualTo(processor.budgetBytes());
+    }
+
+    @Test
+    @DisplayName("✅ MemoryBudget: Debería procesar (sola) una imagen mayor que el presupuesto entero")
+    void shouldAdmitImageLargerThanWholeBudget() throws Exception {
+        // Arrange
+        AtomicLong availableDuringResize = new AtomicLong(-1);
+        AtomicReference<MemoryBudgetImageProcessor> processor = new AtomicReference<>();
+        processor.set(new MemoryBudgetImageProcessor((input, resolution) -> {
+            availableDuringResize.set(processor.get().availableBytes());
+            return new byte[]{1};
+        }, 64 * 1024, 4, Duration.ZERO, 2));
+
+        // Act
+        byte[] result = processor.get().resizeImage(new ByteArrayInputStream(sampleImage(400, 300)), new ImageResolution(40, 30));
+
+        // Assert
+        assertThat(result).containsExactly(1);
+        assertThat(availableDuringResize.get()).isZero();
+    }
+
+    private static byte[] readAll(InputStream input) {
+        try {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] sampleImage(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
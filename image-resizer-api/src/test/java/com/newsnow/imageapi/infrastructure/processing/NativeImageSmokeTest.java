@@ -0,0 +1,58 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Smoke test del redimensionado sin contexto de Spring ni mocks: decodifica con los plugins de ImageIO,
+ * redimensiona con Thumbnailator y vuelve a codificar.
+ * Corre en la JVM con el build normal y, con  mvn -Plambda,nativeTest test, compilado a imagen nativa
+ * (comprueba que los metadatos de NativeImageHints y de AWT bastan).
+ */
+@Tag("native")
+class NativeImageSmokeTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpeg", "png", "bmp", "gif"})
+    @DisplayName("✅ Nativo: Debería redimensionar una imagen de muestra en cada formato soportado")
+    void shouldResizeSampleImage(String format) throws Exception {
+        byte[] original = sampleImage(format, 320, 240);
+
+        byte[] resized = new ThumbnailatorImageProcessorAdapter()
+                .resizeImage(new ByteArrayInputStream(original), new ImageResolution(80, 60));
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(resized));
+        assertThat(decoded).isNotNull();
+        assertThat(decoded.getWidth()).isEqualTo(80);
+        assertThat(decoded.getHeight()).isEqualTo(60);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"JPEG", "PNG", "BMP", "TIFF", "WEBP"})
+    @DisplayName("✅ Nativo: Debería encontrar un reader de ImageIO (JDK, TwelveMonkeys o JAI) por formato")
+    void shouldFindImageReaders(String format) {
+        assertThat(ImageIO.getImageReadersByFormatName(format).hasNext()).isTrue();
+    }
+
+    private static byte[] sampleImage(String format, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x & 0xFF) << 16 | (y & 0xFF) << 8 | 0x40);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ImageIO.write(image, format, out)).as("writer for " + format).isTrue();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,164 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import net.coobird.thumbnailator.resizers.DefaultResizerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputFormatSelectorTest {
+
+    private final OutputFormatSelector selector = new OutputFormatSelector(false);
+
+    @Test
+    @DisplayName("✅ select: Una fotografía debería codificarse como JPEG (WebP si hay writer)")
+    void shouldPickLossyFormatForPhotos() {
+        // Arrange
+        BufferedImage photo = photo(400, 300);
+
+        // Act
+        OutputFormatSelector.Choice choice = selector.select(photo);
+        OutputFormatSelector.Choice withWebp = new OutputFormatSelector(true).select(photo);
+
+        // Assert
+        assertThat(choice.format()).isEqualTo("jpeg");
+        assertThat(choice.image()).isSameAs(photo);
+        assertThat(withWebp.format()).isEqualTo("webp");
+    }
+
+    @Test
+    @DisplayName("✅ select: Un gráfico plano debería pasar a PNG con paleta, más pequeño que el PNG a color completo")
+    void shouldReduceFlatGraphicsToPalettePng() throws Exception {
+        // Arrange
+        BufferedImage chart = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = chart.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 400, 300);
+        g.setColor(new Color(30, 90, 200));
+        g.fillRect(20, 20, 150, 100);
+        g.setColor(Color.RED);
+        g.fillOval(200, 120, 120, 120);
+        g.dispose();
+
+        // Act
+        OutputFormatSelector.Choice choice = selector.select(chart);
+
+        // Assert
+        assertThat(choice.format()).isEqualTo("png");
+        assertThat(choice.image().getColorModel()).isInstanceOf(IndexColorModel.class);
+        assertThat(choice.image().getRGB(50, 50)).isEqualTo(chart.getRGB(50, 50));
+        assertThat(choice.image().getRGB(260, 180)).isEqualTo(chart.getRGB(260, 180));
+        assertThat(size(choice.image(), "png")).isLessThan(size(chart, "png"));
+    }
+
+    @Test
+    @DisplayName("✅ select: Con transparencia debería quedarse en PNG y conservar el canal alfa")
+    void shouldKeepPngWhenAlphaIsUsed() {
+        // Arrange
+        BufferedImage logo = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = logo.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(0, 150, 0));
+        g.fillOval(25, 25, 150, 150);
+        g.dispose();
+        BufferedImage translucentPhoto = photo(200, 200);
+        BufferedImage fading = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 200; y++) {
+            for (int x = 0; x < 200; x++) {
+                fading.setRGB(x, y, (x * 255 / 200) << 24 | (translucentPhoto.getRGB(x, y) & 0xFFFFFF));
+            }
+        }
+
+        // Act
+        OutputFormatSelector.Choice logoChoice = selector.select(logo);
+        OutputFormatSelector.Choice fadingChoice = new OutputFormatSelector(true).select(fading);
+
+        // Assert
+        assertThat(logoChoice.format()).isEqualTo("png");
+        assertThat(logoChoice.image().getRGB(0, 0) >>> 24).isZero();
+        assertThat(logoChoice.image().getRGB(100, 100) >>> 24).isEqualTo(255);
+        assertThat(fadingChoice.format()).isEqualTo("png");
+        assertThat(fadingChoice.image()).isSameAs(fading);
+    }
+
+    @Test
+    @DisplayName("✅ toPalette: Un degradado suave no debería reducirse a paleta (habría bandas)")
+    void shouldNotReduceSmoothGradients() {
+        // Arrange
+        BufferedImage gradient = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 256; y++) {
+            for (int x = 0; x < 256; x++) {
+                gradient.setRGB(x, y, x << 16 | y << 8 | 128);
+            }
+        }
+
+        // Act & Assert
+        assertThat(OutputFormatSelector.toPalette(gradient)).isNull();
+        assertThat(selector.select(gradient).format()).isEqualTo("jpeg");
+    }
+
+    @Test
+    @DisplayName("✅ processImage: Con formato automático un gráfico subido como JPEG debería salir como PNG")
+    void shouldReportChosenFormatThroughAdapter() throws Exception {
+        // Arrange
+        BufferedImage flat = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = flat.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 400, 300);
+        g.setColor(Color.BLACK);
+        g.fillRect(100, 100, 200, 100);
+        g.dispose();
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(flat, "jpeg", original);
+        ThumbnailatorImageProcessorAdapter adapter = new ThumbnailatorImageProcessorAdapter(ProcessingMetrics.noop(),
+                DefaultResizerFactory.getInstance(), null, true);
+
+        // Act
+        ImageProcessorPort.ProcessedImage processed = adapter.processImage(new ByteArrayInputStream(original.toByteArray()),
+                new ImageResolution(200, 150), Deadline.none());
+        byte[] resized = adapter.resizeImage(new ByteArrayInputStream(original.toByteArray()), new ImageResolution(200, 150));
+
+        // Assert
+        assertThat(processed.format()).isEqualTo("png");
+        assertThat(processed.imageBytes()).startsWith(0x89, 'P', 'N', 'G');
+        assertThat(ImageIO.read(new ByteArrayInputStream(processed.imageBytes())).getWidth()).isEqualTo(200);
+        // resizeImage no devuelve el formato: conserva el de entrada
+        assertThat(resized).startsWith(0xFF, 0xD8);
+    }
+
+    // Degradados con textura: casi todos los puntos muestreados tienen un color distinto
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24);
+                int r = Math.min(255, (x * 255 / width) + noise);
+                int g = Math.min(255, (y * 255 / height) + noise);
+                int b = Math.min(255, (int) (128 + 100 * Math.sin(x / 9.0) * Math.cos(y / 7.0)) + noise / 2);
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        return image;
+    }
+
+    private static int size(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.size();
+    }
+}
@@ -0,0 +1,194 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImageEncoding;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import net.coobird.thumbnailator.resizers.DefaultResizerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class QualityTargetEncoderTest {
+
+    private static final BufferedImage PHOTO = photo(400, 300);
+
+    @Test
+    @DisplayName("✅ max-bytes: Debería elegir una calidad que quepa en el presupuesto sin pasar del máximo de intentos")
+    void shouldFitByteBudget() throws Exception {
+        // Arrange
+        int budget = jpegSize(PHOTO, 0.6f);
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, budget, 0, 6, 0.3f, 0.95f, 256);
+
+        // Act
+        QualityTargetEncoder.Encoded encoded = encoder.encode(PHOTO, "jpg", Deadline.none());
+
+        // Assert
+        ImageEncoding encoding = encoded.encoding();
+        assertThat(encoded.bytes().length).isLessThanOrEqualTo(budget);
+        assertThat(encoding.format()).isEqualTo("jpeg");
+        assertThat(encoding.quality()).isBetween(0.5f, 0.95f);
+        assertThat(encoding.attempts()).isBetween(2, 6);
+        assertThat(encoding.ssim()).isBetween(0.5, 1.0);
+        assertThat(ImageIO.read(new ByteArrayInputStream(encoded.bytes())).getWidth()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("✅ max-bytes: Si la calidad máxima ya cabe debería quedarse con ella en un solo intento")
+    void shouldStopAfterFirstAttemptWhenMaxQualityFits() throws Exception {
+        // Arrange
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, 10_000_000, 0, 6, 0.3f, 0.9f, 256);
+
+        // Act
+        QualityTargetEncoder.Encoded encoded = encoder.encode(PHOTO, "jpeg", Deadline.none());
+
+        // Assert
+        assertThat(encoded.encoding().attempts()).isEqualTo(1);
+        assertThat(encoded.encoding().quality()).isEqualTo(0.9f);
+    }
+
+    @Test
+    @DisplayName("✅ max-bytes: Con un presupuesto imposible debería devolver la codificación más pequeña probada")
+    void shouldReturnSmallestAttemptWhenBudgetIsUnreachable() throws Exception {
+        // Arrange
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, 10, 0, 4, 0.3f, 0.9f, 256);
+
+        // Act
+        QualityTargetEncoder.Encoded encoded = encoder.encode(PHOTO, "jpeg", Deadline.none());
+
+        // Assert
+        assertThat(encoded.encoding().attempts()).isEqualTo(4);
+        assertThat(encoded.encoding().quality()).isLessThan(0.4f);
+        assertThat(encoded.bytes().length).isLessThan(jpegSize(PHOTO, 0.6f));
+    }
+
+    @Test
+    @DisplayName("✅ min-ssim: Debería llegar al SSIM pedido con menos bytes que la calidad máxima")
+    void shouldReachMinimumSsimWithFewerBytes() throws Exception {
+        // Arrange
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MIN_SSIM, 0, 0.9, 6, 0.1f, 0.95f, 256);
+
+        // Act
+        QualityTargetEncoder.Encoded encoded = encoder.encode(PHOTO, "jpeg", Deadline.none());
+
+        // Assert
+        assertThat(encoded.encoding().ssim()).isGreaterThanOrEqualTo(0.9);
+        assertThat(encoded.encoding().attempts()).isLessThanOrEqualTo(6);
+        assertThat(encoded.bytes().length).isLessThan(jpegSize(PHOTO, 0.95f));
+    }
+
+    @Test
+    @DisplayName("✅ appliesTo: Solo con objetivo configurado y formatos con pérdida")
+    void shouldApplyOnlyToLossyFormatsWithTarget() {
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, 1000, 0, 6, 0.3f, 0.9f, 256);
+        QualityTargetEncoder disabled = new QualityTargetEncoder("none", 1000, 0.95, 6, 0.3f, 0.9f, 256);
+
+        assertThat(encoder.appliesTo("JPEG")).isTrue();
+        assertThat(encoder.appliesTo("jpg")).isTrue();
+        assertThat(encoder.appliesTo("png")).isFalse();
+        assertThat(encoder.appliesTo(null)).isFalse();
+        assertThat(disabled.appliesTo("jpeg")).isFalse();
+    }
+
+    @Test
+    @DisplayName("✅ SSIM: 1 para la misma imagen y menos cuanto más ruido se añade")
+    void shouldRankDistortionWithSsim() {
+        Ssim.Reference reference = Ssim.reference(PHOTO, 128);
+
+        double identical = Ssim.compare(reference, PHOTO);
+        double slightNoise = Ssim.compare(reference, withNoise(PHOTO, 8));
+        double heavyNoise = Ssim.compare(reference, withNoise(PHOTO, 64));
+
+        assertThat(identical).isCloseTo(1.0, within(1e-9));
+        assertThat(slightNoise).isLessThan(identical).isGreaterThan(heavyNoise);
+    }
+
+    @Test
+    @DisplayName("✅ processImage: Con objetivo de bytes el adaptador debería respetarlo y devolver la codificación elegida")
+    void shouldRecordEncodingThroughAdapter() throws Exception {
+        // Arrange
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(PHOTO, "jpeg", original);
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, 6000, 0, 6, 0.2f, 0.95f, 256);
+        ThumbnailatorImageProcessorAdapter adapter = new ThumbnailatorImageProcessorAdapter(ProcessingMetrics.noop(),
+                DefaultResizerFactory.getInstance(), encoder);
+
+        // Act
+        ImageProcessorPort.ProcessedImage processed = adapter.processImage(new ByteArrayInputStream(original.toByteArray()),
+                new ImageResolution(200, 150), Deadline.none());
+
+        // Assert
+        assertThat(processed.imageBytes().length).isLessThanOrEqualTo(6000);
+        assertThat(processed.encoding()).isNotNull();
+        assertThat(processed.encoding().format()).isEqualTo("jpeg");
+        assertThat(ImageIO.read(new ByteArrayInputStream(processed.imageBytes())).getWidth()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("✅ processImage: Un PNG se codifica como siempre y sin codificación registrada")
+    void shouldLeaveLosslessFormatsUntouched() throws Exception {
+        // Arrange
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(PHOTO, "png", original);
+        QualityTargetEncoder encoder = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, 6000, 0, 6, 0.2f, 0.95f, 256);
+        ThumbnailatorImageProcessorAdapter withTarget = new ThumbnailatorImageProcessorAdapter(ProcessingMetrics.noop(),
+                DefaultResizerFactory.getInstance(), encoder);
+        ThumbnailatorImageProcessorAdapter plain = new ThumbnailatorImageProcessorAdapter(ProcessingMetrics.noop());
+
+        // Act
+        ImageProcessorPort.ProcessedImage processed = withTarget.processImage(new ByteArrayInputStream(original.toByteArray()),
+                new ImageResolution(200, 150), Deadline.none());
+
+        // Assert
+        assertThat(processed.encoding()).isNull();
+        assertThat(processed.imageBytes()).isEqualTo(plain.resizeImage(new ByteArrayInputStream(original.toByteArray()),
+                new ImageResolution(200, 150)));
+    }
+
+    // Degradados con textura, para que la calidad JPEG cambie el tamaño de forma apreciable
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24);
+                int r = Math.min(255, (x * 255 / width) + noise);
+                int g = Math.min(255, (y * 255 / height) + noise);
+                int b = Math.min(255, (int) (128 + 100 * Math.sin(x / 9.0) * Math.cos(y / 7.0)) + noise / 2);
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage withNoise(BufferedImage image, int amplitude) {
+        BufferedImage noisy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                int delta = random.nextInt(2 * amplitude + 1) - amplitude;
+                int r = Math.max(0, Math.min(255, ((rgb >> 16) & 0xFF) + delta));
+                int g = Math.max(0, Math.min(255, ((rgb >> 8) & 0xFF) + delta));
+                int b = Math.max(0, Math.min(255, (rgb & 0xFF) + delta));
+                noisy.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        return noisy;
+    }
+
+    private static int jpegSize(BufferedImage image, float quality) throws Exception {
+        QualityTargetEncoder fixed = new QualityTargetEncoder(QualityTargetEncoder.Target.MAX_BYTES, Long.MAX_VALUE, 0, 1,
+                quality, quality, 256);
+        return fixed.encode(image, "jpeg", Deadline.none()).bytes().length;
+    }
+}
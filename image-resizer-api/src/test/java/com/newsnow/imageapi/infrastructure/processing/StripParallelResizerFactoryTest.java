@@ -0,0 +1,130 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import net.coobird.thumbnailator.resizers.DefaultResizerFactory;
+import net.coobird.thumbnailator.resizers.Resizer;
+import net.coobird.thumbnailator.resizers.ResizerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripParallelResizerFactoryTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("✅ StripParallel: Debería delegar en el DefaultResizerFactory por debajo del umbral y al ampliar")
+    void shouldDelegateToDefaultFactoryForSmallImagesAndUpscaling() {
+        // Arrange
+        StripParallelResizerFactory factory = new StripParallelResizerFactory(pool, 1_000_000, 64);
+        ResizerFactory defaults = DefaultResizerFactory.getInstance();
+
+        // Act & Assert
+        assertThat(factory.getResizer(new Dimension(800, 600), new Dimension(80, 60)))
+                .isSameAs(defaults.getResizer(new Dimension(800, 600), new Dimension(80, 60)));
+        assertThat(factory.getResizer(new Dimension(2000, 1500), new Dimension(4000, 3000)))
+                .isSameAs(defaults.getResizer(new Dimension(2000, 1500), new Dimension(4000, 3000)));
+        assertThat(factory.getResizer(new Dimension(2000, 1500), new Dimension(200, 150)))
+                .isInstanceOf(StripParallelResizerFactory.StripParallelResizer.class);
+    }
+
+    @Test
+    @DisplayName("✅ StripParallel: Debería repartir las bandas entre varios hilos y dar el mismo resultado que el resize secuencial")
+    void shouldResampleStripsInParallelMatchingSequentialResize() {
+        // Arrange
+        BufferedImage source = gradient(2400, 1800);
+        Dimension original = new Dimension(source.getWidth(), source.getHeight());
+        Dimension thumbnail = new Dimension(300, 225);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Resizer parallel = new StripParallelResizerFactory(pool, 1, 4).getResizer(original, thumbnail);
+        BufferedImage parallelResult = new ThreadRecordingImage(thumbnail.width, thumbnail.height, threads);
+        BufferedImage sequentialResult = new BufferedImage(thumbnail.width, thumbnail.height, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        parallel.resize(source, parallelResult);
+        DefaultResizerFactory.getInstance().getResizer(original, thumbnail).resize(source, sequentialResult);
+
+        // Assert: mismos pasos bilineales; solo puede variar el redondeo en los bordes de banda
+        assertThat(threads).hasSizeGreaterThan(1);
+        assertThat(maxChannelDifference(parallelResult, sequentialResult)).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("✅ StripParallel: Debería usarse desde el adaptador para imágenes por encima del umbral")
+    void shouldBeUsedByAdapterAboveThreshold() throws Exception {
+        // Arrange
+        ThumbnailatorImageProcessorAdapter adapter = new ThumbnailatorImageProcessorAdapter(
+                ProcessingMetrics.noop(), new StripParallelResizerFactory(pool, 1_000_000, 64));
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(gradient(1600, 1200), "png", original);
+
+        // Act
+        byte[] resized = adapter.resizeImage(new ByteArrayInputStream(original.toByteArray()), new ImageResolution(160, 120));
+
+        // Assert
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(resized));
+        assertThat(result.getWidth()).isEqualTo(160);
+        assertThat(result.getHeight()).isEqualTo(120);
+        assertThat(new Color(result.getRGB(0, 0)).getRed()).isGreaterThan(200);
+        assertThat(new Color(result.getRGB(159, 119)).getBlue()).isGreaterThan(200);
+    }
+
+    private static BufferedImage gradient(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static int maxChannelDifference(BufferedImage a, BufferedImage b) {
+        int max = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int p = a.getRGB(x, y);
+                int q = b.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    max = Math.max(max, Math.abs(((p >> shift) & 0xFF) - ((q >> shift) & 0xFF)));
+                }
+            }
+        }
+        return max;
+    }
+
+    // Destino que anota desde qué hilos se pinta: cada banda crea su propio Graphics2D
+    private static final class ThreadRecordingImage extends BufferedImage {
+        private final Set<String> threads;
+
+        private ThreadRecordingImage(int width, int height, Set<String> threads) {
+            super(width, height, BufferedImage.TYPE_INT_RGB);
+            this.threads = threads;
+        }
+
+        @Override
+        public Graphics2D createGraphics() {
+            threads.add(Thread.currentThread().getName());
+            return super.createGraphics();
+        }
+    }
+}
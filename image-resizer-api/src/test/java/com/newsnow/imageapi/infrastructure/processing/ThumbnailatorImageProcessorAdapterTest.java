@@ -0,0 +1,162 @@
+package com.newsnow.imageapi.infrastructure.processing;
+
+import com.newsnow.imageapi.application.metrics.ProcessingMetrics;
+import com.newsnow.imageapi.application.metrics.jfr.DecodeEvent;
+import com.newsnow.imageapi.application.metrics.jfr.EncodeEvent;
+import com.newsnow.imageapi.application.metrics.jfr.ResizeEvent;
+import com.newsnow.imageapi.application.metrics.jfr.TaskEventContext;
+import com.newsnow.imageapi.domain.model.Deadline;
+import com.newsnow.imageapi.domain.model.ImagePlaceholder;
+import com.newsnow.imageapi.domain.model.ImageResolution;
+import com.newsnow.imageapi.domain.port.out.ImageProcessorPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.coobird.thumbnailator.Thumbnails;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailatorImageProcessorAdapterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThumbnailatorImageProcessorAdapter adapter = new ThumbnailatorImageProcessorAdapter(new ProcessingMetrics(meterRegistry));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpeg", "png", "bmp"})
+    @DisplayName("✅ resizeImage: Debería producir los mismos bytes que Thumbnails.of(...).size(...)")
+    void shouldMatchThumbnailsBuilderOutput(String format) throws Exception {
+        byte[] original = sampleImage(format, 320, 240);
+
+        byte[] resized = adapter.resizeImage(new ByteArrayInputStream(original), new ImageResolution(80, 60));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Thumbnails.of(new ByteArrayInputStream(original)).size(80, 60).toOutputStream(expected);
+        assertThat(resized).isEqualTo(expected.toByteArray());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"decode", "resize", "encode"})
+    @DisplayName("✅ resizeImage: Debería medir decode, resize y encode por separado con formato y tramo de tamaño")
+    void shouldRecordDecodeResizeAndEncodeStages(String stage) throws Exception {
+        byte[] original = sampleImage("png", 320, 240);
+
+        adapter.resizeImage(new ByteArrayInputStream(original), new ImageResolution(80, 60));
+
+        assertThat(meterRegistry.get("image_resizer.stage")
+                .tags("stage", stage, "format", "png", "size", ProcessingMetrics.sizeBucket(original.length))
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("image_resizer.stage.bytes").tags("stage", stage)
+                .summary().totalAmount()).isEqualTo(original.length);
+        // Terminado el redimensionado no quedan bytes "en proceso"
+        assertThat(meterRegistry.get("image_resizer.processing.bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ resizeImage: Debería emitir eventos JFR de decode, resize y encode con el ID de tarea, aunque procese otro hilo")
+    void shouldEmitJfrEventsWithTaskIdAcrossCpuPool(@TempDir Path tempDir) throws Exception {
+        byte[] original = sampleImage("png", 320, 240);
+        Path dump = tempDir.resolve("pipeline.jfr");
+
+        try (Reader profile = new InputStreamReader(getClass().getResourceAsStream("/jfr/image-resizer.jfc"), StandardCharsets.UTF_8);
+             Recording recording = new Recording(Configuration.create(profile));
+             CpuBoundImageProcessor processor = new CpuBoundImageProcessor(adapter, 1)) {
+            // El perfil deja fuera las etapas de menos de 1 ms: aquí interesan todas
+            for (String event : List.of(DecodeEvent.NAME, ResizeEvent.NAME, EncodeEvent.NAME)) {
+                recording.enable(event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            byte[] resized = TaskEventContext.call("task-42",
+                    () -> processor.resizeImage(new ByteArrayInputStream(original), new ImageResolution(80, 60)));
+            recording.stop();
+            recording.dump(dump);
+
+            Map<String, RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("ImageResizer."))
+                    .collect(Collectors.toMap(event -> event.getEventType().getName(), Function.identity()));
+            assertThat(events).containsOnlyKeys(DecodeEvent.NAME, ResizeEvent.NAME, EncodeEvent.NAME);
+            assertThat(events.values()).allSatisfy(event -> {
+                assertThat(event.getString("taskId")).isEqualTo("task-42");
+                assertThat(event.getThread().getJavaName()).startsWith("image-cpu-");
+                assertThat(event.getLong("allocatedBytes")).isPositive();
+            });
+            RecordedEvent decode = events.get(DecodeEvent.NAME);
+            assertThat(decode.getString("format")).isEqualTo("png");
+            assertThat(decode.getLong("inputBytes")).isEqualTo(original.length);
+            assertThat(decode.getInt("width")).isEqualTo(320);
+            RecordedEvent resize = events.get(ResizeEvent.NAME);
+            assertThat(resize.getInt("sourceHeight")).isEqualTo(240);
+            assertThat(resize.getInt("width")).isEqualTo(80);
+            RecordedEvent encode = events.get(EncodeEvent.NAME);
+            assertThat(encode.getString("format")).isEqualTo("png");
+            assertThat(encode.getLong("outputBytes")).isEqualTo(resized.length);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ processImage: Debería devolver la misma imagen que resizeImage más su BlurHash y vista previa")
+    void shouldProducePlaceholderFromSameDecode() throws Exception {
+        byte[] original = sampleImage("png", 320, 240);
+
+        ImageProcessorPort.ProcessedImage processed = adapter.processImage(new ByteArrayInputStream(original),
+                new ImageResolution(80, 60), Deadline.none());
+
+        assertThat(processed.imageBytes()).isEqualTo(adapter.resizeImage(new ByteArrayInputStream(original), new ImageResolution(80, 60)));
+        ImagePlaceholder placeholder = processed.placeholder();
+        // Tamaño (1) + máximo AC (1) + DC (4) + 2 por cada uno de los 4x3 - 1 componentes AC
+        assertThat(placeholder.blurHash()).hasSize(28).startsWith("L");
+        assertThat(placeholder.previewDataUri()).startsWith("data:image/png;base64,");
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(
+                placeholder.previewDataUri().substring("data:image/png;base64,".length()))));
+        assertThat(preview.getWidth()).isEqualTo(16);
+        assertThat(preview.getHeight()).isEqualTo(12);
+        assertThat(meterRegistry.get("image_resizer.stage").tags("stage", "placeholder").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("✅ BlurHash: Una imagen de un solo color debería codificar ese color en el DC y ningún detalle en los AC")
+    void shouldEncodeSolidColourBlurHash() {
+        BufferedImage solid = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                solid.setRGB(x, y, 0xFF0000);
+            }
+        }
+
+        // 1x1 componentes: "0" (tamaño), "0" (sin AC) y 0xFF0000 en base 83 con 4 dígitos
+        assertThat(BlurHash.encode(solid, 1, 1)).isEqualTo("00TI:j");
+    }
+
+    private static byte[] sampleImage(String format, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x & 0xFF) << 16 | (y & 0xFF) << 8 | 0x40);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ImageIO.write(image, format, out)).as("writer for " + format).isTrue();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+package com.newsnow.imageapi.infrastructure.queue;
+
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileWorkQueueTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("✅ FileWorkQueue: Debería entregar en orden lo encolado, repartido en varios segmentos")
+    void shouldDeliverItemsInOrderAcrossSegments() throws Exception {
+        // Arrange
+        try (FileWorkQueue queue = new FileWorkQueue(directory, 1024, false)) {
+            List<WorkQueuePort.WorkItem> items = items(100);
+            items.forEach(queue::enqueue);
+
+            // Act
+            List<WorkQueuePort.WorkItem> delivered = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                delivered.add(queue.poll(Duration.ofMillis(100)).orElseThrow().item());
+            }
+
+            // Assert
+            assertThat(delivered).containsExactlyElementsOf(items);
+            assertThat(segmentCount()).isGreaterThan(1);
+            assertThat(queue.poll(Duration.ofMillis(10))).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("✅ FileWorkQueue: Debería volver a entregar tras reiniciar desde la primera entrega sin confirmar")
+    void shouldRedeliverFromCheckpointAfterRestart() throws Exception {
+        // Arrange: se confirman todas menos la tercera
+        List<WorkQueuePort.WorkItem> items = items(5);
+        try (FileWorkQueue queue = new FileWorkQueue(directory, 1024 * 1024, true)) {
+            items.forEach(queue::enqueue);
+            for (int i = 0; i < items.size(); i++) {
+                WorkQueuePort.Delivery delivery = queue.poll(Duration.ofMillis(100)).orElseThrow();
+                if (i != 2) {
+                    queue.acknowledge(delivery);
+                }
+            }
+        }
+
+        // Act
+        List<WorkQueuePort.WorkItem> redelivered = new ArrayList<>();
+        try (FileWorkQueue restarted = new FileWorkQueue(directory, 1024 * 1024, true)) {
+            restarted.poll(Duration.ofMillis(10)).ifPresent(delivery -> redelivered.add(delivery.item()));
+            restarted.poll(Duration.ofMillis(10)).ifPresent(delivery -> redelivered.add(delivery.item()));
+            restarted.poll(Duration.ofMillis(10)).ifPresent(delivery -> redelivered.add(delivery.item()));
+        }
+
+        // Assert: al menos una vez (las confirmadas detrás de la pendiente también vuelven)
+        assertThat(redelivered).containsExactlyElementsOf(items.subList(2, 5));
+    }
+
+    @Test
+    @DisplayName("✅ FileWorkQueue: Debería borrar los segmentos ya confirmados y conservar el último")
+    void shouldDeleteAcknowledgedSegments() throws Exception {
+        // Arrange
+        try (FileWorkQueue queue = new FileWorkQueue(directory, 1024, false)) {
+            items(100).forEach(queue::enqueue);
+            long segmentsBefore = segmentCount();
+
+            // Act
+            WorkQueuePort.Delivery delivery;
+            while ((delivery = queue.poll(Duration.ofMillis(10)).orElse(null)) != null) {
+                queue.acknowledge(delivery);
+            }
+
+            // Assert
+            assertThat(segmentsBefore).isGreaterThan(1);
+            assertThat(segmentCount()).isEqualTo(1);
+            assertThat(Files.readString(directory.resolve("checkpoint"))).isEqualTo(Long.toString(queue.checkpoint()));
+        }
+    }
+
+    @Test
+    @DisplayName("✅ FileWorkQueue: Debería recibir lo que encola otra instancia (otro proceso) sobre el mismo directorio")
+    void shouldDeliverItemsAppendedByAnotherProducer() throws Exception {
+        // Arrange
+        try (FileWorkQueue consumer = new FileWorkQueue(directory, 1024 * 1024, false);
+             FileWorkQueue producer = new FileWorkQueue(directory, 1024 * 1024, false)) {
+            assertThat(consumer.poll(Duration.ofMillis(10))).isEmpty();
+            WorkQueuePort.WorkItem item = new WorkQueuePort.WorkItem(UUID.randomUUID(), "https://cdn.example.com/originals/a.png", null);
+
+            // Act
+            producer.enqueue(item);
+
+            // Assert
+            assertThat(consumer.poll(Duration.ofSeconds(2))).map(WorkQueuePort.Delivery::item).contains(item);
+        }
+    }
+
+    @Test
+    @DisplayName("❌ FileWorkQueue: Debería impedir un segundo consumidor sobre el mismo directorio")
+    void shouldRejectSecondConsumer() throws Exception {
+        // Arrange
+        try (FileWorkQueue first = new FileWorkQueue(directory, 1024 * 1024, false);
+             FileWorkQueue second = new FileWorkQueue(directory, 1024 * 1024, false)) {
+            first.poll(Duration.ZERO);
+
+            // Act & Assert
+            assertThatThrownBy(() -> second.poll(Duration.ZERO))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("already has a consumer");
+        }
+    }
+
+    @Test
+    @DisplayName("❓ FileWorkQueue: Un registro a medias (productor cortado) no debería bloquear ni hacer perder los siguientes")
+    void shouldRecoverFromTornAppend() throws Exception {
+        // Arrange: un registro completo y, detrás, la cabecera y parte de los datos de otro
+        List<WorkQueuePort.WorkItem> items = items(3);
+        try (FileWorkQueue queue = new FileWorkQueue(directory, 1024 * 1024, false)) {
+            queue.enqueue(items.get(0));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        long validBytes = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 9, 9, 9}, StandardOpenOption.APPEND);
+
+        // Act: otro productor (otra instancia) encola detrás
+        try (FileWorkQueue producer = new FileWorkQueue(directory, 1024 * 1024, false)) {
+            producer.enqueue(items.get(1));
+            producer.enqueue(items.get(2));
+        }
+        List<WorkQueuePort.WorkItem> delivered = new ArrayList<>();
+        try (FileWorkQueue consumer = new FileWorkQueue(directory, 1024 * 1024, false)) {
+            for (int i = 0; i < items.size(); i++) {
+                consumer.poll(Duration.ofMillis(100)).ifPresent(delivery -> delivered.add(delivery.item()));
+            }
+        }
+
+        // Assert: el registro a medias se truncó y lo encolado después se entrega entero
+        assertThat(delivered).containsExactlyElementsOf(items);
+        assertThat(Files.size(segment)).isGreaterThan(validBytes);
+    }
+
+    private static List<WorkQueuePort.WorkItem> items(int count) {
+        List<WorkQueuePort.WorkItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new WorkQueuePort.WorkItem(UUID.randomUUID(), "https://cdn.example.com/originals/" + i + ".jpg",
+                    i % 2 == 0 ? "photo-" + i + ".jpg" : null));
+        }
+        return items;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+}
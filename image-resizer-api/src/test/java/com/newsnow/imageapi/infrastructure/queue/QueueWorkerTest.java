@@ -0,0 +1,72 @@
+package com.newsnow.imageapi.infrastructure.queue;
+
+import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.application.usecase.TaskRejectedException;
+import com.newsnow.imageapi.domain.port.out.ImageProcessingException;
+import com.newsnow.imageapi.domain.port.out.WorkQueuePort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class QueueWorkerTest {
+
+    @Test
+    @DisplayName("✅ QueueWorker: Debería procesar cada elemento con el caso de uso y confirmarlo aunque falle")
+    void shouldProcessAndAcknowledgeEveryDelivery() throws Exception {
+        // Arrange: la segunda tarea falla, pero su entrega también se confirma
+        InMemoryWorkQueue queue = spy(new InMemoryWorkQueue(10, 5));
+        TaskUseCase taskUseCase = mock(TaskUseCase.class);
+        WorkQueuePort.WorkItem ok = new WorkQueuePort.WorkItem(UUID.randomUUID(), "https://cdn.example.com/originals/a.jpg", "a.jpg");
+        WorkQueuePort.WorkItem failing = new WorkQueuePort.WorkItem(UUID.randomUUID(), "https://cdn.example.com/originals/b.jpg", "b.jpg");
+        doThrow(new ImageProcessingException("Processing Error")).when(taskUseCase).processQueuedTask(failing);
+        queue.enqueue(ok);
+        queue.enqueue(failing);
+        QueueWorker worker = new QueueWorker(queue, taskUseCase, true, 2, Duration.ofMillis(50));
+
+        // Act
+        worker.start();
+        try {
+            verify(taskUseCase, timeout(5000)).processQueuedTask(ok);
+            verify(taskUseCase, timeout(5000)).processQueuedTask(failing);
+            verify(queue, timeout(5000).times(2)).acknowledge(any());
+        } finally {
+            worker.stop();
+        }
+
+        // Assert
+        assertThat(worker.isRunning()).isFalse();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("✅ QueueWorker: Si el carril de la tarea está lleno, debería reintentar la misma entrega antes de confirmarla")
+    void shouldRetryDeliveryRejectedByLane() throws Exception {
+        // Arrange: el primer intento encuentra el carril lleno
+        InMemoryWorkQueue queue = spy(new InMemoryWorkQueue(10, 5));
+        TaskUseCase taskUseCase = mock(TaskUseCase.class);
+        WorkQueuePort.WorkItem item = new WorkQueuePort.WorkItem(UUID.randomUUID(), "https://cdn.example.com/originals/a.jpg", "a.jpg");
+        doThrow(new TaskRejectedException("Task queue for large images is full. Please retry later.", 1))
+                .doNothing()
+                .when(taskUseCase).processQueuedTask(item);
+        queue.enqueue(item);
+        QueueWorker worker = new QueueWorker(queue, taskUseCase, true, 1, Duration.ofMillis(50));
+
+        // Act
+        worker.start();
+        try {
+            verify(taskUseCase, timeout(5000).times(2)).processQueuedTask(item);
+            verify(queue, timeout(5000)).acknowledge(any());
+        } finally {
+            worker.stop();
+        }
+
+        // Assert
+        verify(queue, times(1)).acknowledge(any());
+        assertThat(queue.size()).isZero();
+    }
+}
@@ -8,8 +8,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.newsnow.imageapi.domain.port.out.ImageStorageException;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse; // Mockear respuesta
 
@@ -18,6 +22,7 @@ import java.io.InputStream;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -76,7 +81,7 @@ class S3ImageStorageAdapterTest {
         PutObjectRequest actualRequest = putRequestCaptor.getValue();
         assertThat(actualRequest.bucket()).isEqualTo(testBucketName);
         assertThat(actualRequest.key()).isEqualTo("processed/" + testFilename);
-        // Podríamos verificar ContentType, ACL si los configuráramos
+        assertThat(actualRequest.contentType()).isEqualTo("image/jpeg");
 
         // 3. Verificar RequestBody (más difícil de verificar contenido exacto sin leerlo)
         RequestBody actualBody = requestBodyCaptor.getValue();
@@ -87,4 +92,30 @@ class S3ImageStorageAdapterTest {
         String expectedUrl = String.format("https://%s/processed/%s", testCloudfrontDomain, testFilename); // Usar dominio CF de prueba
         assertThat(resultUrl).isEqualTo(expectedUrl);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("✅ S3 Adapter loadImage(): Debería leer el objeto correspondiente a la URL de CloudFront")
+    void loadImageShouldGetObjectForCloudfrontUrl() {
+        // Arrange
+        when(s3ClientMock.getObjectAsBytes(any(GetObjectRequest.class)))
+                .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), testData));
+        String imageUrl = String.format("https://%s/processed/%s", testCloudfrontDomain, testFilename);
+
+        // Act
+        byte[] image = adapter.loadImage(imageUrl);
+
+        // Assert
+        ArgumentCaptor<GetObjectRequest> getRequestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3ClientMock).getObjectAsBytes(getRequestCaptor.capture());
+        assertThat(getRequestCaptor.getValue().bucket()).isEqualTo(testBucketName);
+        assertThat(getRequestCaptor.getValue().key()).isEqualTo("processed/" + testFilename);
+        assertThat(image).isEqualTo(testData);
+    }
+
+    @Test
+    @DisplayName("❌ S3 Adapter loadImage(): Debería rechazar URLs que no son de este almacenamiento")
+    void loadImageShouldRejectForeignUrl() {
+        assertThatThrownBy(() -> adapter.loadImage("https://other.example.com/processed/" + testFilename))
+                .isInstanceOf(ImageStorageException.class);
+    }
+}
@@ -1,7 +1,10 @@
 package com.newsnow.imageapi.infrastructure.web.controller;
 
+import com.newsnow.imageapi.application.dto.TaskImage;
 import com.newsnow.imageapi.application.dto.TaskResponse;
+import com.newsnow.imageapi.application.ingest.ImageIngestor;
 import com.newsnow.imageapi.application.port.in.TaskUseCase;
+import com.newsnow.imageapi.application.usecase.IdempotencyKeyConflictException;
 import com.newsnow.imageapi.domain.port.out.ImageProcessingException; // Importar para simular error
 import com.newsnow.imageapi.infrastructure.web.exception.GlobalExceptionHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,20 +13,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.io.IOException; // Importar para mockear error
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +43,8 @@ class TaskControllerTest {
 
     @Mock
     private TaskUseCase taskUseCase;
+    @Spy
+    private ImageIngestor imageIngestor = new ImageIngestor(1024 * 1024);
 
     @InjectMocks
     private TaskController taskController;
@@ -84,6 +96,55 @@ class TaskControllerTest {
         verify(taskUseCase, times(1)).createTask(any(com.newsnow.imageapi.application.dto.CreateTaskRequest.class));
     }
 
+    @Test
+    @DisplayName("✅ POST /v1/task: Debería devolver 202 Accepted con la tarea PENDING en modo asíncrono")
+    void shouldReturn202WhenAsyncModeIsEnabled() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(taskController, "asyncEnabled", true);
+        TaskResponse pendingResponse = new TaskResponse(
+                sampleTaskId, OffsetDateTime.now(), "md5hash", "100x50", null, "PENDING"
+        );
+        when(taskUseCase.submitTask(any(com.newsnow.imageapi.application.dto.CreateTaskRequest.class)))
+                .thenReturn(pendingResponse);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/v1/task")
+                        .file(sampleMultipartFile)
+                        .param("width", "100")
+                        .param("height", "50")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/v1/task/" + sampleTaskId))
+                .andExpect(jsonPath("$.status", is("PENDING")));
+
+        verify(taskUseCase, never()).createTask(any());
+    }
+
+    @Test
+    @DisplayName("✅ POST /v1/task: Debería encolar la tarea para los workers y devolver 202 si la cola está habilitada")
+    void shouldEnqueueTaskWhenWorkQueueIsEnabled() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(taskController, "queueEnabled", true);
+        TaskResponse pendingResponse = new TaskResponse(
+                sampleTaskId, OffsetDateTime.now(), "md5hash", "100x50", null, "PENDING"
+        );
+        when(taskUseCase.enqueueTask(any(com.newsnow.imageapi.application.dto.CreateTaskRequest.class)))
+                .thenReturn(pendingResponse);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/v1/task")
+                        .file(sampleMultipartFile)
+                        .param("width", "100")
+                        .param("height", "50")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/v1/task/" + sampleTaskId))
+                .andExpect(jsonPath("$.status", is("PENDING")));
+
+        verify(taskUseCase, never()).submitTask(any());
+        verify(taskUseCase, never()).createTask(any());
+    }
+
     @Test
     @DisplayName("✅ POST /v1/task: Debería devolver 400 Bad Request si falta el archivo") // Corregido nombre
     void shouldReturn400WhenFileIsMissing() throws Exception {
@@ -165,6 +226,44 @@ class TaskControllerTest {
     }
 
 
+    @Test
+    @DisplayName("✅ POST /v1/task: Debería pasar la cabecera Idempotency-Key al caso de uso")
+    void shouldPassIdempotencyKeyToUseCase() throws Exception {
+        // Arrange
+        when(taskUseCase.createTask(any(com.newsnow.imageapi.application.dto.CreateTaskRequest.class)))
+                .thenReturn(sampleTaskResponse);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/v1/task")
+                        .file(sampleMultipartFile)
+                        .param("width", "100")
+                        .param("height", "50")
+                        .header("Idempotency-Key", "retry-123")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.taskId", is(sampleTaskId.toString())));
+
+        verify(taskUseCase).createTask(argThat(request -> "retry-123".equals(request.getIdempotencyKey())));
+    }
+
+    @Test
+    @DisplayName("❌ POST /v1/task: Debería devolver 422 si la Idempotency-Key se reutiliza con otra imagen")
+    void shouldReturn422WhenIdempotencyKeyConflicts() throws Exception {
+        // Arrange
+        when(taskUseCase.createTask(any(com.newsnow.imageapi.application.dto.CreateTaskRequest.class)))
+                .thenThrow(new IdempotencyKeyConflictException("Idempotency-Key was already used with a different image or resolution."));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/v1/task")
+                        .file(sampleMultipartFile)
+                        .param("width", "100")
+                        .param("height", "50")
+                        .header("Idempotency-Key", "retry-123")
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status", is(422)));
+    }
+
     @Test
     @DisplayName("✅ GET /v1/task/{taskId}: Debería devolver 200 OK con TaskResponse si la tarea existe")
     void shouldReturn200AndTaskResponseWhenTaskExists() throws Exception {
@@ -196,6 +295,32 @@ class TaskControllerTest {
         verify(taskUseCase, times(1)).getTaskById(sampleTaskId);
     }
 
+    @Test
+    @DisplayName("✅ GET /v1/task/{taskId}/image: Debería devolver los bytes de la imagen con su content type")
+    void shouldReturnTaskImageBytes() throws Exception {
+        // Arrange
+        byte[] imageBytes = {1, 2, 3};
+        when(taskUseCase.getTaskImage(sampleTaskId)).thenReturn(Optional.of(new TaskImage(imageBytes, "image/png")));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/task/{taskId}/image", sampleTaskId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(content().bytes(imageBytes));
+    }
+
+    @Test
+    @DisplayName("✅ GET /v1/task/{taskId}/image: Debería devolver 404 si la tarea no tiene imagen")
+    void shouldReturn404WhenTaskHasNoImage() throws Exception {
+        // Arrange
+        when(taskUseCase.getTaskImage(sampleTaskId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/task/{taskId}/image", sampleTaskId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("✅ GET /v1/task/{taskId}: Debería devolver 400 Bad Request si el formato de taskId es inválido") // Corregido nombre
     void shouldReturn400WhenTaskIdIsInvalidFormat() throws Exception {
@@ -216,4 +341,39 @@ class TaskControllerTest {
 
         verify(taskUseCase, never()).getTaskById(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("✅ GET /v1/task/{taskId}/wait: Debería responder 200 con la tarea cuando termina")
+    void shouldReturn200WhenWaitedTaskCompletes() throws Exception {
+        // Arrange
+        when(taskUseCase.awaitTask(eq(sampleTaskId), any(Duration.class)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(sampleTaskResponse)));
+
+        // Act & Assert: petición asíncrona del servlet
+        MvcResult pending = mockMvc.perform(get("/v1/task/{taskId}/wait", sampleTaskId).param("timeout", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taskId", is(sampleTaskId.toString())));
+
+        verify(taskUseCase).awaitTask(sampleTaskId, Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("✅ GET /v1/task/{taskId}/wait: Debería limitar el timeout al máximo configurado")
+    void shouldCapWaitTimeoutAtConfiguredMaximum() throws Exception {
+        // Arrange
+        when(taskUseCase.awaitTask(eq(sampleTaskId), any(Duration.class)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // Act & Assert
+        MvcResult pending = mockMvc.perform(get("/v1/task/{taskId}/wait", sampleTaskId).param("timeout", "3600"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isNotFound());
+
+        verify(taskUseCase).awaitTask(sampleTaskId, Duration.ofSeconds(60));
+    }
+}
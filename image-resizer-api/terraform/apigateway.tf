@@ -48,6 +48,13 @@ resource "aws_api_gateway_resource" "task_id_resource" {
   path_part   = "{taskId}"
 }
 
+# Crear el recurso '/tasks' bajo '/v1' (envío por lotes)
+resource "aws_api_gateway_resource" "tasks_resource" {
+  rest_api_id = aws_api_gateway_rest_api.rest_api.id
+  parent_id   = aws_api_gateway_resource.v1_resource.id
+  path_part   = "tasks"
+}
+
 # Crear el método POST en '/v1/task'
 resource "aws_api_gateway_method" "post_task_method" {
   rest_api_id   = aws_api_gateway_rest_api.rest_api.id
@@ -75,6 +82,15 @@ resource "aws_api_gateway_method" "get_task_method" {
   }
 }
 
+# Crear el método POST en '/v1/tasks'
+resource "aws_api_gateway_method" "post_tasks_method" {
+  rest_api_id   = aws_api_gateway_rest_api.rest_api.id
+  resource_id   = aws_api_gateway_resource.tasks_resource.id
+  http_method   = "POST"
+  authorization = "COGNITO_USER_POOLS"
+  authorizer_id = aws_api_gateway_authorizer.cognito_authorizer_rest.id
+}
+
 # Crear Authorizer de tipo COGNITO_USER_POOLS para REST API
 resource "aws_api_gateway_authorizer" "cognito_authorizer_rest" {
   name                   = "${var.project_name}-cognito-authorizer-rest-${var.environment}"
@@ -98,7 +114,7 @@ resource "aws_api_gateway_integration" "post_task_lambda_integration" {
   http_method             = aws_api_gateway_method.post_task_method.http_method # Método POST
   integration_http_method = "POST" # Método usado para INVOCAR Lambda (debe ser POST para proxy)
   type                    = "AWS_PROXY"
-  uri                     = aws_lambda_function.image_resizer_function.invoke_arn
+  uri                     = aws_lambda_alias.image_resizer_live.invoke_arn
 }
 
 # Crear Integración Lambda para el método GET
@@ -108,7 +124,17 @@ resource "aws_api_gateway_integration" "get_task_lambda_integration" {
   http_method             = aws_api_gateway_method.get_task_method.http_method # Método GET
   integration_http_method = "POST" # Método usado para INVOCAR Lambda (debe ser POST para proxy)
   type                    = "AWS_PROXY"
-  uri                     = aws_lambda_function.image_resizer_function.invoke_arn
+  uri                     = aws_lambda_alias.image_resizer_live.invoke_arn
+}
+
+# Crear Integración Lambda para el método POST por lotes
+resource "aws_api_gateway_integration" "post_tasks_lambda_integration" {
+  rest_api_id             = aws_api_gateway_rest_api.rest_api.id
+  resource_id             = aws_api_gateway_resource.tasks_resource.id # Recurso '/v1/tasks'
+  http_method             = aws_api_gateway_method.post_tasks_method.http_method
+  integration_http_method = "POST"
+  type                    = "AWS_PROXY"
+  uri                     = aws_lambda_alias.image_resizer_live.invoke_arn
 }
 
 # Crear un Despliegue explícito de la API REST
@@ -121,10 +147,13 @@ resource "aws_api_gateway_deployment" "api_deployment" {
       aws_api_gateway_resource.v1_resource.id,
       aws_api_gateway_resource.task_resource.id,
       aws_api_gateway_resource.task_id_resource.id,
+      aws_api_gateway_resource.tasks_resource.id,
       aws_api_gateway_method.post_task_method.id,
       aws_api_gateway_method.get_task_method.id,
+      aws_api_gateway_method.post_tasks_method.id,
       aws_api_gateway_integration.post_task_lambda_integration.id,
       aws_api_gateway_integration.get_task_lambda_integration.id,
+      aws_api_gateway_integration.post_tasks_lambda_integration.id,
       aws_api_gateway_authorizer.cognito_authorizer_rest.id
       # Añadir aquí cualquier otro recurso cuya modificación deba disparar un nuevo despliegue
     ]))
@@ -166,6 +195,7 @@ resource "aws_lambda_permission" "rest_api_invoke_lambda" {
   statement_id  = "AllowRestApiInvoke"
   action        = "lambda:InvokeFunction"
   function_name = aws_lambda_function.image_resizer_function.function_name
+  qualifier     = aws_lambda_alias.image_resizer_live.name
   principal     = "apigateway.amazonaws.com"
 
   # Source ARN para REST API: arn:aws:execute-api:region:account_id:rest_api_id/*/*/*
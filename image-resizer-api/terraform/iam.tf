@@ -60,7 +60,8 @@ data "aws_iam_policy_document" "lambda_permissions_policy_doc" {
     actions = [
       "dynamodb:PutItem",
       "dynamodb:GetItem",
-      "dynamodb:UpdateItem"
+      "dynamodb:UpdateItem",
+      "dynamodb:BatchWriteItem"
     ]
     # RECURSO ESPECÍFICO: Solo permite acciones sobre la tabla creada
     resources = [aws_dynamodb_table.tasks_table.arn]
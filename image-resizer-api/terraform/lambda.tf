@@ -3,21 +3,38 @@
 resource "aws_lambda_function" "image_resizer_function" {
   function_name = "${var.project_name}-function-${var.environment}"
   role = aws_iam_role.lambda_exec_role.arn
-  filename = "../target/image-resizer-api-0.0.1-SNAPSHOT.jar"
-  handler = "org.springframework.cloud.function.adapter.aws.FunctionInvoker::handleRequest"
-  runtime = "java21"
+  # JVM: mvn package -Plambda | imagen nativa (runtime provided): mvn package -Plambda,native
+  filename = var.native_image ? "../target/image-resizer-api-0.0.1-SNAPSHOT-native-lambda.zip" : "../target/image-resizer-api-0.0.1-SNAPSHOT-lambda.jar"
+  handler  = var.native_image ? "handleApiGatewayRequest" : "org.springframework.cloud.function.adapter.aws.FunctionInvoker::handleRequest"
+  runtime  = var.native_image ? "provided.al2023" : "java21"
 
-  # Asignación de recursos a la función Lambda
-  memory_size = 1024
+  # Asignación de recursos a la función Lambda (el binario nativo no necesita reservar heap para el JIT)
+  memory_size = var.native_image ? 512 : 1024
   timeout     = 60
 
+  # SnapStart: la fase init (arranque de Spring + priming) se ejecuta al publicar la versión y
+  # las invocaciones en frío restauran ese snapshot. Solo aplica a versiones publicadas (ver alias "live")
+  # y solo al runtime java21: la imagen nativa ya arranca en milisegundos
+  publish = true
+  dynamic "snap_start" {
+    for_each = var.native_image ? [] : [1]
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
+
   # Variables de entorno que estarán disponibles para el código Java dentro de Lambda
   environment {
     variables = {
       AWS_S3_BUCKET_NAME      = var.s3_bucket_name
       AWS_DYNAMODB_TABLE_NAME = var.dynamodb_table_name
       CLOUDFRONT_DOMAIN     = aws_cloudfront_distribution.s3_distribution.domain_name
-      MAIN_CLASS              = "com.newsnow.imageapi.ImageResizerApiApplication"
+      # Arranque funcional (sin escaneo de componentes ni autoconfiguración)
+      MAIN_CLASS              = "com.newsnow.imageapi.LambdaApplication"
+      # Imagen nativa: el bucle del custom runtime invoca esta función
+      SPRING_CLOUD_FUNCTION_DEFINITION = "handleApiGatewayRequest"
+      # El priming también hace una lectura a DynamoDB antes del snapshot (carga credenciales y el SDK)
+      IMAGE_RESIZER_PRIMING_AWS_CALLS = "true"
     }
   }
 
@@ -33,6 +50,13 @@ resource "aws_lambda_function" "image_resizer_function" {
   depends_on = [aws_iam_role_policy_attachment.lambda_permissions_attach]
 }
 
+# Alias que apunta siempre a la última versión publicada (la que tiene snapshot de SnapStart)
+resource "aws_lambda_alias" "image_resizer_live" {
+  name             = "live"
+  function_name    = aws_lambda_function.image_resizer_function.function_name
+  function_version = aws_lambda_function.image_resizer_function.version
+}
+
 #Definir Outputs
 output "lambda_function_name" {
   description = "Nombre de la función Lambda."
@@ -44,5 +68,5 @@ output "lambda_function_arn" {
 }
 output "lambda_invoke_arn" {
   description = "ARN para invocar la función Lambda (usado por API Gateway)."
-  value       = aws_lambda_function.image_resizer_function.invoke_arn
+  value       = aws_lambda_alias.image_resizer_live.invoke_arn
 }
\ No newline at end of file
@@ -26,4 +26,9 @@ variable "dynamodb_table_name" {
   description = "Nombre de la tabla DynamoDB para las tareas."
   type        = string
   default     = "ImageTasks"
-}
\ No newline at end of file
+}
+variable "native_image" {
+  description = "Despliega el binario nativo de GraalVM (runtime provided.al2023, mvn package -Plambda,native) en lugar del JAR para java21."
+  type        = bool
+  default     = false
+}